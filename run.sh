@@ -8,6 +8,12 @@ DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )"  >/dev/null 2>&1 &&  pwd )" || {
 
 if [ "$1" == "" ]; then
 echo "Usage: run.sh jar_file_path [args]"
+echo ""
+echo "Environment:"
+echo "  JAVA                 the java executable (default: java)."
+echo "  APPCDS_ARCHIVE       an AppCDS archive dumped from jar_file_path by the same java, e.g."
+echo "                       target/hello-world.jsa from 'mvn -P appcds verify'. It is used if it exists."
+echo "  BOOTSTRAP_LOG_LEVEL  the log level before the logging configuration is read (default: WARN)."
   exit 1
 fi
 
@@ -18,11 +24,28 @@ config_file="${DIR}/hello-world.yml"
 
 set -e
 
+JAVA="${JAVA:-java}"
+
+# java.xml.bind is a module in Java 9 and 10 only; it was removed in Java 11.
 ADD_MODULES=""
-if [ "$(java -version 2>&1 | head -1 | grep '\"1\.[78].\+\"')" = "" ]; then
+if [ "$("${JAVA}" --list-modules 2>/dev/null | grep '^java\.xml\.bind@')" != "" ]; then
   ADD_MODULES="--add-modules=java.xml.bind"
 fi
 
+# Map the application classes from the AppCDS archive, if there is one. With -Xshare:auto the JVM loads the
+# classes from the jar as usual if the archive cannot be used, e.g. because it was dumped by another JVM.
+SHARE_ARGS=""
+if [ -n "${APPCDS_ARCHIVE}" ]; then
+  if [ -f "${APPCDS_ARCHIVE}" ]; then
+    SHARE_ARGS="-Xshare:auto -XX:SharedArchiveFile=${APPCDS_ARCHIVE}"
+    echo "INFO: Using the AppCDS archive ${APPCDS_ARCHIVE}."
+  else
+    echo "WARNING: The AppCDS archive ${APPCDS_ARCHIVE} does not exist; the classes will be loaded from ${jar_file}."
+  fi
+fi
+
+BOOTSTRAP_ARGS="-Dhelloworld.bootstrapLogLevel=${BOOTSTRAP_LOG_LEVEL:-WARN}"
+
 container_name="jaegertracing/all-in-one"
 container_version="1.11"
 container="${container_name}:${container_version}"
@@ -53,7 +76,7 @@ export JAEGER_ENDPOINT=http://${JAEGER_AGENT_HOST}:14268/api/traces
 
 echo "INFO: The Jaeger endpoint is ${JAEGER_ENDPOINT}."
 
-java $ADD_MODULES -jar "${jar_file}" server "${config_file}" || {
+"${JAVA}" $ADD_MODULES $SHARE_ARGS $BOOTSTRAP_ARGS -jar "${jar_file}" server "${config_file}" || {
 	echo "ERROR: ${jar_file} failed."
 	exit 1
 }
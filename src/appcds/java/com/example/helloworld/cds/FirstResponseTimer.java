@@ -0,0 +1,205 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.cds;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.jaegertracing.Configuration;
+
+/**
+ * Measures the time from launching the service to its first successful {@code /hello-world} response, with and
+ * without the AppCDS archive.
+ *
+ * <p>Each run starts the shaded jar in a new JVM and polls the greeting URL until it answers {@code 200 OK}, then
+ * kills the JVM. The runs alternate between the two launches so that a change in the machine's load affects both
+ * equally. The JVM that uses the archive is started with {@code -Xshare:on}, so a run fails rather than silently
+ * measuring a JVM that could not map the archive.</p>
+ *
+ * <p>The arguments are the {@code java} executable, the shaded jar, the archive, the configuration file and the
+ * number of runs of each launch. As in the {@link TrainingRun}, spans go to the default agent port on this host if no
+ * Jaeger agent is configured. The service's console output is appended to {@code helloworld.cds.log}. It is run by
+ * the {@code appcds} profile, after the {@link TrainingRun}.</p>
+ */
+public final class FirstResponseTimer {
+
+    /**
+     * The URL polled if {@code helloworld.cds.url} is not set.
+     */
+    private static final String DEFAULT_URL = "http://localhost:8080/v1/hello-world";
+
+    /**
+     * The file the service's console output is appended to if {@code helloworld.cds.log} is not set.
+     */
+    private static final String DEFAULT_LOG = "target/appcds-first-response.log";
+
+    /**
+     * How long to wait for a first response before giving up.
+     */
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    /**
+     * How long to wait between polls.
+     */
+    private static final long POLL_MILLIS = 5;
+
+    /**
+     * Time the launches and print the report.
+     * @param args
+     *          The {@code java} executable, the jar, the archive, the configuration file and the number of runs.
+     * @throws Exception
+     *          If the service cannot be launched, or doesn't answer in time.
+     */
+    public static void main(final String[] args) throws Exception {
+        if (args.length < 3) {
+            throw new IllegalArgumentException(
+                            "Usage: FirstResponseTimer <java> <jar> <archive> [<configuration file>] [<runs>]");
+        }
+        final String java = args[0];
+        final String jar = args[1];
+        final String archive = args[2];
+        final String configuration = args.length > 3 ? args[3] : "hello-world.yml";
+        final int runs = args.length > 4 ? Integer.parseInt(args[4]) : 5;
+
+        final URL url = new URL(System.getProperty("helloworld.cds.url", DEFAULT_URL));
+        final File log = new File(System.getProperty("helloworld.cds.log", DEFAULT_LOG));
+
+        final List<String> withoutArchive = Arrays.asList(java, "-jar", jar, "server", configuration);
+        final List<String> withArchive = Arrays.asList(java,
+                                                       "-Xshare:on",
+                                                       "-XX:SharedArchiveFile=" + archive,
+                                                       "-jar",
+                                                       jar,
+                                                       "server",
+                                                       configuration);
+
+        final List<Long> without = new ArrayList<>();
+        final List<Long> with = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            without.add(timeFirstResponse(withoutArchive, url, log));
+            with.add(timeFirstResponse(withArchive, url, log));
+        }
+
+        System.out.printf("%nTime to first %s response, %d runs each (ms)%n", url, runs);
+        System.out.printf("%-18s %8s %8s %8s%n", "", "min", "median", "max");
+        print("without archive", without);
+        print("with archive", with);
+        System.out.printf("%-18s %7.1f%%%n", "median saving", 100.0 * (1.0 - (double) median(with) / median(without)));
+    }
+
+    /**
+     * Launch the service and time its first successful response.
+     * @param command
+     *          The command that launches the service.
+     * @param url
+     *          The URL to poll.
+     * @param log
+     *          The file to append the service's console output to.
+     * @return
+     *          The time from launching the JVM to the first {@code 200 OK}, in milliseconds.
+     * @throws IOException
+     *          If the service cannot be launched.
+     * @throws InterruptedException
+     *          If interrupted while waiting for the service.
+     * @throws IllegalStateException
+     *          If the service exits, or doesn't answer within the timeout.
+     */
+    private static long timeFirstResponse(final List<String> command,
+                                          final URL url,
+                                          final File log) throws IOException, InterruptedException {
+        final ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.appendTo(log));
+        final Map<String, String> environment = builder.environment();
+        environment.putIfAbsent(Configuration.JAEGER_AGENT_HOST, "localhost");
+        environment.putIfAbsent(Configuration.JAEGER_AGENT_PORT, "6831");
+
+        final long start = System.nanoTime();
+        final Process process = builder.start();
+        try {
+            while (!isAnswering(url)) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(String.join(" ", command) + " exited with status " +
+                                                    process.exitValue() + ". See " + log + ".");
+                }
+                if (System.nanoTime() - start > TIMEOUT_NANOS) {
+                    throw new IllegalStateException(url + " did not answer within " +
+                                                    TimeUnit.NANOSECONDS.toSeconds(TIMEOUT_NANOS) + " s.");
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    /**
+     * Send a request.
+     * @param url
+     *          The URL.
+     * @return
+     *          {@code true} if the response is {@code 200 OK}, {@code false} if not or if the service is not yet
+     *          accepting connections.
+     */
+    private static boolean isAnswering(final URL url) {
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestProperty("Connection", "close");
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                return false;
+            }
+            try (InputStream in = connection.getInputStream()) {
+                while (in.read() != -1) {
+                    // Discard the body.
+                }
+            }
+            return true;
+        }
+        catch (@SuppressWarnings("unused") final IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Print a row of the report.
+     * @param label
+     *          The launch.
+     * @param millis
+     *          The times of its runs.
+     */
+    private static void print(final String label, final List<Long> millis) {
+        System.out.printf("%-18s %8d %8d %8d%n", label, Collections.min(millis), median(millis),
+                          Collections.max(millis));
+    }
+
+    /**
+     * @param millis
+     *          The times.
+     * @return
+     *          The median time.
+     */
+    private static long median(final List<Long> millis) {
+        final List<Long> sorted = new ArrayList<>(millis);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    /**
+     * Cannot instantiate.
+     */
+    private FirstResponseTimer() {
+        super();
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.cds;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import com.example.helloworld.HelloWorldApplication;
+import com.example.helloworld.resources.HelloWorldResource;
+
+import io.jaegertracing.Configuration;
+
+/**
+ * The training run for the application class data sharing (AppCDS) archive.
+ *
+ * <p>The JVM that runs this class is started with {@code -XX:DumpLoadedClassList}, so it records every class it
+ * loads. It starts the service from a configuration file, then sends each kind of request the service answers -
+ * greetings with and without a name, both batch formats, the health checks and the metrics - so that the classes
+ * loaded by the first requests are in the list as well as the ones loaded at startup. The list is then dumped into
+ * an archive with {@code -Xshare:dump}, which later JVMs map instead of loading and verifying the same classes from
+ * the jar.</p>
+ *
+ * <p>The argument is the configuration file, {@code hello-world.yml} by default. The service is requested at
+ * {@code helloworld.training.url}, and each kind of request is sent {@code helloworld.training.requests} times. The
+ * process exits with status 1 if a request fails, because an archive trained on an error path is not the one
+ * wanted. If no Jaeger agent is configured, spans are sent to the default agent port on this host, where they are
+ * dropped if no agent is listening. It is run by the {@code appcds} profile.</p>
+ *
+ * @see FirstResponseTimer
+ */
+public final class TrainingRun {
+
+    /**
+     * The service's URL if {@code helloworld.training.url} is not set.
+     */
+    private static final String DEFAULT_URL = "http://localhost:8080";
+
+    /**
+     * The number of each kind of request if {@code helloworld.training.requests} is not set. This is enough for
+     * every lazily created path (the greeting cache, the span reporter's batches) to have been taken.
+     */
+    private static final int DEFAULT_REQUESTS = 200;
+
+    /**
+     * Run the service and send it the training requests.
+     * @param args
+     *          The configuration file.
+     */
+    public static void main(final String[] args) {
+        final String configuration = args.length > 0 ? args[0] : "hello-world.yml";
+        final String url = System.getProperty("helloworld.training.url", DEFAULT_URL);
+        final int requests = Integer.getInteger("helloworld.training.requests", DEFAULT_REQUESTS);
+
+        defaultProperty(Configuration.JAEGER_AGENT_HOST, "localhost");
+        defaultProperty(Configuration.JAEGER_AGENT_PORT, "6831");
+
+        int status = 0;
+        try {
+            new HelloWorldApplication().run("server", configuration);
+            for (int i = 0; i < requests; i++) {
+                get(url + "/v1/hello-world");
+                get(url + "/v1/hello-world?name=Training");
+                post(url + "/v1/hello-world/batch", "application/json", "[\"Training\",null]");
+                post(url + "/v1/hello-world/batch", HelloWorldResource.APPLICATION_NDJSON, "Training\nRun\n");
+            }
+            get(url + "/admin/healthcheck");
+            get(url + "/admin/metrics");
+            System.err.println("Trained with " + requests + " of each request.");
+        }
+        catch (final Exception e) {
+            System.err.println("The training run failed. " + e.getMessage());
+            e.printStackTrace(System.err);
+            status = 1;
+        }
+
+        // The server's threads are not daemons, so the JVM has to be told to exit.
+        System.exit(status);
+    }
+
+    /**
+     * Set a system property, unless it or the environment variable of the same name is already set.
+     * @param name
+     *          The name of the property.
+     * @param value
+     *          The value to set.
+     */
+    private static void defaultProperty(final String name, final String value) {
+        if (System.getProperty(name, System.getenv(name)) == null) {
+            System.setProperty(name, value);
+        }
+    }
+
+    /**
+     * Send a {@code GET} request.
+     * @param url
+     *          The URL.
+     * @throws IOException
+     *          If the request fails or the response is not {@code 200 OK}.
+     */
+    private static void get(final String url) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        complete(connection);
+    }
+
+    /**
+     * Send a {@code POST} request.
+     * @param url
+     *          The URL.
+     * @param contentType
+     *          The media type of the body.
+     * @param body
+     *          The body.
+     * @throws IOException
+     *          If the request fails or the response is not {@code 200 OK}.
+     */
+    private static void post(final String url, final String contentType, final String body) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", contentType);
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        complete(connection);
+    }
+
+    /**
+     * Read a response to the end, so the connection is kept alive, and check its status.
+     * @param connection
+     *          The connection the request was sent on.
+     * @throws IOException
+     *          If the response cannot be read or is not {@code 200 OK}.
+     */
+    private static void complete(final HttpURLConnection connection) throws IOException {
+        final int status = connection.getResponseCode();
+        if (status != HttpURLConnection.HTTP_OK) {
+            throw new IOException(connection.getRequestMethod() + " " + connection.getURL() + " returned " + status +
+                                  ".");
+        }
+        try (InputStream in = connection.getInputStream()) {
+            final byte[] buffer = new byte[4096];
+            while (in.read(buffer) != -1) {
+                // Discard the body.
+            }
+        }
+    }
+
+    /**
+     * Cannot instantiate.
+     */
+    private TrainingRun() {
+        super();
+    }
+}
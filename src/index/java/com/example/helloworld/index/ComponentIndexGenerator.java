@@ -0,0 +1,160 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.index;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import ru.vyarus.dropwizard.guice.module.installer.CoreInstallersBundle;
+import ru.vyarus.dropwizard.guice.module.installer.FeatureInstaller;
+import ru.vyarus.dropwizard.guice.module.installer.feature.LifeCycleInstaller;
+import ru.vyarus.dropwizard.guice.module.installer.feature.ManagedInstaller;
+import ru.vyarus.dropwizard.guice.module.installer.feature.TaskInstaller;
+import ru.vyarus.dropwizard.guice.module.installer.feature.eager.EagerSingletonInstaller;
+import ru.vyarus.dropwizard.guice.module.installer.feature.health.HealthCheckInstaller;
+import ru.vyarus.dropwizard.guice.module.installer.feature.jersey.JerseyFeatureInstaller;
+import ru.vyarus.dropwizard.guice.module.installer.feature.jersey.ResourceInstaller;
+import ru.vyarus.dropwizard.guice.module.installer.feature.jersey.provider.JerseyProviderInstaller;
+import ru.vyarus.dropwizard.guice.module.installer.feature.plugin.PluginInstaller;
+import ru.vyarus.dropwizard.guice.module.installer.scanner.ClasspathScanner;
+
+/**
+ * Writes the {@link ComponentIndex} when the application is built.
+ *
+ * <p>This runs Guicey's own class path scanner over the application package, and keeps each class that one of
+ * Guicey's installers would install, exactly as auto-configuration does at startup. The installers are the ones the
+ * {@link CoreInstallersBundle} registers, which are the only ones the application uses: the web installers are not
+ * enabled, so {@code @WebListener} classes are not extensions.</p>
+ *
+ * <p>The arguments are the class output directory and the packages to scan. It is run by the
+ * {@code exec-maven-plugin} in the {@code process-test-classes} phase, with the test class path, because it is
+ * compiled with the test sources so that it isn't packaged. Only the classes in the output directory are indexed, so
+ * the test classes in the same packages are not.</p>
+ */
+public final class ComponentIndexGenerator {
+
+    /**
+     * The installers registered by the {@link CoreInstallersBundle}, in the same order.
+     */
+    private static final List<Class<? extends FeatureInstaller<?>>> INSTALLERS =
+                    Arrays.asList(LifeCycleInstaller.class,
+                                  ManagedInstaller.class,
+                                  JerseyFeatureInstaller.class,
+                                  JerseyProviderInstaller.class,
+                                  ResourceInstaller.class,
+                                  EagerSingletonInstaller.class,
+                                  HealthCheckInstaller.class,
+                                  TaskInstaller.class,
+                                  PluginInstaller.class);
+
+    /**
+     * Generate the index.
+     * @param args
+     *          The class output directory, followed by the packages to scan.
+     * @throws IOException
+     *          If the index cannot be written.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: ComponentIndexGenerator <output directory> <package>...");
+        }
+
+        final List<FeatureInstaller<?>> installers = createInstallers();
+
+        final List<String> packages = Arrays.asList(args).subList(1, args.length);
+
+        final Path output = Paths.get(args[0]);
+        final List<String> components = new ArrayList<>();
+        final ClasspathScanner scanner = new ClasspathScanner(new LinkedHashSet<>(packages));
+        scanner.scan(type -> {
+            if (isIn(type, output) && installers.stream().anyMatch(installer -> installer.matches(type))) {
+                components.add(type.getName());
+            }
+        });
+
+        final Path index = output.resolve(ComponentIndex.RESOURCE);
+        Files.createDirectories(index.getParent());
+        try (Writer writer = Files.newBufferedWriter(index, StandardCharsets.UTF_8)) {
+            writer.write("# Guicey extensions in " + String.join(", ", packages) + ", generated by " +
+                         ComponentIndexGenerator.class.getSimpleName() + ".\n");
+            for (final String component : components) {
+                writer.write(component);
+                writer.write('\n');
+            }
+        }
+        System.out.println("Indexed " + components.size() + " components in " + index + ".");
+    }
+
+    /**
+     * Check whether a class was loaded from a directory.
+     * @param type
+     *          The class.
+     * @param directory
+     *          The directory.
+     * @return
+     *          {@code true} if the class was loaded from the directory.
+     * @throws IllegalStateException
+     *          If the class's location is not a valid path.
+     */
+    private static boolean isIn(final Class<?> type, final Path directory) {
+        final CodeSource source = type.getProtectionDomain().getCodeSource();
+        if (source == null) {
+            return false;
+        }
+        try {
+            return Paths.get(source.getLocation().toURI()).equals(directory.toAbsolutePath());
+        }
+        catch (final URISyntaxException e) {
+            throw new IllegalStateException("Cannot find where " + type.getName() + " was loaded from.", e);
+        }
+    }
+
+    /**
+     * Create Guicey's installers.
+     * @return
+     *          An instance of each installer.
+     */
+    private static List<FeatureInstaller<?>> createInstallers() {
+        final List<FeatureInstaller<?>> installers = new ArrayList<>();
+        for (final Class<? extends FeatureInstaller<?>> type : INSTALLERS) {
+            installers.add(newInstaller(type));
+        }
+        return installers;
+    }
+
+    /**
+     * Create an installer.
+     * @param type
+     *          The installer class.
+     * @return
+     *          The installer.
+     * @throws IllegalStateException
+     *          If the installer cannot be created.
+     */
+    private static FeatureInstaller<?> newInstaller(final Class<? extends FeatureInstaller<?>> type) {
+        try {
+            return type.getConstructor().newInstance();
+        }
+        catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create the Guicey installer " + type.getName() + ".", e);
+        }
+    }
+
+    /**
+     * Cannot instantiate.
+     */
+    private ComponentIndexGenerator() {
+        super();
+    }
+}
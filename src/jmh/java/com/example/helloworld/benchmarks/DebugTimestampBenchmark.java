@@ -0,0 +1,58 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.benchmarks;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.helloworld.lib.Debug;
+
+/**
+ * Creates the timestamp for a debug message with {@link Debug#timestamp()}, which reuses the formatted timestamp
+ * within a millisecond, and by formatting the current time every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class DebugTimestampBenchmark {
+
+    /**
+     * The timestamp format {@link Debug} uses.
+     */
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+    /**
+     * @return
+     *          The cached timestamp.
+     */
+    @Benchmark
+    public String timestamp() {
+        return Debug.timestamp();
+    }
+
+    /**
+     * @return
+     *          A newly formatted timestamp.
+     */
+    @Benchmark
+    public String formatEveryCall() {
+        return FORMAT.format(LocalDateTime.now());
+    }
+}
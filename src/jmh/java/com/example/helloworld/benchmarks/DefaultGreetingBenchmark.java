@@ -0,0 +1,126 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codahale.metrics.MetricRegistry;
+import com.example.helloworld.cache.GreetingCache;
+import com.example.helloworld.cache.GreetingCacheConfiguration;
+import com.example.helloworld.core.GreetingTemplate;
+import com.example.helloworld.core.PrerenderedGreeting;
+import com.example.helloworld.core.Saying;
+import com.example.helloworld.core.SayingJson;
+
+/**
+ * Writes the default greeting as JSON the two ways {@code sayHello} can: {@code normal} gets the rendered greeting
+ * from the {@link GreetingCache} and encodes a new {@link Saying}, and {@code prerendered} writes the id into the
+ * {@link PrerenderedGreeting}'s bytes. Every operation has a new id. The setup checks that both write the same bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefaultGreetingBenchmark {
+
+    /**
+     * The template, as configured in {@code hello-world.yml}.
+     */
+    private static final String TEMPLATE = "Hello, %s!";
+
+    /**
+     * The default name: plain ASCII, or one that needs escaping and UTF-8 encoding.
+     */
+    @Param({"Stranger", "\"Señor\" Stranger"})
+    public String defaultName;
+
+    /**
+     * The compiled template.
+     */
+    private GreetingTemplate template;
+
+    /**
+     * The cache of rendered greetings.
+     */
+    private GreetingCache cache;
+
+    /**
+     * The default greeting, prerendered.
+     */
+    private PrerenderedGreeting prerendered;
+
+    /**
+     * The stream the greetings are written to.
+     */
+    private final ByteArrayOutputStream stream = new ByteArrayOutputStream(256);
+
+    /**
+     * The next id.
+     */
+    private long id = 1_000_000;
+
+    /**
+     * Compile the template, warm the cache and prerender the greeting.
+     * @throws IOException
+     *          If a greeting cannot be written.
+     * @throws IllegalStateException
+     *          If the two ways don't write the same bytes.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        template = GreetingTemplate.compile(TEMPLATE);
+        cache = new GreetingCache(new GreetingCacheConfiguration(), new MetricRegistry());
+        prerendered = new PrerenderedGreeting(cache.render(template, defaultName).getContent());
+
+        for (final long sample : new long[] { 0, 7, 1_000_000, Long.MAX_VALUE }) {
+            final byte[] expected = SayingJson.toBytes(new Saying(sample, template.render(defaultName)));
+            final byte[] actual = SayingJson.toBytes(prerendered.withId(sample));
+            if (!Arrays.equals(expected, actual)) {
+                throw new IllegalStateException("The prerendered greeting is not byte-identical for id " + sample +
+                                                ".");
+            }
+        }
+    }
+
+    /**
+     * @return
+     *          The number of bytes written.
+     * @throws IOException
+     *          Not thrown: the stream is in memory.
+     */
+    @Benchmark
+    public int normal() throws IOException {
+        stream.reset();
+        return SayingJson.write(new Saying(id++, cache.render(template, defaultName).getContent()), stream);
+    }
+
+    /**
+     * @return
+     *          The number of bytes written.
+     * @throws IOException
+     *          Not thrown: the stream is in memory.
+     */
+    @Benchmark
+    public int prerendered() throws IOException {
+        stream.reset();
+        return SayingJson.write(prerendered.withId(id++), stream);
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codahale.metrics.MetricRegistry;
+import com.example.helloworld.cache.GreetingCache;
+import com.example.helloworld.cache.GreetingCacheConfiguration;
+import com.example.helloworld.cache.RenderedGreeting;
+import com.example.helloworld.core.GreetingTemplate;
+
+import io.dropwizard.jackson.Jackson;
+
+/**
+ * Renders the greeting the ways {@code sayHello} has done it: {@link String#format(String, Object...)} for every
+ * request, the precompiled {@link GreetingTemplate}, and the {@link GreetingCache} that serves repeated names. With
+ * the cache disabled, {@code uncached} is the cost of rendering through the cache's single-flight coalescing on one
+ * thread, which should be close to {@code render}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GreetingTemplateBenchmark {
+
+    /**
+     * The template, as configured in {@code hello-world.yml}.
+     */
+    private static final String TEMPLATE = "Hello, %s!";
+
+    /**
+     * The name to greet.
+     */
+    @Param({"Stranger", "Bartholomew Montgomery-Smythe"})
+    public String name;
+
+    /**
+     * The compiled template.
+     */
+    private GreetingTemplate template;
+
+    /**
+     * The cache of rendered greetings.
+     */
+    private GreetingCache cache;
+
+    /**
+     * A disabled cache, which renders every greeting.
+     */
+    private GreetingCache disabledCache;
+
+    /**
+     * Compile the template and warm the cache.
+     * @throws IOException
+     *          If the disabled cache's configuration cannot be read.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        template = GreetingTemplate.compile(TEMPLATE);
+        cache = new GreetingCache(new GreetingCacheConfiguration(), new MetricRegistry());
+        cache.render(template, name);
+
+        final GreetingCacheConfiguration disabled =
+                        Jackson.newObjectMapper().readValue("{\"maximumSize\":0}", GreetingCacheConfiguration.class);
+        disabledCache = new GreetingCache(disabled, new MetricRegistry());
+    }
+
+    /**
+     * @return
+     *          The greeting, formatted as the original resource did.
+     */
+    @Benchmark
+    public String format() {
+        return String.format(TEMPLATE, name);
+    }
+
+    /**
+     * @return
+     *          The greeting, rendered from the compiled template.
+     */
+    @Benchmark
+    public String render() {
+        return template.render(name);
+    }
+
+    /**
+     * @return
+     *          The greeting and its entity tag, from the cache.
+     */
+    @Benchmark
+    public RenderedGreeting cached() {
+        return cache.render(template, name);
+    }
+
+    /**
+     * @return
+     *          The greeting, rendered by the disabled cache.
+     */
+    @Benchmark
+    public RenderedGreeting uncached() {
+        return disabledCache.render(template, name);
+    }
+}
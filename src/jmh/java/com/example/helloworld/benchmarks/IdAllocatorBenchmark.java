@@ -0,0 +1,117 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.helloworld.ids.AtomicIdAllocator;
+import com.example.helloworld.ids.IdAllocator;
+import com.example.helloworld.ids.StripedIdAllocator;
+
+/**
+ * Allocates greeting ids from many threads at once.
+ *
+ * <p>{@code atomicLong} is the bare {@link AtomicLong} the resource used to increment, {@code atomic} is the
+ * {@link AtomicIdAllocator} that wraps it, and {@code striped} is the {@link StripedIdAllocator} with the default
+ * stripes and block size. Each nested class runs the same benchmark with a different number of threads.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class IdAllocatorBenchmark {
+
+    /**
+     * The counter to contend on.
+     */
+    @Param({"atomicLong", "atomic", "striped"})
+    public String counter;
+
+    /**
+     * The bare counter.
+     */
+    private final AtomicLong atomicLong = new AtomicLong();
+
+    /**
+     * The id allocator, or {@code null} for the bare counter.
+     */
+    private IdAllocator allocator;
+
+    /**
+     * Create the id allocator.
+     */
+    @Setup
+    public void setUp() {
+        switch (counter) {
+            case "atomic":
+                allocator = new AtomicIdAllocator();
+                break;
+
+            case "striped":
+                allocator = new StripedIdAllocator(2 * Runtime.getRuntime().availableProcessors(), 64);
+                break;
+
+            default:
+                allocator = null;
+                break;
+        }
+    }
+
+    /**
+     * @return
+     *          The next id.
+     */
+    @Benchmark
+    public long next() {
+        return allocator == null ? atomicLong.incrementAndGet() : allocator.next();
+    }
+
+    /**
+     * One thread.
+     */
+    @Threads(1)
+    public static class Threads1 extends IdAllocatorBenchmark {
+        // The benchmark is inherited.
+    }
+
+    /**
+     * Eight threads.
+     */
+    @Threads(8)
+    public static class Threads8 extends IdAllocatorBenchmark {
+        // The benchmark is inherited.
+    }
+
+    /**
+     * 32 threads.
+     */
+    @Threads(32)
+    public static class Threads32 extends IdAllocatorBenchmark {
+        // The benchmark is inherited.
+    }
+
+    /**
+     * 128 threads.
+     */
+    @Threads(128)
+    public static class Threads128 extends IdAllocatorBenchmark {
+        // The benchmark is inherited.
+    }
+}
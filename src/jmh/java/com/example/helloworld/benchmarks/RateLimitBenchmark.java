@@ -0,0 +1,176 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codahale.metrics.Meter;
+import com.example.helloworld.ratelimit.MethodRateLimit;
+import com.example.helloworld.ratelimit.RateLimitConfiguration;
+import com.example.helloworld.ratelimit.RateLimitFilter;
+
+import io.dropwizard.jackson.Jackson;
+
+/**
+ * Filters requests through one {@link RateLimitFilter} from many threads at once.
+ *
+ * <p>The clients are identified by a header, so no servlet request is needed. With {@code clients} set to 1 every
+ * thread takes tokens from the same bucket, which is the worst contention; with 1024 the threads are spread over the
+ * stripes and mostly touch different buckets. A {@code limit} of {@code open} never runs out of tokens, so it measures
+ * the allowed path; {@code tight} allows each client 1000 requests a second, so with one client almost every request
+ * takes the rejected path and builds a {@code 429} response. Each nested class runs the same benchmark with a different
+ * number of threads.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class RateLimitBenchmark {
+
+    /**
+     * The header that identifies the client.
+     */
+    private static final String CLIENT_HEADER = "X-Client-Id";
+
+    /**
+     * The limit: {@code open} or {@code tight}.
+     */
+    @Param({"open", "tight"})
+    public String limit;
+
+    /**
+     * The filter, shared by every thread.
+     */
+    private RateLimitFilter filter;
+
+    /**
+     * Create the filter.
+     * @throws IOException
+     *          If the configuration cannot be read.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        final String permits = "open".equals(limit) ? "1e12" : "1000";
+        final RateLimitConfiguration configuration =
+                        Jackson.newObjectMapper().readValue("{\"clientHeader\":\"" + CLIENT_HEADER + "\"}",
+                                                            RateLimitConfiguration.class);
+        final MethodRateLimit methodLimit =
+                        Jackson.newObjectMapper().readValue("{\"permitsPerSecond\":" + permits + ",\"burst\":1000}",
+                                                            MethodRateLimit.class);
+        filter = new RateLimitFilter(configuration, methodLimit, new Meter());
+    }
+
+    /**
+     * Filter the thread's next request.
+     * @param requests
+     *          The thread's requests.
+     * @return
+     *          The request, which has a response if it was rejected.
+     */
+    @Benchmark
+    public ContainerRequest filter(final Requests requests) {
+        final ContainerRequest request = requests.next();
+        filter.filter(request);
+        return request;
+    }
+
+    /**
+     * A thread's requests, one for each client, starting at a different client in each thread.
+     */
+    @State(Scope.Thread)
+    public static class Requests {
+
+        /**
+         * The number of distinct clients.
+         */
+        @Param({"1", "1024"})
+        public int clients;
+
+        /**
+         * The requests.
+         */
+        private ContainerRequest[] requests;
+
+        /**
+         * The index of the next request.
+         */
+        private int next;
+
+        /**
+         * Create the requests.
+         */
+        @Setup
+        public void setUp() {
+            final URI base = URI.create("http://localhost:8080/v1/");
+            final URI uri = base.resolve("hello-world");
+            requests = new ContainerRequest[clients];
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = new ContainerRequest(base, uri, "GET", null, new MapPropertiesDelegate());
+                requests[i].header(CLIENT_HEADER, "client-" + i);
+            }
+            next = (int) (Thread.currentThread().getId() % requests.length);
+        }
+
+        /**
+         * @return
+         *          The next request.
+         */
+        ContainerRequest next() {
+            final ContainerRequest request = requests[next];
+            next = next + 1 == requests.length ? 0 : next + 1;
+            return request;
+        }
+    }
+
+    /**
+     * One thread.
+     */
+    @Threads(1)
+    public static class Threads1 extends RateLimitBenchmark {
+        // The benchmark is inherited.
+    }
+
+    /**
+     * 16 threads.
+     */
+    @Threads(16)
+    public static class Threads16 extends RateLimitBenchmark {
+        // The benchmark is inherited.
+    }
+
+    /**
+     * 64 threads.
+     */
+    @Threads(64)
+    public static class Threads64 extends RateLimitBenchmark {
+        // The benchmark is inherited.
+    }
+
+    /**
+     * 256 threads.
+     */
+    @Threads(256)
+    public static class Threads256 extends RateLimitBenchmark {
+        // The benchmark is inherited.
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.benchmarks;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.helloworld.core.Saying;
+import com.example.helloworld.core.SayingFormat;
+
+/**
+ * Encodes and decodes a {@link Saying} in each {@link SayingFormat}.
+ *
+ * <p>JMH measures time, not size, so the size of the encoded saying is printed when each trial is set up, e.g.
+ * {@code Encoded size of protobuf, ascii: 20 bytes}. JSON is decoded with Jackson's streaming parser, as the binary
+ * formats are; that is what a client that reads the greeting field by field pays.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SayingFormatBenchmark {
+
+    /**
+     * The format: {@code json}, {@code smile}, {@code cbor} or {@code protobuf}.
+     */
+    @Param({"json", "smile", "cbor", "protobuf"})
+    public String format;
+
+    /**
+     * The kind of content: {@code ascii} needs no escaping, {@code escaped} has quotes and non-ASCII characters.
+     */
+    @Param({"ascii", "escaped"})
+    public String content;
+
+    /**
+     * The format being measured.
+     */
+    private SayingFormat sayingFormat;
+
+    /**
+     * The saying to encode.
+     */
+    private Saying saying;
+
+    /**
+     * The encoded saying, to decode.
+     */
+    private byte[] encoded;
+
+    /**
+     * Create and encode the saying, and print its encoded size.
+     * @throws IOException
+     *          If the encoded saying cannot be decoded again.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        sayingFormat = SayingFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        saying = new Saying(1_234_567L, "ascii".equals(content) ? "Hello, Stranger!" : "Hello, \"Zo\u00eb\"!");
+        encoded = sayingFormat.toBytes(saying);
+
+        final Saying decoded = sayingFormat.read(encoded);
+        if (decoded.getId() != saying.getId() || !decoded.getContent().equals(saying.getContent())) {
+            throw new IllegalStateException(format + " does not decode to the saying that was encoded.");
+        }
+        System.out.printf("%nEncoded size of %s, %s: %d bytes%n", format, content, Integer.valueOf(encoded.length));
+    }
+
+    /**
+     * @return
+     *          The encoded saying.
+     */
+    @Benchmark
+    public byte[] encode() {
+        return sayingFormat.toBytes(saying);
+    }
+
+    /**
+     * @return
+     *          The decoded saying.
+     * @throws IOException
+     *          Never.
+     */
+    @Benchmark
+    public Saying decode() throws IOException {
+        return sayingFormat.read(encoded);
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.helloworld.core.Saying;
+import com.example.helloworld.core.SayingJson;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.dropwizard.jackson.Jackson;
+
+/**
+ * Writes a {@link Saying} as JSON with {@link SayingJson} and with Dropwizard's Jackson {@link ObjectMapper}, which
+ * is what the JSON provider used before {@code SayingMessageBodyWriter} replaced it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SayingJsonBenchmark {
+
+    /**
+     * The kind of content: {@code ascii} needs no escaping, {@code escaped} has quotes and non-ASCII characters. The
+     * parameter values are kept plain because JMH writes them to the JSON results without escaping them.
+     */
+    @Param({"ascii", "escaped"})
+    public String content;
+
+    /**
+     * The saying to write.
+     */
+    private Saying saying;
+
+    /**
+     * Dropwizard's object mapper.
+     */
+    private ObjectMapper mapper;
+
+    /**
+     * A stream that discards what is written to it, so only the encoding is measured.
+     */
+    private OutputStream stream;
+
+    /**
+     * Create the saying and the object mapper.
+     * @param blackhole
+     *          Consumes the bytes written to the stream.
+     */
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        saying = new Saying(1_234_567L, "ascii".equals(content) ? "Hello, Stranger!" : "Hello, \"Zo\u00eb\"!");
+        mapper = Jackson.newObjectMapper();
+        stream = new OutputStream() {
+            @Override
+            public void write(final int b) {
+                blackhole.consume(b);
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) {
+                blackhole.consume(b);
+            }
+        };
+    }
+
+    /**
+     * Write the saying with {@link SayingJson}.
+     * @throws IOException
+     *          Never.
+     */
+    @Benchmark
+    public void sayingJson() throws IOException {
+        SayingJson.write(saying, stream);
+    }
+
+    /**
+     * Write the saying with Jackson.
+     * @throws IOException
+     *          Never.
+     */
+    @Benchmark
+    public void jackson() throws IOException {
+        mapper.writeValue(stream, saying);
+    }
+
+    /**
+     * @return
+     *          The saying as JSON bytes, from {@link SayingJson}.
+     */
+    @Benchmark
+    public byte[] sayingJsonBytes() {
+        return SayingJson.toBytes(saying);
+    }
+
+    /**
+     * @return
+     *          The saying as JSON bytes, from Jackson.
+     * @throws IOException
+     *          Never.
+     */
+    @Benchmark
+    public byte[] jacksonBytes() throws IOException {
+        return mapper.writeValueAsBytes(saying);
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.glassfish.jersey.internal.util.collection.StringKeyIgnoreCaseMultivaluedMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codahale.metrics.MetricRegistry;
+import com.example.helloworld.tracing.Tracing;
+import com.example.helloworld.tracing.TracingConfiguration;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import io.dropwizard.jackson.Jackson;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.propagation.Format;
+import io.opentracing.propagation.TextMapAdapter;
+
+/**
+ * Starts and finishes a server span for a request with a realistic set of headers.
+ *
+ * <p>The {@code headers} parameter is the trace context the request carries: none, Jaeger's {@code uber-trace-id}
+ * with two baggage items, B3, or W3C {@code traceparent}. Every request also has the dozen headers a browser sends.
+ * {@code startServerSpan} is what the server span filter does for every request. {@code copyHeaders} extracts the
+ * context the way it used to be, by copying every header into a map first.</p>
+ *
+ * <p>The tracer samples every trace and reports to the in-memory sink, so the reporting cost is included but nothing
+ * leaves the process.</p>
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StartServerSpanBenchmark {
+
+    /**
+     * The tracing configuration.
+     */
+    private static final String TRACING_YAML = "sampler:\n" +
+                                               "  type: const\n" +
+                                               "propagation:\n" +
+                                               "  - jaeger\n" +
+                                               "  - b3\n" +
+                                               "  - w3c\n" +
+                                               "reporter:\n" +
+                                               "  sink: memory\n" +
+                                               "  memoryCapacity: 1000\n";
+
+    /**
+     * The trace context headers in the request.
+     */
+    @Param({"none", "jaeger", "b3", "w3c"})
+    public String headers;
+
+    /**
+     * The tracer.
+     */
+    private Tracer tracer;
+
+    /**
+     * The request headers, in the map Jersey uses.
+     */
+    private MultivaluedMap<String, String> requestHeaders;
+
+    /**
+     * Create the tracer and the request headers.
+     * @throws Exception
+     *          If the tracing configuration cannot be read.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        final TracingConfiguration configuration = Jackson.newObjectMapper(new YAMLFactory())
+                                                          .readValue(TRACING_YAML, TracingConfiguration.class);
+        tracer = Tracing.init("hello-world-benchmark", configuration, new MetricRegistry());
+
+        requestHeaders = new StringKeyIgnoreCaseMultivaluedMap<>();
+        requestHeaders.putSingle("Host", "localhost:8080");
+        requestHeaders.putSingle("Connection", "keep-alive");
+        requestHeaders.putSingle("Cache-Control", "max-age=0");
+        requestHeaders.putSingle("Upgrade-Insecure-Requests", "1");
+        requestHeaders.putSingle("User-Agent", "Mozilla/5.0 (X11; Linux x86_64) " +
+                                               "AppleWebKit/537.36 (KHTML, like Gecko) " +
+                                               "Chrome/73.0.3683.86 Safari/537.36");
+        requestHeaders.putSingle("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8");
+        requestHeaders.putSingle("Accept-Encoding", "gzip, deflate, br");
+        requestHeaders.putSingle("Accept-Language", "en-GB,en-US;q=0.9,en;q=0.8");
+        requestHeaders.putSingle("Cookie", "_ga=GA1.1.123456789.1555000000; session=f3c9a8e1b2d4");
+        requestHeaders.putSingle("If-None-Match", "\"5d41402abc4b2a76b9719d911017c592\"");
+        requestHeaders.putSingle("X-Forwarded-For", "10.0.0.17");
+        requestHeaders.putSingle("X-Request-Id", "0f8fad5b-d9cb-469f-a165-70867728950e");
+
+        switch (headers) {
+            case "jaeger":
+                requestHeaders.putSingle("uber-trace-id", "5af7183fb1d4cf5f%3A5af7183fb1d4cf5f%3A0%3A1");
+                requestHeaders.putSingle("uberctx-user", "steve");
+                requestHeaders.putSingle("uberctx-tenant", "estafet");
+                break;
+
+            case "b3":
+                requestHeaders.putSingle("X-B3-TraceId", "463ac35c9f6413ad48485a3953bb6124");
+                requestHeaders.putSingle("X-B3-SpanId", "a2fb4a1d1a96d312");
+                requestHeaders.putSingle("X-B3-Sampled", "1");
+                break;
+
+            case "w3c":
+                requestHeaders.putSingle("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Close the tracer.
+     */
+    @TearDown
+    public void tearDown() {
+        tracer.close();
+    }
+
+    /**
+     * Start and finish a server span.
+     * @return
+     *          The span's context.
+     */
+    @Benchmark
+    public SpanContext startServerSpan() {
+        final Span span = Tracing.startServerSpan(tracer, requestHeaders, "GET:sayHello");
+        span.finish();
+        return span.context();
+    }
+
+    /**
+     * Extract the trace context by copying every header into a map, as {@code startServerSpan} used to.
+     * @return
+     *          The extracted context, or {@code null}.
+     */
+    @Benchmark
+    public SpanContext copyHeaders() {
+        final Map<String, String> contextHeaders = new HashMap<>(requestHeaders.size());
+        for (final String key : requestHeaders.keySet()) {
+            contextHeaders.put(key, requestHeaders.get(key).get(0));
+        }
+        return tracer.extract(Format.Builtin.HTTP_HEADERS, new TextMapAdapter(contextHeaders));
+    }
+
+    /**
+     * Extract the trace context through the adapter that only reads the headers the codecs use.
+     * @return
+     *          The extracted context, or {@code null}.
+     */
+    @Benchmark
+    public SpanContext readNeededHeaders() {
+        return tracer.extract(Format.Builtin.HTTP_HEADERS,
+                              Tracing.extractAdapter(requestHeaders));
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.server.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.helloworld.HelloWorldApplication;
+import com.example.helloworld.HelloWorldConfiguration;
+import com.example.helloworld.index.ComponentIndex;
+
+import io.dropwizard.setup.Environment;
+
+/**
+ * Starts the application in a fresh JVM, finding the Guicey extensions from the build-time component index or by
+ * scanning the class path.
+ *
+ * <p>Each fork starts the server once, from {@code hello-world.yml}, on a random port and with spans kept in memory.
+ * The time is from creating the application to the server accepting requests, so it includes loading the classes,
+ * which is the cost that matters when instances are started to absorb a traffic spike.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+    /**
+     * How the extensions are found: {@code index} or {@code scan}.
+     */
+    @Param({"index", "scan"})
+    public String components;
+
+    /**
+     * The application that was started.
+     */
+    private StoppableApplication application;
+
+    /**
+     * Configure the application for the mode being measured.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty(ComponentIndex.SCAN_PROPERTY, Boolean.toString("scan".equals(components)));
+        System.setProperty("dw.server.connector.type", "http");
+        System.setProperty("dw.server.connector.port", "0");
+        System.setProperty("dw.tracing.reporter.sink", "memory");
+        System.setProperty("dw.logging.level", "WARN");
+    }
+
+    /**
+     * Start the application.
+     * @throws Exception
+     *          If the application cannot be started.
+     */
+    @Benchmark
+    public void start() throws Exception {
+        application = new StoppableApplication();
+        application.run("server", "hello-world.yml");
+    }
+
+    /**
+     * Stop the server, so the fork can exit.
+     * @throws Exception
+     *          If the server cannot be stopped.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        application.stop();
+    }
+
+    /**
+     * The application, keeping a reference to its server so it can be stopped.
+     */
+    static final class StoppableApplication extends HelloWorldApplication {
+
+        /**
+         * The server, once it has started.
+         */
+        private volatile Server server;
+
+        /**
+         * Run the application and remember its server.
+         * @param configuration
+         *          The configuration.
+         * @param environment
+         *          The environment.
+         * @throws Exception
+         *          If the application cannot be run.
+         */
+        @Override
+        public void run(final HelloWorldConfiguration configuration,
+                        final Environment environment) throws Exception {
+            super.run(configuration, environment);
+            environment.lifecycle().addServerLifecycleListener(started -> server = started);
+        }
+
+        /**
+         * Stop the server.
+         * @throws Exception
+         *          If the server cannot be stopped.
+         */
+        void stop() throws Exception {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+}
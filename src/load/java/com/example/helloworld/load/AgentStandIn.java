@@ -0,0 +1,116 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.load;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local stand-in for the Jaeger agent.
+ *
+ * <p>It listens for the UDP datagrams the Jaeger sender emits and counts them, so the service under load reports its
+ * spans exactly as it does in production without needing an agent, and without the sends failing.</p>
+ */
+final class AgentStandIn implements Closeable {
+
+    /**
+     * The largest datagram the Jaeger UDP sender sends.
+     */
+    private static final int MAX_PACKET_SIZE = 65000;
+
+    /**
+     * The socket the agent listens on.
+     */
+    private final DatagramSocket socket;
+
+    /**
+     * The number of datagrams received.
+     */
+    private final AtomicLong packets = new AtomicLong();
+
+    /**
+     * The number of bytes received.
+     */
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * Start listening on an ephemeral port on the loopback address.
+     * @throws SocketException
+     *          If the socket cannot be opened.
+     */
+    AgentStandIn() throws SocketException {
+        socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+
+        final Thread receiver = new Thread(this::receive, "jaeger-agent-stand-in");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    /**
+     * Receive datagrams until the socket is closed.
+     */
+    private void receive() {
+        final DatagramPacket packet = new DatagramPacket(new byte[MAX_PACKET_SIZE], MAX_PACKET_SIZE);
+        while (!socket.isClosed()) {
+            try {
+                socket.receive(packet);
+                packets.incrementAndGet();
+                bytes.addAndGet(packet.getLength());
+            }
+            catch (final IOException e) {
+                // The socket has been closed.
+            }
+        }
+    }
+
+    /**
+     * Get the host the agent listens on.
+     * @return
+     *          The loopback address.
+     */
+    String getHost() {
+        return socket.getLocalAddress().getHostAddress();
+    }
+
+    /**
+     * Get the port the agent listens on.
+     * @return
+     *          The port.
+     */
+    int getPort() {
+        return socket.getLocalPort();
+    }
+
+    /**
+     * Get the number of datagrams received.
+     * @return
+     *          The number of datagrams.
+     */
+    long getPackets() {
+        return packets.get();
+    }
+
+    /**
+     * Get the number of bytes received.
+     * @return
+     *          The number of bytes.
+     */
+    long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * Stop listening.
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() {
+        socket.close();
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.load;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The load to apply and the regression thresholds the result must meet.
+ *
+ * <p>The baseline is a checked in properties file. Any value can be overridden by a system property with the same
+ * name, e.g. {@code -Dload.rate=500}, but the thresholds only mean something at the load they were recorded at.</p>
+ *
+ * <pre>
+ * load.rate=200
+ * load.warmup.seconds=10
+ * load.duration.seconds=30
+ * load.connections=16
+ * load.arrivals=uniform
+ * threshold.p50.millis=5
+ * threshold.p99.millis=40
+ * threshold.p99.9.millis=80
+ * threshold.max.millis=200
+ * threshold.throughput.ratio=0.98
+ * threshold.error.rate=0
+ * </pre>
+ */
+final class Baseline {
+
+    /**
+     * The values from the file, overridden by system properties.
+     */
+    private final Properties properties;
+
+    /**
+     * Constructor.
+     * @param theProperties
+     *          The values.
+     */
+    private Baseline(final Properties theProperties) {
+        properties = theProperties;
+    }
+
+    /**
+     * Read a baseline file.
+     * @param file
+     *          The file.
+     * @return
+     *          The baseline, with any values overridden by system properties.
+     * @throws IOException
+     *          If the file cannot be read.
+     */
+    static Baseline load(final Path file) throws IOException {
+        final Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        for (final String name : properties.stringPropertyNames()) {
+            final String override = System.getProperty(name);
+            if (override != null) {
+                properties.setProperty(name, override);
+            }
+        }
+        return new Baseline(properties);
+    }
+
+    /**
+     * Get the arrival rate.
+     * @return
+     *          The requests per second.
+     */
+    double getRate() {
+        return getDouble("load.rate");
+    }
+
+    /**
+     * Get how long to send requests before measuring.
+     * @return
+     *          The warm up time, in seconds.
+     */
+    long getWarmupSeconds() {
+        return (long) getDouble("load.warmup.seconds");
+    }
+
+    /**
+     * Get how long to measure for.
+     * @return
+     *          The measurement time, in seconds.
+     */
+    long getDurationSeconds() {
+        return (long) getDouble("load.duration.seconds");
+    }
+
+    /**
+     * Get the number of keep-alive connections to send requests on.
+     * @return
+     *          The number of connections.
+     */
+    int getConnections() {
+        return (int) getDouble("load.connections");
+    }
+
+    /**
+     * Check whether requests arrive as a Poisson process.
+     * @return
+     *          {@code true} if {@code load.arrivals} is {@code poisson}, {@code false} if it is {@code uniform}.
+     */
+    boolean isPoisson() {
+        final String arrivals = properties.getProperty("load.arrivals", "uniform");
+        switch (arrivals) {
+            case "poisson":
+                return true;
+            case "uniform":
+                return false;
+            default:
+                throw new IllegalArgumentException("load.arrivals must be \"uniform\" or \"poisson\", not \"" +
+                                                   arrivals + "\".");
+        }
+    }
+
+    /**
+     * Check a result against the thresholds.
+     * @param result
+     *          The result.
+     * @return
+     *          A description of each threshold that was exceeded. This is empty if the result is acceptable.
+     */
+    List<String> check(final LoadResult result) {
+        final List<String> failures = new ArrayList<>();
+        checkMaximum(failures, "threshold.p50.millis", result.getPercentileMillis(50));
+        checkMaximum(failures, "threshold.p99.millis", result.getPercentileMillis(99));
+        checkMaximum(failures, "threshold.p99.9.millis", result.getPercentileMillis(99.9));
+        checkMaximum(failures, "threshold.max.millis", result.getMaxMillis());
+        checkMaximum(failures, "threshold.error.rate", result.getErrorRate());
+
+        final double ratio = result.getThroughput() / result.getTargetRate();
+        final double minimumRatio = getDouble("threshold.throughput.ratio");
+        if (ratio < minimumRatio) {
+            failures.add(String.format("threshold.throughput.ratio: %.3f is below %.3f", ratio, minimumRatio));
+        }
+        return failures;
+    }
+
+    /**
+     * Check that a value does not exceed its threshold.
+     * @param failures
+     *          The list to add a failure to.
+     * @param name
+     *          The name of the threshold.
+     * @param value
+     *          The measured value.
+     */
+    private void checkMaximum(final List<String> failures, final String name, final double value) {
+        final double threshold = getDouble(name);
+        if (value > threshold) {
+            failures.add(String.format("%s: %.3f exceeds %.3f", name, value, threshold));
+        }
+    }
+
+    /**
+     * Get a numeric value.
+     * @param name
+     *          The name of the value.
+     * @return
+     *          The value.
+     * @throws IllegalArgumentException
+     *          If the value is missing or not a number.
+     */
+    private double getDouble(final String name) {
+        final String value = properties.getProperty(name);
+        if (value == null) {
+            throw new IllegalArgumentException("The baseline does not define " + name + ".");
+        }
+
+        try {
+            return Double.parseDouble(value.trim());
+        }
+        catch (final NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number, not \"" + value + "\".", e);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Recorder;
+
+/**
+ * Sends requests at a fixed arrival rate, whether or not earlier requests have been answered.
+ *
+ * <p>This is an open workload model: a dispatcher decides when each request is due and hands it to a pool of
+ * connections, so a slow response delays the requests queued behind it rather than the schedule. Each response time
+ * is measured from when the request was due, not from when a connection became free to send it, so queueing in the
+ * generator counts against the service instead of being hidden (coordinated omission).</p>
+ *
+ * <p>Each connection is a thread using {@link HttpURLConnection}, which keeps its socket alive between requests as
+ * long as the response body is read to the end.</p>
+ */
+final class LoadGenerator {
+
+    /**
+     * How long to wait to connect or for a response before the request counts as failed.
+     */
+    private static final int TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * How long to wait for outstanding requests after the last one is due.
+     */
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+
+    /**
+     * The URL to request.
+     */
+    private final URL url;
+
+    /**
+     * The number of connections.
+     */
+    private final int connections;
+
+    /**
+     * Whether the gaps between requests are exponentially distributed rather than equal.
+     */
+    private final boolean poisson;
+
+    /**
+     * Constructor.
+     * @param theUrl
+     *          The URL to request.
+     * @param theConnections
+     *          The number of keep-alive connections to send requests on.
+     * @param thePoisson
+     *          {@code true} for Poisson arrivals, {@code false} for evenly spaced arrivals.
+     */
+    LoadGenerator(final URL theUrl, final int theConnections, final boolean thePoisson) {
+        url = theUrl;
+        connections = theConnections;
+        poisson = thePoisson;
+
+        // The JDK keeps at most this many idle connections per host; the default of 5 would close the rest.
+        System.setProperty("http.maxConnections", Integer.toString(theConnections));
+    }
+
+    /**
+     * Run the load.
+     * @param rate
+     *          The arrival rate, in requests per second.
+     * @param warmupNanos
+     *          How long to send requests before measuring.
+     * @param durationNanos
+     *          How long to measure for.
+     * @return
+     *          The result of the measured interval.
+     * @throws InterruptedException
+     *          If the thread is interrupted.
+     */
+    LoadResult run(final double rate, final long warmupNanos, final long durationNanos) throws InterruptedException {
+        final Recorder latency = new Recorder(3);
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong lastResponse = new AtomicLong();
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(connections, runnable -> {
+            final Thread thread = new Thread(runnable, "load-connection-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        final double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        final long start = System.nanoTime();
+        final long measureStart = start + warmupNanos;
+        final long end = measureStart + durationNanos;
+
+        long offset = 0;
+        for (long i = 0; start + offset < end; i++) {
+            final long due = start + offset;
+            final long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            final boolean measured = due >= measureStart;
+            pool.execute(() -> {
+                final boolean ok = send();
+                final long now = System.nanoTime();
+                if (measured) {
+                    sent.incrementAndGet();
+                    if (ok) {
+                        latency.recordValue(TimeUnit.NANOSECONDS.toMicros(now - due));
+                    }
+                    else {
+                        errors.incrementAndGet();
+                    }
+                    lastResponse.accumulateAndGet(now, Math::max);
+                }
+            });
+
+            offset = poisson ? offset + nextExponential(meanIntervalNanos) : (long) ((i + 1) * meanIntervalNanos);
+        }
+
+        pool.shutdown();
+        if (!pool.awaitTermination(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            pool.shutdownNow();
+            throw new IllegalStateException("Requests were still outstanding " + DRAIN_TIMEOUT_SECONDS +
+                                            " seconds after the last one was due.");
+        }
+
+        final long elapsed = Math.max(lastResponse.get(), end) - measureStart;
+        return new LoadResult(latency.getIntervalHistogram(), sent.get(), errors.get(), rate, elapsed);
+    }
+
+    /**
+     * Send one request and read the whole response.
+     * @return
+     *          {@code true} if the response status was 200.
+     */
+    boolean send() {
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+
+            final int status = connection.getResponseCode();
+            // Reading the body to the end returns the socket to the keep-alive cache.
+            try (InputStream body = status < HttpURLConnection.HTTP_BAD_REQUEST ? connection.getInputStream()
+                                                                              : connection.getErrorStream()) {
+                if (body != null) {
+                    drain(body);
+                }
+            }
+            return status == HttpURLConnection.HTTP_OK;
+        }
+        catch (final IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Read a stream to the end.
+     * @param stream
+     *          The stream.
+     * @throws IOException
+     *          If the stream cannot be read.
+     */
+    private static void drain(final InputStream stream) throws IOException {
+        final byte[] buffer = new byte[1024];
+        while (stream.read(buffer) != -1) {
+            // Discard the body.
+        }
+    }
+
+    /**
+     * Get the gap to the next arrival of a Poisson process.
+     * @param meanNanos
+     *          The mean gap, in nanoseconds.
+     * @return
+     *          The gap, in nanoseconds.
+     */
+    private static long nextExponential(final double meanNanos) {
+        return (long) (-Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * meanNanos);
+    }
+}
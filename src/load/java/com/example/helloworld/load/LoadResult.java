@@ -0,0 +1,127 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.load;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * The outcome of the measured part of a load test run.
+ */
+final class LoadResult {
+
+    /**
+     * The response times, in microseconds, measured from when each request was due to be sent.
+     */
+    private final Histogram latency;
+
+    /**
+     * The number of requests that were due in the measured interval.
+     */
+    private final long sent;
+
+    /**
+     * The number of those requests that failed.
+     */
+    private final long errors;
+
+    /**
+     * The target arrival rate, in requests per second.
+     */
+    private final double targetRate;
+
+    /**
+     * The time between the first request being due and the last response, in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructor.
+     * @param theLatency
+     *          The response times, in microseconds.
+     * @param theSent
+     *          The number of requests that were due in the measured interval.
+     * @param theErrors
+     *          The number of those requests that failed.
+     * @param theTargetRate
+     *          The target arrival rate, in requests per second.
+     * @param theElapsedNanos
+     *          The time between the first request being due and the last response, in nanoseconds.
+     */
+    LoadResult(final Histogram theLatency,
+               final long theSent,
+               final long theErrors,
+               final double theTargetRate,
+               final long theElapsedNanos) {
+        latency = theLatency;
+        sent = theSent;
+        errors = theErrors;
+        targetRate = theTargetRate;
+        elapsedNanos = theElapsedNanos;
+    }
+
+    /**
+     * Get a response time percentile.
+     * @param percentile
+     *          The percentile, e.g. {@code 99.9}.
+     * @return
+     *          The response time, in milliseconds.
+     */
+    double getPercentileMillis(final double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * Get the slowest response time.
+     * @return
+     *          The response time, in milliseconds.
+     */
+    double getMaxMillis() {
+        return latency.getMaxValue() / 1000.0;
+    }
+
+    /**
+     * Get the rate at which requests were completed.
+     * @return
+     *          The successful responses per second.
+     */
+    double getThroughput() {
+        return (sent - errors) * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * Get the target arrival rate.
+     * @return
+     *          The requests per second.
+     */
+    double getTargetRate() {
+        return targetRate;
+    }
+
+    /**
+     * Get the fraction of requests that failed.
+     * @return
+     *          The error rate, from {@code 0} to {@code 1}.
+     */
+    double getErrorRate() {
+        return sent == 0 ? 0 : (double) errors / sent;
+    }
+
+    /**
+     * Print the result.
+     * @param out
+     *          The stream to print to.
+     */
+    void print(final PrintStream out) {
+        out.printf("Requests:   %d sent, %d failed%n", sent, errors);
+        out.printf("Throughput: %.1f/s achieved, %.1f/s target%n", getThroughput(), targetRate);
+        out.printf("Latency:    p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms%n",
+                   getPercentileMillis(50),
+                   getPercentileMillis(99),
+                   getPercentileMillis(99.9),
+                   getMaxMillis());
+    }
+}
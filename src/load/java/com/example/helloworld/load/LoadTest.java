@@ -0,0 +1,129 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.load;
+
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.example.helloworld.HelloWorldApplication;
+
+import io.jaegertracing.Configuration;
+
+/**
+ * An end to end load test of the hello-world service.
+ *
+ * <p>The service is started in this process from a configuration file, with its Jaeger sender pointed at a local
+ * stand-in for the agent, and then requests are sent to it at a fixed arrival rate over keep-alive connections. The
+ * response time percentiles and throughput of the measured interval are printed and checked against a baseline; the
+ * process exits with status 1 if any threshold is exceeded, which fails the build.</p>
+ *
+ * <p>The arguments are the configuration file, {@code hello-world.yml} by default, and the baseline file,
+ * {@code src/load/baseline.properties} by default. The URL requested is {@code load.url}. The service's standard
+ * output, including the request log, is written to {@code load.log} so it doesn't bury the report.</p>
+ *
+ * @see Baseline
+ */
+public final class LoadTest {
+
+    /**
+     * The URL requested if {@code load.url} is not set.
+     */
+    private static final String DEFAULT_URL = "http://localhost:8080/v1/hello-world";
+
+    /**
+     * The file the service's console output is written to if {@code load.log} is not set.
+     */
+    private static final String DEFAULT_LOG = "target/load-test.log";
+
+    /**
+     * How long to wait for the service to start answering.
+     */
+    private static final long STARTUP_TIMEOUT_MILLIS = 30_000;
+
+    /**
+     * Run the load test.
+     * @param args
+     *          The configuration file and the baseline file.
+     * @throws Exception
+     *          If the service cannot be started or the load cannot be run.
+     */
+    public static void main(final String[] args) throws Exception {
+        final String configuration = args.length > 0 ? args[0] : "hello-world.yml";
+        final Baseline baseline = Baseline.load(Paths.get(args.length > 1 ? args[1] : "src/load/baseline.properties"));
+        final URL url = new URL(System.getProperty("load.url", DEFAULT_URL));
+
+        final AgentStandIn agent = new AgentStandIn();
+        System.setProperty(Configuration.JAEGER_AGENT_HOST, agent.getHost());
+        System.setProperty(Configuration.JAEGER_AGENT_PORT, Integer.toString(agent.getPort()));
+
+        final String log = System.getProperty("load.log", DEFAULT_LOG);
+        final PrintStream out = System.out;
+        final PrintStream serviceOut = new PrintStream(new FileOutputStream(log), true, StandardCharsets.UTF_8.name());
+        System.setOut(serviceOut);
+
+        new HelloWorldApplication().run("server", configuration);
+
+        final LoadGenerator generator = new LoadGenerator(url, baseline.getConnections(), baseline.isPoisson());
+        awaitStartup(generator);
+
+        out.printf("%nLoad test: %s at %.1f/s on %d connections, %d s warm up, %d s measured%n",
+                   url,
+                   baseline.getRate(),
+                   baseline.getConnections(),
+                   baseline.getWarmupSeconds(),
+                   baseline.getDurationSeconds());
+
+        final LoadResult result = generator.run(baseline.getRate(),
+                                                TimeUnit.SECONDS.toNanos(baseline.getWarmupSeconds()),
+                                                TimeUnit.SECONDS.toNanos(baseline.getDurationSeconds()));
+        result.print(out);
+        out.printf("Tracing:    %d datagrams, %d bytes sent to the agent stand-in%n",
+                   agent.getPackets(),
+                   agent.getBytes());
+        out.printf("Log:        %s%n", log);
+
+        final List<String> failures = baseline.check(result);
+        if (failures.isEmpty()) {
+            out.println("The result is within the baseline thresholds.");
+        }
+        else {
+            out.println("The result exceeds the baseline thresholds:");
+            failures.forEach(failure -> out.println("  " + failure));
+        }
+
+        agent.close();
+        // The service has no way to be stopped from outside, so stop everything.
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+
+    /**
+     * Wait for the service to answer a request.
+     * @param generator
+     *          The generator to send the requests.
+     * @throws InterruptedException
+     *          If the thread is interrupted.
+     */
+    private static void awaitStartup(final LoadGenerator generator) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MILLIS;
+        while (!generator.send()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("The service did not start within " + STARTUP_TIMEOUT_MILLIS +
+                                                " ms.");
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    /**
+     * Cannot instantiate.
+     */
+    private LoadTest() {
+        super();
+    }
+}
@@ -1,7 +1,14 @@
 package com.example.helloworld;
 
+import java.util.List;
+
+import com.example.helloworld.execution.ExecutionModeModelProcessor;
+import com.example.helloworld.health.HealthCheckScheduler;
+import com.example.helloworld.index.ComponentIndex;
+import com.example.helloworld.metrics.StageMetrics;
+import com.example.helloworld.reload.ConfigurationFile;
 import com.example.helloworld.tracing.OpenTracingContextInitializer;
-import com.example.helloworld.tracing.Tracing;
+import com.example.helloworld.tracing.TracingBundle;
 
 import ch.qos.logback.classic.Level;
 import io.dropwizard.Application;
@@ -32,6 +39,11 @@ import ru.vyarus.dropwizard.guice.GuiceBundle;
  */
 public class HelloWorldApplication extends Application<HelloWorldConfiguration> {
 
+    /**
+     * The system property that sets the {@link #bootstrapLogLevel() bootstrap log level}.
+     */
+    public static final String BOOTSTRAP_LOG_LEVEL_PROPERTY = "helloworld.bootstrapLogLevel";
+
     /**
      * The entry point for the service.
      * @param args
@@ -40,7 +52,6 @@ public class HelloWorldApplication extends Application<HelloWorldConfiguration>
      */
     public static void main(final String[] args) {
         try {
-            Tracing.init("hello-world");
             new HelloWorldApplication().run(args);
         }
         catch (final Exception e) {
@@ -52,8 +63,9 @@ public class HelloWorldApplication extends Application<HelloWorldConfiguration>
     /**
      * Initialises the application bootstrap.
      *
-     * <p>This method enables auto-configuration for all classes in the {@code com.example.helloworld} package, and is
-     * called from the Dropwizard framework.</p>
+     * <p>This method registers the Guicey extensions in the {@code com.example.helloworld} package, and is called from
+     * the Dropwizard framework. The extensions are read from the {@link ComponentIndex} generated by the build; if
+     * there is no index, auto-configuration scans the package for them instead.</p>
      *
      * @param bootstrap
      *         The pre-start application environment, containing everything required to bootstrap a Dropwizard
@@ -63,23 +75,43 @@ public class HelloWorldApplication extends Application<HelloWorldConfiguration>
     @Override
     public void initialize(final Bootstrap<HelloWorldConfiguration> bootstrap) {
 
+        // Remember the configuration file, so the greeting settings can be reloaded from it.
+        final ConfigurationFile configurationFile = new ConfigurationFile(bootstrap);
+        bootstrap.setConfigurationSourceProvider(configurationFile);
+
         // Create the Guice bundle for the application,
-        final GuiceBundle<HelloWorldConfiguration> guiceBundle =
+        final GuiceBundle.Builder<HelloWorldConfiguration> builder =
                GuiceBundle.<HelloWorldConfiguration>builder()
-                          .modules(new HelloWorldModule())
-                          .enableAutoConfig(getClass().getPackage().getName())
-                          .build();
+                          .modules(new HelloWorldModule(configurationFile));
+
+        // Register the indexed extensions, or scan for them if there is no index.
+        final List<Class<?>> components = ComponentIndex.load(HelloWorldApplication.class.getClassLoader());
+        if (components.isEmpty()) {
+            builder.enableAutoConfig(HelloWorldApplication.class.getPackage().getName());
+        }
+        else {
+            builder.extensions(components.toArray(new Class<?>[components.size()]));
+        }
+        final GuiceBundle<HelloWorldConfiguration> guiceBundle = builder.build();
+
+        // Initialise tracing from the configuration before the Guice bundle runs.
+        bootstrap.addBundle(new TracingBundle());
 
         // Add the Guice bundle to the Dropwizard bootstrap.
         bootstrap.addBundle(guiceBundle);
     }
 
     /**
-     * Set the log level at which to log on application startup.
+     * Set the log level at which to log on application startup, before the logging configuration is read.
+     *
+     * <p>This is {@code WARN} unless the {@link #BOOTSTRAP_LOG_LEVEL_PROPERTY} system property names another level,
+     * e.g. {@code -Dhelloworld.bootstrapLogLevel=DEBUG} to see how the bundles and the Guice injector are set up.
+     * Logging everything while bootstrapping slows every start, which matters most when instances are started to
+     * absorb a traffic spike.</p>
      */
     @Override
     protected Level bootstrapLogLevel() {
-        return Level.ALL;
+        return Level.toLevel(System.getProperty(BOOTSTRAP_LOG_LEVEL_PROPERTY), Level.WARN);
     }
 
     /**
@@ -108,6 +140,17 @@ public class HelloWorldApplication extends Application<HelloWorldConfiguration>
     @Override
     public void run(final HelloWorldConfiguration configuration,
                     final Environment environment) throws Exception {
-        environment.servlets().addServletListeners(new OpenTracingContextInitializer());
+        environment.servlets().addServletListeners(
+                        new OpenTracingContextInitializer(configuration.getConcurrencyLimit(), environment.metrics()));
+
+        // Keep the sayHello method for the execution mode, so a synchronous request is never suspended.
+        environment.jersey().register(new ExecutionModeModelProcessor(configuration.getExecution().getMode()));
+
+        // The stage timers are always registered; timing itself is switched on and off at runtime.
+        StageMetrics.register(environment.metrics());
+        StageMetrics.setEnabled(configuration.getStageMetrics().isEnabled());
+
+        // The Guice bundle has registered the health checks, so they can now be put on their schedules.
+        HealthCheckScheduler.install(configuration.getHealthChecks(), environment);
     }
 }
@@ -1,7 +1,23 @@
 package com.example.helloworld;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
 import org.hibernate.validator.constraints.NotEmpty;
 
+import com.example.helloworld.cache.GreetingCacheConfiguration;
+import com.example.helloworld.concurrency.ConcurrencyLimitConfiguration;
+import com.example.helloworld.execution.ExecutionConfiguration;
+import com.example.helloworld.health.HealthCheckConfiguration;
+import com.example.helloworld.ids.IdAllocatorConfiguration;
+import com.example.helloworld.logging.RequestLogConfiguration;
+import com.example.helloworld.metrics.StageMetricsConfiguration;
+import com.example.helloworld.ratelimit.RateLimitConfiguration;
+import com.example.helloworld.reload.ReloadConfiguration;
+import com.example.helloworld.tracing.TracingConfiguration;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import io.dropwizard.Configuration;
@@ -73,18 +89,111 @@ public class HelloWorldConfiguration extends Configuration {
     private String serviceName;
 
     /**
-     * The template string to use to create the message.
+     * The template string to use to create the message, if there is no template for the request's language.
      */
     @NotEmpty
     @JsonProperty(required = true)
     private String template;
 
     /**
-     * The name to use when no name is provided with the request.
+     * The template strings for other languages, keyed by language tag, e.g.
+     * <pre>
+     * templates:
+     *   fr: Bonjour, %s !
+     *   de: Hallo, %s!
+     * </pre>
+     */
+    @NotNull
+    @JsonProperty
+    private final Map<String, String> templates = new LinkedHashMap<>();
+
+    /**
+     * The name to use when no name is provided with the request. This is not {@code final}: a final field initialised
+     * with a constant is inlined into {@link #getDefaultName()}, which would then ignore the configured value.
      */
     @NotEmpty
     @JsonProperty
-    private final String defaultName = "Stranger";
+    private String defaultName = "Stranger";
+
+    /**
+     * How greeting requests are executed.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    private final ExecutionConfiguration execution = new ExecutionConfiguration();
+
+    /**
+     * How greeting ids are allocated.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    private final IdAllocatorConfiguration ids = new IdAllocatorConfiguration();
+
+    /**
+     * The cache of rendered greetings.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    private final GreetingCacheConfiguration cache = new GreetingCacheConfiguration();
+
+    /**
+     * The sampled request log.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    private final RequestLogConfiguration requestLog = new RequestLogConfiguration();
+
+    /**
+     * Tracing.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    private final TracingConfiguration tracing = new TracingConfiguration();
+
+    /**
+     * Per-stage request timing.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    private final StageMetricsConfiguration stageMetrics = new StageMetricsConfiguration();
+
+    /**
+     * Reloading the greeting settings.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    private final ReloadConfiguration reload = new ReloadConfiguration();
+
+    /**
+     * How the health checks are run.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    private final HealthCheckConfiguration healthChecks = new HealthCheckConfiguration();
+
+    /**
+     * The per-client rate limits.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    private final RateLimitConfiguration rateLimits = new RateLimitConfiguration();
+
+    /**
+     * The adaptive limit on concurrent greeting requests.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    private final ConcurrencyLimitConfiguration concurrencyLimit = new ConcurrencyLimitConfiguration();
 
     /**
      * @return
@@ -102,6 +211,14 @@ public class HelloWorldConfiguration extends Configuration {
         return template;
     }
 
+    /**
+     * @return
+     *          The template strings for other languages, keyed by language tag.
+     */
+    public Map<String, String> getTemplates() {
+        return templates;
+    }
+
     /**
      * @return
      *          The default name to use.
@@ -109,4 +226,84 @@ public class HelloWorldConfiguration extends Configuration {
     public String getDefaultName() {
         return defaultName;
     }
+
+    /**
+     * @return
+     *          The execution configuration.
+     */
+    public ExecutionConfiguration getExecution() {
+        return execution;
+    }
+
+    /**
+     * @return
+     *          The id allocator configuration.
+     */
+    public IdAllocatorConfiguration getIds() {
+        return ids;
+    }
+
+    /**
+     * @return
+     *          The greeting cache configuration.
+     */
+    public GreetingCacheConfiguration getCache() {
+        return cache;
+    }
+
+    /**
+     * @return
+     *          The request log configuration.
+     */
+    public RequestLogConfiguration getRequestLog() {
+        return requestLog;
+    }
+
+    /**
+     * @return
+     *          The tracing configuration.
+     */
+    public TracingConfiguration getTracing() {
+        return tracing;
+    }
+
+    /**
+     * @return
+     *          The per-stage request timing configuration.
+     */
+    public StageMetricsConfiguration getStageMetrics() {
+        return stageMetrics;
+    }
+
+    /**
+     * @return
+     *          The configuration for reloading the greeting settings.
+     */
+    public ReloadConfiguration getReload() {
+        return reload;
+    }
+
+    /**
+     * @return
+     *          The health check configuration.
+     */
+    public HealthCheckConfiguration getHealthChecks() {
+        return healthChecks;
+    }
+
+    /**
+     * @return
+     *          The rate limit configuration.
+     */
+    public RateLimitConfiguration getRateLimits() {
+        return rateLimits;
+    }
+
+    /**
+     * @return
+     *          The concurrency limit configuration.
+     */
+    public ConcurrencyLimitConfiguration getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
 }
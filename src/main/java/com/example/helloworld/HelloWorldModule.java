@@ -1,11 +1,24 @@
 package com.example.helloworld;
 
+import java.util.concurrent.Executor;
+
 import javax.inject.Named;
 
+import com.example.helloworld.cache.GreetingCache;
+import com.example.helloworld.core.GreetingSettings;
+import com.example.helloworld.core.GreetingSettingsHolder;
+import com.example.helloworld.execution.GreetingExecutors;
+import com.example.helloworld.ids.IdAllocator;
+import com.example.helloworld.ids.IdAllocators;
+import com.example.helloworld.injection.InjectionCounter;
+import com.example.helloworld.reload.ConfigurationFile;
 import com.google.inject.AbstractModule;
 import com.google.inject.Injector;
 import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.google.inject.matcher.Matchers;
 
+import io.dropwizard.setup.Environment;
 import io.opentracing.Tracer;
 import io.opentracing.util.GlobalTracer;
 
@@ -32,15 +45,39 @@ import io.opentracing.util.GlobalTracer;
  */
 public class HelloWorldModule extends AbstractModule {
 
+    /**
+     * The configuration file the application was started from.
+     */
+    private final ConfigurationFile configurationFile;
+
+    /**
+     * Constructor.
+     * @param theConfigurationFile
+     *          The configuration file the application was started from, so it can be reloaded.
+     */
+    public HelloWorldModule(final ConfigurationFile theConfigurationFile) {
+        configurationFile = theConfigurationFile;
+    }
+
     /**
      * Configure the module.
      *
      * <p>Create the {@link Tracer} and register it as the {@link GlobalTracer}.</p>
      *
+     * <p>Count the provisions of every binding with an {@link InjectionCounter}, for the injection report, if the
+     * {@link InjectionCounter#ENABLED_PROPERTY} system property is set.</p>
+     *
      * @see com.google.inject.AbstractModule#configure()
      */
     @Override
     protected void configure() {
+        final InjectionCounter injectionCounter = InjectionCounter.fromSystemProperty();
+        if (injectionCounter.isEnabled()) {
+            bindListener(Matchers.any(), injectionCounter);
+        }
+        bind(InjectionCounter.class).toInstance(injectionCounter);
+        bind(ConfigurationFile.class).toInstance(configurationFile);
+
 //        bind(HelloWorldConfiguration.class).to(HelloWorldConfiguration.class);
 //        final Tracer tracer = Tracing.init("hello-world");
 //        final boolean registeredOK = GlobalTracer.registerIfAbsent(tracer);
@@ -64,29 +101,64 @@ public class HelloWorldModule extends AbstractModule {
     }
 
     /**
-     * Get the message template.
+     * Get the holder of the current greeting settings, which starts with the settings in the configuration.
+     *
+     * <p>The templates are compiled once, so a template with an unsupported format specifier stops the application
+     * from starting.</p>
+     * @param configuration
+     *         The application configuration.
+     * @return
+     *         The holder of the current greeting settings.
+     */
+    @Provides
+    @Singleton
+    public GreetingSettingsHolder provideGreetingSettings(final HelloWorldConfiguration configuration) {
+        return new GreetingSettingsHolder(GreetingSettings.from(configuration));
+    }
+
+    /**
+     * Get the executor that renders greetings.
      * @param configuration
      *         The application configuration.
+     * @param environment
+     *         The application environment, which manages the executor's lifecycle.
      * @return
-     *         The template used to create the message.
+     *         The executor for the configured execution mode.
      */
     @Provides
-    @Named("template")
-    public String provideTemplate(final HelloWorldConfiguration configuration) {
-        return configuration.getTemplate();
+    @Singleton
+    @Named("greetingExecutor")
+    public Executor provideGreetingExecutor(final HelloWorldConfiguration configuration,
+                                            final Environment environment) {
+        return GreetingExecutors.create(configuration.getExecution(), environment.lifecycle());
     }
 
     /**
-     * Get the default name to use.
+     * Get the allocator for greeting ids.
      * @param configuration
      *         The application configuration.
      * @return
-     *         The default name to use when no name is supplied with the request.
+     *         The configured id allocator.
      */
     @Provides
-    @Named("defaultName")
-    public String provideDefaultName(final HelloWorldConfiguration configuration) {
-        return configuration.getDefaultName();
+    @Singleton
+    public IdAllocator provideIdAllocator(final HelloWorldConfiguration configuration) {
+        return IdAllocators.create(configuration.getIds());
     }
 
+    /**
+     * Get the cache of rendered greetings.
+     * @param configuration
+     *         The application configuration.
+     * @param environment
+     *         The application environment, whose metric registry records the cache statistics.
+     * @return
+     *         The greeting cache.
+     */
+    @Provides
+    @Singleton
+    public GreetingCache provideGreetingCache(final HelloWorldConfiguration configuration,
+                                              final Environment environment) {
+        return new GreetingCache(configuration.getCache(), environment.metrics());
+    }
 }
@@ -0,0 +1,180 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.cache;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.ws.rs.core.EntityTag;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.example.helloworld.core.GreetingTemplate;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
+/**
+ * A bounded cache of rendered greetings, keyed by template and name.
+ *
+ * <p>The least recently used names are evicted when the cache is full. The hit, miss and eviction counts and the size
+ * are registered as gauges in the {@link MetricRegistry}.</p>
+ *
+ * <p>Each cached greeting has a weak entity tag computed from its content, so a conditional request can be answered
+ * with {@code 304 Not Modified} without rendering the greeting again. The tag is weak because responses with the same
+ * content still differ in their ids.</p>
+ *
+ * <p>A greeting that is not in the cache, or every greeting if the cache is disabled, is rendered through a
+ * {@link SingleFlight}: when a burst of requests asks for the same name at once, one of them renders it and the others
+ * share its content. Each request still gets its own response id, because ids are allocated by the resource after the
+ * content is rendered. The number of requests that shared another's rendering is registered as the
+ * {@code GreetingCache.coalesced} meter.</p>
+ */
+public class GreetingCache {
+
+    /**
+     * The cache, or {@code null} if caching is disabled.
+     */
+    private final Cache<Key, RenderedGreeting> cache;
+
+    /**
+     * The greetings being rendered.
+     */
+    private final SingleFlight<Key, RenderedGreeting> renderings;
+
+    /**
+     * Constructor.
+     * @param configuration
+     *          The cache configuration.
+     * @param metrics
+     *          The registry for the cache metrics.
+     */
+    public GreetingCache(final GreetingCacheConfiguration configuration, final MetricRegistry metrics) {
+        renderings = new SingleFlight<>(metrics.register(MetricRegistry.name(GreetingCache.class, "coalesced"),
+                                                         new Meter()));
+
+        if (configuration.getMaximumSize() == 0) {
+            cache = null;
+            return;
+        }
+
+        cache = CacheBuilder.newBuilder()
+                            .maximumSize(configuration.getMaximumSize())
+                            .recordStats()
+                            .build();
+
+        metrics.register(MetricRegistry.name(GreetingCache.class, "hits"),
+                         (Gauge<Long>) () -> Long.valueOf(cache.stats().hitCount()));
+        metrics.register(MetricRegistry.name(GreetingCache.class, "misses"),
+                         (Gauge<Long>) () -> Long.valueOf(cache.stats().missCount()));
+        metrics.register(MetricRegistry.name(GreetingCache.class, "evictions"),
+                         (Gauge<Long>) () -> Long.valueOf(cache.stats().evictionCount()));
+        metrics.register(MetricRegistry.name(GreetingCache.class, "size"),
+                         (Gauge<Long>) () -> Long.valueOf(cache.size()));
+    }
+
+    /**
+     * Get the rendered greeting for a name.
+     * @param template
+     *          The compiled template to render.
+     * @param name
+     *          The name to greet.
+     * @return
+     *          The rendered greeting. If the cache is disabled it has no entity tag.
+     */
+    public RenderedGreeting render(final GreetingTemplate template, final String name) {
+        final Key key = new Key(template, name);
+        if (cache == null) {
+            return renderings.execute(key, () -> new RenderedGreeting(template.render(name), null));
+        }
+
+        final RenderedGreeting cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        return renderings.execute(key, () -> {
+            final RenderedGreeting greeting = renderWithTag(key);
+            cache.put(key, greeting);
+            return greeting;
+        });
+    }
+
+    /**
+     * Discard every cached greeting, e.g. because the templates have been reloaded.
+     */
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Render a greeting and compute its entity tag.
+     * @param key
+     *          The template and the name to greet.
+     * @return
+     *          The rendered greeting.
+     */
+    private RenderedGreeting renderWithTag(final Key key) {
+        final String content = key.template.render(key.name);
+        final String hash = Hashing.murmur3_128().hashString(content, StandardCharsets.UTF_8).toString();
+        return new RenderedGreeting(content, new EntityTag(hash, true));
+    }
+
+    /**
+     * A cache key: a template and a name.
+     *
+     * <p>Templates are compiled once, so they are compared by identity.</p>
+     */
+    private static final class Key {
+
+        /**
+         * The template.
+         */
+        private final GreetingTemplate template;
+
+        /**
+         * The name.
+         */
+        private final String name;
+
+        /**
+         * Constructor.
+         * @param theTemplate
+         *          The template.
+         * @param theName
+         *          The name.
+         */
+        Key(final GreetingTemplate theTemplate, final String theName) {
+            template = theTemplate;
+            name = theName;
+        }
+
+        /**
+         * @return
+         *          The hash code of the template and the name.
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(template) + name.hashCode();
+        }
+
+        /**
+         * @param other
+         *          The object to compare with.
+         * @return
+         *          {@code true} if the other object is a key for the same template and name.
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) other;
+            return template == key.template && name.equals(key.name);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.cache;
+
+import javax.validation.constraints.Min;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The configuration of the {@link GreetingCache}.
+ *
+ * <p>For example:</p>
+ * <pre>
+ * cache:
+ *   maximumSize: 1000
+ * </pre>
+ */
+public class GreetingCacheConfiguration {
+
+    /**
+     * The maximum number of names to cache. {@code 0} disables the cache and entity tags.
+     */
+    @Min(0)
+    @JsonProperty
+    private long maximumSize = 1000;
+
+    /**
+     * @return
+     *          The maximum number of names to cache, or {@code 0} if the cache is disabled.
+     */
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.cache;
+
+import javax.ws.rs.core.EntityTag;
+
+/**
+ * The rendered content of a greeting and its entity tag.
+ *
+ * <p>The content for a name is always the same, so it can be cached and validated with an {@code ETag}. Only the
+ * response id differs between responses.</p>
+ */
+public final class RenderedGreeting {
+
+    /**
+     * The rendered content.
+     */
+    private final String content;
+
+    /**
+     * The entity tag for the content, or {@code null} if there isn't one.
+     */
+    private final EntityTag entityTag;
+
+    /**
+     * Constructor.
+     * @param theContent
+     *          The rendered content.
+     * @param theEntityTag
+     *          The entity tag for the content, or {@code null} if there isn't one.
+     */
+    public RenderedGreeting(final String theContent, final EntityTag theEntityTag) {
+        content = theContent;
+        entityTag = theEntityTag;
+    }
+
+    /**
+     * @return
+     *          The rendered content.
+     */
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * @return
+     *          The entity tag for the content, or {@code null} if there isn't one.
+     */
+    public EntityTag getEntityTag() {
+        return entityTag;
+    }
+}
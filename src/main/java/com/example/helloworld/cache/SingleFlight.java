@@ -0,0 +1,102 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Meter;
+
+/**
+ * Coalesces concurrent computations of the same key into one.
+ *
+ * <p>The first thread to ask for a key computes the value on its own thread, so a request that arrives on its own
+ * pays only for adding the key to and removing it from a concurrent map. A thread that asks for the key while it is
+ * being computed waits for that computation and gets the same value, or the same exception, and is counted as
+ * coalesced. Once the computation ends the key is forgotten: nothing is cached here.</p>
+ *
+ * @param <K>
+ *          The type of the keys.
+ * @param <V>
+ *          The type of the values.
+ */
+final class SingleFlight<K, V> {
+
+    /**
+     * The computations in progress.
+     */
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Marked for each request that waited for another's computation.
+     */
+    private final Meter coalesced;
+
+    /**
+     * Constructor.
+     * @param theCoalesced
+     *          Marked for each request that waited for another's computation.
+     */
+    SingleFlight(final Meter theCoalesced) {
+        coalesced = theCoalesced;
+    }
+
+    /**
+     * Compute the value for a key, or wait for the computation already in progress.
+     * @param key
+     *          The key.
+     * @param computation
+     *          Computes the value, if there is no computation of the key in progress.
+     * @return
+     *          The value.
+     */
+    V execute(final K key, final Supplier<V> computation) {
+        final CompletableFuture<V> flight = new CompletableFuture<>();
+        final CompletableFuture<V> leader = flights.putIfAbsent(key, flight);
+        if (leader != null) {
+            coalesced.mark();
+            return await(leader);
+        }
+
+        try {
+            final V value = computation.get();
+            flight.complete(value);
+            return value;
+        }
+        catch (final RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Wait for another thread's computation.
+     * @param leader
+     *          The computation.
+     * @return
+     *          The value it computed.
+     */
+    private static <V> V await(final CompletableFuture<V> leader) {
+        try {
+            return leader.join();
+        }
+        catch (final CompletionException e) {
+            // Rethrow what the computation threw, as it was thrown to the thread that computed it.
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.concurrency;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import org.hibernate.validator.constraints.NotEmpty;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.dropwizard.util.Duration;
+import io.dropwizard.validation.MinDuration;
+
+/**
+ * The configuration of the {@link ConcurrencyLimiter}.
+ *
+ * <p>For example:</p>
+ * <pre>
+ * concurrencyLimit:
+ *   enabled: true
+ *   urlPatterns:
+ *     - /hello-world
+ *     - /hello-world/*
+ *   initialLimit: 20
+ *   minLimit: 8
+ *   maxLimit: 500
+ *   tolerance: 1.5
+ *   smoothing: 0.2
+ *   window: 100ms
+ *   minSamples: 10
+ * </pre>
+ */
+public class ConcurrencyLimitConfiguration {
+
+    /**
+     * Whether requests are limited.
+     */
+    @JsonProperty
+    private boolean enabled;
+
+    /**
+     * The servlet URL patterns of the limited requests, relative to the application context.
+     */
+    @NotEmpty
+    @JsonProperty
+    private List<String> urlPatterns = Arrays.asList("/hello-world", "/hello-world/*");
+
+    /**
+     * The limit before any response times have been measured. This is kept between the minimum and maximum limits.
+     */
+    @Min(1)
+    @JsonProperty
+    private int initialLimit = 20;
+
+    /**
+     * The lowest the limit can go.
+     */
+    @Min(1)
+    @JsonProperty
+    private int minLimit = 8;
+
+    /**
+     * The highest the limit can go.
+     */
+    @Min(1)
+    @JsonProperty
+    private int maxLimit = 500;
+
+    /**
+     * How many times the long term average response time the recent average may be before the limit is lowered.
+     */
+    @DecimalMin("1.0")
+    @JsonProperty
+    private double tolerance = 1.5;
+
+    /**
+     * The weight given to each new limit, from {@code 0.0} (never change) to {@code 1.0} (no smoothing).
+     */
+    @DecimalMin(value = "0.0", inclusive = false)
+    @DecimalMax("1.0")
+    @JsonProperty
+    private double smoothing = 0.2;
+
+    /**
+     * The least time over which response times are averaged before the limit is changed.
+     */
+    @NotNull
+    @MinDuration(value = 1, unit = TimeUnit.MILLISECONDS)
+    @JsonProperty
+    private Duration window = Duration.milliseconds(100);
+
+    /**
+     * The least number of responses averaged before the limit is changed.
+     */
+    @Min(1)
+    @JsonProperty
+    private int minSamples = 10;
+
+    /**
+     * @return
+     *          {@code true} if requests are limited.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return
+     *          The servlet URL patterns of the limited requests.
+     */
+    public List<String> getUrlPatterns() {
+        return urlPatterns;
+    }
+
+    /**
+     * @return
+     *          The limit before any response times have been measured.
+     */
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    /**
+     * @return
+     *          The lowest the limit can go.
+     */
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    /**
+     * @return
+     *          The highest the limit can go.
+     */
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * @return
+     *          How many times the long term average response time the recent average may be.
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * @return
+     *          The weight given to each new limit.
+     */
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    /**
+     * @return
+     *          The least time over which response times are averaged.
+     */
+    public Duration getWindow() {
+        return window;
+    }
+
+    /**
+     * @return
+     *          The least number of responses averaged.
+     */
+    public int getMinSamples() {
+        return minSamples;
+    }
+}
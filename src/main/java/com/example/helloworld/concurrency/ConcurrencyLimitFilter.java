@@ -0,0 +1,196 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.concurrency;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * A servlet filter that sheds the requests the {@link ConcurrencyLimiter} doesn't admit.
+ *
+ * <p>A shed request is answered at once with {@code 503 Service Unavailable} and a fixed JSON body, without reaching
+ * Jersey. An admitted request is released when its response is complete: when the filter chain returns, or, if the
+ * request went asynchronous, when the asynchronous request completes. Only requests that completed are response time
+ * samples; a request that failed with an exception or timed out is released without one.</p>
+ */
+public class ConcurrencyLimitFilter implements Filter {
+
+    /**
+     * The body of a shed request's response.
+     */
+    private static final byte[] SHED_BODY =
+                    "{\"code\":503,\"message\":\"The service is overloaded. Retry later.\"}"
+                                    .getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * The header that tells a shed client how long to wait.
+     */
+    private static final String RETRY_AFTER = "Retry-After";
+
+    /**
+     * The limiter.
+     */
+    private final ConcurrencyLimiter limiter;
+
+    /**
+     * Constructor.
+     * @param theLimiter
+     *          The limiter.
+     */
+    public ConcurrencyLimitFilter(final ConcurrencyLimiter theLimiter) {
+        limiter = theLimiter;
+    }
+
+    /**
+     * @param filterConfig
+     *          The filter configuration.
+     * @see javax.servlet.Filter#init(javax.servlet.FilterConfig)
+     */
+    @Override
+    public void init(final FilterConfig filterConfig) {
+        // Nothing to initialise.
+    }
+
+    /**
+     * Admit the request and continue the chain, or shed it.
+     * @param request
+     *          The request.
+     * @param response
+     *          The response.
+     * @param chain
+     *          The rest of the filter chain.
+     * @throws IOException
+     *          If the request or response cannot be read or written.
+     * @throws ServletException
+     *          If the request cannot be processed.
+     * @see javax.servlet.Filter#doFilter(javax.servlet.ServletRequest, javax.servlet.ServletResponse,
+     *      javax.servlet.FilterChain)
+     */
+    @Override
+    public void doFilter(final ServletRequest request,
+                         final ServletResponse response,
+                         final FilterChain chain) throws IOException, ServletException {
+        if (!limiter.tryAcquire()) {
+            shed((HttpServletResponse) response);
+            return;
+        }
+
+        final long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            chain.doFilter(request, response);
+            completed = true;
+        }
+        finally {
+            if (completed && request.isAsyncStarted()) {
+                // The asynchronous request completes after this dispatch returns, even if it is completed before.
+                request.getAsyncContext().addListener(new Release(start));
+            }
+            else {
+                limiter.release(start, completed);
+            }
+        }
+    }
+
+    /**
+     * @see javax.servlet.Filter#destroy()
+     */
+    @Override
+    public void destroy() {
+        // Nothing to release.
+    }
+
+    /**
+     * Answer a shed request.
+     * @param response
+     *          The response.
+     * @throws IOException
+     *          If the response cannot be written.
+     */
+    private static void shed(final HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(RETRY_AFTER, "1");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.setContentType(MediaType.APPLICATION_JSON);
+        response.setContentLength(SHED_BODY.length);
+        response.getOutputStream().write(SHED_BODY);
+    }
+
+    /**
+     * Releases an asynchronous request when it ends.
+     */
+    private final class Release implements AsyncListener {
+
+        /**
+         * When the request was admitted.
+         */
+        private final long start;
+
+        /**
+         * Whether the request failed or timed out before it completed.
+         */
+        private boolean failed;
+
+        /**
+         * Constructor.
+         * @param theStart
+         *          When the request was admitted.
+         */
+        Release(final long theStart) {
+            start = theStart;
+        }
+
+        /**
+         * Release the request.
+         * @param event
+         *          The event.
+         */
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            limiter.release(start, !failed);
+        }
+
+        /**
+         * Note that the request timed out. It is still completed afterwards.
+         * @param event
+         *          The event.
+         */
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            failed = true;
+        }
+
+        /**
+         * Note that the request failed. It is still completed afterwards.
+         * @param event
+         *          The event.
+         */
+        @Override
+        public void onError(final AsyncEvent event) {
+            failed = true;
+        }
+
+        /**
+         * Do nothing.
+         * @param event
+         *          The event.
+         */
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            // Not called: the listener is added after the request went asynchronous.
+        }
+    }
+}
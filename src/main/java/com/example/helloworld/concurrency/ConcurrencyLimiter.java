@@ -0,0 +1,297 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * An adaptive limit on the number of requests in flight.
+ *
+ * <p>A request is admitted if fewer than the limit are in flight, and shed otherwise. The limit follows the gradient
+ * between the long term and the recent average response time. Response times are averaged over a window of at least
+ * {@code window} and {@code minSamples} responses. At the end of each window:</p>
+ * <ul>
+ *  <li>the long term average moves towards the window's average, over about {@value #LONG_WINDOWS} windows;</li>
+ *  <li>the gradient is the long term average, multiplied by the {@code tolerance}, divided by the window's average,
+ *  kept between {@code 0.5} and {@code 1.0}; and</li>
+ *  <li>the new limit is the limit multiplied by the gradient, plus its square root to leave room for a queue. The limit
+ *  moves towards it by the {@code smoothing} fraction.</li>
+ * </ul>
+ *
+ * <p>While response times stay within the tolerance, the limit grows by about its square root each window. When they
+ * rise, the limit falls, by at most half each window. The limit doesn't grow while fewer than half of it were in flight
+ * during the window, so a quiet period doesn't leave a limit that was never tested. When response times fall well
+ * below the long term average, the long term average is lowered faster, so that it doesn't stay high after an
+ * overload.</p>
+ *
+ * <p>Admitting and releasing a request only update atomic counters. The limit is recalculated by the request that
+ * ends a window, if no other request is recalculating it; the others carry on without waiting.</p>
+ *
+ * <p>These metrics are registered: the gauges {@code ConcurrencyLimiter.limit} and {@code ConcurrencyLimiter.inFlight},
+ * and the meter {@code ConcurrencyLimiter.shed}.</p>
+ */
+public final class ConcurrencyLimiter {
+
+    /**
+     * The number of windows the long term average response time is taken over.
+     */
+    static final int LONG_WINDOWS = 600;
+
+    /**
+     * The number of windows whose response times are simply averaged, before the long term average becomes an
+     * exponential moving average.
+     */
+    private static final int WARMUP_WINDOWS = 10;
+
+    /**
+     * The weight of each window in the long term average.
+     */
+    private static final double LONG_WEIGHT = 2.0 / (LONG_WINDOWS + 1);
+
+    /**
+     * The lowest gradient, so the limit falls by at most half each window.
+     */
+    private static final double MIN_GRADIENT = 0.5;
+
+    /**
+     * How far the recent average may fall below the long term average before the long term average is lowered
+     * faster.
+     */
+    private static final double RECOVERY_RATIO = 2.0;
+
+    /**
+     * The factor the long term average is lowered by in each window of recovery.
+     */
+    private static final double RECOVERY_DECAY = 0.95;
+
+    /**
+     * The lowest the limit can go.
+     */
+    private final int minLimit;
+
+    /**
+     * The highest the limit can go.
+     */
+    private final int maxLimit;
+
+    /**
+     * How many times the long term average response time the recent average may be.
+     */
+    private final double tolerance;
+
+    /**
+     * The weight given to each new limit.
+     */
+    private final double smoothing;
+
+    /**
+     * The least time over which response times are averaged.
+     */
+    private final long windowNanos;
+
+    /**
+     * The least number of responses averaged.
+     */
+    private final int minSamples;
+
+    /**
+     * The number of requests in flight.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * The most requests in flight during the current window.
+     */
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    /**
+     * The sum of the response times in the current window, in nanoseconds.
+     */
+    private final LongAdder rttSum = new LongAdder();
+
+    /**
+     * The number of responses in the current window.
+     */
+    private final LongAdder samples = new LongAdder();
+
+    /**
+     * Held while the limit is recalculated.
+     */
+    private final ReentrantLock updating = new ReentrantLock();
+
+    /**
+     * The shed requests.
+     */
+    private final Meter shed;
+
+    /**
+     * The current limit.
+     */
+    private volatile int limit;
+
+    /**
+     * The earliest end of the current window.
+     */
+    private volatile long windowEnd;
+
+    /**
+     * The limit before it is rounded down. Guarded by {@link #updating}.
+     */
+    private double estimate;
+
+    /**
+     * The long term average response time, in nanoseconds. Guarded by {@link #updating}.
+     */
+    private double longRtt;
+
+    /**
+     * The number of windows so far, up to {@link #WARMUP_WINDOWS}. Guarded by {@link #updating}.
+     */
+    private int windows;
+
+    /**
+     * Constructor.
+     * @param configuration
+     *          The limiter configuration.
+     * @param metrics
+     *          The registry for the limiter metrics.
+     */
+    public ConcurrencyLimiter(final ConcurrencyLimitConfiguration configuration, final MetricRegistry metrics) {
+        minLimit = configuration.getMinLimit();
+        maxLimit = Math.max(minLimit, configuration.getMaxLimit());
+        tolerance = configuration.getTolerance();
+        smoothing = configuration.getSmoothing();
+        windowNanos = configuration.getWindow().toNanoseconds();
+        minSamples = configuration.getMinSamples();
+
+        estimate = Math.max(minLimit, Math.min(maxLimit, configuration.getInitialLimit()));
+        limit = (int) estimate;
+        windowEnd = System.nanoTime() + windowNanos;
+
+        shed = metrics.meter(MetricRegistry.name(ConcurrencyLimiter.class, "shed"));
+        metrics.register(MetricRegistry.name(ConcurrencyLimiter.class, "limit"),
+                         (Gauge<Integer>) () -> Integer.valueOf(limit));
+        metrics.register(MetricRegistry.name(ConcurrencyLimiter.class, "inFlight"),
+                         (Gauge<Integer>) () -> Integer.valueOf(inFlight.get()));
+    }
+
+    /**
+     * Admit a request, if fewer than the limit are in flight. An admitted request must be
+     * {@link #release(long, boolean) released} when it ends.
+     * @return
+     *          {@code true} if the request is admitted, {@code false} if it should be shed.
+     */
+    public boolean tryAcquire() {
+        final int current = inFlight.incrementAndGet();
+        if (current > limit) {
+            inFlight.decrementAndGet();
+            shed.mark();
+            return false;
+        }
+        if (current > peakInFlight.get()) {
+            peakInFlight.accumulateAndGet(current, Math::max);
+        }
+        return true;
+    }
+
+    /**
+     * Release an admitted request.
+     * @param startNanos
+     *          When the request was admitted, from {@link System#nanoTime()}.
+     * @param completed
+     *          {@code true} if the request completed, so its response time is a sample; {@code false} if it failed
+     *          before it had a response, so its time says nothing about the load.
+     */
+    public void release(final long startNanos, final boolean completed) {
+        release(startNanos, System.nanoTime(), completed);
+    }
+
+    /**
+     * Release an admitted request at a given time.
+     * @param startNanos
+     *          When the request was admitted, from {@link System#nanoTime()}.
+     * @param now
+     *          The current time, from {@link System#nanoTime()}.
+     * @param completed
+     *          {@code true} if the request completed, so its response time is a sample.
+     */
+    void release(final long startNanos, final long now, final boolean completed) {
+        inFlight.decrementAndGet();
+        if (!completed) {
+            return;
+        }
+
+        rttSum.add(now - startNanos);
+        samples.increment();
+        if (now - windowEnd >= 0) {
+            update(now);
+        }
+    }
+
+    /**
+     * @return
+     *          The current limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return
+     *          The number of requests in flight.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * End the window and recalculate the limit, unless another request is already doing so or the window doesn't yet
+     * have enough samples.
+     * @param now
+     *          The current time.
+     */
+    private void update(final long now) {
+        if (!updating.tryLock()) {
+            return;
+        }
+        try {
+            if (now - windowEnd < 0 || samples.sum() < minSamples) {
+                return;
+            }
+            final long count = samples.sumThenReset();
+            final double shortRtt = (double) rttSum.sumThenReset() / Math.max(1, count);
+            final int peak = peakInFlight.getAndSet(inFlight.get());
+            windowEnd = now + windowNanos;
+
+            if (windows < WARMUP_WINDOWS) {
+                longRtt = (longRtt * windows + shortRtt) / (windows + 1);
+                windows++;
+            }
+            else {
+                longRtt += LONG_WEIGHT * (shortRtt - longRtt);
+            }
+            if (longRtt > RECOVERY_RATIO * shortRtt) {
+                longRtt *= RECOVERY_DECAY;
+            }
+
+            final double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longRtt / shortRtt));
+            if (gradient >= 1.0 && peak < estimate / 2) {
+                // The limit was not tested in this window, so it is not raised.
+                return;
+            }
+            final double target = estimate * gradient + Math.sqrt(estimate);
+            estimate = Math.max(minLimit, Math.min(maxLimit, estimate + smoothing * (target - estimate)));
+            limit = (int) estimate;
+        }
+        finally {
+            updating.unlock();
+        }
+    }
+}
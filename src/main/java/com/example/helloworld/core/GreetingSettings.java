@@ -0,0 +1,67 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.core;
+
+import com.example.helloworld.HelloWorldConfiguration;
+
+/**
+ * An immutable snapshot of the settings that shape a greeting: the compiled templates and the default name.
+ *
+ * <p>The settings can be reloaded while the application runs, so a request reads the current snapshot from the
+ * {@link GreetingSettingsHolder} once, and uses it for the whole request.</p>
+ */
+public final class GreetingSettings {
+
+    /**
+     * The compiled templates.
+     */
+    private final TemplateRegistry templates;
+
+    /**
+     * The name to use if there is no name query parameter.
+     */
+    private final String defaultName;
+
+    /**
+     * Constructor.
+     * @param theTemplates
+     *          The compiled templates.
+     * @param theDefaultName
+     *          The name to use if there is no name query parameter.
+     */
+    public GreetingSettings(final TemplateRegistry theTemplates, final String theDefaultName) {
+        templates = theTemplates;
+        defaultName = theDefaultName;
+    }
+
+    /**
+     * Compile the settings from a configuration.
+     * @param configuration
+     *          The application configuration.
+     * @return
+     *          The settings.
+     * @throws IllegalArgumentException
+     *          If a template cannot be compiled.
+     */
+    public static GreetingSettings from(final HelloWorldConfiguration configuration) {
+        return new GreetingSettings(TemplateRegistry.compile(configuration.getTemplate(), configuration.getTemplates()),
+                                    configuration.getDefaultName());
+    }
+
+    /**
+     * @return
+     *          The compiled templates.
+     */
+    public TemplateRegistry getTemplates() {
+        return templates;
+    }
+
+    /**
+     * @return
+     *          The name to use if there is no name query parameter.
+     */
+    public String getDefaultName() {
+        return defaultName;
+    }
+}
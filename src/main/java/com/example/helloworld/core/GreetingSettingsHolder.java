@@ -0,0 +1,45 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.core;
+
+/**
+ * Holds the current {@link GreetingSettings}.
+ *
+ * <p>The settings are immutable, so a reload publishes a whole new snapshot with one volatile write, and a request
+ * thread reads it with one volatile read. Request threads never take a lock, and never see a template from one
+ * configuration with the default name from another.</p>
+ */
+public final class GreetingSettingsHolder {
+
+    /**
+     * The current settings.
+     */
+    private volatile GreetingSettings current;
+
+    /**
+     * Constructor.
+     * @param initial
+     *          The settings the application started with.
+     */
+    public GreetingSettingsHolder(final GreetingSettings initial) {
+        current = initial;
+    }
+
+    /**
+     * @return
+     *          The current settings.
+     */
+    public GreetingSettings get() {
+        return current;
+    }
+
+    /**
+     * Publish new settings.
+     * @param settings
+     *          The settings.
+     */
+    public void set(final GreetingSettings settings) {
+        current = settings;
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A greeting template that has been parsed once into literal and placeholder segments.
+ *
+ * <p>The template uses the same syntax as {@link String#format(String, Object...)} with a single argument, the name.
+ * Rendering a compiled template produces exactly the same text as {@code String.format(template, name)}, but without
+ * parsing the format string, creating a {@link java.util.Formatter} or boxing the arguments for every request.</p>
+ *
+ * <p>Only these format specifiers are supported:</p>
+ * <ul>
+ *  <li>{@code %s} and {@code %1$s}: the name.</li>
+ *  <li>{@code %%}: a literal percent sign.</li>
+ *  <li>{@code %n}: the platform line separator.</li>
+ * </ul>
+ *
+ * <p>Any other format specifier is rejected by {@link #compile(String)} so that a bad template is reported when the
+ * application starts, not on the first request.</p>
+ */
+public final class GreetingTemplate {
+
+    /**
+     * The initial capacity of each thread's render buffer.
+     */
+    private static final int INITIAL_BUFFER_CAPACITY = 128;
+
+    /**
+     * A render buffer per thread, so rendering does not allocate a new {@link StringBuilder} for each request.
+     */
+    private static final ThreadLocal<StringBuilder> BUFFER =
+                                            ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER_CAPACITY));
+
+    /**
+     * The template source text.
+     */
+    private final String source;
+
+    /**
+     * The literal text between the placeholders. There is always one more literal than there are placeholders.
+     */
+    private final String[] literals;
+
+    /**
+     * The total length of all the literals.
+     */
+    private final int literalLength;
+
+    /**
+     * Constructor.
+     * @param theSource
+     *          The template source text.
+     * @param theLiterals
+     *          The literal segments.
+     */
+    private GreetingTemplate(final String theSource, final String[] theLiterals) {
+        source = theSource;
+        literals = theLiterals;
+
+        int length = 0;
+        for (final String literal : theLiterals) {
+            length += literal.length();
+        }
+        literalLength = length;
+    }
+
+    /**
+     * Compile a template.
+     * @param template
+     *          The template, in {@link java.util.Formatter} syntax.
+     * @return
+     *          The compiled template.
+     * @throws IllegalArgumentException
+     *          If the template is {@code null} or contains a format specifier that is not supported.
+     */
+    public static GreetingTemplate compile(final String template) {
+        if (template == null) {
+            throw new IllegalArgumentException("The greeting template must not be null.");
+        }
+
+        final List<String> segments = new ArrayList<>();
+        final StringBuilder literal = new StringBuilder(template.length());
+        boolean ordinaryPlaceholderSeen = false;
+
+        int index = 0;
+        while (index < template.length()) {
+            final char c = template.charAt(index);
+
+            if (c != '%') {
+                literal.append(c);
+                index++;
+                continue;
+            }
+
+            if (template.startsWith("%%", index)) {
+                literal.append('%');
+                index += 2;
+            }
+            else if (template.startsWith("%n", index)) {
+                literal.append(System.lineSeparator());
+                index += 2;
+            }
+            else if (template.startsWith("%1$s", index)) {
+                segments.add(literal.toString());
+                literal.setLength(0);
+                index += 4;
+            }
+            else if (template.startsWith("%s", index)) {
+                // String.format only has one argument, so a second ordinary %s has no argument to consume.
+                if (ordinaryPlaceholderSeen) {
+                    throw unsupported(template, index, "only one \"%s\" is allowed; use \"%1$s\" to repeat the name");
+                }
+                ordinaryPlaceholderSeen = true;
+                segments.add(literal.toString());
+                literal.setLength(0);
+                index += 2;
+            }
+            else {
+                throw unsupported(template, index, "only \"%s\", \"%1$s\", \"%%\" and \"%n\" are supported");
+            }
+        }
+        segments.add(literal.toString());
+
+        return new GreetingTemplate(template, segments.toArray(new String[segments.size()]));
+    }
+
+    /**
+     * Render the template for a name.
+     * @param name
+     *          The name to insert into the template.
+     * @return
+     *          The rendered greeting. This is the same as {@code String.format(template, name)}.
+     */
+    public String render(final String name) {
+        final StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        renderTo(buffer, name);
+        return buffer.toString();
+    }
+
+    /**
+     * Render the template for a name into a {@link StringBuilder}.
+     * @param buffer
+     *          The buffer to append the rendered greeting to.
+     * @param name
+     *          The name to insert into the template.
+     * @return
+     *          The buffer.
+     */
+    public StringBuilder renderTo(final StringBuilder buffer, final String name) {
+        final String value = String.valueOf(name);
+        buffer.ensureCapacity(buffer.length() + renderedLength(value));
+
+        buffer.append(literals[0]);
+        for (int i = 1; i < literals.length; i++) {
+            buffer.append(value).append(literals[i]);
+        }
+        return buffer;
+    }
+
+    /**
+     * Get the number of name placeholders in the template.
+     * @return
+     *          The number of placeholders. This is zero if the template does not include the name.
+     */
+    public int getPlaceholderCount() {
+        return literals.length - 1;
+    }
+
+    /**
+     * Get the template source text.
+     * @return
+     *          The source text that was compiled.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return
+     *          The template source text.
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    /**
+     * Get the length of the rendered greeting.
+     * @param name
+     *          The name to insert into the template.
+     * @return
+     *          The number of characters in the rendered greeting.
+     */
+    private int renderedLength(final String name) {
+        return literalLength + name.length() * getPlaceholderCount();
+    }
+
+    /**
+     * Create the exception for an unsupported format specifier.
+     * @param template
+     *          The template being compiled.
+     * @param index
+     *          The index of the specifier in the template.
+     * @param reason
+     *          Why the specifier is not supported.
+     * @return
+     *          The exception to throw.
+     */
+    private static IllegalArgumentException unsupported(final String template, final int index, final String reason) {
+        return new IllegalArgumentException("Unsupported format specifier at index " + index + " of the greeting " +
+                                            "template \"" + template + "\": " + reason + ".");
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.core;
+
+/**
+ * A greeting whose content is known before the request, with the JSON that follows the id encoded once.
+ *
+ * <p>A {@link Saying} is written as {@code {"id":<id>,"content":"<content>"}}, so when the content is fixed everything
+ * after the id is the same for every response. That suffix is encoded when the greeting is created, by
+ * {@link SayingJson} so that it is escaped exactly as on the normal path. A {@link Saying} made by
+ * {@link #withId(long)} is then written by copying the id prefix, the id's digits and the suffix into the thread's
+ * pooled buffer, without rendering, escaping or encoding the content. Its output is byte-identical to a
+ * {@code Saying} with the same id and content.</p>
+ */
+public final class PrerenderedGreeting {
+
+    /**
+     * The content.
+     */
+    private final String content;
+
+    /**
+     * The JSON after the id: {@code ,"content":"<content>"}}.
+     */
+    private final byte[] jsonSuffix;
+
+    /**
+     * Constructor.
+     * @param theContent
+     *          The content.
+     */
+    public PrerenderedGreeting(final String theContent) {
+        content = theContent;
+        jsonSuffix = SayingJson.encodeSuffix(theContent);
+    }
+
+    /**
+     * Create a saying with this greeting.
+     * @param id
+     *          The saying's id.
+     * @return
+     *          The saying. It is written as JSON from the prerendered bytes, and in the other formats as usual.
+     */
+    public Saying withId(final long id) {
+        return new PrerenderedSaying(id, content, jsonSuffix);
+    }
+
+    /**
+     * @return
+     *          The content.
+     */
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * A saying whose JSON after the id is already encoded.
+     */
+    static final class PrerenderedSaying extends Saying {
+
+        /**
+         * The JSON after the id.
+         */
+        private final byte[] jsonSuffix;
+
+        /**
+         * Constructor.
+         * @param theId
+         *          The id.
+         * @param theContent
+         *          The content.
+         * @param theJsonSuffix
+         *          The JSON after the id.
+         */
+        PrerenderedSaying(final long theId, final String theContent, final byte[] theJsonSuffix) {
+            super(theId, theContent);
+            jsonSuffix = theJsonSuffix;
+        }
+
+        /**
+         * @return
+         *          The JSON after the id. This is shared, so it must not be modified.
+         */
+        byte[] getJsonSuffix() {
+            return jsonSuffix;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+
+import com.fasterxml.jackson.core.FormatSchema;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * The formats a {@link Saying} can be encoded in, and the media type of each.
+ *
+ * <p>JSON is written by {@link SayingJson}. The binary formats are written and read with Jackson's streaming
+ * generators and parsers for the format, field by field, with no data binding. Everything that can be prepared in
+ * advance is prepared once: the field names are pre-encoded {@link SerializableString}s, and the Protobuf schema,
+ * {@link #PROTOBUF_SCHEMA}, is parsed when this class is loaded. Smile and CBOR have no schema. As with
+ * {@code SayingJson}, each thread encodes into its own pooled buffer, which is then written to the stream in one
+ * call.</p>
+ */
+public enum SayingFormat {
+
+    /**
+     * JSON, the default.
+     */
+    JSON(MediaType.APPLICATION_JSON, new JsonFactory(), null) {
+        @Override
+        public int write(final Saying saying, final OutputStream stream) throws IOException {
+            return SayingJson.write(saying, stream);
+        }
+
+        @Override
+        public byte[] toBytes(final Saying saying) {
+            return SayingJson.toBytes(saying);
+        }
+
+        @Override
+        public EntityTag tag(final EntityTag entityTag) {
+            return entityTag;
+        }
+    },
+
+    /**
+     * Jackson's binary JSON, Smile, with its header so that readers can detect it.
+     */
+    SMILE(SayingFormat.APPLICATION_SMILE, new SmileFactory(), null),
+
+    /**
+     * CBOR (RFC 7049).
+     */
+    CBOR(SayingFormat.APPLICATION_CBOR, new CBORFactory(), null),
+
+    /**
+     * Protocol Buffers, with the {@link #PROTOBUF_SCHEMA} schema.
+     */
+    PROTOBUF(SayingFormat.APPLICATION_PROTOBUF, new ProtobufFactory(), protobufSchema());
+
+    /**
+     * The media type for Smile.
+     */
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
+    /**
+     * The media type for CBOR.
+     */
+    public static final String APPLICATION_CBOR = "application/cbor";
+
+    /**
+     * The media type for Protobuf.
+     */
+    public static final String APPLICATION_PROTOBUF = "application/x-protobuf";
+
+    /**
+     * The Protobuf schema of a {@link Saying}. Clients can compile it to read the responses. Jackson's schema parser
+     * only understands proto2, but the wire format of these fields is the same in proto3.
+     */
+    public static final String PROTOBUF_SCHEMA = "package com.example.helloworld;\n" +
+                                                 "message Saying {\n" +
+                                                 "  optional int64 id = 1;\n" +
+                                                 "  optional string content = 2;\n" +
+                                                 "}\n";
+
+    /**
+     * The initial size of a thread's buffer.
+     */
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    /**
+     * Buffers bigger than this are not kept for reuse, so one large greeting doesn't pin memory on a thread.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The name of the id field.
+     */
+    private static final SerializableString ID = new SerializedString("id");
+
+    /**
+     * The name of the content field.
+     */
+    private static final SerializableString CONTENT = new SerializedString("content");
+
+    /**
+     * The buffer for each thread.
+     */
+    private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(Buffer::new);
+
+    /**
+     * The media type.
+     */
+    private final MediaType mediaType;
+
+    /**
+     * The factory for the format's generators and parsers.
+     */
+    private final JsonFactory factory;
+
+    /**
+     * The format's schema, or {@code null} if it doesn't have one.
+     */
+    private final FormatSchema schema;
+
+    /**
+     * The suffix of the format's entity tags, so that each format of a greeting has a different tag.
+     */
+    private final String tagSuffix;
+
+    /**
+     * Constructor.
+     * @param theMediaType
+     *          The media type.
+     * @param theFactory
+     *          The factory for the format's generators and parsers.
+     * @param theSchema
+     *          The format's schema, or {@code null} if it doesn't have one.
+     */
+    SayingFormat(final String theMediaType, final JsonFactory theFactory, final FormatSchema theSchema) {
+        mediaType = MediaType.valueOf(theMediaType);
+        factory = theFactory;
+        schema = theSchema;
+        tagSuffix = "-" + name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Find the format of a media type.
+     * @param mediaType
+     *          The media type.
+     * @return
+     *          The format, or {@code null} if a {@code Saying} can't be written as the media type.
+     */
+    public static SayingFormat of(final MediaType mediaType) {
+        for (final SayingFormat format : values()) {
+            if (format.mediaType.isCompatible(mediaType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return
+     *          The media type.
+     */
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Write a {@link Saying} to a stream.
+     * @param saying
+     *          The saying to write.
+     * @param stream
+     *          The stream to write to. The stream is not flushed or closed.
+     * @return
+     *          The number of bytes written.
+     * @throws IOException
+     *          If the stream cannot be written to.
+     */
+    public int write(final Saying saying, final OutputStream stream) throws IOException {
+        final Buffer buffer = acquire();
+        try {
+            encode(saying, buffer);
+            buffer.writeTo(stream);
+            return buffer.size();
+        }
+        finally {
+            release(buffer);
+        }
+    }
+
+    /**
+     * Encode a {@link Saying}.
+     * @param saying
+     *          The saying to encode.
+     * @return
+     *          The encoded bytes.
+     */
+    public byte[] toBytes(final Saying saying) {
+        final Buffer buffer = acquire();
+        try {
+            encode(saying, buffer);
+            return buffer.toByteArray();
+        }
+        catch (final IOException e) {
+            // The buffer doesn't throw, so this is a bug.
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            release(buffer);
+        }
+    }
+
+    /**
+     * Decode a {@link Saying}.
+     * @param bytes
+     *          The encoded bytes.
+     * @return
+     *          The saying. Fields that are not in the encoding are {@code 0} or {@code null}, and unknown fields are
+     *          ignored.
+     * @throws IOException
+     *          If the bytes are not a {@code Saying} in this format.
+     */
+    public Saying read(final byte[] bytes) throws IOException {
+        try (JsonParser parser = factory.createParser(bytes)) {
+            if (schema != null) {
+                parser.setSchema(schema);
+            }
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("A " + name() + " Saying must be an object.");
+            }
+
+            long id = 0;
+            String content = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                final JsonToken value = parser.nextToken();
+                if ("id".equals(field)) {
+                    id = parser.getLongValue();
+                }
+                else if ("content".equals(field)) {
+                    content = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                }
+                else {
+                    parser.skipChildren();
+                }
+            }
+            return new Saying(id, content);
+        }
+    }
+
+    /**
+     * Get the entity tag of a greeting in this format.
+     * @param entityTag
+     *          The entity tag of the greeting's content.
+     * @return
+     *          The entity tag of the encoded greeting, which is different for each format.
+     */
+    public EntityTag tag(final EntityTag entityTag) {
+        return new EntityTag(entityTag.getValue() + tagSuffix, entityTag.isWeak());
+    }
+
+    /**
+     * Encode a {@link Saying} into a buffer with the format's generator.
+     * @param saying
+     *          The saying to encode.
+     * @param buffer
+     *          The buffer.
+     * @throws IOException
+     *          If the saying cannot be encoded.
+     */
+    private void encode(final Saying saying, final Buffer buffer) throws IOException {
+        try (JsonGenerator generator = factory.createGenerator(buffer)) {
+            if (schema != null) {
+                generator.setSchema(schema);
+            }
+            generator.writeStartObject();
+            generator.writeFieldName(ID);
+            generator.writeNumber(saying.getId());
+            final String content = saying.getContent();
+            if (content != null) {
+                // Protobuf has no null, so a null content is left out in every format.
+                generator.writeFieldName(CONTENT);
+                generator.writeString(content);
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Parse the {@link #PROTOBUF_SCHEMA}.
+     * @return
+     *          The schema.
+     * @throws IllegalStateException
+     *          If the schema cannot be parsed, which is a bug.
+     */
+    private static ProtobufSchema protobufSchema() {
+        try {
+            return ProtobufSchemaLoader.std.parse(PROTOBUF_SCHEMA);
+        }
+        catch (final IOException e) {
+            throw new IllegalStateException("The Saying Protobuf schema cannot be parsed.", e);
+        }
+    }
+
+    /**
+     * Get this thread's buffer.
+     * @return
+     *          An empty buffer.
+     */
+    private static Buffer acquire() {
+        final Buffer buffer = BUFFER.get();
+        buffer.reset();
+        return buffer;
+    }
+
+    /**
+     * Return a buffer after use, discarding it if it has grown too big to keep.
+     * @param buffer
+     *          The buffer.
+     */
+    private static void release(final Buffer buffer) {
+        if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            BUFFER.remove();
+        }
+    }
+
+    /**
+     * A growable byte buffer that a generator can write to.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        /**
+         * Constructor.
+         */
+        Buffer() {
+            super(INITIAL_BUFFER_SIZE);
+        }
+
+        /**
+         * @return
+         *          The size of the backing array.
+         */
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
@@ -0,0 +1,401 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes a {@link Saying} as JSON without Jackson.
+ *
+ * <p>The output is byte-identical to the JSON written by Dropwizard's Jackson provider:
+ * {@code {"id":<id>,"content":"<content>"}}. The content is escaped the same way Jackson escapes strings, and is
+ * written as UTF-8, except that surrogate pairs are written as {@code \}{@code u} escapes, as Jackson 2.9 does.</p>
+ *
+ * <p>Each thread encodes into its own pooled byte buffer, which is then written to the stream in one call. ASCII
+ * content that needs no escaping is copied a byte at a time without any intermediate objects. The content of a
+ * {@link PrerenderedGreeting} was encoded when it was created, so only its id is encoded.</p>
+ */
+public final class SayingJson {
+
+    /**
+     * The initial size of a thread's buffer.
+     */
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    /**
+     * Buffers bigger than this are not kept for reuse, so one large greeting doesn't pin memory on a thread.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The bytes before the id.
+     */
+    private static final byte[] ID_PREFIX = "{\"id\":".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The bytes between the id and the content.
+     */
+    private static final byte[] CONTENT_PREFIX = ",\"content\":".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The JSON literal {@code null}.
+     */
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The hexadecimal digits used for {@code \}{@code u} escapes. Jackson uses upper case.
+     */
+    private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The escape character for each ASCII character. {@code 0} means no escape is needed and {@code 'u'} means a
+     * {@code \}{@code u00XX} escape is needed.
+     */
+    private static final byte[] ESCAPES = new byte[128];
+
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            ESCAPES[c] = 'u';
+        }
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\t'] = 't';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\r'] = 'r';
+    }
+
+    /**
+     * The buffer for each thread.
+     */
+    private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(() -> new Buffer(INITIAL_BUFFER_SIZE));
+
+    /**
+     * Write a {@link Saying} as JSON to a stream.
+     * @param saying
+     *          The saying to write.
+     * @param stream
+     *          The stream to write to. The stream is not flushed or closed.
+     * @return
+     *          The number of bytes written.
+     * @throws IOException
+     *          If the stream cannot be written to.
+     */
+    public static int write(final Saying saying, final OutputStream stream) throws IOException {
+        final Buffer buffer = acquire();
+        try {
+            encode(saying, buffer);
+            stream.write(buffer.bytes, 0, buffer.length);
+            return buffer.length;
+        }
+        finally {
+            release(buffer);
+        }
+    }
+
+    /**
+     * Encode a {@link Saying} as JSON.
+     * @param saying
+     *          The saying to encode.
+     * @return
+     *          The UTF-8 JSON bytes.
+     */
+    public static byte[] toBytes(final Saying saying) {
+        final Buffer buffer = acquire();
+        try {
+            encode(saying, buffer);
+            final byte[] bytes = new byte[buffer.length];
+            System.arraycopy(buffer.bytes, 0, bytes, 0, buffer.length);
+            return bytes;
+        }
+        finally {
+            release(buffer);
+        }
+    }
+
+    /**
+     * Encode a {@link Saying} into a buffer.
+     * @param saying
+     *          The saying to encode.
+     * @param buffer
+     *          The buffer to append the JSON to.
+     */
+    static void encode(final Saying saying, final Buffer buffer) {
+        buffer.append(ID_PREFIX);
+        appendLong(buffer, saying.getId());
+        if (saying instanceof PrerenderedGreeting.PrerenderedSaying) {
+            buffer.append(((PrerenderedGreeting.PrerenderedSaying) saying).getJsonSuffix());
+            return;
+        }
+        appendSuffix(buffer, saying.getContent());
+    }
+
+    /**
+     * Encode the JSON that follows the id of a {@link Saying}.
+     * @param content
+     *          The saying's content.
+     * @return
+     *          The UTF-8 JSON bytes: {@code ,"content":"<content>"}}.
+     */
+    static byte[] encodeSuffix(final String content) {
+        final Buffer buffer = new Buffer(INITIAL_BUFFER_SIZE);
+        appendSuffix(buffer, content);
+        final byte[] bytes = new byte[buffer.length];
+        System.arraycopy(buffer.bytes, 0, bytes, 0, buffer.length);
+        return bytes;
+    }
+
+    /**
+     * Append the JSON that follows the id of a {@link Saying}.
+     * @param buffer
+     *          The buffer to append to.
+     * @param content
+     *          The saying's content.
+     */
+    private static void appendSuffix(final Buffer buffer, final String content) {
+        buffer.append(CONTENT_PREFIX);
+        appendString(buffer, content);
+        buffer.append((byte) '}');
+    }
+
+    /**
+     * Append a {@code long} as decimal digits.
+     * @param buffer
+     *          The buffer to append to.
+     * @param value
+     *          The value to append.
+     */
+    static void appendLong(final Buffer buffer, final long value) {
+        if (value == Long.MIN_VALUE) {
+            buffer.append(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+
+        long remaining = value;
+        if (remaining < 0) {
+            buffer.append((byte) '-');
+            remaining = -remaining;
+        }
+
+        final int digits = digitCount(remaining);
+        buffer.ensureCapacity(digits);
+        int position = buffer.length + digits;
+        do {
+            buffer.bytes[--position] = (byte) ('0' + (int) (remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+        buffer.length += digits;
+    }
+
+    /**
+     * Append a JSON string, or {@code null}.
+     * @param buffer
+     *          The buffer to append to.
+     * @param value
+     *          The string to append.
+     */
+    static void appendString(final Buffer buffer, final String value) {
+        if (value == null) {
+            buffer.append(NULL);
+            return;
+        }
+
+        final int length = value.length();
+        buffer.ensureCapacity(length + 2);
+        buffer.append((byte) '"');
+
+        int i = 0;
+        // ASCII fast path: one byte per character until something needs escaping or encoding.
+        while (i < length) {
+            final char c = value.charAt(i);
+            if (c >= 128 || ESCAPES[c] != 0) {
+                break;
+            }
+            buffer.bytes[buffer.length++] = (byte) c;
+            i++;
+        }
+
+        if (i < length) {
+            appendEscaped(buffer, value, i);
+        }
+        buffer.append((byte) '"');
+    }
+
+    /**
+     * Append the rest of a string, escaping and UTF-8 encoding it as required.
+     * @param buffer
+     *          The buffer to append to.
+     * @param value
+     *          The string.
+     * @param start
+     *          The index of the first character to append.
+     */
+    private static void appendEscaped(final Buffer buffer, final String value, final int start) {
+        final int length = value.length();
+        int i = start;
+        while (i < length) {
+            final char c = value.charAt(i);
+            if (c < 128) {
+                final byte escape = ESCAPES[c];
+                if (escape == 0) {
+                    buffer.append((byte) c);
+                }
+                else if (escape == 'u') {
+                    appendUnicodeEscape(buffer, c);
+                }
+                else {
+                    buffer.ensureCapacity(2);
+                    buffer.bytes[buffer.length++] = '\\';
+                    buffer.bytes[buffer.length++] = escape;
+                }
+                i++;
+            }
+            else if (c < 0x800) {
+                buffer.ensureCapacity(2);
+                buffer.bytes[buffer.length++] = (byte) (0xC0 | (c >> 6));
+                buffer.bytes[buffer.length++] = (byte) (0x80 | (c & 0x3F));
+                i++;
+            }
+            else if (Character.isSurrogate(c)) {
+                // Jackson 2.9 escapes each half of a surrogate pair rather than encoding the code point.
+                appendUnicodeEscape(buffer, c);
+                i++;
+            }
+            else {
+                buffer.ensureCapacity(3);
+                buffer.bytes[buffer.length++] = (byte) (0xE0 | (c >> 12));
+                buffer.bytes[buffer.length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer.bytes[buffer.length++] = (byte) (0x80 | (c & 0x3F));
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Append a {@code \}{@code uXXXX} escape.
+     * @param buffer
+     *          The buffer to append to.
+     * @param c
+     *          The character to escape.
+     */
+    private static void appendUnicodeEscape(final Buffer buffer, final char c) {
+        buffer.ensureCapacity(6);
+        buffer.bytes[buffer.length++] = '\\';
+        buffer.bytes[buffer.length++] = 'u';
+        buffer.bytes[buffer.length++] = HEX_DIGITS[(c >> 12) & 0xF];
+        buffer.bytes[buffer.length++] = HEX_DIGITS[(c >> 8) & 0xF];
+        buffer.bytes[buffer.length++] = HEX_DIGITS[(c >> 4) & 0xF];
+        buffer.bytes[buffer.length++] = HEX_DIGITS[c & 0xF];
+    }
+
+    /**
+     * Count the decimal digits in a non-negative {@code long}.
+     * @param value
+     *          The value.
+     * @return
+     *          The number of digits.
+     */
+    private static int digitCount(final long value) {
+        long limit = 10;
+        for (int digits = 1; digits < 19; digits++) {
+            if (value < limit) {
+                return digits;
+            }
+            limit *= 10;
+        }
+        return 19;
+    }
+
+    /**
+     * Get this thread's buffer.
+     * @return
+     *          An empty buffer.
+     */
+    static Buffer acquire() {
+        final Buffer buffer = BUFFER.get();
+        buffer.length = 0;
+        return buffer;
+    }
+
+    /**
+     * Return a buffer after use, discarding it if it has grown too big to keep.
+     * @param buffer
+     *          The buffer.
+     */
+    static void release(final Buffer buffer) {
+        if (buffer.bytes.length > MAX_RETAINED_BUFFER_SIZE) {
+            BUFFER.remove();
+        }
+    }
+
+    /**
+     * A growable byte buffer.
+     */
+    static final class Buffer {
+
+        /**
+         * The bytes.
+         */
+        byte[] bytes;
+
+        /**
+         * The number of bytes in use.
+         */
+        int length;
+
+        /**
+         * Constructor.
+         * @param size
+         *          The initial size.
+         */
+        Buffer(final int size) {
+            bytes = new byte[size];
+        }
+
+        /**
+         * Make sure there is room for more bytes.
+         * @param extra
+         *          The number of bytes that will be appended.
+         */
+        void ensureCapacity(final int extra) {
+            final int required = length + extra;
+            if (required > bytes.length) {
+                final byte[] bigger = new byte[Math.max(required, bytes.length * 2)];
+                System.arraycopy(bytes, 0, bigger, 0, length);
+                bytes = bigger;
+            }
+        }
+
+        /**
+         * Append a byte.
+         * @param b
+         *          The byte.
+         */
+        void append(final byte b) {
+            ensureCapacity(1);
+            bytes[length++] = b;
+        }
+
+        /**
+         * Append some bytes.
+         * @param b
+         *          The bytes.
+         */
+        void append(final byte[] b) {
+            ensureCapacity(b.length);
+            System.arraycopy(b, 0, bytes, length, b.length);
+            length += b.length;
+        }
+    }
+
+    /**
+     * Cannot instantiate.
+     */
+    private SayingJson() {
+        super();
+    }
+}
@@ -0,0 +1,210 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The compiled greeting templates, keyed by locale, and the negotiation that picks one for a request.
+ *
+ * <p>Every template is compiled when the registry is created, so a bad template stops the application from starting.
+ * A request's template is chosen from its {@code Accept-Language} header by {@link #negotiate(String)}:</p>
+ *
+ * <ol>
+ *  <li>the RFC 4647 lookup of the header's language ranges, in order of preference, against the registered locales,
+ *  so that {@code fr-CA} falls back to a template for {@code fr}; then</li>
+ *  <li>the first registered locale matched by the ranges other than {@code *}, so that {@code fr} finds a template
+ *  for {@code fr-FR}; otherwise</li>
+ *  <li>the default template.</li>
+ * </ol>
+ *
+ * <p>Clients send few distinct headers, so the result of negotiating each header value is cached and the common case
+ * is one map lookup. At most {@link #MAX_NEGOTIATIONS} values are cached; the others are negotiated every time, so
+ * clients that send a different header with every request cannot exhaust the heap.</p>
+ */
+public final class TemplateRegistry {
+
+    /**
+     * The maximum number of distinct {@code Accept-Language} values whose negotiated template is cached.
+     */
+    static final int MAX_NEGOTIATIONS = 1024;
+
+    /**
+     * The language range that matches any language.
+     */
+    private static final String WILDCARD = "*";
+
+    /**
+     * The template used when no registered locale matches.
+     */
+    private final GreetingTemplate defaultTemplate;
+
+    /**
+     * The localised templates, in the configured order.
+     */
+    private final Map<Locale, GreetingTemplate> templates;
+
+    /**
+     * The locales of the localised templates, in the configured order.
+     */
+    private final List<Locale> locales;
+
+    /**
+     * The template negotiated for each {@code Accept-Language} value.
+     */
+    private final ConcurrentMap<String, GreetingTemplate> negotiated = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     * @param theDefaultTemplate
+     *          The template used when no registered locale matches.
+     * @param theTemplates
+     *          The localised templates.
+     */
+    private TemplateRegistry(final GreetingTemplate theDefaultTemplate,
+                             final Map<Locale, GreetingTemplate> theTemplates) {
+        defaultTemplate = theDefaultTemplate;
+        templates = Collections.unmodifiableMap(theTemplates);
+        locales = Collections.unmodifiableList(new ArrayList<>(theTemplates.keySet()));
+    }
+
+    /**
+     * Compile the templates.
+     * @param defaultTemplate
+     *          The template used when no registered locale matches, in {@link java.util.Formatter} syntax.
+     * @param templates
+     *          The localised templates, keyed by IETF BCP 47 language tag, e.g. {@code fr} or {@code de-CH}.
+     * @return
+     *          The registry.
+     * @throws IllegalArgumentException
+     *          If a language tag is not well formed, or a template cannot be {@link GreetingTemplate#compile(String)
+     *          compiled}.
+     */
+    public static TemplateRegistry compile(final String defaultTemplate, final Map<String, String> templates) {
+        final Map<Locale, GreetingTemplate> compiled = new LinkedHashMap<>();
+        for (final Map.Entry<String, String> entry : templates.entrySet()) {
+            final Locale locale = Locale.forLanguageTag(entry.getKey());
+            if (locale.getLanguage().isEmpty()) {
+                throw new IllegalArgumentException("The greeting template locale \"" + entry.getKey() +
+                                                   "\" is not a well formed language tag.");
+            }
+            if (compiled.put(locale, GreetingTemplate.compile(entry.getValue())) != null) {
+                throw new IllegalArgumentException("There is more than one greeting template for the locale \"" +
+                                                   locale.toLanguageTag() + "\".");
+            }
+        }
+        return new TemplateRegistry(GreetingTemplate.compile(defaultTemplate), compiled);
+    }
+
+    /**
+     * Choose the template for a request.
+     * @param acceptLanguage
+     *          The request's {@code Accept-Language} header, or {@code null} if it doesn't have one.
+     * @return
+     *          The template for the most preferred language that has one, or the default template.
+     */
+    public GreetingTemplate negotiate(final String acceptLanguage) {
+        if (acceptLanguage == null || templates.isEmpty()) {
+            return defaultTemplate;
+        }
+
+        GreetingTemplate template = negotiated.get(acceptLanguage);
+        if (template == null) {
+            template = select(acceptLanguage);
+            if (negotiated.size() < MAX_NEGOTIATIONS) {
+                negotiated.putIfAbsent(acceptLanguage, template);
+            }
+        }
+        return template;
+    }
+
+    /**
+     * @return
+     *          The template used when no registered locale matches.
+     */
+    public GreetingTemplate getDefaultTemplate() {
+        return defaultTemplate;
+    }
+
+    /**
+     * @return
+     *          The localised templates, in the configured order.
+     */
+    public Map<Locale, GreetingTemplate> getTemplates() {
+        return templates;
+    }
+
+    /**
+     * @return
+     *          {@code true} if there are localised templates, so the greeting depends on the {@code Accept-Language}
+     *          header.
+     */
+    public boolean isLocalized() {
+        return !templates.isEmpty();
+    }
+
+    /**
+     * Find the templates that don't include the name.
+     * @return
+     *          The language tags of the templates that don't include the name, and {@code default} if the default
+     *          template doesn't. This is empty if every template is valid.
+     */
+    public List<String> findTemplatesWithoutName() {
+        final List<String> failures = new ArrayList<>();
+        if (!includesName(defaultTemplate)) {
+            failures.add("default");
+        }
+        for (final Map.Entry<Locale, GreetingTemplate> entry : templates.entrySet()) {
+            if (!includesName(entry.getValue())) {
+                failures.add(entry.getKey().toLanguageTag());
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Check a template includes the name.
+     * @param template
+     *          The template.
+     * @return
+     *          {@code true} if rendering the template includes the name.
+     */
+    private static boolean includesName(final GreetingTemplate template) {
+        return template.getPlaceholderCount() > 0 && template.render("TEST").contains("TEST");
+    }
+
+    /**
+     * Negotiate the template for an {@code Accept-Language} header.
+     * @param acceptLanguage
+     *          The header.
+     * @return
+     *          The template. This is the default template if the header is malformed.
+     */
+    private GreetingTemplate select(final String acceptLanguage) {
+        final List<Locale.LanguageRange> ranges;
+        try {
+            ranges = Locale.LanguageRange.parse(acceptLanguage);
+        }
+        catch (@SuppressWarnings("unused") final IllegalArgumentException e) {
+            return defaultTemplate;
+        }
+
+        Locale locale = Locale.lookup(ranges, locales);
+        if (locale == null) {
+            // A wildcard range matches every locale, but means any language will do, so the default is chosen.
+            final List<Locale.LanguageRange> specific = new ArrayList<>(ranges);
+            specific.removeIf(range -> WILDCARD.equals(range.getRange()));
+            final List<Locale> matches = Locale.filter(specific, locales);
+            locale = matches.isEmpty() ? null : matches.get(0);
+        }
+        return locale == null ? defaultTemplate : templates.get(locale);
+    }
+}
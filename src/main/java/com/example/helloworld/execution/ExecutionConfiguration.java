@@ -0,0 +1,68 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.execution;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The configuration of how greeting requests are executed.
+ *
+ * <p>For example:</p>
+ * <pre>
+ * execution:
+ *   mode: asynchronous
+ *   threads: 32
+ *   queueSize: 1024
+ * </pre>
+ */
+public class ExecutionConfiguration {
+
+    /**
+     * The execution mode.
+     */
+    @NotNull
+    @JsonProperty
+    private ExecutionMode mode = ExecutionMode.SYNCHRONOUS;
+
+    /**
+     * The number of threads in the {@link ExecutionMode#ASYNCHRONOUS} thread pool.
+     */
+    @Min(1)
+    @JsonProperty
+    private int threads = 32;
+
+    /**
+     * The number of requests that can wait for a thread in the {@link ExecutionMode#ASYNCHRONOUS} thread pool.
+     */
+    @Min(1)
+    @JsonProperty
+    private int queueSize = 1024;
+
+    /**
+     * @return
+     *          The execution mode.
+     */
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return
+     *          The number of threads in the asynchronous thread pool.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return
+     *          The number of requests that can wait for a thread in the asynchronous thread pool.
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+}
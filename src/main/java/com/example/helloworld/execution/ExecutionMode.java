@@ -0,0 +1,30 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.execution;
+
+/**
+ * How greeting requests are executed.
+ */
+public enum ExecutionMode {
+
+    /**
+     * The greeting is rendered on the Jetty worker thread that received the request, and the request is not
+     * suspended.
+     */
+    SYNCHRONOUS,
+
+    /**
+     * The request is suspended and the greeting is rendered on a bounded thread pool. When the pool and its queue are
+     * full, the request is rejected with {@code 503 Service Unavailable}.
+     */
+    ASYNCHRONOUS,
+
+    /**
+     * The request is suspended and the greeting is rendered on a new virtual thread. This needs Java 21 or later; on
+     * an older JVM the {@link #ASYNCHRONOUS} thread pool is used instead.
+     *
+     * <p>Guice 4.2 needs {@code --add-opens java.base/java.lang=ALL-UNNAMED} to start on Java 17 or later.</p>
+     */
+    VIRTUAL_THREAD
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.execution;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.core.Configuration;
+
+import org.glassfish.jersey.server.model.ModelProcessor;
+import org.glassfish.jersey.server.model.Resource;
+import org.glassfish.jersey.server.model.ResourceMethod;
+import org.glassfish.jersey.server.model.ResourceModel;
+
+/**
+ * A Jersey {@link ModelProcessor} that keeps the resource methods for the configured {@link ExecutionMode}.
+ *
+ * <p>A resource may declare a request method twice: once returning its response, and once taking a
+ * {@code @Suspended AsyncResponse}. Jersey suspends a request before it calls a method with a suspended response, so
+ * the plain method is kept in {@link ExecutionMode#SYNCHRONOUS} mode, where no request needs to be suspended, and the
+ * suspended one in the other modes. A request method that is declared only once is always kept.</p>
+ *
+ * <p>This processor is registered with Jersey by the application, because Guicey only installs the provider types
+ * it knows.</p>
+ */
+public class ExecutionModeModelProcessor implements ModelProcessor {
+
+    /**
+     * {@code true} to keep the methods that return their response, {@code false} to keep the suspended ones.
+     */
+    private final boolean synchronous;
+
+    /**
+     * Constructor.
+     * @param mode
+     *          The configured execution mode.
+     */
+    public ExecutionModeModelProcessor(final ExecutionMode mode) {
+        synchronous = mode == ExecutionMode.SYNCHRONOUS;
+    }
+
+    /**
+     * Remove the resource methods that are not for the execution mode.
+     * @param resourceModel
+     *          The application's resources.
+     * @param configuration
+     *          The application configuration.
+     * @return
+     *          The resources, with one method for each request method.
+     * @see org.glassfish.jersey.server.model.ModelProcessor#processResourceModel(
+     *      org.glassfish.jersey.server.model.ResourceModel, javax.ws.rs.core.Configuration)
+     */
+    @Override
+    public ResourceModel processResourceModel(final ResourceModel resourceModel, final Configuration configuration) {
+        final ResourceModel.Builder model = new ResourceModel.Builder(false);
+        for (final Resource resource : resourceModel.getRootResources()) {
+            model.addResource(select(resource));
+        }
+        return model.build();
+    }
+
+    /**
+     * Leave a sub-resource model unchanged.
+     * @param subResourceModel
+     *          The sub-resource model.
+     * @param configuration
+     *          The application configuration.
+     * @return
+     *          The sub-resource model.
+     * @see org.glassfish.jersey.server.model.ModelProcessor#processSubResource(
+     *      org.glassfish.jersey.server.model.ResourceModel, javax.ws.rs.core.Configuration)
+     */
+    @Override
+    public ResourceModel processSubResource(final ResourceModel subResourceModel, final Configuration configuration) {
+        return subResourceModel;
+    }
+
+    /**
+     * Copy a resource and its child resources without the methods that are not for the execution mode.
+     * @param resource
+     *          The resource.
+     * @return
+     *          The copy.
+     */
+    private Resource select(final Resource resource) {
+        final List<ResourceMethod> methods = resource.getResourceMethods();
+        final Set<String> declaredBothWays = declaredBothWays(methods);
+
+        final Resource.Builder builder = Resource.builder(resource.getPath())
+                                                 .name(resource.getName())
+                                                 .extended(resource.isExtended());
+        for (final ResourceMethod method : methods) {
+            if (!declaredBothWays.contains(method.getHttpMethod()) || method.isSuspendDeclared() != synchronous) {
+                builder.addMethod(method);
+            }
+        }
+        if (resource.getResourceLocator() != null) {
+            builder.addMethod(resource.getResourceLocator());
+        }
+        for (final Resource child : resource.getChildResources()) {
+            builder.addChildResource(select(child));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Find the request methods that are declared both with and without a suspended response.
+     * @param methods
+     *          The methods of a resource.
+     * @return
+     *          The request methods, e.g. {@code GET}.
+     */
+    private static Set<String> declaredBothWays(final List<ResourceMethod> methods) {
+        final Set<String> suspended = new HashSet<>();
+        final Set<String> plain = new HashSet<>();
+        for (final ResourceMethod method : methods) {
+            (method.isSuspendDeclared() ? suspended : plain).add(method.getHttpMethod());
+        }
+        suspended.retainAll(plain);
+        return suspended;
+    }
+}
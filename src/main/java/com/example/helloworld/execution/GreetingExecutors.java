@@ -0,0 +1,118 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.execution;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.dropwizard.lifecycle.ExecutorServiceManager;
+import io.dropwizard.lifecycle.setup.LifecycleEnvironment;
+import io.dropwizard.util.Duration;
+
+/**
+ * Creates the {@link Executor} that renders greetings for an {@link ExecutionMode}.
+ *
+ * <p>Thread pools are managed by the Dropwizard {@link LifecycleEnvironment}, so they are shut down with the
+ * application.</p>
+ */
+public final class GreetingExecutors {
+
+    /**
+     * The logger to use.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(GreetingExecutors.class);
+
+    /**
+     * The name of the thread pool.
+     */
+    private static final String POOL_NAME = "greeting-%d";
+
+    /**
+     * How long to wait for running greetings when the application stops.
+     */
+    private static final Duration SHUTDOWN_PERIOD = Duration.seconds(5);
+
+    /**
+     * An {@link Executor} that runs each task on the calling thread.
+     */
+    private static final Executor DIRECT = Runnable::run;
+
+    /**
+     * Create the executor for the configured execution mode.
+     * @param configuration
+     *          The execution configuration.
+     * @param lifecycle
+     *          The lifecycle environment that manages the executor.
+     * @return
+     *          The executor.
+     */
+    public static Executor create(final ExecutionConfiguration configuration, final LifecycleEnvironment lifecycle) {
+        switch (configuration.getMode()) {
+            case ASYNCHRONOUS:
+                return boundedPool(configuration, lifecycle);
+
+            case VIRTUAL_THREAD:
+                final ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+                if (virtualThreads == null) {
+                    LOGGER.warn("Virtual threads are not supported by Java {}. Using the asynchronous thread pool.",
+                                System.getProperty("java.version"));
+                    return boundedPool(configuration, lifecycle);
+                }
+                lifecycle.manage(new ExecutorServiceManager(virtualThreads, SHUTDOWN_PERIOD, "greeting-virtual"));
+                return virtualThreads;
+
+            case SYNCHRONOUS:
+            default:
+                return DIRECT;
+        }
+    }
+
+    /**
+     * Create the bounded thread pool.
+     * @param configuration
+     *          The execution configuration.
+     * @param lifecycle
+     *          The lifecycle environment that manages the thread pool.
+     * @return
+     *          The thread pool. It throws {@link java.util.concurrent.RejectedExecutionException} when it is full.
+     */
+    private static ExecutorService boundedPool(final ExecutionConfiguration configuration,
+                                               final LifecycleEnvironment lifecycle) {
+        return lifecycle.executorService(POOL_NAME)
+                        .minThreads(configuration.getThreads())
+                        .maxThreads(configuration.getThreads())
+                        .workQueue(new ArrayBlockingQueue<>(configuration.getQueueSize()))
+                        .shutdownTime(SHUTDOWN_PERIOD)
+                        .build();
+    }
+
+    /**
+     * Create a virtual thread per task executor, if the JVM supports it.
+     *
+     * <p>The application is compiled for Java 8, so the Java 21 API is called reflectively.</p>
+     * @return
+     *          The executor, or {@code null} if virtual threads are not supported.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            final Method factory = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        }
+        catch (@SuppressWarnings("unused") final ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Cannot instantiate.
+     */
+    private GreetingExecutors() {
+        super();
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.health;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.dropwizard.util.Duration;
+import io.dropwizard.validation.MinDuration;
+
+/**
+ * The configuration of how the health checks are run, and of the {@link LatencyHealthCheck}.
+ *
+ * <p>For example:</p>
+ * <pre>
+ * healthChecks:
+ *   mode: scheduled
+ *   threads: 2
+ *   period: 10s
+ *   timeout: 2s
+ *   checks:
+ *     deadlocks:
+ *       period: 1m
+ *   latencyBudget: 250ms
+ * </pre>
+ */
+public class HealthCheckConfiguration {
+
+    /**
+     * How the health checks are run.
+     */
+    @NotNull
+    @JsonProperty
+    private HealthCheckMode mode = HealthCheckMode.INLINE;
+
+    /**
+     * The number of threads that run {@link HealthCheckMode#SCHEDULED} checks.
+     */
+    @Min(1)
+    @JsonProperty
+    private int threads = 2;
+
+    /**
+     * The default time from the end of one run of a scheduled check to the start of the next.
+     */
+    @NotNull
+    @MinDuration(value = 1, unit = TimeUnit.MILLISECONDS)
+    @JsonProperty
+    private Duration period = Duration.seconds(10);
+
+    /**
+     * The default longest a run of a scheduled check may take before it is reported as unhealthy.
+     */
+    @NotNull
+    @MinDuration(value = 1, unit = TimeUnit.MILLISECONDS)
+    @JsonProperty
+    private Duration timeout = Duration.seconds(2);
+
+    /**
+     * The schedules of individual checks, keyed by health check name.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    private final Map<String, HealthCheckSchedule> checks = new LinkedHashMap<>();
+
+    /**
+     * The 99th percentile {@code sayHello} response time above which the {@link LatencyHealthCheck} is unhealthy.
+     */
+    @NotNull
+    @MinDuration(value = 1, unit = TimeUnit.MILLISECONDS)
+    @JsonProperty
+    private Duration latencyBudget = Duration.milliseconds(250);
+
+    /**
+     * @return
+     *          How the health checks are run.
+     */
+    public HealthCheckMode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return
+     *          The number of threads that run scheduled checks.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return
+     *          The schedules of individual checks, keyed by health check name.
+     */
+    public Map<String, HealthCheckSchedule> getChecks() {
+        return checks;
+    }
+
+    /**
+     * Get the time between runs of a check.
+     * @param name
+     *          The name of the health check.
+     * @return
+     *          The check's own period, if it has one, otherwise the default period.
+     */
+    public Duration getPeriod(final String name) {
+        final HealthCheckSchedule schedule = checks.get(name);
+        return schedule == null || schedule.getPeriod() == null ? period : schedule.getPeriod();
+    }
+
+    /**
+     * Get the longest a run of a check may take.
+     * @param name
+     *          The name of the health check.
+     * @return
+     *          The check's own timeout, if it has one, otherwise the default timeout.
+     */
+    public Duration getTimeout(final String name) {
+        final HealthCheckSchedule schedule = checks.get(name);
+        return schedule == null || schedule.getTimeout() == null ? timeout : schedule.getTimeout();
+    }
+
+    /**
+     * @return
+     *          The 99th percentile {@code sayHello} response time above which the latency check is unhealthy.
+     */
+    public Duration getLatencyBudget() {
+        return latencyBudget;
+    }
+}
@@ -0,0 +1,21 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.health;
+
+/**
+ * How the health checks are run.
+ */
+public enum HealthCheckMode {
+
+    /**
+     * Every check is run on the admin thread each time {@code /healthcheck} is requested.
+     */
+    INLINE,
+
+    /**
+     * Each check is run on its own schedule by a small dedicated thread pool, and {@code /healthcheck} returns the
+     * latest result of each check with its age. A check that overruns its timeout is reported as unhealthy.
+     */
+    SCHEDULED
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.health;
+
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.dropwizard.util.Duration;
+import io.dropwizard.validation.MinDuration;
+
+/**
+ * The schedule of one health check, overriding the default schedule in the {@link HealthCheckConfiguration}. A
+ * setting that is not given is taken from the default.
+ *
+ * <p>For example:</p>
+ * <pre>
+ * checks:
+ *   deadlocks:
+ *     period: 1m
+ *     timeout: 10s
+ * </pre>
+ */
+public class HealthCheckSchedule {
+
+    /**
+     * The time from the end of one run of the check to the start of the next, or {@code null} for the default.
+     */
+    @MinDuration(value = 1, unit = TimeUnit.MILLISECONDS)
+    @JsonProperty
+    private Duration period;
+
+    /**
+     * The longest a run of the check may take, or {@code null} for the default.
+     */
+    @MinDuration(value = 1, unit = TimeUnit.MILLISECONDS)
+    @JsonProperty
+    private Duration timeout;
+
+    /**
+     * @return
+     *          The time between runs, or {@code null} for the default.
+     */
+    public Duration getPeriod() {
+        return period;
+    }
+
+    /**
+     * @return
+     *          The longest a run may take, or {@code null} for the default.
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.health;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.HealthCheckRegistry;
+
+import io.dropwizard.setup.Environment;
+import io.dropwizard.util.Duration;
+
+/**
+ * Runs the registered health checks on their schedules, in {@link HealthCheckMode#SCHEDULED} mode.
+ *
+ * <p>Each check in the registry - the application's {@code NamedHealthCheck}s and Dropwizard's own - is replaced by a
+ * {@link ScheduledHealthCheck} under the same name, so {@code /healthcheck} answers from the cached results without
+ * running any check. The checks are run by a thread pool of {@code healthChecks.threads} threads, and their runs are
+ * started and timed out by one scheduler thread. Both are managed by the Dropwizard lifecycle, so they are shut down
+ * with the application.</p>
+ */
+public final class HealthCheckScheduler {
+
+    /**
+     * The logger to use.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(HealthCheckScheduler.class);
+
+    /**
+     * How long to wait for running checks when the application stops.
+     */
+    private static final Duration SHUTDOWN_PERIOD = Duration.seconds(1);
+
+    /**
+     * Schedule the registered health checks, if the configuration asks for it.
+     *
+     * <p>This must be called after the health checks are registered, i.e. from
+     * {@link io.dropwizard.Application#run(io.dropwizard.Configuration, Environment)}, which runs after the Guicey
+     * bundle has installed them. The first run of every check starts immediately.</p>
+     * @param configuration
+     *          The health check configuration.
+     * @param environment
+     *          The application environment, whose health checks are scheduled.
+     */
+    public static void install(final HealthCheckConfiguration configuration, final Environment environment) {
+        if (configuration.getMode() != HealthCheckMode.SCHEDULED) {
+            return;
+        }
+
+        final HealthCheckRegistry registry = environment.healthChecks();
+        for (final String name : configuration.getChecks().keySet()) {
+            if (!registry.getNames().contains(name)) {
+                LOGGER.warn("There is a schedule for the {} health check, but there is no such health check.", name);
+            }
+        }
+
+        final ScheduledExecutorService scheduler = environment.lifecycle()
+                                                              .scheduledExecutorService("health-check-scheduler")
+                                                              .threads(1)
+                                                              .removeOnCancelPolicy(true)
+                                                              .shutdownTime(SHUTDOWN_PERIOD)
+                                                              .build();
+        final ExecutorService runner = environment.lifecycle()
+                                                  .executorService("health-check-%d")
+                                                  .minThreads(configuration.getThreads())
+                                                  .maxThreads(configuration.getThreads())
+                                                  .shutdownTime(SHUTDOWN_PERIOD)
+                                                  .build();
+
+        for (final String name : registry.getNames()) {
+            final HealthCheck check = registry.getHealthCheck(name);
+            final ScheduledHealthCheck scheduled = new ScheduledHealthCheck(name,
+                                                                            check,
+                                                                            configuration.getPeriod(name),
+                                                                            configuration.getTimeout(name),
+                                                                            scheduler,
+                                                                            runner);
+            registry.unregister(name);
+            registry.register(name, scheduled);
+            scheduled.start();
+            LOGGER.info("Running the {} health check every {}, with a timeout of {}.",
+                        name, configuration.getPeriod(name), configuration.getTimeout(name));
+        }
+    }
+
+    /**
+     * Cannot instantiate.
+     */
+    private HealthCheckScheduler() {
+        super();
+    }
+}
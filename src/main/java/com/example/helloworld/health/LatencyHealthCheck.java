@@ -0,0 +1,107 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.health;
+
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.example.helloworld.HelloWorldConfiguration;
+import com.example.helloworld.resources.HelloWorldResource;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import io.dropwizard.setup.Environment;
+import ru.vyarus.dropwizard.guice.module.installer.feature.health.NamedHealthCheck;
+
+/**
+ * Dropwizard health check.
+ *
+ * <p>Checks the 99th percentile response time of {@code sayHello} is within {@code healthChecks.latencyBudget}. The
+ * percentile is read from the {@link HelloWorldResource#SAY_HELLO_RESPONSES} timer, which times each response until
+ * it has been written, including the time waiting for and rendering on the greeting executor. Its reservoir is
+ * weighted towards the last five minutes, so the check recovers a few minutes after the latency does. The check is
+ * healthy until the first greeting has been timed.</p>
+ */
+@Singleton
+public class LatencyHealthCheck extends NamedHealthCheck {
+
+    /**
+     * The timer of {@code sayHello} responses.
+     */
+    private final Timer timer;
+
+    /**
+     * The budget for the 99th percentile response time, in nanoseconds.
+     */
+    private final long budgetNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param configuration
+     *          The application configuration, which has the latency budget.
+     * @param environment
+     *          The application environment, whose metric registry has the {@code sayHello} response timer.
+     */
+    @Inject
+    public LatencyHealthCheck(final HelloWorldConfiguration configuration, final Environment environment) {
+        timer = environment.metrics().timer(HelloWorldResource.SAY_HELLO_RESPONSES);
+        budgetNanos = configuration.getHealthChecks().getLatencyBudget().toNanoseconds();
+    }
+
+    /**
+     * Compare the 99th percentile {@code sayHello} response time to the budget.
+     *
+     * @return
+     *          A healthy {@link com.codahale.metrics.health.HealthCheck.Result} if the percentile is within the
+     *          budget, otherwise an unhealthy one. Both have the percentile and the budget, in milliseconds, as
+     *          details.
+     * @see com.codahale.metrics.health.HealthCheck#check()
+     */
+    @Override
+    protected Result check() {
+        if (timer.getCount() == 0) {
+            return Result.healthy("No greetings have been timed yet.");
+        }
+
+        final Snapshot snapshot = timer.getSnapshot();
+        final double p99Millis = toMillis(snapshot.get99thPercentile());
+        final double budgetMillis = toMillis(budgetNanos);
+        final ResultBuilder result = Result.builder();
+        if (snapshot.get99thPercentile() > budgetNanos) {
+            result.unhealthy()
+                  .withMessage("The 99th percentile sayHello response time, %.3f ms, is over the budget of %.3f ms.",
+                               Double.valueOf(p99Millis),
+                               Double.valueOf(budgetMillis));
+        }
+        else {
+            result.healthy();
+        }
+        return result.withDetail("p99Millis", Double.valueOf(p99Millis))
+                     .withDetail("budgetMillis", Double.valueOf(budgetMillis))
+                     .build();
+    }
+
+    /**
+     * Get the name of the health check.
+     * @return
+     *          The name of health check.
+     * @see ru.vyarus.dropwizard.guice.module.installer.feature.health.NamedHealthCheck#getName()
+     */
+    @Override
+    public String getName() {
+        return "latency";
+    }
+
+    /**
+     * @param nanos
+     *          A time in nanoseconds.
+     * @return
+     *          The time in milliseconds.
+     */
+    private static double toMillis(final double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,317 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.health;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.codahale.metrics.health.HealthCheck;
+
+import io.dropwizard.util.Duration;
+
+/**
+ * A health check that runs another check on a schedule and answers with its latest result.
+ *
+ * <p>Each run of the check is submitted to the runner pool; the scheduler starts the runs and enforces the timeout.
+ * The next run is started a period after the previous one ends, so a slow check is never run more often than its
+ * period allows. A run that overruns the timeout is interrupted and its result is {@code unhealthy}; if it ignores the
+ * interrupt, no new run is started until it returns, so a hung check holds at most one runner thread.</p>
+ *
+ * <p>{@link #check()} doesn't run the check. It returns the latest result, with these details added:</p>
+ * <ul>
+ *  <li>{@code checkedAt}: when the result was produced;</li>
+ *  <li>{@code ageMillis}: how long ago that was; and</li>
+ *  <li>{@code durationMillis}: how long the run took.</li>
+ * </ul>
+ */
+final class ScheduledHealthCheck extends HealthCheck {
+
+    /**
+     * The name of the check.
+     */
+    private final String name;
+
+    /**
+     * The check that is run.
+     */
+    private final HealthCheck delegate;
+
+    /**
+     * The time from the end of one run to the start of the next, in nanoseconds.
+     */
+    private final long periodNanos;
+
+    /**
+     * The longest a run may take, in nanoseconds.
+     */
+    private final long timeoutNanos;
+
+    /**
+     * Starts the runs and enforces their timeouts.
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Runs the check.
+     */
+    private final ExecutorService runner;
+
+    /**
+     * {@code true} while a run of the check has not returned, even if it has timed out.
+     */
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * The latest result.
+     */
+    private volatile Outcome latest;
+
+    /**
+     * Constructor.
+     * @param theName
+     *          The name of the check.
+     * @param theDelegate
+     *          The check that is run.
+     * @param period
+     *          The time from the end of one run to the start of the next.
+     * @param timeout
+     *          The longest a run may take.
+     * @param theScheduler
+     *          Starts the runs and enforces their timeouts.
+     * @param theRunner
+     *          Runs the check.
+     */
+    ScheduledHealthCheck(final String theName,
+                         final HealthCheck theDelegate,
+                         final Duration period,
+                         final Duration timeout,
+                         final ScheduledExecutorService theScheduler,
+                         final ExecutorService theRunner) {
+        name = theName;
+        delegate = theDelegate;
+        periodNanos = period.toNanoseconds();
+        timeoutNanos = timeout.toNanoseconds();
+        scheduler = theScheduler;
+        runner = theRunner;
+        latest = new Outcome(Result.unhealthy("The %s health check has not run yet.", name), System.nanoTime(), 0);
+    }
+
+    /**
+     * Start the first run of the check.
+     */
+    void start() {
+        schedule(0);
+    }
+
+    /**
+     * Return the latest result of the check, and its age.
+     * @return
+     *          The latest result, or an unhealthy result if the check has not run yet.
+     * @see com.codahale.metrics.health.HealthCheck#check()
+     */
+    @Override
+    protected Result check() {
+        final Outcome outcome = latest;
+        final Result result = outcome.result;
+
+        final ResultBuilder builder = Result.builder();
+        if (result.isHealthy()) {
+            builder.healthy();
+        }
+        else if (result.getError() != null) {
+            builder.unhealthy(result.getError());
+        }
+        else {
+            builder.unhealthy();
+        }
+        if (result.getMessage() != null) {
+            builder.withMessage(result.getMessage());
+        }
+        final Map<String, Object> details = result.getDetails();
+        if (details != null) {
+            details.forEach(builder::withDetail);
+        }
+        return builder.withDetail("checkedAt", result.getTimestamp())
+                      .withDetail("ageMillis", Long.valueOf(millisSince(outcome.completed)))
+                      .withDetail("durationMillis", Long.valueOf(outcome.durationMillis))
+                      .build();
+    }
+
+    /**
+     * Start a run of the check after a delay.
+     * @param delayNanos
+     *          The delay, in nanoseconds.
+     */
+    private void schedule(final long delayNanos) {
+        try {
+            scheduler.schedule(this::run, delayNanos, TimeUnit.NANOSECONDS);
+        }
+        catch (@SuppressWarnings("unused") final RejectedExecutionException e) {
+            // The application is stopping.
+        }
+    }
+
+    /**
+     * Start a run of the check, and its timeout.
+     */
+    private void run() {
+        final long started = System.nanoTime();
+        if (!running.compareAndSet(false, true)) {
+            latest = new Outcome(Result.unhealthy("The previous run of the %s health check has not returned.", name),
+                                 started,
+                                 0);
+            schedule(periodNanos);
+            return;
+        }
+
+        final Run run = new Run(started);
+        try {
+            run.future = runner.submit(run);
+            scheduler.schedule(run::expire, timeoutNanos, TimeUnit.NANOSECONDS);
+        }
+        catch (@SuppressWarnings("unused") final RejectedExecutionException e) {
+            // The application is stopping.
+            running.set(false);
+        }
+    }
+
+    /**
+     * @param nanoTime
+     *          A {@link System#nanoTime()}.
+     * @return
+     *          The number of milliseconds since then.
+     */
+    private static long millisSince(final long nanoTime) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nanoTime);
+    }
+
+    /**
+     * One run of the check. The run ends when the check returns or when it times out, whichever is first; that
+     * publishes the result and schedules the next run.
+     */
+    private final class Run implements Runnable {
+
+        /**
+         * When the run started, as a {@link System#nanoTime()}.
+         */
+        private final long started;
+
+        /**
+         * Set once the run has ended.
+         */
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        /**
+         * Set by whichever comes first: the runner starting the check, or the timeout giving up on a check that
+         * has not started. A cancelled task that has not started is never run, so the timeout must then clear
+         * {@link ScheduledHealthCheck#running}.
+         */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        /**
+         * The task running the check.
+         */
+        private volatile Future<?> future;
+
+        /**
+         * Constructor.
+         * @param theStarted
+         *          When the run started, as a {@link System#nanoTime()}.
+         */
+        Run(final long theStarted) {
+            started = theStarted;
+        }
+
+        /**
+         * Run the check, on a runner thread.
+         */
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                end(delegate.execute());
+            }
+            finally {
+                running.set(false);
+            }
+        }
+
+        /**
+         * Time out the run, if it has not already ended.
+         */
+        void expire() {
+            if (end(Result.unhealthy("The %s health check timed out after %d ms.",
+                                     name,
+                                     Long.valueOf(TimeUnit.NANOSECONDS.toMillis(timeoutNanos))))) {
+                if (claimed.compareAndSet(false, true)) {
+                    future.cancel(false);
+                    running.set(false);
+                }
+                else {
+                    future.cancel(true);
+                }
+            }
+        }
+
+        /**
+         * End the run: publish its result and schedule the next run.
+         * @param result
+         *          The result.
+         * @return
+         *          {@code true} if the run ended now, {@code false} if it had already ended.
+         */
+        private boolean end(final Result result) {
+            if (!ended.compareAndSet(false, true)) {
+                return false;
+            }
+            final long completed = System.nanoTime();
+            latest = new Outcome(result, completed, TimeUnit.NANOSECONDS.toMillis(completed - started));
+            schedule(periodNanos);
+            return true;
+        }
+    }
+
+    /**
+     * A result, and when it was produced.
+     */
+    private static final class Outcome {
+
+        /**
+         * The result.
+         */
+        final Result result;
+
+        /**
+         * When the result was produced, as a {@link System#nanoTime()}.
+         */
+        final long completed;
+
+        /**
+         * How long the run took, in milliseconds.
+         */
+        final long durationMillis;
+
+        /**
+         * Constructor.
+         * @param theResult
+         *          The result.
+         * @param theCompleted
+         *          When the result was produced, as a {@link System#nanoTime()}.
+         * @param theDurationMillis
+         *          How long the run took, in milliseconds.
+         */
+        Outcome(final Result theResult, final long theCompleted, final long theDurationMillis) {
+            result = theResult;
+            completed = theCompleted;
+            durationMillis = theDurationMillis;
+        }
+    }
+}
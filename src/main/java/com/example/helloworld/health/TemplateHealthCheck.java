@@ -1,15 +1,18 @@
 package com.example.helloworld.health;
 
+import java.util.List;
+
+import com.example.helloworld.core.GreetingSettingsHolder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.google.inject.name.Named;
 
 import ru.vyarus.dropwizard.guice.module.installer.feature.health.NamedHealthCheck;
 
 /**
  * Dropwizard health check.
  *
- * <p>Checks the template is correct.</p>
+ * <p>Checks the default template and every localised template are correct. The current templates are checked, so a
+ * reload is reflected in the next check.</p>
  *
  *
  * @author Steve Brown, Estafet Ltd.
@@ -18,19 +21,19 @@ import ru.vyarus.dropwizard.guice.module.installer.feature.health.NamedHealthChe
 public class TemplateHealthCheck extends NamedHealthCheck {
 
     /**
-     * The template to check.
+     * The current greeting settings, which hold the compiled templates to check.
      */
-    private final String template;
+    private final GreetingSettingsHolder settings;
 
     /**
      * Constructor.
      *
-     * @param theTemplate
-     *          The template to check.
+     * @param theSettings
+     *          The current greeting settings, which hold the compiled templates to check.
      */
     @Inject
-    public TemplateHealthCheck(@Named("template") final String theTemplate) {
-        template = theTemplate;
+    public TemplateHealthCheck(final GreetingSettingsHolder theSettings) {
+        settings = theSettings;
     }
 
     /**
@@ -46,9 +49,9 @@ public class TemplateHealthCheck extends NamedHealthCheck {
      */
     @Override
     protected Result check() throws Exception {
-        final String saying = String.format(template, "TEST");
-        if (!saying.contains("TEST")) {
-            return Result.unhealthy("The template doesn't include a name.");
+        final List<String> failures = settings.get().getTemplates().findTemplatesWithoutName();
+        if (!failures.isEmpty()) {
+            return Result.unhealthy("The templates for " + String.join(", ", failures) + " don't include a name.");
         }
         return Result.healthy();
     }
@@ -0,0 +1,36 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.ids;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link IdAllocator} that increments a single {@link AtomicLong} for every id.
+ *
+ * <p>Ids are allocated in strictly increasing order, starting at {@code 1}, but every allocation contends for the same
+ * cache line.</p>
+ */
+public class AtomicIdAllocator implements IdAllocator {
+
+    /**
+     * The last id allocated.
+     */
+    private final AtomicLong counter = new AtomicLong();
+
+    /**
+     * @see com.example.helloworld.ids.IdAllocator#next()
+     */
+    @Override
+    public long next() {
+        return counter.incrementAndGet();
+    }
+
+    /**
+     * @see com.example.helloworld.ids.IdAllocator#reserve(int)
+     */
+    @Override
+    public long reserve(final int count) {
+        return counter.getAndAdd(count) + 1;
+    }
+}
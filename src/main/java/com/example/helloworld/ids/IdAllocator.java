@@ -0,0 +1,29 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.ids;
+
+/**
+ * Allocates the ids of greeting responses.
+ *
+ * <p>Every id is unique. Ids are allocated in roughly increasing order: an implementation may hand out a later id
+ * before an earlier one, but only by a bounded amount, which it documents.</p>
+ */
+public interface IdAllocator {
+
+    /**
+     * Allocate one id.
+     * @return
+     *          The id.
+     */
+    long next();
+
+    /**
+     * Allocate a contiguous range of ids.
+     * @param count
+     *          The number of ids to allocate. Must not be negative.
+     * @return
+     *          The first id in the range. The range is {@code first} to {@code first + count - 1}.
+     */
+    long reserve(int count);
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.ids;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The configuration of the greeting {@link IdAllocator}.
+ *
+ * <p>For example:</p>
+ * <pre>
+ * ids:
+ *   type: striped
+ *   stripes: 0
+ *   blockSize: 64
+ * </pre>
+ */
+public class IdAllocatorConfiguration {
+
+    /**
+     * The kind of allocator.
+     */
+    @NotNull
+    @JsonProperty
+    private IdAllocatorType type = IdAllocatorType.ATOMIC;
+
+    /**
+     * The number of stripes for a {@link IdAllocatorType#STRIPED} allocator. {@code 0} means twice the number of
+     * processors.
+     */
+    @Min(0)
+    @JsonProperty
+    private int stripes;
+
+    /**
+     * The number of ids a stripe takes at a time for a {@link IdAllocatorType#STRIPED} allocator.
+     */
+    @Min(1)
+    @JsonProperty
+    private int blockSize = 64;
+
+    /**
+     * @return
+     *          The kind of allocator.
+     */
+    public IdAllocatorType getType() {
+        return type;
+    }
+
+    /**
+     * @return
+     *          The number of stripes, or {@code 0} for twice the number of processors.
+     */
+    public int getStripes() {
+        return stripes;
+    }
+
+    /**
+     * @return
+     *          The number of ids a stripe takes at a time.
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.ids;
+
+/**
+ * The kinds of {@link IdAllocator}.
+ */
+public enum IdAllocatorType {
+
+    /**
+     * A single atomic counter. See {@link AtomicIdAllocator}.
+     */
+    ATOMIC,
+
+    /**
+     * Blocks of ids per stripe. See {@link StripedIdAllocator}.
+     */
+    STRIPED
+}
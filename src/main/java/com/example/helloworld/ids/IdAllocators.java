@@ -0,0 +1,38 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.ids;
+
+/**
+ * Creates the configured {@link IdAllocator}.
+ */
+public final class IdAllocators {
+
+    /**
+     * Create an id allocator.
+     * @param configuration
+     *          The id allocator configuration.
+     * @return
+     *          The id allocator.
+     */
+    public static IdAllocator create(final IdAllocatorConfiguration configuration) {
+        switch (configuration.getType()) {
+            case STRIPED:
+                final int stripes = configuration.getStripes() == 0
+                                    ? 2 * Runtime.getRuntime().availableProcessors()
+                                    : configuration.getStripes();
+                return new StripedIdAllocator(stripes, configuration.getBlockSize());
+
+            case ATOMIC:
+            default:
+                return new AtomicIdAllocator();
+        }
+    }
+
+    /**
+     * Cannot instantiate.
+     */
+    private IdAllocators() {
+        super();
+    }
+}
@@ -0,0 +1,224 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.ids;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * An {@link IdAllocator} that hands out ids from blocks taken from a global counter.
+ *
+ * <p>Threads are spread over a number of stripes by thread id. Each stripe holds a block of ids, and only goes back to
+ * the global counter when its block is used up, so the global counter is touched once per block rather than once per
+ * id. An id is taken from the block by an atomic increment, and a used up block is replaced by a plain write, so no
+ * lock is taken.</p>
+ *
+ * <p>Ids are unique, but they are not strictly ordered across stripes. A stripe keeps its block until the block is
+ * used up, or until the global counter has moved more than {@value #STALE_BLOCKS} blocks per stripe past the block's
+ * limit, when the rest of the block is dropped. The global counter is read on each call to check this, but it is only
+ * written once per block, so the read is almost always from the local cache. So an id is never smaller than the
+ * highest id already handed out by more than about {@code (2 * stripes + 1) * blockSize}, however long its stripe was
+ * idle. When two threads use up a stripe's block at the same time, each takes a new block and one of them is dropped,
+ * leaving a gap in the ids.</p>
+ *
+ * <p>Stripes are used rather than thread locals so that short-lived threads, such as virtual threads, do not each
+ * take and then waste a block.</p>
+ */
+public class StripedIdAllocator implements IdAllocator {
+
+    /**
+     * How many blocks per stripe the global counter may move past a block's limit before the block is retired.
+     */
+    static final int STALE_BLOCKS = 2;
+
+    /**
+     * The first id that has not been given to a stripe.
+     */
+    private final AtomicLong global = new AtomicLong(1);
+
+    /**
+     * The stripes. The length is a power of two.
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * The mask to turn a hash into a stripe index.
+     */
+    private final int mask;
+
+    /**
+     * The number of ids a stripe takes from the global counter at a time.
+     */
+    private final int blockSize;
+
+    /**
+     * How far the global counter may move past a block's limit before the block is retired.
+     */
+    private final long maxLag;
+
+    /**
+     * Constructor.
+     * @param stripeCount
+     *          The minimum number of stripes. This is rounded up to a power of two.
+     * @param theBlockSize
+     *          The number of ids a stripe takes from the global counter at a time.
+     */
+    public StripedIdAllocator(final int stripeCount, final int theBlockSize) {
+        if (stripeCount < 1 || theBlockSize < 1) {
+            throw new IllegalArgumentException("The stripe count and the block size must be at least 1.");
+        }
+
+        final int size = stripeCount == 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe(new Block(0, 0));
+        }
+        mask = size - 1;
+        blockSize = theBlockSize;
+        maxLag = (long) STALE_BLOCKS * size * theBlockSize;
+    }
+
+    /**
+     * @see com.example.helloworld.ids.IdAllocator#next()
+     */
+    @Override
+    public long next() {
+        final Stripe stripe = stripes[index(Thread.currentThread().getId())];
+        final Block block = stripe.block;
+        if (global.get() - block.limit <= maxLag) {
+            final long id = block.getAndIncrement();
+            if (id < block.limit) {
+                return id;
+            }
+        }
+
+        // The block is used up, or too far behind the global counter. Take a new one, and keep its first id for this
+        // call.
+        final long first = global.getAndAdd(blockSize);
+        stripe.block = new Block(first + 1, first + blockSize);
+        return first;
+    }
+
+    /**
+     * Reserve a range directly from the global counter, so the range is contiguous.
+     * @see com.example.helloworld.ids.IdAllocator#reserve(int)
+     */
+    @Override
+    public long reserve(final int count) {
+        return global.getAndAdd(count);
+    }
+
+    /**
+     * Get the stripe index for a thread.
+     * @param threadId
+     *          The thread id.
+     * @return
+     *          The stripe index.
+     */
+    private int index(final long threadId) {
+        // Mix the bits, because thread ids are sequential.
+        final long hash = threadId * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+
+    /**
+     * A stripe's current block, padded so that stripes do not share a cache line.
+     */
+    @SuppressWarnings("unused")
+    private static final class Stripe {
+
+        /**
+         * Padding before the field.
+         */
+        private long p1, p2, p3, p4, p5, p6, p7;
+
+        /**
+         * The block that ids are taken from.
+         */
+        volatile Block block;
+
+        /**
+         * Padding after the field.
+         */
+        private long q1, q2, q3, q4, q5, q6, q7;
+
+        /**
+         * Constructor.
+         * @param theBlock
+         *          The first block.
+         */
+        Stripe(final Block theBlock) {
+            block = theBlock;
+        }
+    }
+
+    /**
+     * Padding before a block's fields, so that they do not share a cache line with whatever was allocated before the
+     * block. Superclass fields are laid out first.
+     */
+    @SuppressWarnings("unused")
+    private abstract static class BlockPadding {
+
+        /**
+         * Padding before the fields.
+         */
+        private long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    /**
+     * The counter of a block, after the padding.
+     */
+    private abstract static class BlockCounter extends BlockPadding {
+
+        /**
+         * The next id in the block. It is incremented past the limit by callers that find the block used up.
+         */
+        volatile long next;
+    }
+
+    /**
+     * A block of ids. Padded before and after its fields so that the counters of different stripes do not share a
+     * cache line.
+     */
+    @SuppressWarnings("unused")
+    private static final class Block extends BlockCounter {
+
+        /**
+         * Updates the counter.
+         */
+        private static final AtomicLongFieldUpdater<BlockCounter> NEXT =
+                        AtomicLongFieldUpdater.newUpdater(BlockCounter.class, "next");
+
+        /**
+         * The first id after the block.
+         */
+        final long limit;
+
+        /**
+         * Padding after the fields.
+         */
+        private long q1, q2, q3, q4, q5, q6, q7;
+
+        /**
+         * Constructor.
+         * @param theNext
+         *          The next id in the block.
+         * @param theLimit
+         *          The first id after the block.
+         */
+        Block(final long theNext, final long theLimit) {
+            next = theNext;
+            limit = theLimit;
+        }
+
+        /**
+         * Take the next id.
+         * @return
+         *          The id, which is not in the block if it is at least the limit.
+         */
+        long getAndIncrement() {
+            return NEXT.getAndIncrement(this);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The index of the Guicey extensions in the application, generated when the application is built.
+ *
+ * <p>Guicey's auto-configuration scans the application package for extensions (resources, health checks, tasks,
+ * managed objects, Jersey features and providers, web listeners and so on) every time the application starts. The
+ * {@code ComponentIndexGenerator}, in {@code src/index/java}, runs the same scan once, in the
+ * {@code process-test-classes} phase of the build, and writes the classes it finds to {@link #RESOURCE}. The
+ * application registers the indexed classes directly instead of scanning.</p>
+ *
+ * <p>The index is one class name per line. Blank lines and lines starting with {@code #} are ignored.</p>
+ */
+public final class ComponentIndex {
+
+    /**
+     * The class path resource that holds the index.
+     */
+    public static final String RESOURCE = "META-INF/helloworld/components.idx";
+
+    /**
+     * The system property that makes the application scan the class path even if there is an index, e.g.
+     * {@code -Dhelloworld.components.scan=true}.
+     */
+    public static final String SCAN_PROPERTY = "helloworld.components.scan";
+
+    /**
+     * Load the indexed extension classes.
+     * @param classLoader
+     *          The class loader to load the index and the classes with.
+     * @return
+     *          The extension classes, in the order the scan found them. This is empty if there is no index, e.g. when
+     *          the application is run from classes that were not built by Maven, or if {@link #SCAN_PROPERTY} is
+     *          {@code true}.
+     * @throws IllegalStateException
+     *          If an indexed class cannot be loaded, which means the index is out of date.
+     */
+    public static List<Class<?>> load(final ClassLoader classLoader) {
+        if (Boolean.getBoolean(SCAN_PROPERTY)) {
+            return Collections.emptyList();
+        }
+
+        try (InputStream stream = classLoader.getResourceAsStream(RESOURCE)) {
+            if (stream == null) {
+                return Collections.emptyList();
+            }
+            return loadClasses(stream, classLoader);
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException("Cannot read the component index " + RESOURCE + ".", e);
+        }
+    }
+
+    /**
+     * Load the classes named in an index.
+     * @param stream
+     *          The index.
+     * @param classLoader
+     *          The class loader to load the classes with.
+     * @return
+     *          The classes.
+     * @throws IOException
+     *          If the index cannot be read.
+     */
+    private static List<Class<?>> loadClasses(final InputStream stream,
+                                              final ClassLoader classLoader) throws IOException {
+        final List<Class<?>> classes = new ArrayList<>();
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            final String className = line.trim();
+            if (className.isEmpty() || className.startsWith("#")) {
+                continue;
+            }
+
+            try {
+                classes.add(Class.forName(className, false, classLoader));
+            }
+            catch (final ClassNotFoundException e) {
+                throw new IllegalStateException("The component index " + RESOURCE + " names " + className +
+                                                ", which does not exist. Rebuild the application.", e);
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Cannot instantiate.
+     */
+    private ComponentIndex() {
+        super();
+    }
+}
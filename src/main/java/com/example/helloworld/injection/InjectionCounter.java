@@ -0,0 +1,104 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.injection;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.inject.Key;
+import com.google.inject.spi.ProvisionListener;
+
+/**
+ * Counts how many times Guice provides each binding.
+ *
+ * <p>A singleton is provided once, when the injector creates it. A binding that is provided again and again - an
+ * unscoped binding, or one of the Jersey request objects that Guicey resolves through the Jersey bridge - is looked
+ * up every time something asks a {@link com.google.inject.Provider} for it, which is on every request if a resource
+ * does. The counts are reported by the {@link InjectionReportTask}.</p>
+ *
+ * <p>A provision listener wraps every provision, including the bindings resolved on each request, so counting is off
+ * unless the {@link #ENABLED_PROPERTY} system property is {@code true}, e.g. {@code -Dhelloworld.injectionReport=true}.
+ * When it is on, this is bound as a {@link ProvisionListener} for every binding by the
+ * {@link com.example.helloworld.HelloWorldModule}.</p>
+ */
+public class InjectionCounter implements ProvisionListener {
+
+    /**
+     * The system property that enables counting at startup.
+     */
+    public static final String ENABLED_PROPERTY = "helloworld.injectionReport";
+
+    /**
+     * Whether provisions are counted.
+     */
+    private final boolean enabled;
+
+    /**
+     * The number of provisions of each binding.
+     */
+    private final Map<Key<?>, LongAdder> provisions = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     * @param isEnabled
+     *          {@code true} if provisions are counted, and so the counter should be bound as a listener.
+     */
+    public InjectionCounter(final boolean isEnabled) {
+        enabled = isEnabled;
+    }
+
+    /**
+     * Create a counter that is enabled if the {@link #ENABLED_PROPERTY} system property is {@code true}.
+     * @return
+     *          The counter.
+     */
+    public static InjectionCounter fromSystemProperty() {
+        return new InjectionCounter(Boolean.getBoolean(ENABLED_PROPERTY));
+    }
+
+    /**
+     * @return
+     *          {@code true} if provisions are counted.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Count a provision.
+     * @param provision
+     *          The provision.
+     * @see com.google.inject.spi.ProvisionListener#onProvision(com.google.inject.spi.ProvisionListener.ProvisionInvocation)
+     */
+    @Override
+    public <T> void onProvision(final ProvisionInvocation<T> provision) {
+        final Key<?> key = provision.getBinding().getKey();
+        LongAdder count = provisions.get(key);
+        if (count == null) {
+            count = provisions.computeIfAbsent(key, k -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * @param key
+     *          The binding's key.
+     * @return
+     *          The number of times the binding has been provided.
+     */
+    public long getProvisions(final Key<?> key) {
+        final LongAdder count = provisions.get(key);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * @return
+     *          The keys of the bindings that have been provided at least once.
+     */
+    public Iterable<Key<?>> getProvidedKeys() {
+        return Collections.unmodifiableSet(provisions.keySet());
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.injection;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.example.helloworld.HelloWorldApplication;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.inject.Binding;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.Scopes;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.HasDependencies;
+
+import io.dropwizard.servlets.tasks.Task;
+
+/**
+ * An admin task that reports what the injector resolves after startup.
+ *
+ * <p>For example, {@code curl -X POST 'http://localhost:8080/admin/tasks/injections'}. The report has two parts:</p>
+ *
+ * <ul>
+ *  <li>the bindings that are not singletons, with the number of times each has been provided since the application
+ *  started. Compare the counts with the request counts in the metrics: a count that grows with the requests is a
+ *  per-request scope resolution, which should be 0. The counts are only kept if the application was started with
+ *  {@code -Dhelloworld.injectionReport=true}; otherwise the report says that counting is off.</li>
+ *  <li>the {@link Provider} injection points in the application's own components, each of which resolves its binding
+ *  again every time it is called.</li>
+ * </ul>
+ *
+ * <p>This task is installed by Guicey auto-configuration.</p>
+ */
+public class InjectionReportTask extends Task {
+
+    /**
+     * The prefix of the application's class names.
+     */
+    private static final String APPLICATION_PACKAGE = HelloWorldApplication.class.getPackage().getName() + ".";
+
+    /**
+     * The injector.
+     */
+    private final Injector injector;
+
+    /**
+     * The provision counts.
+     */
+    private final InjectionCounter counter;
+
+    /**
+     * Constructor.
+     * @param theInjector
+     *          The injector.
+     * @param theCounter
+     *          The provision counts.
+     */
+    @Inject
+    public InjectionReportTask(final Injector theInjector, final InjectionCounter theCounter) {
+        super("injections");
+        injector = theInjector;
+        counter = theCounter;
+    }
+
+    /**
+     * Write the report.
+     * @param parameters
+     *          The request parameters, which are not used.
+     * @param output
+     *          The response.
+     * @see io.dropwizard.servlets.tasks.Task#execute(com.google.common.collect.ImmutableMultimap, java.io.PrintWriter)
+     */
+    @Override
+    public void execute(final ImmutableMultimap<String, String> parameters, final PrintWriter output) {
+        if (counter.isEnabled()) {
+            reportProvisions(output);
+        }
+        else {
+            output.println("Provisions are not counted. Start the application with -D" +
+                           InjectionCounter.ENABLED_PROPERTY + "=true to count them.");
+        }
+
+        output.println("Provider injection points in the application, each resolved on every call:");
+        final List<String> lookups = findProviderInjectionPoints();
+        if (lookups.isEmpty()) {
+            output.println("  none");
+        }
+        for (final String lookup : lookups) {
+            output.println("  " + lookup);
+        }
+    }
+
+    /**
+     * Write the bindings that are not singletons, with their provision counts.
+     * @param output
+     *          The response.
+     */
+    private void reportProvisions(final PrintWriter output) {
+        output.println("Bindings that are not singletons, and the number of times each has been provided:");
+        int resolved = 0;
+        for (final Key<?> key : counter.getProvidedKeys()) {
+            final Binding<?> binding = injector.getExistingBinding(key);
+            if (binding != null && !Scopes.isSingleton(binding)) {
+                output.printf("  %8d  %s%n", counter.getProvisions(key), key);
+                resolved++;
+            }
+        }
+        if (resolved == 0) {
+            output.println("  none");
+        }
+    }
+
+    /**
+     * Find the application components that have a {@link Provider} injected.
+     * @return
+     *          A description of each injection point.
+     */
+    private List<String> findProviderInjectionPoints() {
+        final List<String> lookups = new ArrayList<>();
+        for (final Map.Entry<Key<?>, Binding<?>> entry : injector.getAllBindings().entrySet()) {
+            final Class<?> type = entry.getKey().getTypeLiteral().getRawType();
+            if (!type.getName().startsWith(APPLICATION_PACKAGE) || !(entry.getValue() instanceof HasDependencies)) {
+                continue;
+            }
+            for (final Dependency<?> dependency : ((HasDependencies) entry.getValue()).getDependencies()) {
+                final Class<?> dependencyType = dependency.getKey().getTypeLiteral().getRawType();
+                if (dependencyType == Provider.class || dependencyType == javax.inject.Provider.class) {
+                    final String member = dependency.getInjectionPoint() == null
+                                              ? ""
+                                              : "." + dependency.getInjectionPoint().getMember().getName();
+                    lookups.add(type.getSimpleName() + member + ": " + dependency.getKey().getTypeLiteral());
+                }
+            }
+        }
+        return lookups;
+    }
+}
@@ -6,6 +6,10 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 import io.opentracing.Scope;
 import io.opentracing.Span;
@@ -13,12 +17,95 @@ import io.opentracing.Span;
 /**
  * This class allows for debug messages for troubleshooting.
  *
+ * <p>Debugging is disabled unless the {@code helloworld.debug} system property is {@code true}, and can be switched
+ * on and off at runtime with the {@link DebugTask} admin task. When it is disabled, every method returns after reading
+ * one volatile field, and message {@link Supplier}s are not called. Callers that build expensive messages should pass
+ * a {@code Supplier} or check {@link #isEnabled()} first.</p>
+ *
+ * <p>Messages are timestamped on the calling thread and queued for a background thread that prints them to
+ * {@code System.out}. If the queue is full, the message is dropped and counted.</p>
+ *
  * <p>This class has to use {@code io.jaegertracing.internal} classes to access the internal state of tracing objects.
  * This will probably break if the tracing dependencies are changed.</p>
  *
  */
 public final class Debug {
 
+    /**
+     * The system property that enables debugging at startup.
+     */
+    public static final String ENABLED_PROPERTY = "helloworld.debug";
+
+    /**
+     * The number of messages that can wait to be printed.
+     */
+    private static final int QUEUE_CAPACITY = 4096;
+
+    /**
+     * The timestamp format.
+     */
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS")
+                                                                               .withZone(ZoneId.systemDefault());
+
+    /**
+     * The messages waiting to be printed.
+     */
+    private static final BlockingQueue<Message> QUEUE = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    /**
+     * The number of messages dropped because the queue was full.
+     */
+    private static final AtomicLong DROPPED = new AtomicLong();
+
+    /**
+     * Whether debugging is enabled.
+     */
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    /**
+     * The most recently formatted timestamp. Timestamps are only formatted once per millisecond.
+     */
+    private static volatile Timestamp lastTimestamp = new Timestamp(0L);
+
+    /**
+     * The background thread that prints the messages, or {@code null} if it has not been started.
+     */
+    private static Thread writer;
+
+    static {
+        if (enabled) {
+            startWriter();
+        }
+    }
+
+    /**
+     * @return
+     *          {@code true} if debugging is enabled.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable debugging.
+     * @param isEnabled
+     *          {@code true} to enable debugging.
+     */
+    public static void setEnabled(final boolean isEnabled) {
+        if (isEnabled) {
+            startWriter();
+        }
+        enabled = isEnabled;
+    }
+
+    /**
+     * @return
+     *          The number of messages dropped because the queue was full.
+     */
+    public static long getDroppedCount() {
+        return DROPPED.get();
+    }
+
     /**
      * Print a debug message.
      * @param operationName
@@ -29,8 +116,24 @@ public final class Debug {
      *          The message to print.
      */
     public static void debug(final String operationName, final String messagePrefix, final String message) {
-        final String prefix = timestamp() + "  " + operationName + "  " + messagePrefix + ": ";
-        System.out.println(prefix + message);
+        if (enabled) {
+            enqueue(operationName, messagePrefix, message);
+        }
+    }
+
+    /**
+     * Print a debug message that is only built if debugging is enabled.
+     * @param operationName
+     *          The name of the operation in progress.
+     * @param messagePrefix
+     *          The prefix for the message.
+     * @param message
+     *          Supplies the message to print.
+     */
+    public static void debug(final String operationName, final String messagePrefix, final Supplier<String> message) {
+        if (enabled) {
+            enqueue(operationName, messagePrefix, message.get());
+        }
     }
 
     /**
@@ -48,6 +151,9 @@ public final class Debug {
                                   final String messagePrefix,
                                   final String message,
                                   final Scope scope) {
+        if (!enabled) {
+            return;
+        }
 
         debug(operationName, messagePrefix, "scope is " + scope.getClass().getName() + " : " + scope.toString() + " .");
         debugSpan(messagePrefix, scope.span());
@@ -61,6 +167,9 @@ public final class Debug {
      *          The span to debug.
      */
     public static void debugSpan(final String messagePrefix, final Span span) {
+        if (!enabled) {
+            return;
+        }
 
         final String operationName = getOperationName(span);
         debug(operationName, messagePrefix, "span is " + span.getClass().getName() + " : " + span.toString() + " .");
@@ -98,13 +207,27 @@ public final class Debug {
      *          The timestamp in the format "{@code HH:mm:ss.SSS}".
      */
     public static String timestamp() {
-        final Instant instant = Instant.now();
-        final long timeStampMillis = instant.toEpochMilli();
-        final ZoneId zone = ZoneId.systemDefault();
-        final DateTimeFormatter df = DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(zone);
-        final String timestampString = df.format(Instant.ofEpochMilli(timeStampMillis));
+        return timestamp(System.currentTimeMillis());
+    }
+
+    /**
+     * Get the timestamp for a time.
+     *
+     * <p>The formatted timestamp is cached, so it is only formatted again when the millisecond changes.</p>
+     * @param millis
+     *          The time in milliseconds since the epoch.
+     * @return
+     *          The timestamp in the format "{@code HH:mm:ss.SSS}".
+     */
+    static String timestamp(final long millis) {
+        final Timestamp cached = lastTimestamp;
+        if (cached.millis == millis) {
+            return cached.text;
+        }
 
-        return timestampString;
+        final Timestamp timestamp = new Timestamp(millis);
+        lastTimestamp = timestamp;
+        return timestamp.text;
     }
 
     /**
@@ -189,6 +312,127 @@ public final class Debug {
         }
     }
 
+    /**
+     * Queue a message for the background thread.
+     * @param operationName
+     *          The name of the operation in progress.
+     * @param messagePrefix
+     *          The prefix for the message.
+     * @param message
+     *          The message to print.
+     */
+    private static void enqueue(final String operationName, final String messagePrefix, final String message) {
+        if (!QUEUE.offer(new Message(System.currentTimeMillis(), operationName, messagePrefix, message))) {
+            DROPPED.incrementAndGet();
+        }
+    }
+
+    /**
+     * Start the background thread that prints the messages, if it is not already running.
+     */
+    private static synchronized void startWriter() {
+        if (writer != null) {
+            return;
+        }
+
+        writer = new Thread(Debug::printMessages, "debug-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Print queued messages to {@code System.out}.
+     */
+    private static void printMessages() {
+        final StringBuilder line = new StringBuilder(256);
+        while (true) {
+            final Message message;
+            try {
+                message = QUEUE.take();
+            }
+            catch (@SuppressWarnings("unused") final InterruptedException e) {
+                return;
+            }
+
+            line.setLength(0);
+            line.append(timestamp(message.millis)).append("  ")
+                .append(message.operationName).append("  ")
+                .append(message.prefix).append(": ")
+                .append(message.text);
+            System.out.println(line);
+        }
+    }
+
+    /**
+     * A formatted timestamp.
+     */
+    private static final class Timestamp {
+
+        /**
+         * The time in milliseconds since the epoch.
+         */
+        final long millis;
+
+        /**
+         * The formatted time.
+         */
+        final String text;
+
+        /**
+         * Constructor.
+         * @param theMillis
+         *          The time in milliseconds since the epoch.
+         */
+        Timestamp(final long theMillis) {
+            millis = theMillis;
+            text = TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(theMillis));
+        }
+    }
+
+    /**
+     * A message waiting to be printed.
+     */
+    private static final class Message {
+
+        /**
+         * When the message was created, in milliseconds since the epoch.
+         */
+        final long millis;
+
+        /**
+         * The name of the operation in progress.
+         */
+        final String operationName;
+
+        /**
+         * The prefix for the message.
+         */
+        final String prefix;
+
+        /**
+         * The message.
+         */
+        final String text;
+
+        /**
+         * Constructor.
+         * @param theMillis
+         *          When the message was created.
+         * @param theOperationName
+         *          The name of the operation in progress.
+         * @param thePrefix
+         *          The prefix for the message.
+         * @param theText
+         *          The message.
+         */
+        Message(final long theMillis, final String theOperationName, final String thePrefix, final String theText) {
+            millis = theMillis;
+            operationName = theOperationName;
+            prefix = thePrefix;
+            text = theText;
+        }
+    }
+
     /**
      * Cannot instantiate.
      */
@@ -0,0 +1,51 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.lib;
+
+import java.io.PrintWriter;
+
+import com.google.common.collect.ImmutableMultimap;
+
+import io.dropwizard.servlets.tasks.Task;
+
+/**
+ * An admin task that switches {@link Debug} messages on and off at runtime.
+ *
+ * <p>For example, {@code curl -X POST 'http://localhost:8080/admin/tasks/debug?enabled=true'}. Without the
+ * {@code enabled} parameter, the task reports the current state.</p>
+ *
+ * <p>This task is installed by Guicey auto-configuration.</p>
+ */
+public class DebugTask extends Task {
+
+    /**
+     * The name of the parameter that enables or disables debugging.
+     */
+    private static final String ENABLED_PARAMETER = "enabled";
+
+    /**
+     * Constructor.
+     */
+    public DebugTask() {
+        super("debug");
+    }
+
+    /**
+     * Enable or disable debugging.
+     * @param parameters
+     *          The request parameters. If {@code enabled} is present, debugging is enabled if it is {@code true} and
+     *          disabled otherwise.
+     * @param output
+     *          The response.
+     * @see io.dropwizard.servlets.tasks.Task#execute(com.google.common.collect.ImmutableMultimap, java.io.PrintWriter)
+     */
+    @Override
+    public void execute(final ImmutableMultimap<String, String> parameters, final PrintWriter output) {
+        if (parameters.containsKey(ENABLED_PARAMETER)) {
+            Debug.setEnabled(Boolean.parseBoolean(parameters.get(ENABLED_PARAMETER).iterator().next()));
+        }
+        output.println("Debug is " + (Debug.isEnabled() ? "enabled" : "disabled") + ". " +
+                       Debug.getDroppedCount() + " messages have been dropped.");
+    }
+}
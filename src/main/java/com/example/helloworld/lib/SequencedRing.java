@@ -0,0 +1,196 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.lib;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, lock-free ring buffer with many producers and one consumer.
+ *
+ * <p>Each slot has a sequence number that says whose turn it is. A producer {@link #claim() claims} the slot at the
+ * tail with one compare-and-set, fills in the slot's element, and {@link #publish(long) publishes} it by moving the
+ * slot's sequence on. The consumer reads the slot at the head once it is published, and {@link #release() releases}
+ * it for the next lap. A producer never waits for the consumer: when the ring is full, {@link #claim()} fails
+ * immediately.</p>
+ *
+ * <p>The elements are created once, when the ring is created, so producers can fill them in place without
+ * allocating. A ring of references can be created with {@code () -> null} and filled with {@link #set(long, Object)}.
+ * </p>
+ * @param <E>
+ *          The type of the elements.
+ */
+public final class SequencedRing<E> {
+
+    /**
+     * The ring buffer slots. The length is a power of two.
+     */
+    private final Slot<E>[] slots;
+
+    /**
+     * The mask to turn a sequence number into a slot index.
+     */
+    private final int mask;
+
+    /**
+     * The sequence number of the next slot to claim.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * The sequence number of the next slot to consume. Only written by the consumer.
+     */
+    private volatile long head;
+
+    /**
+     * Constructor.
+     * @param capacity
+     *          The number of elements the ring holds. This is rounded up to a power of two, and is at least two.
+     * @param factory
+     *          Creates the element of each slot.
+     */
+    @SuppressWarnings("unchecked")
+    public SequencedRing(final int capacity, final Supplier<E> factory) {
+        final int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot<>(i, factory.get());
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Claim the slot at the tail. The caller must {@link #publish(long) publish} it.
+     * @return
+     *          The slot's sequence number, or {@code -1} if the ring is full.
+     */
+    public long claim() {
+        long sequence = tail.get();
+        while (true) {
+            final long available = slots[(int) sequence & mask].sequence - sequence;
+            if (available == 0) {
+                if (tail.compareAndSet(sequence, sequence + 1)) {
+                    return sequence;
+                }
+                sequence = tail.get();
+            }
+            else if (available < 0) {
+                return -1;
+            }
+            else {
+                sequence = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Get the element of a slot. Only the producer that claimed the slot, or the consumer once it is published, may
+     * call this.
+     * @param sequence
+     *          The slot's sequence number.
+     * @return
+     *          The element.
+     */
+    public E get(final long sequence) {
+        return slots[(int) sequence & mask].element;
+    }
+
+    /**
+     * Replace the element of a slot. Only the producer that claimed the slot, or the consumer once it is published,
+     * may call this.
+     * @param sequence
+     *          The slot's sequence number.
+     * @param element
+     *          The element.
+     */
+    public void set(final long sequence, final E element) {
+        slots[(int) sequence & mask].element = element;
+    }
+
+    /**
+     * Publish a claimed slot to the consumer.
+     * @param sequence
+     *          The slot's sequence number, from {@link #claim()}.
+     */
+    public void publish(final long sequence) {
+        slots[(int) sequence & mask].sequence = sequence + 1;
+    }
+
+    /**
+     * @return
+     *          The sequence number of the next slot to consume.
+     */
+    public long head() {
+        return head;
+    }
+
+    /**
+     * Check whether a slot has been published. Only the consumer may call this, with a sequence number that has not
+     * been released.
+     * @param sequence
+     *          The sequence number.
+     * @return
+     *          {@code true} if the slot has been published and not released.
+     */
+    public boolean isPublished(final long sequence) {
+        return slots[(int) sequence & mask].sequence == sequence + 1;
+    }
+
+    /**
+     * Release the slot at the head for the next lap of the ring, and move the head on. Only the consumer may call
+     * this, once the slot at the head is published.
+     */
+    public void release() {
+        final long sequence = head;
+        slots[(int) sequence & mask].sequence = sequence + slots.length;
+        head = sequence + 1;
+    }
+
+    /**
+     * @return
+     *          The number of slots claimed and not released, including any still being filled in.
+     */
+    public long size() {
+        return Math.max(0, tail.get() - head);
+    }
+
+    /**
+     * @return
+     *          The number of elements the ring holds.
+     */
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * A preallocated ring buffer slot.
+     * @param <E>
+     *          The type of the element.
+     */
+    private static final class Slot<E> {
+
+        /**
+         * The sequence number that the slot is waiting for. A producer may claim the slot when this equals the tail,
+         * and the consumer may consume it when this is one more than the head.
+         */
+        volatile long sequence;
+
+        /**
+         * The element. It is handed between the threads by the writes and reads of the sequence number.
+         */
+        E element;
+
+        /**
+         * Constructor.
+         * @param initialSequence
+         *          The first sequence number that can claim this slot.
+         * @param theElement
+         *          The element.
+         */
+        Slot(final long initialSequence, final E theElement) {
+            sequence = initialSequence;
+            element = theElement;
+        }
+    }
+}
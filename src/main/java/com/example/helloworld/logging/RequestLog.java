@@ -0,0 +1,229 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.ws.rs.core.HttpHeaders;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.example.helloworld.HelloWorldConfiguration;
+import com.example.helloworld.lib.SequencedRing;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.setup.Environment;
+
+/**
+ * An asynchronous, sampled log of requests.
+ *
+ * <p>Request threads copy the configured headers into a preallocated slot of a lock-free {@link SequencedRing}, and a
+ * background thread formats and writes them to the log. A request thread never formats a message or waits for a log
+ * appender. If the ring buffer is full the event is dropped, and the {@code dropped} counter is incremented.</p>
+ *
+ * <p>When the ring buffer is empty the background thread parks until a request thread publishes an event and sees
+ * that it is parked, so an idle log doesn't wake up at all.</p>
+ *
+ * <p>Only a configured fraction of requests is logged. Callers should check {@link #isSampled()} first, so that no
+ * request data is looked up for requests that are not logged.</p>
+ *
+ * <p>This is a {@link Managed} object, so it is installed by Guicey auto-configuration and the background thread is
+ * started and stopped with the application.</p>
+ */
+@Singleton
+public class RequestLog implements Managed {
+
+    /**
+     * The logger that the events are written to.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestLog.class);
+
+    /**
+     * Whether requests are logged.
+     */
+    private final boolean enabled;
+
+    /**
+     * The fraction of requests to log.
+     */
+    private final double sampleRate;
+
+    /**
+     * The names of the headers to log.
+     */
+    private final String[] headers;
+
+    /**
+     * The ring buffer, whose elements hold the header values of each event.
+     */
+    private final SequencedRing<String[]> ring;
+
+    /**
+     * The number of events dropped because the ring buffer was full.
+     */
+    private final Counter dropped;
+
+    /**
+     * The background thread, or {@code null} if it is not running.
+     */
+    private volatile Thread drainer;
+
+    /**
+     * Whether the background thread is parked, or about to park, waiting for an event.
+     */
+    private volatile boolean idle;
+
+    /**
+     * Constructor.
+     * @param configuration
+     *          The application configuration.
+     * @param environment
+     *          The application environment, whose metric registry records the request log metrics.
+     */
+    @Inject
+    public RequestLog(final HelloWorldConfiguration configuration, final Environment environment) {
+        this(configuration.getRequestLog(), environment.metrics());
+    }
+
+    /**
+     * Constructor.
+     * @param configuration
+     *          The request log configuration.
+     * @param metrics
+     *          The registry for the request log metrics.
+     */
+    public RequestLog(final RequestLogConfiguration configuration, final MetricRegistry metrics) {
+        enabled = configuration.isEnabled() && configuration.getSampleRate() > 0.0;
+        sampleRate = configuration.getSampleRate();
+        headers = configuration.getHeaders().toArray(new String[0]);
+
+        ring = new SequencedRing<>(configuration.getBufferSize(), () -> new String[headers.length]);
+
+        dropped = metrics.counter(MetricRegistry.name(RequestLog.class, "dropped"));
+        metrics.register(MetricRegistry.name(RequestLog.class, "depth"),
+                         (Gauge<Long>) () -> Long.valueOf(ring.size()));
+    }
+
+    /**
+     * Decide whether to log the current request.
+     * @return
+     *          {@code true} if the request should be passed to {@link #record(HttpHeaders)}.
+     */
+    public boolean isSampled() {
+        return enabled && (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * Record a request.
+     * @param request
+     *          The request's headers.
+     */
+    public void record(final HttpHeaders request) {
+        final long sequence = ring.claim();
+        if (sequence < 0) {
+            dropped.inc();
+            return;
+        }
+
+        final String[] values = ring.get(sequence);
+        for (int i = 0; i < headers.length; i++) {
+            values[i] = request.getHeaderString(headers[i]);
+        }
+        // Publish the slot to the background thread, and wake it if it is waiting for an event.
+        ring.publish(sequence);
+        if (idle) {
+            idle = false;
+            LockSupport.unpark(drainer);
+        }
+    }
+
+    /**
+     * Start the background thread.
+     * @see io.dropwizard.lifecycle.Managed#start()
+     */
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        final Thread thread = new Thread(this::drain, "request-log");
+        thread.setDaemon(true);
+        drainer = thread;
+        thread.start();
+    }
+
+    /**
+     * Stop the background thread, after it has written the events already in the ring buffer.
+     * @throws InterruptedException
+     *          If interrupted while waiting for the background thread to stop.
+     * @see io.dropwizard.lifecycle.Managed#stop()
+     */
+    @Override
+    public void stop() throws InterruptedException {
+        final Thread thread = drainer;
+        if (thread != null) {
+            drainer = null;
+            LockSupport.unpark(thread);
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Write events from the ring buffer to the log until stopped.
+     */
+    private void drain() {
+        final StringBuilder message = new StringBuilder(256);
+        while (drainer != null) {
+            if (!drainOne(message)) {
+                // Say that this thread is parking before checking again, so that a request thread that publishes an
+                // event after the check sees the flag and unparks it.
+                idle = true;
+                if (!drainOne(message) && drainer != null) {
+                    LockSupport.park(this);
+                }
+                idle = false;
+            }
+        }
+        while (drainOne(message)) {
+            // Write the events that were recorded before the log was stopped.
+        }
+    }
+
+    /**
+     * Write the next event in the ring buffer to the log.
+     * @param message
+     *          The buffer to format the message in.
+     * @return
+     *          {@code true} if there was an event, {@code false} if the ring buffer is empty.
+     */
+    private boolean drainOne(final StringBuilder message) {
+        final long sequence = ring.head();
+        if (!ring.isPublished(sequence)) {
+            return false;
+        }
+
+        final String[] values = ring.get(sequence);
+        message.setLength(0);
+        for (int i = 0; i < headers.length; i++) {
+            if (i > 0) {
+                message.append(", ");
+            }
+            message.append(headers[i]).append(": ").append(values[i]);
+            values[i] = null;
+        }
+        LOGGER.info(message.toString());
+
+        // Release the slot for the next lap of the ring buffer.
+        ring.release();
+        return true;
+    }
+}
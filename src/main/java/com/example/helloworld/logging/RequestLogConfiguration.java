@@ -0,0 +1,90 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.logging;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The configuration of the {@link RequestLog}.
+ *
+ * <p>For example:</p>
+ * <pre>
+ * requestLog:
+ *   enabled: true
+ *   sampleRate: 0.1
+ *   bufferSize: 1024
+ *   headers:
+ *     - User-Agent
+ * </pre>
+ */
+public class RequestLogConfiguration {
+
+    /**
+     * Whether requests are logged.
+     */
+    @JsonProperty
+    private boolean enabled = true;
+
+    /**
+     * The fraction of requests to log, from {@code 0.0} to {@code 1.0}.
+     */
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    @JsonProperty
+    private double sampleRate = 1.0;
+
+    /**
+     * The number of events the ring buffer holds. This is rounded up to a power of two.
+     */
+    @Min(2)
+    @JsonProperty
+    private int bufferSize = 1024;
+
+    /**
+     * The request headers to log.
+     */
+    @NotNull
+    @JsonProperty
+    private List<String> headers = Collections.singletonList("User-Agent");
+
+    /**
+     * @return
+     *          {@code true} if requests are logged.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return
+     *          The fraction of requests to log.
+     */
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @return
+     *          The number of events the ring buffer holds.
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return
+     *          The request headers to log.
+     */
+    public List<String> getHeaders() {
+        return headers;
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.metrics;
+
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * A {@link DynamicFeature} that stops timing the {@link Stage#FILTER_CHAIN} stage after every other request filter
+ * for a resource method has run.
+ *
+ * <p>The stage is started by the {@link FilterChainTimingFilter}. This feature is installed by Guicey
+ * auto-configuration.</p>
+ */
+@Provider
+public class FilterChainTimingFeature implements DynamicFeature {
+
+    /**
+     * Register the filter that stops timing, with the lowest precedence so it runs last.
+     * @param resourceInfo
+     *          The resource class and method information.
+     * @param context
+     *          The configurable context for the resource method.
+     * @see javax.ws.rs.container.DynamicFeature#configure(javax.ws.rs.container.ResourceInfo,
+     *      javax.ws.rs.core.FeatureContext)
+     */
+    @Override
+    public void configure(final ResourceInfo resourceInfo, final FeatureContext context) {
+        context.register(new Stop(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Stops timing the filter chain.
+     */
+    static final class Stop extends StageTimingFilter {
+
+        /**
+         * Constructor.
+         */
+        Stop() {
+            super(Stage.FILTER_CHAIN, false);
+        }
+    }
+}
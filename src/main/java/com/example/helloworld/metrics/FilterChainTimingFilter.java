@@ -0,0 +1,72 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.metrics;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+/**
+ * A servlet filter that starts timing the {@link Stage#FILTER_CHAIN} stage.
+ *
+ * <p>It must be the first filter in the chain. The stage is stopped by the last Jersey request filter, which is
+ * registered by the {@link FilterChainTimingFeature}. Jersey request properties are the servlet request attributes, so
+ * the start time is passed as an attribute.</p>
+ */
+public class FilterChainTimingFilter implements Filter {
+
+    /**
+     * The attribute that holds the start time.
+     */
+    private static final String ATTRIBUTE = StageTimingFilter.propertyName(Stage.FILTER_CHAIN);
+
+    /**
+     * @param filterConfig
+     *          The filter configuration.
+     * @see javax.servlet.Filter#init(javax.servlet.FilterConfig)
+     */
+    @Override
+    public void init(final FilterConfig filterConfig) {
+        // Nothing to initialise.
+    }
+
+    /**
+     * Record the start time and continue the chain.
+     * @param request
+     *          The request.
+     * @param response
+     *          The response.
+     * @param chain
+     *          The rest of the filter chain.
+     * @throws IOException
+     *          If the request or response cannot be read or written.
+     * @throws ServletException
+     *          If the request cannot be processed.
+     * @see javax.servlet.Filter#doFilter(javax.servlet.ServletRequest, javax.servlet.ServletResponse,
+     *      javax.servlet.FilterChain)
+     */
+    @Override
+    public void doFilter(final ServletRequest request,
+                         final ServletResponse response,
+                         final FilterChain chain) throws IOException, ServletException {
+        final long start = StageMetrics.start();
+        if (start != StageMetrics.NOT_TIMED) {
+            request.setAttribute(ATTRIBUTE, Long.valueOf(start));
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * @see javax.servlet.Filter#destroy()
+     */
+    @Override
+    public void destroy() {
+        // Nothing to release.
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.metrics;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import com.codahale.metrics.Timer;
+
+/**
+ * A servlet filter that times requests until their responses are complete.
+ *
+ * <p>A request is timed from when it reaches this filter until the filter chain returns, or, if the request went
+ * asynchronous, until the asynchronous request completes. So the time includes waiting for and rendering on another
+ * thread, and writing the response, in every execution mode.</p>
+ */
+public class ResponseTimingFilter implements Filter {
+
+    /**
+     * The timer.
+     */
+    private final Timer timer;
+
+    /**
+     * Constructor.
+     * @param theTimer
+     *          The timer to update with each response time.
+     */
+    public ResponseTimingFilter(final Timer theTimer) {
+        timer = theTimer;
+    }
+
+    /**
+     * @param filterConfig
+     *          The filter configuration.
+     * @see javax.servlet.Filter#init(javax.servlet.FilterConfig)
+     */
+    @Override
+    public void init(final FilterConfig filterConfig) {
+        // Nothing to initialise.
+    }
+
+    /**
+     * Time the rest of the filter chain, and the asynchronous request if it starts one.
+     * @param request
+     *          The request.
+     * @param response
+     *          The response.
+     * @param chain
+     *          The rest of the filter chain.
+     * @throws IOException
+     *          If the request or response cannot be read or written.
+     * @throws ServletException
+     *          If the request cannot be processed.
+     * @see javax.servlet.Filter#doFilter(javax.servlet.ServletRequest, javax.servlet.ServletResponse,
+     *      javax.servlet.FilterChain)
+     */
+    @Override
+    public void doFilter(final ServletRequest request,
+                         final ServletResponse response,
+                         final FilterChain chain) throws IOException, ServletException {
+        final long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        }
+        finally {
+            if (request.isAsyncStarted()) {
+                // The asynchronous request completes after this dispatch returns, even if it is completed before.
+                request.getAsyncContext().addListener(new Stop(start));
+            }
+            else {
+                stop(start);
+            }
+        }
+    }
+
+    /**
+     * @see javax.servlet.Filter#destroy()
+     */
+    @Override
+    public void destroy() {
+        // Nothing to release.
+    }
+
+    /**
+     * Time a response.
+     * @param start
+     *          When the request reached this filter.
+     */
+    private void stop(final long start) {
+        timer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Times an asynchronous request when it completes.
+     */
+    private final class Stop implements AsyncListener {
+
+        /**
+         * When the request reached the filter.
+         */
+        private final long start;
+
+        /**
+         * Constructor.
+         * @param theStart
+         *          When the request reached the filter.
+         */
+        Stop(final long theStart) {
+            start = theStart;
+        }
+
+        /**
+         * Time the response.
+         * @param event
+         *          The event.
+         */
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            stop(start);
+        }
+
+        /**
+         * The request is completed after it times out.
+         * @param event
+         *          The event.
+         */
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            // Timed when it completes.
+        }
+
+        /**
+         * The request is completed after it fails.
+         * @param event
+         *          The event.
+         */
+        @Override
+        public void onError(final AsyncEvent event) {
+            // Timed when it completes.
+        }
+
+        /**
+         * Not called, because the listener is added after the request is started.
+         * @param event
+         *          The event.
+         */
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            // Nothing to do.
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.metrics;
+
+/**
+ * A stage of a greeting request that is timed by {@link StageMetrics}.
+ */
+public enum Stage {
+
+    /**
+     * From the first servlet filter to the last Jersey request filter, just before the resource method is called.
+     */
+    FILTER_CHAIN("filterChain"),
+
+    /**
+     * The tracing request filter: extracting the parent context, starting the server span and activating it.
+     */
+    SPAN_START("spanStart"),
+
+    /**
+     * Extracting the parent span context from the request headers. This is part of {@link #SPAN_START}.
+     */
+    EXTRACT("extract"),
+
+    /**
+     * Rendering a greeting, including the cache lookup.
+     */
+    RENDER("render"),
+
+    /**
+     * Writing a {@code Saying} entity as JSON.
+     */
+    WRITE("write"),
+
+    /**
+     * Finishing a span: handing it to the reporter's queue.
+     */
+    SPAN_FINISH("spanFinish");
+
+    /**
+     * The name of the stage's timer.
+     */
+    private final String metricName;
+
+    /**
+     * Constructor.
+     * @param theMetricName
+     *          The name of the stage's timer.
+     */
+    Stage(final String theMetricName) {
+        metricName = theMetricName;
+    }
+
+    /**
+     * Get the name of the stage's timer.
+     * @return
+     *          The name, relative to {@link StageMetrics}.
+     */
+    public String getMetricName() {
+        return metricName;
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+/**
+ * Times each {@link Stage} of a greeting request, and records the size of the entities written.
+ *
+ * <p>Timing can be switched on and off at runtime, by configuration or the {@link StageMetricsTask}. When it is off,
+ * {@link #start()} only reads one volatile field and returns {@link #NOT_TIMED}, and {@link #stop(Stage, long)} does
+ * nothing with that, so the instrumentation costs nothing measurable.</p>
+ *
+ * <p>For example:</p>
+ * <pre>
+ * final long start = StageMetrics.start();
+ * try {
+ *     render();
+ * }
+ * finally {
+ *     StageMetrics.stop(Stage.RENDER, start);
+ * }
+ * </pre>
+ *
+ * <p>The timers and histograms are registered as {@code com.example.helloworld.metrics.StageMetrics.<name>}.</p>
+ */
+public final class StageMetrics {
+
+    /**
+     * The start time returned when timing is disabled.
+     */
+    public static final long NOT_TIMED = Long.MIN_VALUE;
+
+    /**
+     * The timer for each stage, indexed by ordinal.
+     */
+    private static final Timer[] TIMERS = new Timer[Stage.values().length];
+
+    static {
+        for (final Stage stage : Stage.values()) {
+            TIMERS[stage.ordinal()] = new Timer();
+        }
+    }
+
+    /**
+     * The number of bytes in each entity written.
+     */
+    private static final Histogram ENTITY_SIZE = new Histogram(new ExponentiallyDecayingReservoir());
+
+    /**
+     * The number of names in each batch request.
+     */
+    private static final Histogram BATCH_SIZE = new Histogram(new ExponentiallyDecayingReservoir());
+
+    /**
+     * Whether the stages are timed.
+     */
+    private static volatile boolean enabled;
+
+    /**
+     * Register the timers and histograms.
+     * @param metrics
+     *          The registry to register them in. If they are already registered, they are not registered again.
+     */
+    public static void register(final MetricRegistry metrics) {
+        for (final Stage stage : Stage.values()) {
+            metrics.timer(MetricRegistry.name(StageMetrics.class, stage.getMetricName()),
+                          () -> TIMERS[stage.ordinal()]);
+        }
+        metrics.histogram(MetricRegistry.name(StageMetrics.class, "entitySize"), () -> ENTITY_SIZE);
+        metrics.histogram(MetricRegistry.name(StageMetrics.class, "batchSize"), () -> BATCH_SIZE);
+    }
+
+    /**
+     * Check whether the stages are timed.
+     * @return
+     *          {@code true} if the stages are timed.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switch timing on or off.
+     * @param isEnabled
+     *          {@code true} to time the stages.
+     */
+    public static void setEnabled(final boolean isEnabled) {
+        enabled = isEnabled;
+    }
+
+    /**
+     * Start timing a stage.
+     * @return
+     *          The start time to pass to {@link #stop(Stage, long)}, or {@link #NOT_TIMED} if timing is disabled.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Stop timing a stage.
+     * @param stage
+     *          The stage.
+     * @param start
+     *          The time returned by {@link #start()}. If this is {@link #NOT_TIMED}, nothing is recorded.
+     */
+    public static void stop(final Stage stage, final long start) {
+        if (start != NOT_TIMED) {
+            TIMERS[stage.ordinal()].update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Record the size of an entity that has been written.
+     * @param bytes
+     *          The number of bytes written.
+     */
+    public static void recordEntitySize(final int bytes) {
+        if (enabled) {
+            ENTITY_SIZE.update(bytes);
+        }
+    }
+
+    /**
+     * Record the number of names in a batch request.
+     * @param size
+     *          The number of names.
+     */
+    public static void recordBatchSize(final int size) {
+        if (enabled) {
+            BATCH_SIZE.update(size);
+        }
+    }
+
+    /**
+     * Cannot instantiate.
+     */
+    private StageMetrics() {
+        super();
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.metrics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The configuration of the {@link StageMetrics}.
+ *
+ * <p>For example:</p>
+ * <pre>
+ * stageMetrics:
+ *   enabled: true
+ * </pre>
+ *
+ * <p>This is only the state when the application starts; the {@link StageMetricsTask} switches timing on and off
+ * while it runs.</p>
+ */
+public class StageMetricsConfiguration {
+
+    /**
+     * Whether the stages of each request are timed.
+     */
+    @JsonProperty
+    private boolean enabled;
+
+    /**
+     * @return
+     *          {@code true} if the stages of each request are timed.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.metrics;
+
+import java.io.PrintWriter;
+
+import com.google.common.collect.ImmutableMultimap;
+
+import io.dropwizard.servlets.tasks.Task;
+
+/**
+ * An admin task that switches {@link StageMetrics} timing on and off at runtime.
+ *
+ * <p>For example, {@code curl -X POST 'http://localhost:8080/admin/tasks/stage-metrics?enabled=true'}. Without the
+ * {@code enabled} parameter, the task reports the current state.</p>
+ *
+ * <p>This task is installed by Guicey auto-configuration.</p>
+ */
+public class StageMetricsTask extends Task {
+
+    /**
+     * The name of the parameter that enables or disables timing.
+     */
+    private static final String ENABLED_PARAMETER = "enabled";
+
+    /**
+     * Constructor.
+     */
+    public StageMetricsTask() {
+        super("stage-metrics");
+    }
+
+    /**
+     * Enable or disable timing.
+     * @param parameters
+     *          The request parameters. If {@code enabled} is present, timing is enabled if it is {@code true} and
+     *          disabled otherwise.
+     * @param output
+     *          The response.
+     * @see io.dropwizard.servlets.tasks.Task#execute(com.google.common.collect.ImmutableMultimap, java.io.PrintWriter)
+     */
+    @Override
+    public void execute(final ImmutableMultimap<String, String> parameters, final PrintWriter output) {
+        if (parameters.containsKey(ENABLED_PARAMETER)) {
+            StageMetrics.setEnabled(Boolean.parseBoolean(parameters.get(ENABLED_PARAMETER).iterator().next()));
+        }
+        output.println("Stage metrics are " + (StageMetrics.isEnabled() ? "enabled" : "disabled") + ".");
+    }
+}
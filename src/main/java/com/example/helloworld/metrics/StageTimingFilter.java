@@ -0,0 +1,82 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.metrics;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+
+/**
+ * A Jersey request filter that starts or stops timing a {@link Stage}.
+ *
+ * <p>Filters run in priority order, so a stage made of other filters is timed by registering a start filter with a
+ * lower priority and a stop filter with a higher priority. The start time is kept in a request property, which is
+ * only set while {@link StageMetrics} timing is enabled.</p>
+ *
+ * <p>Jersey registers at most one instance of each filter class, so each start and stop filter is its own
+ * subclass.</p>
+ */
+public abstract class StageTimingFilter implements ContainerRequestFilter {
+
+    /**
+     * The stage being timed.
+     */
+    private final Stage stage;
+
+    /**
+     * {@code true} if this filter starts timing, {@code false} if it stops.
+     */
+    private final boolean start;
+
+    /**
+     * The request property that holds the start time.
+     */
+    private final String property;
+
+    /**
+     * Constructor.
+     * @param theStage
+     *          The stage being timed.
+     * @param isStart
+     *          {@code true} if this filter starts timing, {@code false} if it stops.
+     */
+    protected StageTimingFilter(final Stage theStage, final boolean isStart) {
+        stage = theStage;
+        start = isStart;
+        property = propertyName(theStage);
+    }
+
+    /**
+     * Get the name of the request property, or servlet request attribute, that holds a stage's start time.
+     * @param stage
+     *          The stage.
+     * @return
+     *          The property name.
+     */
+    public static String propertyName(final Stage stage) {
+        return StageTimingFilter.class.getName() + '.' + stage.name();
+    }
+
+    /**
+     * Start or stop timing the stage.
+     * @param requestContext
+     *          The request.
+     * @see javax.ws.rs.container.ContainerRequestFilter#filter(javax.ws.rs.container.ContainerRequestContext)
+     */
+    @Override
+    public void filter(final ContainerRequestContext requestContext) {
+        if (start) {
+            final long startTime = StageMetrics.start();
+            if (startTime != StageMetrics.NOT_TIMED) {
+                requestContext.setProperty(property, Long.valueOf(startTime));
+            }
+            return;
+        }
+
+        final Object startTime = requestContext.getProperty(property);
+        if (startTime instanceof Long) {
+            requestContext.removeProperty(property);
+            StageMetrics.stop(stage, ((Long) startTime).longValue());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.ratelimit;
+
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The rate limit of one resource method, applied to each client separately.
+ *
+ * <p>For example, to let each client make 100 requests a second, and up to 200 at once after a quiet period:</p>
+ * <pre>
+ * permitsPerSecond: 100
+ * burst: 200
+ * </pre>
+ */
+public class MethodRateLimit {
+
+    /**
+     * The sustained number of requests a client may make each second.
+     */
+    @DecimalMin(value = "0", inclusive = false)
+    @JsonProperty
+    private double permitsPerSecond = 100;
+
+    /**
+     * The number of requests a client that has been quiet may make at once: the size of its token bucket.
+     */
+    @Min(1)
+    @JsonProperty
+    private int burst = 100;
+
+    /**
+     * @return
+     *          The sustained number of requests a client may make each second.
+     */
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    /**
+     * @return
+     *          The size of each client's token bucket.
+     */
+    public int getBurst() {
+        return burst;
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.ratelimit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.dropwizard.util.Duration;
+import io.dropwizard.validation.MinDuration;
+
+/**
+ * The configuration of the per-client rate limits.
+ *
+ * <p>Limits are set for resource methods, named {@code <simple class name>.<method name>}. A method without a limit
+ * is not rate limited. For example:</p>
+ * <pre>
+ * rateLimits:
+ *   maxClients: 10000
+ *   stripes: 16
+ *   idleTimeout: 5m
+ *   methods:
+ *     HelloWorldResource.sayHello:
+ *       permitsPerSecond: 100
+ *       burst: 200
+ * </pre>
+ */
+public class RateLimitConfiguration {
+
+    /**
+     * The request header that identifies the client, or {@code null} to identify clients by their remote address. A
+     * request without the header is identified by its remote address.
+     *
+     * <p>Clients choose their own headers, so this must only be a header that a trusted proxy sets, and strips from
+     * the requests it receives. Otherwise a client can spread its requests over as many buckets as it likes.</p>
+     */
+    @JsonProperty
+    private String clientHeader;
+
+    /**
+     * The most clients whose buckets are kept for each method. Clients beyond this share one bucket per stripe until
+     * idle buckets are evicted.
+     */
+    @Min(1)
+    @JsonProperty
+    private int maxClients = 10_000;
+
+    /**
+     * The number of independent stripes the buckets are divided between. This is rounded up to a power of two.
+     */
+    @Min(1)
+    @JsonProperty
+    private int stripes = 16;
+
+    /**
+     * How long a client's bucket must have been full before it may be evicted.
+     */
+    @NotNull
+    @MinDuration(1)
+    @JsonProperty
+    private Duration idleTimeout = Duration.minutes(5);
+
+    /**
+     * The limits, keyed by resource method.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    private final Map<String, MethodRateLimit> methods = new LinkedHashMap<>();
+
+    /**
+     * @return
+     *          The request header that identifies the client, or {@code null} to use the remote address.
+     */
+    public String getClientHeader() {
+        return clientHeader;
+    }
+
+    /**
+     * @return
+     *          The most clients whose buckets are kept for each method.
+     */
+    public int getMaxClients() {
+        return maxClients;
+    }
+
+    /**
+     * @return
+     *          The number of stripes.
+     */
+    public int getStripes() {
+        return stripes;
+    }
+
+    /**
+     * @return
+     *          How long a bucket must have been full before it may be evicted.
+     */
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * @return
+     *          The limits, keyed by {@code <simple class name>.<method name>}.
+     */
+    public Map<String, MethodRateLimit> getMethods() {
+        return methods;
+    }
+}
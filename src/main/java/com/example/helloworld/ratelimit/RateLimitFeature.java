@@ -0,0 +1,109 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.ratelimit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.ext.Provider;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.example.helloworld.HelloWorldConfiguration;
+import com.google.inject.Inject;
+
+import io.dropwizard.setup.Environment;
+
+/**
+ * A {@link DynamicFeature} that registers a {@link RateLimitFilter} on each resource method that has a rate limit.
+ *
+ * <p>The limits are configured by {@link RateLimitConfiguration}, keyed by {@code <simple class name>.<method name>}.
+ * Each method has its own buckets, so a client's requests to one method don't use up its limit on another. Methods
+ * with the same key, e.g. overloads, share one filter and its buckets, as does a method configured again. The filter
+ * runs at the authentication priority, before the tracing filter, so a rejected request costs neither a span nor a
+ * greeting id.</p>
+ *
+ * <p>For each limited method, the rejected requests are metered as {@code RateLimitFilter.<method>.rejected}, and the
+ * number of clients with a bucket is the gauge {@code RateLimitFilter.<method>.clients}.</p>
+ */
+@Provider
+public class RateLimitFeature implements DynamicFeature {
+
+    /**
+     * The priority of the rate limit filter.
+     */
+    private static final int RATE_LIMIT_PRIORITY = Priorities.AUTHENTICATION;
+
+    /**
+     * The rate limit configuration.
+     */
+    private final RateLimitConfiguration configuration;
+
+    /**
+     * The registry for the rate limit metrics.
+     */
+    private final MetricRegistry metrics;
+
+    /**
+     * The filters, keyed by {@code <simple class name>.<method name>}.
+     */
+    private final ConcurrentMap<String, RateLimitFilter> filters = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     * @param theConfiguration
+     *          The application configuration.
+     * @param environment
+     *          The application environment, whose metric registry records the rate limit metrics.
+     */
+    @Inject
+    public RateLimitFeature(final HelloWorldConfiguration theConfiguration, final Environment environment) {
+        configuration = theConfiguration.getRateLimits();
+        metrics = environment.metrics();
+    }
+
+    /**
+     * Register the {@link RateLimitFilter} if the resource method has a rate limit.
+     * @param resourceInfo
+     *          The resource class and method information.
+     * @param context
+     *          The configurable context of the resource method.
+     * @see javax.ws.rs.container.DynamicFeature#configure(javax.ws.rs.container.ResourceInfo, javax.ws.rs.core.FeatureContext)
+     */
+    @Override
+    public void configure(final ResourceInfo resourceInfo, final FeatureContext context) {
+        final String method = resourceInfo.getResourceClass().getSimpleName() + "." +
+                              resourceInfo.getResourceMethod().getName();
+        final MethodRateLimit limit = configuration.getMethods().get(method);
+        if (limit == null) {
+            return;
+        }
+
+        context.register(filters.computeIfAbsent(method, key -> createFilter(key, limit)), RATE_LIMIT_PRIORITY);
+    }
+
+    /**
+     * Create the filter for a method, and its metrics.
+     * @param method
+     *          The method's key.
+     * @param limit
+     *          The method's limit.
+     * @return
+     *          The filter.
+     */
+    private RateLimitFilter createFilter(final String method, final MethodRateLimit limit) {
+        final Meter rejected = metrics.meter(name(RateLimitFilter.class, method, "rejected"));
+        final RateLimitFilter filter = new RateLimitFilter(configuration, limit, rejected);
+        metrics.gauge(name(RateLimitFilter.class, method, "clients"),
+                      () -> (Gauge<Integer>) () -> Integer.valueOf(filter.getClientCount()));
+        return filter;
+    }
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.eclipse.jetty.server.HttpChannel;
+
+import com.codahale.metrics.Meter;
+
+import io.dropwizard.jersey.errors.ErrorMessage;
+
+/**
+ * Limits the rate of one resource method's requests from each client.
+ *
+ * <p>Each client takes a token from its own bucket for every request. A request that finds the bucket empty is
+ * answered with {@code 429 Too Many Requests}, with a {@code Retry-After} header giving the whole number of seconds
+ * until a token will be available, and the resource method is not called.</p>
+ *
+ * <p>A client is identified by the configured header, or by the remote address if there is no header configured or
+ * the request doesn't have it. Behind a proxy or load balancer the remote address is the proxy's, so a header set by
+ * the proxy should be used.</p>
+ *
+ * <p>Jersey doesn't inject {@literal @}{@link javax.ws.rs.core.Context} fields into filter instances registered by a
+ * {@link javax.ws.rs.container.DynamicFeature}, and looking the servlet request up through Guice on every request is
+ * what the resource avoids. Jersey's request properties are the servlet request attributes, and Jetty answers the
+ * attribute named after its {@link HttpChannel} with the request's channel, so the remote address is read from that.
+ * A request that isn't from Jetty, e.g. in a benchmark, is from the {@link #UNKNOWN_CLIENT}.</p>
+ *
+ * @see RateLimitFeature
+ */
+public class RateLimitFilter implements ContainerRequestFilter {
+
+    /**
+     * The status of a rejected request.
+     */
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * The header that tells a rejected client how long to wait.
+     */
+    private static final String RETRY_AFTER = "Retry-After";
+
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The servlet request attribute that Jetty answers with the request's channel.
+     */
+    private static final String HTTP_CHANNEL = HttpChannel.class.getName();
+
+    /**
+     * The client of a request that has no client header and no remote address.
+     */
+    static final String UNKNOWN_CLIENT = "unknown";
+
+    /**
+     * The header that identifies the client, or {@code null} to use the remote address.
+     */
+    private final String clientHeader;
+
+    /**
+     * The clients' buckets.
+     */
+    private final TokenBuckets buckets;
+
+    /**
+     * The rejected requests.
+     */
+    private final Meter rejected;
+
+    /**
+     * Constructor.
+     * @param configuration
+     *          The rate limit configuration: the client header, and the bounds of the buckets.
+     * @param limit
+     *          The method's limit.
+     * @param theRejected
+     *          The meter marked for each rejected request.
+     */
+    public RateLimitFilter(final RateLimitConfiguration configuration,
+                           final MethodRateLimit limit,
+                           final Meter theRejected) {
+        clientHeader = configuration.getClientHeader();
+        buckets = new TokenBuckets(limit,
+                                   configuration.getMaxClients(),
+                                   configuration.getStripes(),
+                                   configuration.getIdleTimeout().toNanoseconds());
+        rejected = theRejected;
+    }
+
+    /**
+     * Take a token from the client's bucket, or reject the request.
+     * @param requestContext
+     *          The request.
+     * @see javax.ws.rs.container.ContainerRequestFilter#filter(javax.ws.rs.container.ContainerRequestContext)
+     */
+    @Override
+    public void filter(final ContainerRequestContext requestContext) {
+        filter(requestContext, System.nanoTime());
+    }
+
+    /**
+     * Take a token from the client's bucket at a given time, or reject the request.
+     * @param requestContext
+     *          The request.
+     * @param now
+     *          The current time, from {@link System#nanoTime()}.
+     */
+    void filter(final ContainerRequestContext requestContext, final long now) {
+        final long waitNanos = buckets.tryAcquire(client(requestContext), now);
+        if (waitNanos == 0) {
+            return;
+        }
+
+        rejected.mark();
+        final long retryAfter = retryAfterSeconds(waitNanos);
+        requestContext.abortWith(Response.status(TOO_MANY_REQUESTS)
+                                         .header(RETRY_AFTER, Long.toString(retryAfter))
+                                         .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                                         .type(MediaType.APPLICATION_JSON_TYPE)
+                                         .entity(new ErrorMessage(TOO_MANY_REQUESTS,
+                                                                  "Too many requests. Retry after " + retryAfter +
+                                                                  " s."))
+                                         .build());
+    }
+
+    /**
+     * @return
+     *          The number of clients with a bucket.
+     */
+    public int getClientCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Convert the wait for a token to a {@code Retry-After} value.
+     * @param waitNanos
+     *          How long until a token will be available, in nanoseconds.
+     * @return
+     *          The wait rounded up to whole seconds, and at least one second.
+     */
+    static long retryAfterSeconds(final long waitNanos) {
+        return Math.max(1, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+    }
+
+    /**
+     * Identify the client.
+     * @param requestContext
+     *          The request.
+     * @return
+     *          The client header's value, or the remote address.
+     */
+    private String client(final ContainerRequestContext requestContext) {
+        if (clientHeader != null) {
+            final String client = requestContext.getHeaderString(clientHeader);
+            if (client != null && !client.isEmpty()) {
+                return client;
+            }
+        }
+        final Object channel = requestContext.getProperty(HTTP_CHANNEL);
+        return channel instanceof HttpChannel ? ((HttpChannel) channel).getRequest().getRemoteAddr() : UNKNOWN_CLIENT;
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One client's token bucket.
+ *
+ * <p>The bucket is kept as a single time, the time at which it will be full again, which is the generic cell rate
+ * algorithm form of a token bucket. Taking a token moves that time on by the interval between tokens; the token is
+ * refused if that would put it further ahead than the whole bucket. A take is one compare-and-set, so the bucket needs
+ * no lock and no refill timer. Times are {@link System#nanoTime()} values, compared by subtraction.</p>
+ */
+final class TokenBucket {
+
+    /**
+     * The time at which the bucket will be full. A time in the past means the bucket is full.
+     */
+    private final AtomicLong fullAt;
+
+    /**
+     * Constructor. The bucket starts full.
+     * @param now
+     *          The current time.
+     */
+    TokenBucket(final long now) {
+        fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Take a token.
+     * @param now
+     *          The current time.
+     * @param intervalNanos
+     *          The time it takes to add one token to the bucket.
+     * @param capacityNanos
+     *          The time it takes to fill the bucket from empty: the interval multiplied by the burst.
+     * @return
+     *          {@code 0} if a token was taken, otherwise how long until one will be available, in nanoseconds.
+     */
+    long tryAcquire(final long now, final long intervalNanos, final long capacityNanos) {
+        while (true) {
+            final long current = fullAt.get();
+            final long next = (current - now > 0 ? current : now) + intervalNanos;
+            final long ahead = next - now;
+            if (ahead > capacityNanos) {
+                return ahead - capacityNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Check whether the bucket is idle: full, and no token has been taken for a while.
+     * @param now
+     *          The current time.
+     * @param idleNanos
+     *          How long the bucket must have been full.
+     * @return
+     *          {@code true} if the bucket has been full for at least {@code idleNanos}, so discarding it and starting
+     *          a new full bucket changes nothing.
+     */
+    boolean isIdle(final long now, final long idleNanos) {
+        return now - fullAt.get() >= idleNanos;
+    }
+}
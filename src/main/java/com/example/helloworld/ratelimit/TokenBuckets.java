@@ -0,0 +1,204 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The token buckets of one rate limited method, keyed by client.
+ *
+ * <p>The clients are divided between a power of two stripes by the hash of their key. Each stripe is a
+ * {@link ConcurrentHashMap} with its own size and bound, so finding a client's bucket is a lock-free read and adding a
+ * client or evicting idle ones only touches one stripe. When a stripe is full, its idle buckets are evicted, but at
+ * most once a second so that a flood of new client keys cannot keep every thread sweeping. Until there is room, new
+ * clients in a full stripe share the stripe's overflow bucket, which has the same limit: memory stays bounded and the
+ * flood is still limited, at the cost of limiting those clients together.</p>
+ *
+ * <p>The bound is checked and then the bucket added, so concurrent additions can overshoot it by a few buckets.</p>
+ */
+final class TokenBuckets {
+
+    /**
+     * The least time between sweeps of a stripe for idle buckets.
+     */
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The stripes.
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * Selects a stripe from a hash: the number of stripes minus one.
+     */
+    private final int mask;
+
+    /**
+     * The time it takes to add one token to a bucket.
+     */
+    private final long intervalNanos;
+
+    /**
+     * The time it takes to fill a bucket from empty.
+     */
+    private final long capacityNanos;
+
+    /**
+     * How long a bucket must have been full before it may be evicted.
+     */
+    private final long idleNanos;
+
+    /**
+     * The most buckets in each stripe.
+     */
+    private final int maxPerStripe;
+
+    /**
+     * Constructor.
+     * @param limit
+     *          The rate and burst of each bucket.
+     * @param maxClients
+     *          The most buckets to keep.
+     * @param stripeCount
+     *          The number of stripes. This is rounded up to a power of two.
+     * @param idleTimeoutNanos
+     *          How long a bucket must have been full before it may be evicted.
+     */
+    TokenBuckets(final MethodRateLimit limit,
+                 final int maxClients,
+                 final int stripeCount,
+                 final long idleTimeoutNanos) {
+        final int count = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        mask = count - 1;
+        maxPerStripe = Math.max(1, (maxClients + count - 1) / count);
+        intervalNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / limit.getPermitsPerSecond()));
+        capacityNanos = intervalNanos * limit.getBurst();
+        idleNanos = idleTimeoutNanos;
+
+        final long now = System.nanoTime();
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(now);
+        }
+    }
+
+    /**
+     * Take a token from a client's bucket.
+     * @param client
+     *          The client's key.
+     * @param now
+     *          The current time, from {@link System#nanoTime()}.
+     * @return
+     *          {@code 0} if the request is allowed, otherwise how long until it would be, in nanoseconds.
+     */
+    long tryAcquire(final String client, final long now) {
+        final int hash = client.hashCode();
+        final Stripe stripe = stripes[(hash ^ (hash >>> 16)) & mask];
+        TokenBucket bucket = stripe.buckets.get(client);
+        if (bucket == null) {
+            bucket = stripe.add(client, now);
+        }
+        return bucket.tryAcquire(now, intervalNanos, capacityNanos);
+    }
+
+    /**
+     * @return
+     *          The number of clients with a bucket.
+     */
+    int size() {
+        int size = 0;
+        for (final Stripe stripe : stripes) {
+            size += stripe.size.get();
+        }
+        return size;
+    }
+
+    /**
+     * One stripe of the buckets.
+     */
+    private final class Stripe {
+
+        /**
+         * The buckets, keyed by client.
+         */
+        final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+        /**
+         * The number of buckets.
+         */
+        final AtomicInteger size = new AtomicInteger();
+
+        /**
+         * The bucket shared by new clients while the stripe is full.
+         */
+        final TokenBucket overflow;
+
+        /**
+         * The earliest time of the next sweep for idle buckets.
+         */
+        final AtomicLong nextSweep;
+
+        /**
+         * Constructor.
+         * @param now
+         *          The current time.
+         */
+        Stripe(final long now) {
+            overflow = new TokenBucket(now);
+            nextSweep = new AtomicLong(now);
+        }
+
+        /**
+         * Add a bucket for a new client.
+         * @param client
+         *          The client's key.
+         * @param now
+         *          The current time.
+         * @return
+         *          The client's bucket, or the overflow bucket if the stripe is full.
+         */
+        TokenBucket add(final String client, final long now) {
+            if (size.get() >= maxPerStripe) {
+                sweep(now);
+                if (size.get() >= maxPerStripe) {
+                    return overflow;
+                }
+            }
+
+            final TokenBucket created = new TokenBucket(now);
+            final TokenBucket existing = buckets.putIfAbsent(client, created);
+            if (existing != null) {
+                return existing;
+            }
+            size.incrementAndGet();
+            return created;
+        }
+
+        /**
+         * Evict the idle buckets, unless the stripe was swept less than a second ago or another thread is sweeping it.
+         * @param now
+         *          The current time.
+         */
+        private void sweep(final long now) {
+            final long due = nextSweep.get();
+            if (now - due < 0 || !nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+                return;
+            }
+
+            final Iterator<Map.Entry<String, TokenBucket>> entries = buckets.entrySet().iterator();
+            while (entries.hasNext()) {
+                final Map.Entry<String, TokenBucket> entry = entries.next();
+                if (entry.getValue().isIdle(now, idleNanos) && buckets.remove(entry.getKey(), entry.getValue())) {
+                    size.decrementAndGet();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.reload;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.example.helloworld.HelloWorldConfiguration;
+
+import io.dropwizard.configuration.ConfigurationException;
+import io.dropwizard.configuration.ConfigurationFactory;
+import io.dropwizard.configuration.ConfigurationSourceProvider;
+import io.dropwizard.setup.Bootstrap;
+
+/**
+ * The configuration file the application was started from, so that it can be read again.
+ *
+ * <p>This is installed as the bootstrap's {@link ConfigurationSourceProvider}, so it sees the path Dropwizard opens
+ * when the application starts. {@link #load()} parses that path again exactly as Dropwizard did, with the same
+ * object mapper, validator and {@code dw.} system property overrides.</p>
+ */
+public class ConfigurationFile implements ConfigurationSourceProvider {
+
+    /**
+     * The prefix of the system properties that override configuration values.
+     */
+    private static final String PROPERTY_PREFIX = "dw";
+
+    /**
+     * The application bootstrap.
+     */
+    private final Bootstrap<HelloWorldConfiguration> bootstrap;
+
+    /**
+     * The provider that reads the configuration.
+     */
+    private final ConfigurationSourceProvider delegate;
+
+    /**
+     * The path of the configuration, or {@code null} if it has not been read yet.
+     */
+    private volatile String path;
+
+    /**
+     * Constructor.
+     * @param theBootstrap
+     *          The application bootstrap. Its configuration source provider reads the configuration.
+     */
+    public ConfigurationFile(final Bootstrap<HelloWorldConfiguration> theBootstrap) {
+        bootstrap = theBootstrap;
+        delegate = theBootstrap.getConfigurationSourceProvider();
+    }
+
+    /**
+     * Open the configuration, and remember its path.
+     * @param thePath
+     *          The path of the configuration.
+     * @return
+     *          The configuration.
+     * @throws IOException
+     *          If the configuration cannot be opened.
+     * @see io.dropwizard.configuration.ConfigurationSourceProvider#open(java.lang.String)
+     */
+    @Override
+    public InputStream open(final String thePath) throws IOException {
+        path = thePath;
+        return delegate.open(thePath);
+    }
+
+    /**
+     * @return
+     *          The path of the configuration, or {@code null} if it has not been read.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Read, parse and validate the configuration again.
+     * @return
+     *          The configuration.
+     * @throws IOException
+     *          If the configuration cannot be read.
+     * @throws ConfigurationException
+     *          If the configuration is not valid.
+     * @throws IllegalStateException
+     *          If the configuration has not been read when the application started.
+     */
+    public HelloWorldConfiguration load() throws IOException, ConfigurationException {
+        final String thePath = path;
+        if (thePath == null) {
+            throw new IllegalStateException("The application was not started from a configuration file.");
+        }
+        final ConfigurationFactory<HelloWorldConfiguration> factory =
+                        bootstrap.getConfigurationFactoryFactory()
+                                 .create(HelloWorldConfiguration.class,
+                                         bootstrap.getValidatorFactory().getValidator(),
+                                         bootstrap.getObjectMapper(),
+                                         PROPERTY_PREFIX);
+        return factory.build(delegate, thePath);
+    }
+}
@@ -0,0 +1,269 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.reload;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.example.helloworld.HelloWorldConfiguration;
+import com.example.helloworld.cache.GreetingCache;
+import com.example.helloworld.core.GreetingSettings;
+import com.example.helloworld.core.GreetingSettingsHolder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import io.dropwizard.configuration.ConfigurationException;
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.setup.Environment;
+
+/**
+ * Reloads the greeting settings - {@code template}, {@code templates} and {@code defaultName} - from the configuration
+ * file while the application runs.
+ *
+ * <p>A reload reads and validates the whole configuration file as Dropwizard does at startup, compiles the templates,
+ * checks that every template includes the name and then publishes the new {@link GreetingSettings} to the
+ * {@link GreetingSettingsHolder}. If any step fails the current settings are kept. Other settings are not reloaded;
+ * changing them still needs a restart.</p>
+ *
+ * <p>A reload is started by the {@link ReloadTask}, or, if {@code reload.watch} is {@code true}, by a background
+ * thread that watches the configuration file with a {@link WatchService}. The number of reloads and failed reloads,
+ * and the time of the last reload, are registered as metrics.</p>
+ *
+ * <p>This is a {@link Managed} object, so it is installed by Guicey auto-configuration and the watcher is started and
+ * stopped with the application.</p>
+ */
+@Singleton
+public class ConfigurationReloader implements Managed {
+
+    /**
+     * The logger to use.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigurationReloader.class);
+
+    /**
+     * How long to wait after the file changes before reloading it, so that an editor that writes the file in several
+     * steps has finished.
+     */
+    private static final long SETTLE_MILLIS = 100;
+
+    /**
+     * The configuration file.
+     */
+    private final ConfigurationFile file;
+
+    /**
+     * The current greeting settings.
+     */
+    private final GreetingSettingsHolder settings;
+
+    /**
+     * The cache of rendered greetings, which is emptied when the templates change.
+     */
+    private final GreetingCache greetings;
+
+    /**
+     * Whether the configuration file is watched.
+     */
+    private final boolean watch;
+
+    /**
+     * The number of successful reloads.
+     */
+    private final Counter reloads;
+
+    /**
+     * The number of failed reloads.
+     */
+    private final Counter failures;
+
+    /**
+     * The time of the last successful reload, in milliseconds since the epoch, or 0 if there has not been one.
+     */
+    private volatile long lastReload;
+
+    /**
+     * The watch service, or {@code null} if the file is not being watched.
+     */
+    private WatchService watcher;
+
+    /**
+     * Constructor.
+     * @param theFile
+     *          The configuration file.
+     * @param theSettings
+     *          The current greeting settings.
+     * @param theGreetings
+     *          The cache of rendered greetings.
+     * @param configuration
+     *          The application configuration.
+     * @param environment
+     *          The application environment, whose metric registry records the reloads.
+     */
+    @Inject
+    public ConfigurationReloader(final ConfigurationFile theFile,
+                                 final GreetingSettingsHolder theSettings,
+                                 final GreetingCache theGreetings,
+                                 final HelloWorldConfiguration configuration,
+                                 final Environment environment) {
+        file = theFile;
+        settings = theSettings;
+        greetings = theGreetings;
+        watch = configuration.getReload().isWatch();
+
+        final MetricRegistry metrics = environment.metrics();
+        reloads = metrics.counter(MetricRegistry.name(ConfigurationReloader.class, "reloads"));
+        failures = metrics.counter(MetricRegistry.name(ConfigurationReloader.class, "failures"));
+        metrics.register(MetricRegistry.name(ConfigurationReloader.class, "lastReload"),
+                         (Gauge<Long>) () -> Long.valueOf(lastReload));
+    }
+
+    /**
+     * Reload the greeting settings from the configuration file.
+     * @return
+     *          The new settings.
+     * @throws IOException
+     *          If the configuration file cannot be read.
+     * @throws ConfigurationException
+     *          If the configuration is not valid.
+     * @throws IllegalArgumentException
+     *          If a template cannot be compiled, or doesn't include the name.
+     */
+    public synchronized GreetingSettings reload() throws IOException, ConfigurationException {
+        try {
+            final HelloWorldConfiguration configuration = file.load();
+            final GreetingSettings reloaded = GreetingSettings.from(configuration);
+
+            final List<String> invalid = reloaded.getTemplates().findTemplatesWithoutName();
+            if (!invalid.isEmpty()) {
+                throw new IllegalArgumentException("The templates for " + String.join(", ", invalid) +
+                                                   " don't include a name.");
+            }
+
+            settings.set(reloaded);
+            greetings.invalidateAll();
+            lastReload = System.currentTimeMillis();
+            reloads.inc();
+            LOGGER.info("Reloaded the greeting settings from {}.", file.getPath());
+            return reloaded;
+        }
+        catch (final IOException | ConfigurationException | RuntimeException e) {
+            failures.inc();
+            throw e;
+        }
+    }
+
+    /**
+     * Start watching the configuration file, if it is configured to be watched and is a file.
+     * @throws IOException
+     *          If the watch service cannot be created.
+     * @see io.dropwizard.lifecycle.Managed#start()
+     */
+    @Override
+    public synchronized void start() throws IOException {
+        final String path = file.getPath();
+        if (!watch || path == null || !Files.isRegularFile(Paths.get(path))) {
+            return;
+        }
+
+        final Path configuration = Paths.get(path).toAbsolutePath();
+        final WatchService service = FileSystems.getDefault().newWatchService();
+        configuration.getParent().register(service,
+                                           StandardWatchEventKinds.ENTRY_CREATE,
+                                           StandardWatchEventKinds.ENTRY_MODIFY);
+        watcher = service;
+
+        final Thread thread = new Thread(() -> watch(service, configuration.getFileName()), "configuration-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop watching the configuration file.
+     * @throws IOException
+     *          If the watch service cannot be closed.
+     * @see io.dropwizard.lifecycle.Managed#stop()
+     */
+    @Override
+    public synchronized void stop() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+    }
+
+    /**
+     * Reload the configuration whenever the file changes, until the watch service is closed.
+     * @param service
+     *          The watch service.
+     * @param fileName
+     *          The name of the configuration file in the watched directory.
+     */
+    private void watch(final WatchService service, final Path fileName) {
+        try {
+            while (true) {
+                if (!isChanged(service.take(), fileName)) {
+                    continue;
+                }
+
+                Thread.sleep(SETTLE_MILLIS);
+                WatchKey key;
+                while ((key = service.poll()) != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+                reloadAfterChange();
+            }
+        }
+        catch (@SuppressWarnings("unused") final ClosedWatchServiceException | InterruptedException e) {
+            // The application is stopping.
+        }
+    }
+
+    /**
+     * Check whether a watch key's events include a change to the configuration file, and reset the key.
+     * @param key
+     *          The signalled key.
+     * @param fileName
+     *          The name of the configuration file.
+     * @return
+     *          {@code true} if the file changed, or events were lost.
+     */
+    private static boolean isChanged(final WatchKey key, final Path fileName) {
+        boolean changed = false;
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Reload the configuration after the file changed, logging a failure rather than stopping the watcher.
+     */
+    private void reloadAfterChange() {
+        try {
+            reload();
+        }
+        catch (final Exception e) {
+            LOGGER.warn("The greeting settings were not reloaded from {}: {}", file.getPath(), e.getMessage());
+        }
+    }
+}
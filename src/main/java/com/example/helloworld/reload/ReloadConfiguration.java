@@ -0,0 +1,34 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.reload;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The configuration of the {@link ConfigurationReloader}.
+ *
+ * <p>For example:</p>
+ * <pre>
+ * reload:
+ *   watch: true
+ * </pre>
+ *
+ * <p>The {@link ReloadTask} reloads the configuration whether or not the file is watched.</p>
+ */
+public class ReloadConfiguration {
+
+    /**
+     * Whether the configuration file is watched, and reloaded when it changes.
+     */
+    @JsonProperty
+    private boolean watch = true;
+
+    /**
+     * @return
+     *          {@code true} if the configuration file is watched, and reloaded when it changes.
+     */
+    public boolean isWatch() {
+        return watch;
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.reload;
+
+import java.io.PrintWriter;
+
+import com.example.helloworld.core.GreetingSettings;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.inject.Inject;
+
+import io.dropwizard.servlets.tasks.Task;
+
+/**
+ * An admin task that reloads the greeting settings from the configuration file.
+ *
+ * <p>For example, {@code curl -X POST 'http://localhost:8080/admin/tasks/reload'}. If the configuration is not valid
+ * the task fails, and the current settings are kept.</p>
+ *
+ * <p>This task is installed by Guicey auto-configuration.</p>
+ */
+public class ReloadTask extends Task {
+
+    /**
+     * The reloader.
+     */
+    private final ConfigurationReloader reloader;
+
+    /**
+     * Constructor.
+     * @param theReloader
+     *          The reloader.
+     */
+    @Inject
+    public ReloadTask(final ConfigurationReloader theReloader) {
+        super("reload");
+        reloader = theReloader;
+    }
+
+    /**
+     * Reload the greeting settings.
+     * @param parameters
+     *          The request parameters, which are not used.
+     * @param output
+     *          The response.
+     * @throws Exception
+     *          If the configuration cannot be read or is not valid.
+     * @see io.dropwizard.servlets.tasks.Task#execute(com.google.common.collect.ImmutableMultimap, java.io.PrintWriter)
+     */
+    @Override
+    public void execute(final ImmutableMultimap<String, String> parameters, final PrintWriter output) throws Exception {
+        final GreetingSettings settings = reloader.reload();
+        output.println("Reloaded: template \"" + settings.getTemplates().getDefaultTemplate() + "\", " +
+                       settings.getTemplates().getTemplates().size() + " localised templates, default name \"" +
+                       settings.getDefaultName() + "\".");
+    }
+}
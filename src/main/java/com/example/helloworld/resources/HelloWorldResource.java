@@ -1,25 +1,55 @@
 package com.example.helloworld.resources;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.annotation.PreDestroy;
-import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
-import javax.xml.ws.spi.http.HttpContext;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.Variant;
 
 import org.eclipse.microprofile.opentracing.Traced;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.annotation.ExceptionMetered;
+import com.codahale.metrics.annotation.Metered;
+import com.codahale.metrics.annotation.Timed;
+import com.example.helloworld.cache.GreetingCache;
+import com.example.helloworld.cache.RenderedGreeting;
 import com.example.helloworld.core.Saying;
+import com.example.helloworld.core.SayingFormat;
+import com.example.helloworld.core.GreetingSettings;
+import com.example.helloworld.core.GreetingSettingsHolder;
+import com.example.helloworld.core.GreetingTemplate;
+import com.example.helloworld.core.PrerenderedGreeting;
+import com.example.helloworld.core.SayingJson;
+import com.example.helloworld.core.TemplateRegistry;
+import com.example.helloworld.ids.IdAllocator;
+import com.example.helloworld.logging.RequestLog;
+import com.example.helloworld.metrics.Stage;
+import com.example.helloworld.metrics.StageMetrics;
+import com.example.helloworld.tracing.Tracing;
 import com.google.common.base.Optional;
 import com.google.inject.Inject;
-import com.google.inject.Provider;
 import com.google.inject.name.Named;
 
 
@@ -32,6 +62,13 @@ import com.google.inject.name.Named;
  * <p>A resource class is a Java class that uses JAX-RS annotations to implement a corresponding Web resource. Resource
  * classes are POJOs that have at least one annotated with {@literal @}{@link Path} or a request method designator.</p>
  *
+ * <p>Each resource method is metered and has its exceptions metered by Dropwizard. The batch methods are timed by
+ * Dropwizard, and {@code sayHello} responses by the {@link #SAY_HELLO_RESPONSES} timer. Rendering is also timed as
+ * the {@link Stage#RENDER} stage when {@link StageMetrics} are enabled.</p>
+ *
+ * <p>The resource is a singleton with no request-scoped fields. The request data a method needs is passed to it as a
+ * {@literal @}{@link Context} parameter, which Jersey resolves once when it invokes the method, rather than being
+ * looked up through the Guice-Jersey bridge on every use.</p>
  *
  * @author Steve Brown, Estafet Ltd.
  */
@@ -39,65 +76,561 @@ import com.google.inject.name.Named;
 @Produces(MediaType.APPLICATION_JSON)
 public class HelloWorldResource {
 
+    /**
+     * The media type for newline-delimited JSON.
+     */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /**
+     * The name of the timer of {@code sayHello} responses, from when the request reaches the servlet filters until
+     * the response has been written. It times the whole response in every execution mode, where a timer around the
+     * resource method would stop before an asynchronously rendered greeting is written.
+     */
+    public static final String SAY_HELLO_RESPONSES = MetricRegistry.name(HelloWorldResource.class,
+                                                                         "sayHello",
+                                                                         "responses");
+
+    /**
+     * The name of the span tag that records the number of names in a batch.
+     */
+    static final String BATCH_SIZE_TAG = "batch.size";
+
+    /**
+     * The representations of a greeting, one for each {@link SayingFormat}, with JSON first so that it is the
+     * default.
+     */
+    private static final List<Variant> VARIANTS = variants();
+
+    /**
+     * The {@code Vary} header of a greeting whose template depends on the language.
+     */
+    private static final String VARY_LOCALIZED = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_LANGUAGE;
+
     /**
      * The logger to use.
      */
     final Logger logger = LoggerFactory.getLogger(HelloWorldResource.class);
 
     /**
-     * The message template.
+     * The rendered greetings.
      */
-    private final String template;
+    private final GreetingCache greetings;
 
     /**
-     * The name to use if there is no name query parameter.
+     * The current greeting settings: the templates, one of which is negotiated from each request's
+     * {@code Accept-Language} header, and the name to use if there is no name query parameter.
      */
-    private final String defaultName;
+    private final GreetingSettingsHolder settings;
 
     /**
-     * The request counter.
+     * The allocator for response ids.
      */
-    private final AtomicLong counter;
+    private final IdAllocator ids;
 
     /**
-     * The request provider.
+     * The executor that renders greetings.
      */
-    @Inject
-    private Provider<HttpServletRequest> requestProvider;
+    private final Executor executor;
+
+    /**
+     * The sampled request log.
+     */
+    private final RequestLog requestLog;
+
+    /**
+     * The default greeting of the most recently used settings, or {@code null} before the first request for it.
+     */
+    private volatile DefaultGreeting defaultGreeting;
 
     /**
      * Constructor.
-     * @param theTemplate
-     *          The template string to use.
-     * @param theDefaultName
-     *          The name to use if there is no name query parameter.
+     * @param theGreetings
+     *          The cache of rendered greetings.
+     * @param theSettings
+     *          The current greeting settings.
+     * @param theExecutor
+     *          The executor that renders greetings.
+     * @param theIds
+     *          The allocator for response ids.
+     * @param theRequestLog
+     *          The sampled request log.
      */
     @Inject
-    public HelloWorldResource(@Named("template") final String theTemplate,
-                              @Named("defaultName") final String theDefaultName) {
+    public HelloWorldResource(final GreetingCache theGreetings,
+                              final GreetingSettingsHolder theSettings,
+                              @Named("greetingExecutor") final Executor theExecutor,
+                              final IdAllocator theIds,
+                              final RequestLog theRequestLog) {
         logger.info("Creating a new HelloWorldResource!");
-        template = theTemplate;
-        defaultName = theDefaultName;
-        counter = new AtomicLong();
+        greetings = theGreetings;
+        settings = theSettings;
+        ids = theIds;
+        requestLog = theRequestLog;
+        executor = theExecutor;
     }
 
     /**
-     * Process the request from the client.
+     * Process the request from the client on the request thread.
+     *
+     * <p>This method is used in {@link com.example.helloworld.execution.ExecutionMode#SYNCHRONOUS} mode, and the
+     * {@link #sayHello(Optional, Request, HttpHeaders, AsyncResponse) suspended} one in the other modes, as chosen by
+     * the {@link com.example.helloworld.execution.ExecutionModeModelProcessor}. So a synchronous request is never
+     * suspended.</p>
+     *
+     * <p>The greeting is JSON unless the {@code Accept} header prefers one of the binary {@link SayingFormat}s:
+     * Smile, CBOR or Protobuf. The response has a {@code Vary: Accept} header.</p>
+     *
+     * <p>The response has an {@code ETag} for the greeting content in the negotiated format. If the request has a
+     * matching {@code If-None-Match} header, the response is {@code 304 Not Modified} with no body.</p>
+     *
+     * <p>The template is negotiated from the {@code Accept-Language} header by the {@link TemplateRegistry}. If there
+     * are localised templates, the {@code Vary} header also names {@code Accept-Language}. The settings are read once,
+     * so a reload while the request is in progress doesn't affect it.</p>
+     *
+     * <p>Most requests have no name and want JSON in the default language, so their content is always the default
+     * template rendered with the default name, and only the id changes. For those, the JSON after the id is encoded
+     * once for each settings snapshot. The response is byte-identical to the one the normal path would build.</p>
+     *
+     * <p>Each response is timed until it has been written by the {@link #SAY_HELLO_RESPONSES} timer, which is
+     * updated by a servlet filter in every execution mode.</p>
      * @param name
      *          The name to use.
-     * @param context
-     *          The {@link HttpContext} that represents a mapping from the root URI path of a web
-     *          service to a {@link javax.xml.ws.spi.http.HttpHandler} that is invoked to handle requests
-     *          destined for that path on the associated container.
+     * @param request
+     *          The request, used to negotiate the format and to evaluate conditional request headers.
+     * @param headers
+     *          The request headers, for the request log and the template negotiation.
      * @return
-     *          The result in a {@link Saying} object.
+     *          The response with the greeting in a {@link Saying} object.
      */
     @GET
+    @Produces({ MediaType.APPLICATION_JSON,
+                SayingFormat.APPLICATION_SMILE,
+                SayingFormat.APPLICATION_CBOR,
+                SayingFormat.APPLICATION_PROTOBUF })
     @Traced(true)
-    public Saying sayHello(@QueryParam("name") final Optional<String> name, @Context final HttpContext context) {
-        logger.info("User-Agent: " + requestProvider.get().getHeader("User-Agent"));
-        return new Saying(counter.incrementAndGet(),
-                          String.format(template, name.or(defaultName)));
+    @Metered(name = "sayHello.requests")
+    @ExceptionMetered
+    public Response sayHello(@QueryParam("name") final Optional<String> name,
+                             @Context final Request request,
+                             @Context final HttpHeaders headers) {
+        logRequest(headers);
+        final GreetingSettings current = settings.get();
+        final GreetingTemplate template = negotiate(current, headers);
+        final SayingFormat format = SayingFormat.of(request.selectVariant(VARIANTS).getMediaType());
+
+        if (isDefault(current, template, format, name)) {
+            return greetDefault(current, request);
+        }
+        return greet(current, template, format, name.or(current.getDefaultName()), request);
+    }
+
+    /**
+     * Process the request from the client, rendering the greeting on the executor.
+     *
+     * <p>This method is used in the asynchronous {@link com.example.helloworld.execution.ExecutionMode}s, and
+     * answers as {@link #sayHello(Optional, Request, HttpHeaders)} does. The active tracing span is continued on the
+     * thread that renders the greeting. The default greeting is answered on the request thread, because there is
+     * nothing to render.</p>
+     * @param name
+     *          The name to use.
+     * @param request
+     *          The request, used to negotiate the format and to evaluate conditional request headers.
+     * @param headers
+     *          The request headers, for the request log and the template negotiation.
+     * @param response
+     *          The suspended response, which is resumed with the result in a {@link Saying} object.
+     */
+    @GET
+    @Produces({ MediaType.APPLICATION_JSON,
+                SayingFormat.APPLICATION_SMILE,
+                SayingFormat.APPLICATION_CBOR,
+                SayingFormat.APPLICATION_PROTOBUF })
+    @Traced(true)
+    @Metered(name = "sayHello.requests")
+    @ExceptionMetered
+    public void sayHello(@QueryParam("name") final Optional<String> name,
+                         @Context final Request request,
+                         @Context final HttpHeaders headers,
+                         @Suspended final AsyncResponse response) {
+        logRequest(headers);
+        final GreetingSettings current = settings.get();
+        final GreetingTemplate template = negotiate(current, headers);
+        final SayingFormat format = SayingFormat.of(request.selectVariant(VARIANTS).getMediaType());
+
+        if (isDefault(current, template, format, name)) {
+            response.resume(greetDefault(current, request));
+            return;
+        }
+
+        final String theName = name.or(current.getDefaultName());
+        try {
+            executor.execute(Tracing.continueActiveSpan(
+                            () -> resume(response, current, template, format, theName, request)));
+        }
+        catch (@SuppressWarnings("unused") final RejectedExecutionException e) {
+            response.resume(new ServiceUnavailableException("Too many greetings are waiting to be rendered."));
+        }
+    }
+
+    /**
+     * Process a batch of names sent as a JSON array.
+     * @param names
+     *          The names to greet. A {@code null} name is replaced by the default name.
+     * @param headers
+     *          The request headers, for the request log and the template negotiation.
+     * @return
+     *          The {@link Saying}s, one JSON object per line, written as each one is rendered.
+     */
+    @POST
+    @Path("/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(APPLICATION_NDJSON)
+    @Traced(true)
+    @Timed
+    @Metered(name = "sayHelloBatch.requests")
+    @ExceptionMetered
+    public StreamingOutput sayHelloBatch(final List<String> names, @Context final HttpHeaders headers) {
+        logRequest(headers);
+        return sayHelloToAll(settings.get(), headers, names);
+    }
+
+    /**
+     * Process a batch of names sent as plain text, one name per line.
+     * @param body
+     *          The names to greet, one per line. Blank lines are ignored.
+     * @param headers
+     *          The request headers, for the request log and the template negotiation.
+     * @return
+     *          The {@link Saying}s, one JSON object per line, written as each one is rendered.
+     */
+    @POST
+    @Path("/batch")
+    @Consumes({ MediaType.TEXT_PLAIN, APPLICATION_NDJSON })
+    @Produces(APPLICATION_NDJSON)
+    @Traced(true)
+    @Timed
+    @Metered(name = "sayHelloLines.requests")
+    @ExceptionMetered
+    public StreamingOutput sayHelloLines(final String body, @Context final HttpHeaders headers) {
+        logRequest(headers);
+        return sayHelloToAll(settings.get(), headers, splitLines(body));
+    }
+
+    /**
+     * Check whether a request is for the default greeting as JSON.
+     * @param current
+     *          The greeting settings.
+     * @param template
+     *          The negotiated template.
+     * @param format
+     *          The negotiated format.
+     * @param name
+     *          The name query parameter.
+     * @return
+     *          {@code true} if the greeting can be answered from the prerendered default greeting.
+     */
+    private static boolean isDefault(final GreetingSettings current,
+                                     final GreetingTemplate template,
+                                     final SayingFormat format,
+                                     final Optional<String> name) {
+        return !name.isPresent() && format == SayingFormat.JSON &&
+               template == current.getTemplates().getDefaultTemplate();
+    }
+
+    /**
+     * Render a greeting.
+     * @param current
+     *          The greeting settings.
+     * @param template
+     *          The negotiated template.
+     * @param format
+     *          The negotiated format.
+     * @param name
+     *          The name to greet.
+     * @param request
+     *          The request, used to evaluate conditional request headers.
+     * @return
+     *          The response with the greeting, or {@code 304 Not Modified} if the client's copy is current.
+     */
+    private Response greet(final GreetingSettings current,
+                           final GreetingTemplate template,
+                           final SayingFormat format,
+                           final String name,
+                           final Request request) {
+        return respond(current.getTemplates(), format, render(template, name), null, request);
+    }
+
+    /**
+     * Answer with the default greeting as JSON, from the bytes prerendered for the settings.
+     * @param current
+     *          The greeting settings.
+     * @param request
+     *          The request, used to evaluate conditional request headers.
+     * @return
+     *          The response with the greeting, or {@code 304 Not Modified} if the client's copy is current.
+     */
+    private Response greetDefault(final GreetingSettings current, final Request request) {
+        DefaultGreeting greeting = defaultGreeting;
+        if (greeting == null || greeting.settings != current) {
+            // The settings have been reloaded, or this is the first request. Concurrent requests may each do this.
+            final TemplateRegistry templates = current.getTemplates();
+            greeting = new DefaultGreeting(current, render(templates.getDefaultTemplate(), current.getDefaultName()));
+            defaultGreeting = greeting;
+        }
+        return respond(current.getTemplates(), SayingFormat.JSON, greeting.rendered, greeting.json, request);
+    }
+
+    /**
+     * Build the response for a rendered greeting.
+     * @param templates
+     *          The templates.
+     * @param format
+     *          The negotiated format.
+     * @param greeting
+     *          The rendered greeting.
+     * @param prerendered
+     *          The greeting's prerendered JSON, or {@code null} to encode the greeting as usual.
+     * @param request
+     *          The request, used to evaluate conditional request headers.
+     * @return
+     *          The response with the greeting, or {@code 304 Not Modified} if the client's copy is current.
+     */
+    private Response respond(final TemplateRegistry templates,
+                             final SayingFormat format,
+                             final RenderedGreeting greeting,
+                             final PrerenderedGreeting prerendered,
+                             final Request request) {
+        if (greeting.getEntityTag() == null) {
+            return vary(templates, ok(format, greeting, prerendered)).build();
+        }
+
+        final EntityTag entityTag = format.tag(greeting.getEntityTag());
+        final ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+        if (notModified != null) {
+            return vary(templates, notModified).build();
+        }
+        return vary(templates, ok(format, greeting, prerendered).tag(entityTag)).build();
+    }
+
+    /**
+     * Start a {@code 200 OK} response with a new {@link Saying}.
+     * @param format
+     *          The negotiated format.
+     * @param greeting
+     *          The rendered greeting.
+     * @param prerendered
+     *          The greeting's prerendered JSON, or {@code null}.
+     * @return
+     *          The response.
+     */
+    private ResponseBuilder ok(final SayingFormat format,
+                               final RenderedGreeting greeting,
+                               final PrerenderedGreeting prerendered) {
+        final long id = ids.next();
+        final Saying saying = prerendered == null ? new Saying(id, greeting.getContent()) : prerendered.withId(id);
+        return Response.ok(saying, format.getMediaType());
+    }
+
+    /**
+     * Add a {@code Vary} header to a response: {@code Accept}, because the format is negotiated, and
+     * {@code Accept-Language} if the greeting depends on the language.
+     * @param templates
+     *          The templates.
+     * @param response
+     *          The response.
+     * @return
+     *          The response.
+     */
+    private static ResponseBuilder vary(final TemplateRegistry templates, final ResponseBuilder response) {
+        return response.header(HttpHeaders.VARY, templates.isLocalized() ? VARY_LOCALIZED : HttpHeaders.ACCEPT);
+    }
+
+    /**
+     * Negotiate the template for a request.
+     * @param current
+     *          The greeting settings.
+     * @param headers
+     *          The request headers.
+     * @return
+     *          The template for the request's {@code Accept-Language} header.
+     */
+    private static GreetingTemplate negotiate(final GreetingSettings current, final HttpHeaders headers) {
+        return current.getTemplates().negotiate(headers.getHeaderString(HttpHeaders.ACCEPT_LANGUAGE));
+    }
+
+    /**
+     * Render a greeting, timing it as the {@link Stage#RENDER} stage.
+     * @param template
+     *          The negotiated template.
+     * @param name
+     *          The name to greet.
+     * @return
+     *          The rendered greeting.
+     */
+    private RenderedGreeting render(final GreetingTemplate template, final String name) {
+        final long start = StageMetrics.start();
+        try {
+            return greetings.render(template, name);
+        }
+        finally {
+            StageMetrics.stop(Stage.RENDER, start);
+        }
+    }
+
+    /**
+     * Record the current request in the request log, if it is sampled.
+     * @param headers
+     *          The request headers.
+     */
+    private void logRequest(final HttpHeaders headers) {
+        if (requestLog.isSampled()) {
+            requestLog.record(headers);
+        }
+    }
+
+    /**
+     * Render a greeting and resume a suspended response with it.
+     * @param response
+     *          The suspended response.
+     * @param current
+     *          The greeting settings.
+     * @param template
+     *          The negotiated template.
+     * @param format
+     *          The negotiated format.
+     * @param name
+     *          The name to greet.
+     * @param request
+     *          The request, used to evaluate conditional request headers.
+     */
+    private void resume(final AsyncResponse response,
+                        final GreetingSettings current,
+                        final GreetingTemplate template,
+                        final SayingFormat format,
+                        final String name,
+                        final Request request) {
+        try {
+            response.resume(greet(current, template, format, name, request));
+        }
+        catch (final RuntimeException e) {
+            response.resume(e);
+        }
+    }
+
+    /**
+     * Render a greeting for each name in a batch.
+     *
+     * <p>The ids for the whole batch are reserved from the id allocator in one operation, and the server span for the
+     * request is tagged with the batch size.</p>
+     * @param current
+     *          The greeting settings.
+     * @param headers
+     *          The request headers, for the template negotiation.
+     * @param names
+     *          The names to greet.
+     * @return
+     *          The {@link StreamingOutput} that renders and writes the greetings.
+     */
+    private StreamingOutput sayHelloToAll(final GreetingSettings current,
+                                          final HttpHeaders headers,
+                                          final List<String> names) {
+        final GreetingTemplate template = negotiate(current, headers);
+        final String defaultName = current.getDefaultName();
+        final int size = names == null ? 0 : names.size();
+        Tracing.setActiveSpanTag(BATCH_SIZE_TAG, Integer.valueOf(size));
+        StageMetrics.recordBatchSize(size);
+
+        final long firstId = ids.reserve(size);
+
+        return output -> {
+            for (int i = 0; i < size; i++) {
+                final String name = names.get(i);
+                final String content = render(template, name == null ? defaultName : name).getContent();
+                SayingJson.write(new Saying(firstId + i, content), output);
+                output.write('\n');
+            }
+        };
+    }
+
+    /**
+     * Create the {@link #VARIANTS}.
+     * @return
+     *          A variant for the media type of each {@link SayingFormat}, in the order they are declared.
+     */
+    private static List<Variant> variants() {
+        final SayingFormat[] formats = SayingFormat.values();
+        final MediaType[] mediaTypes = new MediaType[formats.length];
+        for (int i = 0; i < formats.length; i++) {
+            mediaTypes[i] = formats[i].getMediaType();
+        }
+        return Variant.mediaTypes(mediaTypes).build();
+    }
+
+    /**
+     * Split a request body into lines.
+     * @param body
+     *          The request body.
+     * @return
+     *          The non-blank lines, without line terminators.
+     */
+    private static List<String> splitLines(final String body) {
+        final List<String> lines = new ArrayList<>();
+        if (body == null) {
+            return lines;
+        }
+
+        int start = 0;
+        final int length = body.length();
+        while (start < length) {
+            int end = body.indexOf('\n', start);
+            if (end < 0) {
+                end = length;
+            }
+
+            final int next = end + 1;
+            if (end > start && body.charAt(end - 1) == '\r') {
+                end--;
+            }
+            if (end > start) {
+                lines.add(body.substring(start, end));
+            }
+            start = next;
+        }
+        return lines;
+    }
+
+    /**
+     * The default greeting of one settings snapshot: the default template rendered with the default name.
+     */
+    private static final class DefaultGreeting {
+
+        /**
+         * The settings the greeting was rendered from.
+         */
+        final GreetingSettings settings;
+
+        /**
+         * The rendered greeting, with its entity tag if the cache is enabled.
+         */
+        final RenderedGreeting rendered;
+
+        /**
+         * The greeting's prerendered JSON.
+         */
+        final PrerenderedGreeting json;
+
+        /**
+         * Constructor.
+         * @param theSettings
+         *          The settings the greeting was rendered from.
+         * @param theRendered
+         *          The rendered greeting.
+         */
+        DefaultGreeting(final GreetingSettings theSettings, final RenderedGreeting theRendered) {
+            settings = theSettings;
+            rendered = theRendered;
+            json = new PrerenderedGreeting(theRendered.getContent());
+        }
     }
 
     /**
@@ -11,6 +11,14 @@ import javax.servlet.ServletContext;
 import javax.servlet.ServletContextEvent;
 import javax.servlet.annotation.WebListener;
 
+import com.codahale.metrics.MetricRegistry;
+import com.example.helloworld.concurrency.ConcurrencyLimitConfiguration;
+import com.example.helloworld.concurrency.ConcurrencyLimitFilter;
+import com.example.helloworld.concurrency.ConcurrencyLimiter;
+import com.example.helloworld.metrics.FilterChainTimingFilter;
+import com.example.helloworld.metrics.ResponseTimingFilter;
+import com.example.helloworld.resources.HelloWorldResource;
+
 import io.opentracing.contrib.jaxrs2.server.SpanFinishingFilter;
 
 /**
@@ -23,14 +31,36 @@ import io.opentracing.contrib.jaxrs2.server.SpanFinishingFilter;
 public class OpenTracingContextInitializer implements javax.servlet.ServletContextListener {
 
     /**
-     * Construct from the service name.
+     * The concurrency limit configuration.
+     */
+    private final ConcurrencyLimitConfiguration concurrencyLimit;
+
+    /**
+     * The registry for the concurrency limiter and response metrics.
      */
-    public OpenTracingContextInitializer() {
+    private final MetricRegistry metrics;
+
+    /**
+     * Constructor.
+     * @param theConcurrencyLimit
+     *          The concurrency limit configuration.
+     * @param theMetrics
+     *          The registry for the concurrency limiter and response metrics.
+     */
+    public OpenTracingContextInitializer(final ConcurrencyLimitConfiguration theConcurrencyLimit,
+                                         final MetricRegistry theMetrics) {
         super();
+        concurrencyLimit = theConcurrencyLimit;
+        metrics = theMetrics;
     }
 
     /**
      * Register the {@link SpanFinishingFilter}
+     *
+     * <p>The {@link FilterChainTimingFilter} is registered first, so it runs before every other filter. If the
+     * concurrency limit is enabled, the {@link ConcurrencyLimitFilter} is registered next, so a shed request never
+     * reaches the tracing filter or Jersey. The {@link ResponseTimingFilter} then times the greetings that are
+     * answered, until they have been written.</p>
      * @param servletContextEvent
      *          The {@link ServletContextEvent} containing the {@link javax.servlet.ServletContext} to be initialised.
      *
@@ -39,6 +69,27 @@ public class OpenTracingContextInitializer implements javax.servlet.ServletConte
     @Override
     public void contextInitialized(final ServletContextEvent servletContextEvent) {
         final ServletContext servletContext = servletContextEvent.getServletContext();
+        final Dynamic timingRegistration = servletContext.addFilter("filterChainTimingFilter",
+                                                                    new FilterChainTimingFilter());
+        timingRegistration.setAsyncSupported(true);
+        timingRegistration.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), false, "*");
+
+        if (concurrencyLimit.isEnabled()) {
+            final Dynamic limitRegistration = servletContext.addFilter(
+                            "concurrencyLimitFilter",
+                            new ConcurrencyLimitFilter(new ConcurrencyLimiter(concurrencyLimit, metrics)));
+            limitRegistration.setAsyncSupported(true);
+            limitRegistration.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST),
+                                                       false,
+                                                       concurrencyLimit.getUrlPatterns().toArray(new String[0]));
+        }
+
+        final Dynamic responseRegistration = servletContext.addFilter(
+                        "responseTimingFilter",
+                        new ResponseTimingFilter(metrics.timer(HelloWorldResource.SAY_HELLO_RESPONSES)));
+        responseRegistration.setAsyncSupported(true);
+        responseRegistration.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), false, "/hello-world");
+
         final Dynamic filterRegistration = servletContext.addFilter("tracingFilter", new SpanFinishingFilter());
         filterRegistration.setAsyncSupported(true);
         filterRegistration.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST,
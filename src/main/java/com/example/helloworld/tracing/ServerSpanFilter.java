@@ -0,0 +1,67 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+
+import com.example.helloworld.lib.Debug;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import io.opentracing.contrib.jaxrs2.internal.SpanWrapper;
+import io.opentracing.contrib.jaxrs2.server.OperationNameProvider;
+import io.opentracing.contrib.jaxrs2.server.ServerSpanDecorator;
+
+/**
+ * Starts the server span for a request, extracting the parent span context with {@link Tracing#startServerSpan}.
+ *
+ * <p>This runs just before the {@link io.opentracing.contrib.jaxrs2.server.ServerTracingFilter}, and leaves the span
+ * in the request property that filter and the {@link io.opentracing.contrib.jaxrs2.server.SpanFinishingFilter} use.
+ * The {@code ServerTracingFilter} sees the span has been started and does nothing, so the parent context is not
+ * extracted a second time from a copy of every header. It still tags the response, and the
+ * {@code SpanFinishingFilter} still finishes the span when the request completes.</p>
+ */
+final class ServerSpanFilter implements ContainerRequestFilter {
+
+    /**
+     * The tracer.
+     */
+    private final Tracer tracer;
+
+    /**
+     * Names the span for the resource method.
+     */
+    private final OperationNameProvider operationName;
+
+    /**
+     * Constructor.
+     * @param theTracer
+     *          The tracer.
+     * @param theOperationName
+     *          Names the span for the resource method.
+     */
+    ServerSpanFilter(final Tracer theTracer, final OperationNameProvider theOperationName) {
+        tracer = theTracer;
+        operationName = theOperationName;
+    }
+
+    /**
+     * Start the server span, activate it, and make it the request's span.
+     * @param requestContext
+     *          The request.
+     * @see javax.ws.rs.container.ContainerRequestFilter#filter(javax.ws.rs.container.ContainerRequestContext)
+     */
+    @Override
+    public void filter(final ContainerRequestContext requestContext) {
+        final String name = operationName.operationName(requestContext);
+        final Span span = Tracing.startServerSpan(tracer, requestContext.getHeaders(), name);
+        final Scope scope = tracer.scopeManager().activate(span);
+        Debug.debugScope(name, "filter", "started active scope", scope);
+
+        ServerSpanDecorator.STANDARD_TAGS.decorateRequest(requestContext, span);
+        requestContext.setProperty(SpanWrapper.PROPERTY_NAME, new SpanWrapper(scope));
+    }
+}
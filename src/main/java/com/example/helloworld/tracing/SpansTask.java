@@ -0,0 +1,90 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+import com.example.helloworld.tracing.reporting.InMemorySpanSink;
+import com.example.helloworld.tracing.reporting.SpanJson;
+import com.example.helloworld.tracing.reporting.SpanSink;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.collect.ImmutableMultimap;
+
+import io.dropwizard.servlets.tasks.Task;
+import io.jaegertracing.internal.JaegerSpan;
+
+/**
+ * An admin task that shows the most recent spans kept by the {@link InMemorySpanSink}.
+ *
+ * <p>For example, {@code curl -X POST 'http://localhost:8080/admin/tasks/spans?limit=10'}. The first line is the number
+ * of spans written to the sink, and it is followed by the most recent spans, at most {@code limit} of them, one JSON
+ * object per line and oldest first. With any other sink, the task says where the spans are written.</p>
+ *
+ * <p>This task is installed by Guicey auto-configuration.</p>
+ */
+public class SpansTask extends Task {
+
+    /**
+     * The name of the parameter that limits the number of spans shown.
+     */
+    private static final String LIMIT_PARAMETER = "limit";
+
+    /**
+     * The number of spans shown if there is no {@code limit} parameter.
+     */
+    private static final int DEFAULT_LIMIT = 100;
+
+    /**
+     * Creates the JSON generator.
+     */
+    private static final JsonFactory JSON = new JsonFactory();
+
+    /**
+     * Constructor.
+     */
+    public SpansTask() {
+        super("spans");
+    }
+
+    /**
+     * Show the most recent spans.
+     * @param parameters
+     *          The request parameters. If {@code limit} is present, it is the most spans shown.
+     * @param output
+     *          The response.
+     * @throws IOException
+     *          If the spans cannot be written.
+     * @see io.dropwizard.servlets.tasks.Task#execute(com.google.common.collect.ImmutableMultimap, java.io.PrintWriter)
+     */
+    @Override
+    public void execute(final ImmutableMultimap<String, String> parameters,
+                        final PrintWriter output) throws IOException {
+        final SpanSink sink = Tracing.getSpanSink();
+        if (!(sink instanceof InMemorySpanSink)) {
+            output.println("Spans are not kept in memory. They are written to " + sink + ".");
+            return;
+        }
+
+        final int limit = parameters.containsKey(LIMIT_PARAMETER)
+                        ? Integer.parseInt(parameters.get(LIMIT_PARAMETER).iterator().next())
+                        : DEFAULT_LIMIT;
+        final InMemorySpanSink memory = (InMemorySpanSink) sink;
+        final List<JaegerSpan> spans = memory.getSpans();
+        output.println(memory.getWrittenCount() + " spans have been written.");
+
+        final int first = Math.max(0, spans.size() - Math.max(0, limit));
+        try (JsonGenerator generator = JSON.createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Each span is on its own line, so no separator is needed between them.
+            generator.setRootValueSeparator(null);
+            for (final JaegerSpan span : spans.subList(first, spans.size())) {
+                SpanJson.write(generator, span);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+}
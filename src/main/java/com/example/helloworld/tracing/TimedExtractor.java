@@ -0,0 +1,50 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing;
+
+import com.example.helloworld.metrics.Stage;
+import com.example.helloworld.metrics.StageMetrics;
+
+import io.jaegertracing.internal.JaegerSpanContext;
+import io.jaegertracing.spi.Extractor;
+import io.opentracing.propagation.TextMap;
+
+/**
+ * An {@link Extractor} that times another as the {@link Stage#EXTRACT} stage.
+ */
+final class TimedExtractor implements Extractor<TextMap> {
+
+    /**
+     * The extractor that does the work.
+     */
+    private final Extractor<TextMap> delegate;
+
+    /**
+     * Constructor.
+     * @param theDelegate
+     *          The extractor that does the work.
+     */
+    TimedExtractor(final Extractor<TextMap> theDelegate) {
+        delegate = theDelegate;
+    }
+
+    /**
+     * Extract a span context, timing the extraction.
+     * @param carrier
+     *          The request headers.
+     * @return
+     *          The span context, or {@code null} if the headers don't have one.
+     * @see io.jaegertracing.spi.Extractor#extract(java.lang.Object)
+     */
+    @Override
+    public JaegerSpanContext extract(final TextMap carrier) {
+        final long start = StageMetrics.start();
+        try {
+            return delegate.extract(carrier);
+        }
+        finally {
+            StageMetrics.stop(Stage.EXTRACT, start);
+        }
+    }
+}
@@ -2,23 +2,34 @@ package com.example.helloworld.tracing;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
-import java.util.HashMap;
-import java.util.Set;
+import java.util.Collections;
+import java.util.Map;
 
 import javax.ws.rs.core.MultivaluedMap;
 
+import com.codahale.metrics.MetricRegistry;
 import com.example.helloworld.lib.Debug;
+import com.example.helloworld.tracing.propagation.Propagation;
+import com.example.helloworld.tracing.propagation.PropagationFormat;
+import com.example.helloworld.tracing.reporting.BatchingReporter;
+import com.example.helloworld.tracing.reporting.SpanReportingConfiguration;
+import com.example.helloworld.tracing.reporting.SpanSink;
+import com.example.helloworld.tracing.reporting.SpanSinkType;
+import com.example.helloworld.tracing.reporting.SpanSinks;
+import com.example.helloworld.tracing.sampling.MeteredSampler;
+import com.example.helloworld.tracing.sampling.Samplers;
 
 import io.jaegertracing.Configuration;
-import io.jaegertracing.Configuration.ReporterConfiguration;
-import io.jaegertracing.Configuration.SamplerConfiguration;
-import io.jaegertracing.Configuration.SenderConfiguration;
+import io.jaegertracing.internal.JaegerTracer;
+import io.jaegertracing.spi.Extractor;
+import io.jaegertracing.spi.Reporter;
+import io.jaegertracing.spi.Sampler;
 import io.opentracing.Scope;
 import io.opentracing.Span;
 import io.opentracing.SpanContext;
 import io.opentracing.Tracer;
 import io.opentracing.propagation.Format;
-import io.opentracing.propagation.TextMapExtractAdapter;
+import io.opentracing.propagation.TextMap;
 import io.opentracing.tag.Tags;
 import io.opentracing.util.GlobalTracer;
 
@@ -99,51 +110,78 @@ import io.opentracing.util.GlobalTracer;
  */
 public final class Tracing {
 
+    /**
+     * The propagation formats. This is Jaeger's own format until {@link #init} is called.
+     */
+    private static volatile Propagation propagation =
+                    new Propagation(Collections.singletonList(PropagationFormat.JAEGER));
+
+    /**
+     * Where finished spans are written, or {@code null} until {@link #init} is called.
+     */
+    private static volatile SpanSink spanSink;
+
     /**
      * Initialise tracing for a service.
      *
      * <p>This registers the {@link Tracer} as the {@link GlobalTracer} because the automatic instrumentation requires
      * the {@code GlobalTracer}. If no tracer is registered, the {@code GlobalTracer} will be a noop tracer.</p>
      *
+     * <p>The configured sampler only decides whether traces that start in this service are sampled. A span that
+     * continues a trace from upstream always keeps the upstream sampled flag.</p>
+     *
+     * <p>Finished spans are reported by a {@link BatchingReporter}. The tracer is not closed by a shutdown hook, so
+     * the caller must close it when the application stops.</p>
+     *
      * @param serviceName
      *          The name of the service to initialise tracing for.
+     * @param tracingConfiguration
+     *          The tracing configuration.
+     * @param metrics
+     *          The registry for the sampler and reporter metrics.
      * @return
      *          The tracing implementation.
      *
      * @see io.jaegertracing.Configuration
      */
-    public static Tracer init(final String serviceName) {
+    public static Tracer init(final String serviceName,
+                              final TracingConfiguration tracingConfiguration,
+                              final MetricRegistry metrics) {
 
-        // Check that either a Jaeger agent or a Jaeger collector is defined.
-        validateEnvironmentVariables();
+        final SpanReportingConfiguration reporterConfiguration = tracingConfiguration.getReporter();
+        if (reporterConfiguration.getSink() == SpanSinkType.JAEGER) {
+            // Check that either a Jaeger agent or a Jaeger collector is defined.
+            validateEnvironmentVariables();
 
-        // Check that Apache Thrift and the Jaeger Java client is on the class path.
-        validateClasspath();
-
-        // get the Jaeger sender configuration.
-        final SenderConfiguration senderConfiguration = SenderConfiguration.fromEnv();
-
-        // The sampler always makes the same decision for all traces. It samples all traces. If the parameter were
-        // zero, it would sample no traces.
-        //
-        // There doesn't seem to be a public class defining sampler type names.
-        final SamplerConfiguration samplerConfiguration = SamplerConfiguration.fromEnv()
-                                                                              .withType("const")
-                                                                              .withParam(new Integer(1));
-
-        // The reporter configuration species what is reported and how it is reported.
-        final ReporterConfiguration reporterConfiguration =
-                        ReporterConfiguration.fromEnv()
-                                             .withSender(senderConfiguration)
-                                             .withLogSpans(Boolean.TRUE);
-
-        // The configuration encapsulates the configuration for sampling and reporting.
-        final Configuration configuration = new Configuration(serviceName).withSampler(samplerConfiguration)
-                                                                          .withReporter(reporterConfiguration);
+            // Check that Apache Thrift and the Jaeger Java client is on the class path.
+            validateClasspath();
+        }
 
-        // Create the tracer from the configuration.
-        final Tracer tracer = configuration.getTracer();
-        Debug.debug(serviceName, "init", "Created tracer: " + tracer.toString() + "for service " + serviceName + ".");
+        // The reporter queues finished spans and writes them to the configured sink in batches.
+        final SpanSink sink = SpanSinks.create(reporterConfiguration);
+        final Reporter reporter = new BatchingReporter(reporterConfiguration, sink, metrics);
+
+        // The sampler decides which new traces are sampled, and records its decisions.
+        final Sampler sampler = new MeteredSampler(Samplers.create(tracingConfiguration.getSampler()), metrics);
+
+        // The codecs for the configured propagation formats read and write the HTTP headers. Extraction is timed.
+        final Propagation configuredPropagation = new Propagation(tracingConfiguration.getPropagation());
+        final Extractor<TextMap> extractor = new TimedExtractor(configuredPropagation.getCodec());
+
+        // Create the tracer. It is closed, flushing the reporter, when the application stops.
+        final Tracer tracer = new JaegerTracer.Builder(serviceName).withReporter(reporter)
+                                                                   .withSampler(sampler)
+                                                                   .registerExtractor(Format.Builtin.HTTP_HEADERS,
+                                                                                      extractor)
+                                                                   .registerInjector(Format.Builtin.HTTP_HEADERS,
+                                                                                     configuredPropagation.getCodec())
+                                                                   .withManualShutdown()
+                                                                   .build();
+        propagation = configuredPropagation;
+        spanSink = sink;
+        Debug.debug(serviceName,
+                    "init",
+                    () -> "Created tracer: " + tracer.toString() + "for service " + serviceName + ".");
 
         final boolean registeredOK = GlobalTracer.registerIfAbsent(tracer);
 
@@ -155,43 +193,45 @@ public final class Tracing {
     }
 
     /**
-     * Create a scope for the request.
+     * @return
+     *          Where finished spans are written, or {@code null} if tracing has not been initialised.
+     */
+    public static SpanSink getSpanSink() {
+        return spanSink;
+    }
+
+    /**
+     * Start the server span for the request. This is called by the {@link ServerSpanFilter} for every traced request,
+     * which activates the span.
+     *
+     * <p>If a span is already active, the request's span continues it. Otherwise the parent span context is extracted
+     * through a view of the request headers that only reads the headers the configured propagation formats use. The
+     * headers are not copied.</p>
+     *
      * @param tracer
      *          The {@io.opentracing.Tracer} to use.
-     * @param httpHeaders
+     * @param requestHeaders
      *          The HTTP headers in the request.
      * @param operationName
      *          The name of the operation.
      * @return
-     *          A {@link Scope} for tracing the request.
+     *          The started span, which is not yet active.
      */
-    public static Scope startServerSpan(final Tracer tracer,
-                                        final javax.ws.rs.core.HttpHeaders httpHeaders,
-                                        final String operationName) {
-        // format the headers for extraction
-        final MultivaluedMap<String, String> requestHeaders = httpHeaders.getRequestHeaders();
-
-        // Get the first value of each Key.
-        final Set<String> headerNames = requestHeaders.keySet();
-        final HashMap<String, String> contextHeaders = new HashMap<>(headerNames.size());
-        for (final String key : headerNames) {
-            final String value = requestHeaders.get(key).get(0);
-
-            try {
-                Debug.debug(operationName, "startServerSpan", "Adding context header: " + key + " : " +
-                            URLDecoder.decode(value, "UTF-8") + " .");
-            }
-            catch (@SuppressWarnings("unused") final UnsupportedEncodingException uee) {
-                Debug.debug(operationName, "startServerSpan",  "Adding context header: " + key + " : " +
-                            " Can't decode value as UTF-8.");
-            }
-            contextHeaders.put(key, value);
+    public static Span startServerSpan(final Tracer tracer,
+                                       final MultivaluedMap<String, String> requestHeaders,
+                                       final String operationName) {
+        final Span activeSpan = tracer.activeSpan();
+        if (activeSpan != null) {
+            Debug.debug(operationName, "startServerSpan", "Joining the active span.");
+            return start(tracer.buildSpan(operationName).asChildOf(activeSpan));
         }
 
+        final TextMap contextHeaders = extractAdapter(requestHeaders);
+        Debug.debug(operationName, "startServerSpan", () -> "Context headers: " + describe(contextHeaders) + ".");
+
         Tracer.SpanBuilder spanBuilder = null;
         try {
-            final SpanContext parentSpanContext = tracer.extract(Format.Builtin.TEXT_MAP_EXTRACT,
-                                                                 new TextMapExtractAdapter(contextHeaders));
+            final SpanContext parentSpanContext = tracer.extract(Format.Builtin.HTTP_HEADERS, contextHeaders);
             if (parentSpanContext == null) {
                 Debug.debug(operationName, "startServerSpan", "No parent context .");
                 spanBuilder = tracer.buildSpan(operationName);
@@ -199,7 +239,7 @@ public final class Tracing {
             else {
                 Debug.debug(operationName,
                             "startServerSpan",
-                            "Got parent context " + parentSpanContext.toString() + ".");
+                            () -> "Got parent context " + parentSpanContext.toString() + ".");
                 spanBuilder = tracer.buildSpan(operationName).asChildOf(parentSpanContext);
             }
         }
@@ -208,13 +248,106 @@ public final class Tracing {
             spanBuilder = tracer.buildSpan(operationName);
         }
 
-        spanBuilder.withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_SERVER);
+        return start(spanBuilder);
+    }
+
+    /**
+     * Start a server span.
+     * @param spanBuilder
+     *          The span, with its parent.
+     * @return
+     *          The span.
+     */
+    private static Span start(final Tracer.SpanBuilder spanBuilder) {
+        return spanBuilder.ignoreActiveSpan().withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_SERVER).start();
+    }
+
+    /**
+     * Create a carrier for extracting a span context from request headers in the configured propagation formats.
+     * @param requestHeaders
+     *          The request headers.
+     * @return
+     *          A read-only view of just the headers the propagation formats use.
+     */
+    public static TextMap extractAdapter(final MultivaluedMap<String, String> requestHeaders) {
+        return propagation.extractAdapter(requestHeaders);
+    }
+
+    /**
+     * Describe the context headers for a debug message.
+     * @param contextHeaders
+     *          The context headers.
+     * @return
+     *          The headers, with their values URL decoded.
+     */
+    private static String describe(final TextMap contextHeaders) {
+        final StringBuilder description = new StringBuilder();
+        for (final Map.Entry<String, String> header : contextHeaders) {
+            description.append(header.getKey()).append(" : ").append(decodeForDebug(header.getValue())).append(' ');
+        }
+        return description.toString();
+    }
+
+    /**
+     * URL decode a header value for a debug message.
+     * @param value
+     *          The header value.
+     * @return
+     *          The decoded value, or a note that it can't be decoded.
+     */
+    private static String decodeForDebug(final String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        }
+        catch (@SuppressWarnings("unused") final UnsupportedEncodingException | IllegalArgumentException e) {
+            return " Can't decode value as UTF-8.";
+        }
+    }
+
+    /**
+     * Make a task continue the active span when it runs on another thread.
+     *
+     * <p>The span that is active on the calling thread is activated on the thread that runs the task, and deactivated
+     * again when the task completes. The span is not finished: that is still done by the
+     * {@link io.opentracing.contrib.jaxrs2.server.SpanFinishingFilter} when the request completes.</p>
+     * @param task
+     *          The task to run on another thread.
+     * @return
+     *          The task wrapped to activate the current span, or the task itself if there is no active span.
+     */
+    public static Runnable continueActiveSpan(final Runnable task) {
+        final Tracer tracer = GlobalTracer.get();
+        final Span span = tracer.activeSpan();
+        if (span == null) {
+            return task;
+        }
 
-        final Span span = spanBuilder.start();
-        final Scope scope = tracer.scopeManager().activate(span);
-        Debug.debugScope(operationName, "startServerSpan", "started active scope", scope);
+        return () -> {
+            final Scope scope = tracer.scopeManager().activate(span);
+            try {
+                task.run();
+            }
+            finally {
+                scope.close();
+            }
+        };
+    }
 
-        return scope;
+    /**
+     * Set a tag on the active span, if there is one.
+     *
+     * <p>The {@link ServerSpanFilter} activates the server span for each request, so this tags the span for the request
+     * being processed on the current thread.</p>
+     * @param key
+     *          The tag name.
+     * @param value
+     *          The tag value.
+     */
+    public static void setActiveSpanTag(final String key, final Number value) {
+        final Span span = GlobalTracer.get().activeSpan();
+        if (span != null) {
+            span.setTag(key, value);
+        }
     }
 
     /**
@@ -0,0 +1,60 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing;
+
+import com.example.helloworld.HelloWorldConfiguration;
+
+import io.dropwizard.ConfiguredBundle;
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.setup.Bootstrap;
+import io.dropwizard.setup.Environment;
+import io.opentracing.Tracer;
+
+/**
+ * Initialises tracing from the application configuration.
+ *
+ * <p>This bundle must be added before the Guice bundle, so the {@link io.opentracing.util.GlobalTracer} is registered
+ * before anything that traces is created.</p>
+ */
+public class TracingBundle implements ConfiguredBundle<HelloWorldConfiguration> {
+
+    /**
+     * Nothing to do before the configuration is read.
+     * @param bootstrap
+     *          The application bootstrap.
+     * @see io.dropwizard.ConfiguredBundle#initialize(io.dropwizard.setup.Bootstrap)
+     */
+    @Override
+    public void initialize(final Bootstrap<?> bootstrap) {
+        // Nothing to do.
+    }
+
+    /**
+     * Create the tracer, register it as the global tracer, and close it when the application stops.
+     * @param configuration
+     *          The application configuration.
+     * @param environment
+     *          The application environment, whose metric registry records the sampler and reporter metrics.
+     * @see io.dropwizard.ConfiguredBundle#run(java.lang.Object, io.dropwizard.setup.Environment)
+     */
+    @Override
+    public void run(final HelloWorldConfiguration configuration, final Environment environment) {
+        final Tracer tracer = Tracing.init(configuration.getServiceName(),
+                                           configuration.getTracing(),
+                                           environment.metrics());
+
+        // Managed objects are stopped after the server, so the last requests' spans are flushed.
+        environment.lifecycle().manage(new Managed() {
+            @Override
+            public void start() {
+                // The tracer is already running.
+            }
+
+            @Override
+            public void stop() {
+                tracer.close();
+            }
+        });
+    }
+}
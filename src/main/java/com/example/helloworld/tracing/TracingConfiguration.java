@@ -0,0 +1,85 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+import org.hibernate.validator.constraints.NotEmpty;
+
+import com.example.helloworld.tracing.propagation.PropagationFormat;
+import com.example.helloworld.tracing.reporting.SpanReportingConfiguration;
+import com.example.helloworld.tracing.sampling.SamplingConfiguration;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The configuration of tracing.
+ *
+ * <p>The Jaeger agent or collector that spans are sent to is still configured by the Jaeger environment variables.
+ * For example:</p>
+ * <pre>
+ * tracing:
+ *   sampler:
+ *     type: probabilistic
+ *     probability: 0.01
+ *   propagation:
+ *     - jaeger
+ *     - w3c
+ *   reporter:
+ *     sink: jaeger
+ *     batchSize: 100
+ * </pre>
+ */
+public class TracingConfiguration {
+
+    /**
+     * How new traces are sampled.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    private final SamplingConfiguration sampler = new SamplingConfiguration();
+
+    /**
+     * How finished spans are reported.
+     */
+    @Valid
+    @NotNull
+    @JsonProperty
+    private final SpanReportingConfiguration reporter = new SpanReportingConfiguration();
+
+    /**
+     * The formats a span context is propagated in, in the order they are tried when extracting.
+     */
+    @NotEmpty
+    @JsonProperty
+    private List<PropagationFormat> propagation = Collections.singletonList(PropagationFormat.JAEGER);
+
+    /**
+     * @return
+     *          The sampler configuration.
+     */
+    public SamplingConfiguration getSampler() {
+        return sampler;
+    }
+
+    /**
+     * @return
+     *          The propagation formats.
+     */
+    public List<PropagationFormat> getPropagation() {
+        return propagation;
+    }
+
+    /**
+     * @return
+     *          The span reporter configuration.
+     */
+    public SpanReportingConfiguration getReporter() {
+        return reporter;
+    }
+}
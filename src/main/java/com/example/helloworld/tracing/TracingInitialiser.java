@@ -3,12 +3,17 @@
  */
 package com.example.helloworld.tracing;
 
+import javax.ws.rs.Priorities;
 import javax.ws.rs.container.DynamicFeature;
 import javax.ws.rs.container.ResourceInfo;
 import javax.ws.rs.core.Feature;
 import javax.ws.rs.core.FeatureContext;
 import javax.ws.rs.ext.Provider;
 
+import com.example.helloworld.metrics.Stage;
+import com.example.helloworld.metrics.StageTimingFilter;
+
+import io.opentracing.contrib.jaxrs2.server.OperationNameProvider;
 import io.opentracing.contrib.jaxrs2.server.OperationNameProvider.ClassNameOperationName;
 import io.opentracing.contrib.jaxrs2.server.ServerTracingDynamicFeature;
 import io.opentracing.util.GlobalTracer;
@@ -16,12 +21,19 @@ import io.opentracing.util.GlobalTracer;
 /**
  * A {@link DynamicFeature} to allow Jaeger tracing instrumentation.
  *
+ * <p>The {@link ServerSpanFilter} starts the span just before the tracing filter, reading only the trace context
+ * headers. The two are bracketed by filters that time them as the {@link Stage#SPAN_START} stage.</p>
  *
  * @author Steve Brown, Estafet Ltd.
  */
 @Provider
 public class TracingInitialiser implements DynamicFeature {
 
+    /**
+     * The priority of the tracing request filter.
+     */
+    private static final int TRACING_PRIORITY = Priorities.HEADER_DECORATOR;
+
     /**
      * The {@link ServerTracingDynamicFeature} that starts the tracing spans.
      *
@@ -30,6 +42,11 @@ public class TracingInitialiser implements DynamicFeature {
      */
     private final ServerTracingDynamicFeature serverTracingDynamicFeature;
 
+    /**
+     * Names the spans, as the {@link ServerTracingDynamicFeature} does.
+     */
+    private final OperationNameProvider.Builder operationNameBuilder = ClassNameOperationName.newBuilder();
+
     /**
      * Constructor.
      */
@@ -37,7 +54,8 @@ public class TracingInitialiser implements DynamicFeature {
         super();
         final ServerTracingDynamicFeature.Builder builder = new ServerTracingDynamicFeature.Builder(GlobalTracer.get());
 
-         serverTracingDynamicFeature = builder.withOperationNameProvider(ClassNameOperationName.newBuilder())
+         serverTracingDynamicFeature = builder.withOperationNameProvider(operationNameBuilder)
+                                              .withPriority(TRACING_PRIORITY)
                                               .withJoinExistingActiveSpan(true)
                                               .withTraceSerialization(true)
                                               .build();
@@ -46,7 +64,8 @@ public class TracingInitialiser implements DynamicFeature {
     /**
      * Register the {@link io.opentracing.contrib.jaxrs2.server.ServerTracingFilter}.
      *
-     * <p>The {@code ServerTracingFilter} starts the tracing span.</p>
+     * <p>The {@link ServerSpanFilter} starts the tracing span, so the {@code ServerTracingFilter} only tags the
+     * response. The filters that time them are registered with the priorities either side of them.</p>
      *
      * @param resourceInfo
      *          The resource class and method information.
@@ -59,6 +78,38 @@ public class TracingInitialiser implements DynamicFeature {
     @Override
     public void configure(final ResourceInfo resourceInfo, final FeatureContext context) {
       serverTracingDynamicFeature.configure(resourceInfo, context);
+      context.register(new ServerSpanFilter(GlobalTracer.get(),
+                                            operationNameBuilder.build(resourceInfo.getResourceClass(),
+                                                                       resourceInfo.getResourceMethod())),
+                       TRACING_PRIORITY - 1);
+      context.register(new SpanStartTimer(), TRACING_PRIORITY - 2);
+      context.register(new SpanStartedTimer(), TRACING_PRIORITY + 1);
+    }
+
+    /**
+     * Starts timing the tracing filter.
+     */
+    static final class SpanStartTimer extends StageTimingFilter {
+
+        /**
+         * Constructor.
+         */
+        SpanStartTimer() {
+            super(Stage.SPAN_START, true);
+        }
+    }
+
+    /**
+     * Stops timing the tracing filter.
+     */
+    static final class SpanStartedTimer extends StageTimingFilter {
+
+        /**
+         * Constructor.
+         */
+        SpanStartedTimer() {
+            super(Stage.SPAN_START, false);
+        }
     }
 
 }
@@ -0,0 +1,185 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.propagation;
+
+import java.util.Map;
+
+import io.jaegertracing.internal.JaegerSpanContext;
+import io.jaegertracing.spi.Codec;
+import io.opentracing.propagation.TextMap;
+
+/**
+ * A codec that reads the single {@code b3} header form of Zipkin's
+ * <a href="https://github.com/openzipkin/b3-propagation">B3 propagation</a>.
+ *
+ * <p>The header is {@code traceid-spanid-sampled-parentspanid}, where the trace id is 16 or 32 lower case hex digits,
+ * the span ids are 16, and the sampling state ({@code 0}, {@code 1} or {@code d} for debug) and the parent span id
+ * are optional. A header with only a sampling state has no span context, so it is ignored, as is a header that is not
+ * valid.</p>
+ *
+ * <p>The multiple {@code X-B3-*} header form is written and read by Jaeger's
+ * {@link io.jaegertracing.internal.propagation.B3TextMapCodec}, so this codec writes nothing.</p>
+ */
+public final class B3SingleHeaderCodec implements Codec<TextMap> {
+
+    /**
+     * The name of the header.
+     */
+    public static final String B3 = "b3";
+
+    /**
+     * The sampled flag.
+     */
+    private static final byte SAMPLED = 0x01;
+
+    /**
+     * The debug flag.
+     */
+    private static final byte DEBUG = 0x02;
+
+    /**
+     * Write nothing: the span context is written in the multiple header form.
+     * @param spanContext
+     *          The span context.
+     * @param carrier
+     *          The headers.
+     * @see io.jaegertracing.spi.Injector#inject(io.jaegertracing.internal.JaegerSpanContext, java.lang.Object)
+     */
+    @Override
+    public void inject(final JaegerSpanContext spanContext, final TextMap carrier) {
+        // The B3TextMapCodec writes the X-B3-* headers.
+    }
+
+    /**
+     * Read the span context from a {@code b3} header.
+     * @param carrier
+     *          The headers.
+     * @return
+     *          The span context, or {@code null} if there is no valid {@code b3} header with a span context.
+     * @see io.jaegertracing.spi.Extractor#extract(java.lang.Object)
+     */
+    @Override
+    public JaegerSpanContext extract(final TextMap carrier) {
+        for (final Map.Entry<String, String> header : carrier) {
+            if (B3.equalsIgnoreCase(header.getKey())) {
+                return parse(header.getValue());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return
+     *          A description of the codec.
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "B3SingleHeaderCodec";
+    }
+
+    /**
+     * Parse a {@code b3} header.
+     * @param value
+     *          The header value.
+     * @return
+     *          The span context, or {@code null} if the header has no span context or is not valid.
+     */
+    static JaegerSpanContext parse(final String value) {
+        if (value == null) {
+            return null;
+        }
+
+        final String header = value.trim();
+        final int traceIdLength = header.indexOf('-');
+        if (traceIdLength != 16 && traceIdLength != 32) {
+            return null;
+        }
+        final int spanIdIndex = traceIdLength + 1;
+        final int spanIdEnd = spanIdIndex + 16;
+        if (header.length() < spanIdEnd || (header.length() > spanIdEnd && header.charAt(spanIdEnd) != '-')) {
+            return null;
+        }
+
+        final long traceIdHigh = traceIdLength == 32 ? parseHex(header, 0) : 0;
+        final long traceIdLow = parseHex(header, traceIdLength - 16);
+        final long spanId = parseHex(header, spanIdIndex);
+        if (!isValidHex(header, 0, traceIdLength)
+            || !isValidHex(header, spanIdIndex, 16)
+            || (traceIdHigh == 0 && traceIdLow == 0)
+            || spanId == 0) {
+            return null;
+        }
+
+        byte flags = 0;
+        long parentId = 0;
+        if (header.length() > spanIdEnd) {
+            final int samplingIndex = spanIdEnd + 1;
+            if (header.length() < samplingIndex + 1) {
+                return null;
+            }
+            switch (header.charAt(samplingIndex)) {
+                case '0':
+                    break;
+                case '1':
+                    flags = SAMPLED;
+                    break;
+                case 'd':
+                    flags = SAMPLED | DEBUG;
+                    break;
+                default:
+                    return null;
+            }
+
+            final int parentIdIndex = samplingIndex + 2;
+            if (header.length() > samplingIndex + 1) {
+                if (header.charAt(samplingIndex + 1) != '-'
+                    || header.length() != parentIdIndex + 16
+                    || !isValidHex(header, parentIdIndex, 16)) {
+                    return null;
+                }
+                parentId = parseHex(header, parentIdIndex);
+            }
+        }
+
+        return new JaegerSpanContext(traceIdHigh, traceIdLow, spanId, parentId, flags);
+    }
+
+    /**
+     * Parse 16 hexadecimal digits. Check them with {@link #isValidHex(String, int, int)}.
+     * @param value
+     *          The string containing the digits.
+     * @param start
+     *          The index of the first digit.
+     * @return
+     *          The value.
+     */
+    private static long parseHex(final String value, final int start) {
+        long result = 0;
+        for (int i = start; i < start + 16; i++) {
+            result = (result << 4) | TraceContextCodec.hexDigit(value.charAt(i));
+        }
+        return result;
+    }
+
+    /**
+     * Check that a range of a string is all lower case hexadecimal digits.
+     * @param value
+     *          The string.
+     * @param start
+     *          The index of the first digit.
+     * @param length
+     *          The number of digits.
+     * @return
+     *          {@code true} if every character in the range is a lower case hexadecimal digit.
+     */
+    private static boolean isValidHex(final String value, final int start, final int length) {
+        for (int i = start; i < start + length; i++) {
+            if (TraceContextCodec.hexDigit(value.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
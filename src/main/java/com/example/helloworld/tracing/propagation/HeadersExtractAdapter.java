@@ -0,0 +1,178 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.propagation;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import javax.ws.rs.core.MultivaluedMap;
+
+import io.opentracing.propagation.TextMap;
+
+/**
+ * A read-only {@link TextMap} view of the request headers that a codec reads.
+ *
+ * <p>Nothing is copied. The iterator looks up each header the codecs need by name, and then scans the header names
+ * for baggage prefixes, returning the first value of each header it finds. Headers that no codec reads are never
+ * looked at, so a request with many unrelated headers costs no more to extract than one without them.</p>
+ *
+ * <p>Jersey's request header map ignores case, so the names are looked up exactly as the codecs define them.</p>
+ */
+public final class HeadersExtractAdapter implements TextMap {
+
+    /**
+     * The request headers.
+     */
+    private final MultivaluedMap<String, String> headers;
+
+    /**
+     * The names of the headers the codecs read.
+     */
+    private final String[] names;
+
+    /**
+     * The prefixes of the baggage headers the codecs read.
+     */
+    private final String[] prefixes;
+
+    /**
+     * Constructor.
+     * @param theHeaders
+     *          The request headers.
+     * @param theNames
+     *          The names of the headers the codecs read.
+     * @param thePrefixes
+     *          The prefixes of the baggage headers the codecs read.
+     */
+    HeadersExtractAdapter(final MultivaluedMap<String, String> theHeaders,
+                          final String[] theNames,
+                          final String[] thePrefixes) {
+        headers = theHeaders;
+        names = theNames;
+        prefixes = thePrefixes;
+    }
+
+    /**
+     * @return
+     *          An iterator over the headers the codecs read that are in the request.
+     * @see io.opentracing.propagation.TextMap#iterator()
+     */
+    @Override
+    public Iterator<Map.Entry<String, String>> iterator() {
+        return new HeaderIterator();
+    }
+
+    /**
+     * Not supported.
+     * @param key
+     *          The header name.
+     * @param value
+     *          The header value.
+     * @throws UnsupportedOperationException
+     *          Always.
+     * @see io.opentracing.propagation.TextMap#put(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void put(final String key, final String value) {
+        throw new UnsupportedOperationException("The request headers are read only.");
+    }
+
+    /**
+     * Check whether a header name starts with one of the baggage prefixes.
+     * @param name
+     *          The header name.
+     * @return
+     *          {@code true} if the header is a baggage header.
+     */
+    private boolean hasPrefix(final String name) {
+        for (final String prefix : prefixes) {
+            if (name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Iterates over the named headers, and then the baggage headers.
+     */
+    private final class HeaderIterator implements Iterator<Map.Entry<String, String>> {
+
+        /**
+         * The index of the next name to look up.
+         */
+        private int nameIndex;
+
+        /**
+         * The header names being scanned for baggage prefixes, or {@code null} before the scan starts.
+         */
+        private Iterator<Map.Entry<String, List<String>>> scan;
+
+        /**
+         * The next header, or {@code null} if it has not been found yet.
+         */
+        private Map.Entry<String, String> next;
+
+        /**
+         * @return
+         *          {@code true} if there is another header.
+         * @see java.util.Iterator#hasNext()
+         */
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = findNext();
+            }
+            return next != null;
+        }
+
+        /**
+         * @return
+         *          The next header.
+         * @see java.util.Iterator#next()
+         */
+        @Override
+        public Map.Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Map.Entry<String, String> result = next;
+            next = null;
+            return result;
+        }
+
+        /**
+         * Find the next header the codecs read.
+         * @return
+         *          The header, or {@code null} if there are no more.
+         */
+        private Map.Entry<String, String> findNext() {
+            while (nameIndex < names.length) {
+                final String name = names[nameIndex++];
+                final String value = headers.getFirst(name);
+                if (value != null) {
+                    return new AbstractMap.SimpleImmutableEntry<>(name, value);
+                }
+            }
+
+            if (prefixes.length == 0) {
+                return null;
+            }
+            if (scan == null) {
+                scan = headers.entrySet().iterator();
+            }
+            while (scan.hasNext()) {
+                final Map.Entry<String, List<String>> header = scan.next();
+                final List<String> values = header.getValue();
+                if (hasPrefix(header.getKey()) && values != null && !values.isEmpty()) {
+                    return new AbstractMap.SimpleImmutableEntry<>(header.getKey(), values.get(0));
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.propagation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.core.MultivaluedMap;
+
+import io.jaegertracing.internal.propagation.CompositeCodec;
+import io.jaegertracing.spi.Codec;
+import io.opentracing.propagation.TextMap;
+
+/**
+ * The span context propagation formats in use.
+ *
+ * <p>When there is more than one format, a span context is injected in every format, and extracted from the first
+ * format, in the configured order, that is present in the request.</p>
+ */
+public final class Propagation {
+
+    /**
+     * The codec for all the formats.
+     */
+    private final Codec<TextMap> codec;
+
+    /**
+     * The names of the headers the codecs read.
+     */
+    private final String[] headerNames;
+
+    /**
+     * The prefixes of the baggage headers the codecs read.
+     */
+    private final String[] headerPrefixes;
+
+    /**
+     * Constructor.
+     * @param formats
+     *          The formats, in the order they are tried when extracting.
+     * @throws IllegalArgumentException
+     *          If there are no formats.
+     */
+    public Propagation(final List<PropagationFormat> formats) {
+        if (formats.isEmpty()) {
+            throw new IllegalArgumentException("At least one propagation format is required.");
+        }
+
+        final List<Codec<TextMap>> codecs = new ArrayList<>(formats.size());
+        final Set<String> names = new LinkedHashSet<>();
+        final Set<String> prefixes = new LinkedHashSet<>();
+        for (final PropagationFormat format : new LinkedHashSet<>(formats)) {
+            codecs.add(format.createCodec());
+            names.addAll(Arrays.asList(format.getHeaderNames()));
+            prefixes.addAll(Arrays.asList(format.getHeaderPrefixes()));
+        }
+
+        codec = codecs.size() == 1 ? codecs.get(0) : new CompositeCodec<>(codecs);
+        headerNames = names.toArray(new String[names.size()]);
+        headerPrefixes = prefixes.toArray(new String[prefixes.size()]);
+    }
+
+    /**
+     * @return
+     *          The codec that injects and extracts every format.
+     */
+    public Codec<TextMap> getCodec() {
+        return codec;
+    }
+
+    /**
+     * Create a carrier for extracting a span context from request headers.
+     * @param headers
+     *          The request headers.
+     * @return
+     *          A read-only view of just the headers the codecs read.
+     */
+    public TextMap extractAdapter(final MultivaluedMap<String, String> headers) {
+        return new HeadersExtractAdapter(headers, headerNames, headerPrefixes);
+    }
+}
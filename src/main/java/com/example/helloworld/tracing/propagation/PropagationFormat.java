@@ -0,0 +1,106 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.propagation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jaegertracing.internal.propagation.B3TextMapCodec;
+import io.jaegertracing.internal.propagation.CompositeCodec;
+import io.jaegertracing.internal.propagation.TextMapCodec;
+import io.jaegertracing.spi.Codec;
+import io.opentracing.propagation.TextMap;
+
+/**
+ * The formats in which a span context is carried in HTTP headers.
+ *
+ * <p>Each format knows the headers its codec reads, so that extraction only looks at those headers.</p>
+ */
+public enum PropagationFormat {
+
+    /**
+     * Jaeger's native format, the {@code uber-trace-id} header and {@code uberctx-} baggage headers.
+     */
+    JAEGER(new String[] {"uber-trace-id", "jaeger-debug-id", "jaeger-baggage"}, new String[] {"uberctx-"}) {
+        @Override
+        public Codec<TextMap> createCodec() {
+            return TextMapCodec.builder().withUrlEncoding(true).build();
+        }
+    },
+
+    /**
+     * Zipkin's B3 format, the {@code X-B3-*} headers and {@code baggage-} baggage headers. A span context is also read
+     * from the single {@code b3} header, if there are no {@code X-B3-*} headers. See {@link B3SingleHeaderCodec}.
+     */
+    B3(new String[] {"X-B3-TraceId",
+                     "X-B3-SpanId",
+                     "X-B3-ParentSpanId",
+                     "X-B3-Sampled",
+                     "X-B3-Flags",
+                     B3SingleHeaderCodec.B3},
+       new String[] {"baggage-"}) {
+        @Override
+        public Codec<TextMap> createCodec() {
+            final List<Codec<TextMap>> codecs = new ArrayList<>(2);
+            codecs.add(new B3TextMapCodec.Builder().build());
+            codecs.add(new B3SingleHeaderCodec());
+            return new CompositeCodec<>(codecs);
+        }
+    },
+
+    /**
+     * The W3C Trace Context format, the {@code traceparent} header. See {@link TraceContextCodec}.
+     */
+    W3C(new String[] {TraceContextCodec.TRACE_PARENT}, new String[0]) {
+        @Override
+        public Codec<TextMap> createCodec() {
+            return new TraceContextCodec();
+        }
+    };
+
+    /**
+     * The names of the headers the codec reads.
+     */
+    private final String[] headerNames;
+
+    /**
+     * The prefixes of the baggage headers the codec reads.
+     */
+    private final String[] headerPrefixes;
+
+    /**
+     * Constructor.
+     * @param theHeaderNames
+     *          The names of the headers the codec reads.
+     * @param theHeaderPrefixes
+     *          The prefixes of the baggage headers the codec reads.
+     */
+    PropagationFormat(final String[] theHeaderNames, final String[] theHeaderPrefixes) {
+        headerNames = theHeaderNames;
+        headerPrefixes = theHeaderPrefixes;
+    }
+
+    /**
+     * Create the codec for this format.
+     * @return
+     *          A codec that injects and extracts HTTP headers.
+     */
+    public abstract Codec<TextMap> createCodec();
+
+    /**
+     * @return
+     *          The names of the headers the codec reads.
+     */
+    String[] getHeaderNames() {
+        return headerNames.clone();
+    }
+
+    /**
+     * @return
+     *          The prefixes of the baggage headers the codec reads.
+     */
+    String[] getHeaderPrefixes() {
+        return headerPrefixes.clone();
+    }
+}
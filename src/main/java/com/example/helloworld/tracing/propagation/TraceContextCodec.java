@@ -0,0 +1,231 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.propagation;
+
+import java.util.Map;
+
+import io.jaegertracing.internal.JaegerSpanContext;
+import io.jaegertracing.spi.Codec;
+import io.opentracing.propagation.TextMap;
+
+/**
+ * A codec for the <a href="https://www.w3.org/TR/trace-context/">W3C Trace Context</a> {@code traceparent} header.
+ *
+ * <p>The header is {@code version-traceid-parentid-flags}, for example
+ * {@code 00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01}. Only version {@code 00} is written; a later
+ * version is read as long as it starts with the same four fields. The {@code tracestate} header and baggage are not
+ * propagated in this format.</p>
+ *
+ * <p>The header is parsed in place, without splitting it or creating substrings.</p>
+ */
+public final class TraceContextCodec implements Codec<TextMap> {
+
+    /**
+     * The name of the header.
+     */
+    public static final String TRACE_PARENT = "traceparent";
+
+    /**
+     * The length of a version {@code 00} header.
+     */
+    private static final int LENGTH = 55;
+
+    /**
+     * The index of the trace id.
+     */
+    private static final int TRACE_ID_INDEX = 3;
+
+    /**
+     * The index of the parent span id.
+     */
+    private static final int PARENT_ID_INDEX = 36;
+
+    /**
+     * The index of the flags.
+     */
+    private static final int FLAGS_INDEX = 53;
+
+    /**
+     * The sampled bit in the flags.
+     */
+    private static final int SAMPLED = 0x01;
+
+    /**
+     * The hexadecimal digits, in lower case as the specification requires.
+     */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Write the span context as a {@code traceparent} header.
+     * @param spanContext
+     *          The span context.
+     * @param carrier
+     *          The headers to add the {@code traceparent} header to.
+     * @see io.jaegertracing.spi.Injector#inject(io.jaegertracing.internal.JaegerSpanContext, java.lang.Object)
+     */
+    @Override
+    public void inject(final JaegerSpanContext spanContext, final TextMap carrier) {
+        final char[] header = new char[LENGTH];
+        header[0] = '0';
+        header[1] = '0';
+        header[2] = '-';
+        appendHex(header, TRACE_ID_INDEX, spanContext.getTraceIdHigh());
+        appendHex(header, TRACE_ID_INDEX + 16, spanContext.getTraceIdLow());
+        header[PARENT_ID_INDEX - 1] = '-';
+        appendHex(header, PARENT_ID_INDEX, spanContext.getSpanId());
+        header[FLAGS_INDEX - 1] = '-';
+        header[FLAGS_INDEX] = '0';
+        header[FLAGS_INDEX + 1] = spanContext.isSampled() ? '1' : '0';
+        carrier.put(TRACE_PARENT, new String(header));
+    }
+
+    /**
+     * Read the span context from a {@code traceparent} header.
+     * @param carrier
+     *          The headers.
+     * @return
+     *          The span context, or {@code null} if there is no valid {@code traceparent} header.
+     * @see io.jaegertracing.spi.Extractor#extract(java.lang.Object)
+     */
+    @Override
+    public JaegerSpanContext extract(final TextMap carrier) {
+        for (final Map.Entry<String, String> header : carrier) {
+            if (TRACE_PARENT.equalsIgnoreCase(header.getKey())) {
+                return parse(header.getValue());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return
+     *          A description of the codec.
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "TraceContextCodec";
+    }
+
+    /**
+     * Parse a {@code traceparent} header.
+     * @param value
+     *          The header value.
+     * @return
+     *          The span context, or {@code null} if the header is not valid.
+     */
+    static JaegerSpanContext parse(final String value) {
+        if (value == null || value.length() < LENGTH) {
+            return null;
+        }
+
+        final String trimmed = value.trim();
+        if (trimmed.length() < LENGTH
+            || trimmed.charAt(2) != '-'
+            || trimmed.charAt(PARENT_ID_INDEX - 1) != '-'
+            || trimmed.charAt(FLAGS_INDEX - 1) != '-'
+            || (trimmed.length() > LENGTH && trimmed.charAt(LENGTH) != '-')) {
+            return null;
+        }
+
+        final long version = parseHex(trimmed, 0, 2);
+        // Version ff is invalid, and version 00 has no more fields.
+        if (version < 0 || version == 0xff || (version == 0 && trimmed.length() != LENGTH)) {
+            return null;
+        }
+
+        final long traceIdHigh = parseHex(trimmed, TRACE_ID_INDEX, 16);
+        final long traceIdLow = parseHex(trimmed, TRACE_ID_INDEX + 16, 16);
+        final long spanId = parseHex(trimmed, PARENT_ID_INDEX, 16);
+        final long flags = parseHex(trimmed, FLAGS_INDEX, 2);
+        if (!isValidHex(trimmed, TRACE_ID_INDEX, 32)
+            || !isValidHex(trimmed, PARENT_ID_INDEX, 16)
+            || flags < 0
+            || (traceIdHigh == 0 && traceIdLow == 0)
+            || spanId == 0) {
+            return null;
+        }
+
+        return new JaegerSpanContext(traceIdHigh, traceIdLow, spanId, 0, (byte) (flags & SAMPLED));
+    }
+
+    /**
+     * Parse lower case hexadecimal digits.
+     * @param value
+     *          The string containing the digits.
+     * @param start
+     *          The index of the first digit.
+     * @param length
+     *          The number of digits, at most 16.
+     * @return
+     *          The value, or {@code -1} if fewer than 16 digits are parsed and one is not a lower case hexadecimal
+     *          digit. Check 16 digit values with {@link #isValidHex(String, int, int)}.
+     */
+    private static long parseHex(final String value, final int start, final int length) {
+        long result = 0;
+        for (int i = start; i < start + length; i++) {
+            final int digit = hexDigit(value.charAt(i));
+            if (digit < 0) {
+                return -1;
+            }
+            result = (result << 4) | digit;
+        }
+        return result;
+    }
+
+    /**
+     * Check that a range of a string is all lower case hexadecimal digits.
+     * @param value
+     *          The string.
+     * @param start
+     *          The index of the first digit.
+     * @param length
+     *          The number of digits.
+     * @return
+     *          {@code true} if every character in the range is a lower case hexadecimal digit.
+     */
+    private static boolean isValidHex(final String value, final int start, final int length) {
+        for (int i = start; i < start + length; i++) {
+            if (hexDigit(value.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the value of a lower case hexadecimal digit.
+     *
+     * <p>The specification only allows {@code 0-9} and {@code a-f}, so upper case digits and the digits of other
+     * scripts, which {@link Character#digit(char, int)} accepts, make the header invalid.</p>
+     * @param c
+     *          The character.
+     * @return
+     *          The digit's value, or {@code -1} if the character is not a lower case hexadecimal digit.
+     */
+    static int hexDigit(final char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * Write a {@code long} as 16 lower case hexadecimal digits.
+     * @param header
+     *          The characters to write to.
+     * @param start
+     *          The index of the first digit.
+     * @param value
+     *          The value.
+     */
+    private static void appendHex(final char[] header, final int start, final long value) {
+        for (int i = 15; i >= 0; i--) {
+            header[start + 15 - i] = HEX_DIGITS[(int) ((value >>> (i * 4)) & 0xF)];
+        }
+    }
+}
@@ -0,0 +1,334 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.reporting;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.example.helloworld.metrics.Stage;
+import com.example.helloworld.metrics.StageMetrics;
+
+import io.jaegertracing.internal.JaegerSpan;
+import io.jaegertracing.spi.Reporter;
+
+/**
+ * A Jaeger {@link Reporter} that queues finished spans and writes them to a {@link SpanSink} in batches.
+ *
+ * <p>Finishing a span only adds it to a bounded lock-free queue. A background thread takes spans from the queue and
+ * writes a batch to the sink when it has {@code batchSize} spans, or when the oldest span in the batch has waited for
+ * {@code flushInterval}. When the queue is full the {@link DropPolicy} decides whether the span is dropped straight
+ * away or after a short wait.</p>
+ *
+ * <p>The background thread parks while it waits for spans. With an empty batch it parks until the first span is
+ * added, and with a partly full batch until the flush interval ends or the span that fills the batch is added. The
+ * request thread that adds that span unparks it, so an idle reporter doesn't wake up at all.</p>
+ *
+ * <p>These metrics are registered:</p>
+ * <ul>
+ *  <li>{@code BatchingReporter.depth}: the number of spans in the queue.</li>
+ *  <li>{@code BatchingReporter.dropped}: the number of spans dropped because the queue was full.</li>
+ *  <li>{@code BatchingReporter.failed}: the number of spans the sink failed to write.</li>
+ *  <li>{@code BatchingReporter.reported}: the rate at which spans are written to the sink.</li>
+ *  <li>{@code BatchingReporter.flush}: the time taken to write each batch.</li>
+ * </ul>
+ */
+public final class BatchingReporter implements Reporter {
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchingReporter.class);
+
+    /**
+     * The value of {@link #wakeAt} when the background thread is not waiting for a span.
+     */
+    private static final long NOT_WAITING = Long.MAX_VALUE;
+
+    /**
+     * How long a request thread waits between attempts to add a span under {@link DropPolicy#WAIT}.
+     */
+    private static final long RETRY_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * The queue of finished spans.
+     */
+    private final SpanQueue queue;
+
+    /**
+     * Where the spans are written.
+     */
+    private final SpanSink sink;
+
+    /**
+     * The most spans written at once.
+     */
+    private final int batchSize;
+
+    /**
+     * The longest a span waits in a partly full batch, in nanoseconds.
+     */
+    private final long flushIntervalNanos;
+
+    /**
+     * What happens to a span when the queue is full.
+     */
+    private final DropPolicy dropPolicy;
+
+    /**
+     * How long to wait for room in the queue under {@link DropPolicy#WAIT}, in nanoseconds.
+     */
+    private final long offerTimeoutNanos;
+
+    /**
+     * The number of spans dropped because the queue was full.
+     */
+    private final Counter dropped;
+
+    /**
+     * The number of spans the sink failed to write.
+     */
+    private final Counter failed;
+
+    /**
+     * The rate at which spans are written.
+     */
+    private final Meter reported;
+
+    /**
+     * The time taken to write each batch.
+     */
+    private final Timer flushes;
+
+    /**
+     * The background thread.
+     */
+    private final Thread flusher;
+
+    /**
+     * Whether the background thread should keep running.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * The sequence number of the span that the background thread is parked waiting for, or {@link #NOT_WAITING}. The
+     * request thread that adds a span with this sequence number or a later one unparks it.
+     */
+    private volatile long wakeAt = NOT_WAITING;
+
+    /**
+     * Constructor. This starts the background thread.
+     * @param configuration
+     *          The reporter configuration.
+     * @param theSink
+     *          Where the spans are written.
+     * @param metrics
+     *          The registry for the reporter metrics.
+     */
+    public BatchingReporter(final SpanReportingConfiguration configuration,
+                            final SpanSink theSink,
+                            final MetricRegistry metrics) {
+        queue = new SpanQueue(configuration.getQueueSize());
+        sink = theSink;
+        batchSize = configuration.getBatchSize();
+        flushIntervalNanos = configuration.getFlushInterval().toNanoseconds();
+        dropPolicy = configuration.getDropPolicy();
+        offerTimeoutNanos = configuration.getOfferTimeout().toNanoseconds();
+
+        dropped = metrics.counter(MetricRegistry.name(BatchingReporter.class, "dropped"));
+        failed = metrics.counter(MetricRegistry.name(BatchingReporter.class, "failed"));
+        reported = metrics.meter(MetricRegistry.name(BatchingReporter.class, "reported"));
+        flushes = metrics.timer(MetricRegistry.name(BatchingReporter.class, "flush"));
+        metrics.register(MetricRegistry.name(BatchingReporter.class, "depth"),
+                         (Gauge<Long>) () -> Long.valueOf(queue.size()));
+
+        flusher = new Thread(this::run, "span-reporter");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Queue a finished span.
+     *
+     * <p>This is all the work a span does when it is finished, so it is timed as the {@link Stage#SPAN_FINISH}
+     * stage.</p>
+     * @param span
+     *          The span.
+     * @see io.jaegertracing.spi.Reporter#report(io.jaegertracing.internal.JaegerSpan)
+     */
+    @Override
+    public void report(final JaegerSpan span) {
+        final long start = StageMetrics.start();
+        try {
+            enqueue(span);
+        }
+        finally {
+            StageMetrics.stop(Stage.SPAN_FINISH, start);
+        }
+    }
+
+    /**
+     * Add a span to the queue, applying the drop policy if the queue is full.
+     * @param span
+     *          The finished span.
+     */
+    private void enqueue(final JaegerSpan span) {
+        if (offer(span)) {
+            return;
+        }
+
+        if (dropPolicy == DropPolicy.WAIT && running) {
+            final long deadline = System.nanoTime() + offerTimeoutNanos;
+            while (System.nanoTime() - deadline < 0) {
+                LockSupport.parkNanos(this, RETRY_NANOS);
+                if (offer(span)) {
+                    return;
+                }
+            }
+        }
+        dropped.inc();
+    }
+
+    /**
+     * Add a span to the queue, and wake the background thread if it is waiting for this span.
+     * @param span
+     *          The finished span.
+     * @return
+     *          {@code true} if the span was added, {@code false} if the queue is full.
+     */
+    private boolean offer(final JaegerSpan span) {
+        final long sequence = queue.offer(span);
+        if (sequence < 0) {
+            return false;
+        }
+        if (sequence >= wakeAt) {
+            wakeAt = NOT_WAITING;
+            LockSupport.unpark(flusher);
+        }
+        return true;
+    }
+
+    /**
+     * Stop the background thread, after it has written the spans already queued, and close the sink.
+     * @see io.jaegertracing.spi.Reporter#close()
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        catch (@SuppressWarnings("unused") final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            sink.close();
+        }
+        catch (final IOException e) {
+            LOGGER.warn("Failed to close the span sink {}.", sink, e);
+        }
+    }
+
+    /**
+     * @return
+     *          A description of the reporter.
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "BatchingReporter(queueSize=" + queue.capacity() + ", batchSize=" + batchSize + ", dropPolicy=" +
+               dropPolicy + ", sink=" + sink + ")";
+    }
+
+    /**
+     * Write batches of spans to the sink until stopped.
+     */
+    private void run() {
+        final List<JaegerSpan> batch = new ArrayList<>(batchSize);
+        long deadline = 0;
+        while (running) {
+            final boolean wasEmpty = batch.isEmpty();
+            final int drained = queue.drainTo(batch, batchSize - batch.size());
+            final long now = System.nanoTime();
+            if (wasEmpty && drained > 0) {
+                deadline = now + flushIntervalNanos;
+            }
+
+            if (batch.size() >= batchSize || (!batch.isEmpty() && now - deadline >= 0)) {
+                flush(batch);
+            }
+            else if (drained == 0) {
+                await(batch.size(), deadline - now);
+            }
+        }
+
+        // Write the spans that were queued before the reporter was closed.
+        do {
+            flush(batch);
+        } while (queue.drainTo(batch, batchSize) > 0);
+    }
+
+    /**
+     * Park until the span that starts or fills the batch is added, the flush interval ends, or the reporter is closed.
+     * @param batched
+     *          The number of spans in the batch.
+     * @param timeoutNanos
+     *          How long until the batch must be written, if it is not empty.
+     */
+    private void await(final int batched, final long timeoutNanos) {
+        final long awaited = queue.head() + (batched == 0 ? 0 : batchSize - batched - 1);
+        // Say which span to wake for before checking for it, so that a request thread that adds it after the check
+        // sees the sequence number and unparks this thread.
+        wakeAt = awaited;
+        if (!queue.isAdded(awaited) && running) {
+            if (batched == 0) {
+                LockSupport.park(this);
+            }
+            else {
+                LockSupport.parkNanos(this, timeoutNanos);
+            }
+        }
+        wakeAt = NOT_WAITING;
+    }
+
+    /**
+     * Write a batch to the sink, and empty it.
+     * @param batch
+     *          The batch.
+     */
+    private void flush(final List<JaegerSpan> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        final Timer.Context timer = flushes.time();
+        try {
+            sink.write(batch);
+            reported.mark(batch.size());
+        }
+        catch (final IOException e) {
+            failed.inc(batch.size());
+            LOGGER.warn("Failed to write {} spans to {}.", Integer.valueOf(batch.size()), sink, e);
+        }
+        finally {
+            timer.stop();
+            batch.clear();
+        }
+    }
+}
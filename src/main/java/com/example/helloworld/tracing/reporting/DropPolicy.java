@@ -0,0 +1,21 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.reporting;
+
+/**
+ * What the {@link BatchingReporter} does with a finished span when its queue is full.
+ */
+public enum DropPolicy {
+
+    /**
+     * Drop the span straight away. The request thread never waits for the reporter.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Wait up to the configured offer timeout for room in the queue, then drop the span. This keeps more spans in
+     * a short burst, at the cost of slowing down the request that finished the span.
+     */
+    WAIT
+}
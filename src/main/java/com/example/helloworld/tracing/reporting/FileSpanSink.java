@@ -0,0 +1,110 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.reporting;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.jaegertracing.internal.JaegerSpan;
+
+/**
+ * A {@link SpanSink} that appends spans to a file, one JSON object per line.
+ *
+ * <p>For example:</p>
+ * <pre>
+ * {"traceId":"5a2b..","spanId":"9c1e..","parentId":"0","operation":"serialize","start":1555000000000000,
+ *  "duration":120,"tags":{"span.kind":"server"}}
+ * </pre>
+ *
+ * <p>Times are in microseconds. The file is flushed after each batch.</p>
+ */
+public final class FileSpanSink implements SpanSink {
+
+    /**
+     * Creates the JSON generator.
+     */
+    private static final JsonFactory JSON = new JsonFactory();
+
+    /**
+     * The file.
+     */
+    private final Path file;
+
+    /**
+     * The file writer.
+     */
+    private final BufferedWriter writer;
+
+    /**
+     * The JSON generator that writes to the file.
+     */
+    private final JsonGenerator generator;
+
+    /**
+     * Constructor.
+     * @param theFile
+     *          The file to append to. It is created if it does not exist.
+     * @throws IOException
+     *          If the file cannot be opened.
+     */
+    public FileSpanSink(final Path theFile) throws IOException {
+        file = theFile;
+        writer = Files.newBufferedWriter(file,
+                                         StandardCharsets.UTF_8,
+                                         StandardOpenOption.CREATE,
+                                         StandardOpenOption.APPEND);
+        generator = JSON.createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Each span is on its own line, so no separator is needed between them.
+        generator.setRootValueSeparator(null);
+    }
+
+    /**
+     * Append a batch of spans to the file.
+     * @param spans
+     *          The spans.
+     * @throws IOException
+     *          If the file cannot be written.
+     * @see com.example.helloworld.tracing.reporting.SpanSink#write(java.util.List)
+     */
+    @Override
+    public void write(final List<JaegerSpan> spans) throws IOException {
+        for (final JaegerSpan span : spans) {
+            SpanJson.write(generator, span);
+            generator.writeRaw('\n');
+        }
+        // Flush the generator's buffer, and the writer it writes to, once for the batch.
+        generator.flush();
+    }
+
+    /**
+     * Close the file.
+     * @throws IOException
+     *          If the file cannot be closed.
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        generator.close();
+        writer.close();
+    }
+
+    /**
+     * @return
+     *          A description of the sink.
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "FileSpanSink(" + file + ")";
+    }
+}
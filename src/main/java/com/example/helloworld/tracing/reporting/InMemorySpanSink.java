@@ -0,0 +1,86 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.reporting;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.jaegertracing.internal.JaegerSpan;
+
+/**
+ * A {@link SpanSink} that keeps the most recent spans in memory.
+ *
+ * <p>This is for development and load testing, where sending spans to Jaeger would skew the results. The oldest
+ * spans are discarded when the capacity is reached.</p>
+ */
+public final class InMemorySpanSink implements SpanSink {
+
+    /**
+     * The most spans kept.
+     */
+    private final int capacity;
+
+    /**
+     * The spans, oldest first.
+     */
+    private final ArrayDeque<JaegerSpan> spans;
+
+    /**
+     * The total number of spans written.
+     */
+    private long written;
+
+    /**
+     * Constructor.
+     * @param theCapacity
+     *          The most spans to keep.
+     */
+    public InMemorySpanSink(final int theCapacity) {
+        capacity = theCapacity;
+        spans = new ArrayDeque<>(theCapacity);
+    }
+
+    /**
+     * Keep a batch of spans, discarding the oldest if there is not enough room.
+     * @param batch
+     *          The spans.
+     * @see com.example.helloworld.tracing.reporting.SpanSink#write(java.util.List)
+     */
+    @Override
+    public synchronized void write(final List<JaegerSpan> batch) {
+        for (final JaegerSpan span : batch) {
+            if (spans.size() == capacity) {
+                spans.removeFirst();
+            }
+            spans.addLast(span);
+        }
+        written += batch.size();
+    }
+
+    /**
+     * @return
+     *          A copy of the spans kept, oldest first.
+     */
+    public synchronized List<JaegerSpan> getSpans() {
+        return new ArrayList<>(spans);
+    }
+
+    /**
+     * @return
+     *          The total number of spans written, including those discarded.
+     */
+    public synchronized long getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * Discard the spans.
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public synchronized void close() {
+        spans.clear();
+    }
+}
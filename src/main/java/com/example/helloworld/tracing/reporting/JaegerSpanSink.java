@@ -0,0 +1,80 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.reporting;
+
+import java.io.IOException;
+import java.util.List;
+
+import io.jaegertracing.internal.JaegerSpan;
+import io.jaegertracing.internal.exceptions.SenderException;
+import io.jaegertracing.spi.Sender;
+
+/**
+ * A {@link SpanSink} that sends spans to Jaeger with a Jaeger {@link Sender}.
+ *
+ * <p>The sender is the UDP agent sender or the HTTP collector sender, chosen by the Jaeger environment variables.</p>
+ */
+public final class JaegerSpanSink implements SpanSink {
+
+    /**
+     * The sender.
+     */
+    private final Sender sender;
+
+    /**
+     * Constructor.
+     * @param theSender
+     *          The sender.
+     */
+    public JaegerSpanSink(final Sender theSender) {
+        sender = theSender;
+    }
+
+    /**
+     * Send a batch of spans and flush the sender.
+     * @param spans
+     *          The spans.
+     * @throws IOException
+     *          If the sender fails.
+     * @see com.example.helloworld.tracing.reporting.SpanSink#write(java.util.List)
+     */
+    @Override
+    public void write(final List<JaegerSpan> spans) throws IOException {
+        try {
+            for (final JaegerSpan span : spans) {
+                sender.append(span);
+            }
+            sender.flush();
+        }
+        catch (final SenderException e) {
+            throw new IOException("Failed to send " + e.getDroppedSpanCount() + " spans to Jaeger.", e);
+        }
+    }
+
+    /**
+     * Close the sender.
+     * @throws IOException
+     *          If the sender fails to send the spans it still holds.
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            sender.close();
+        }
+        catch (final SenderException e) {
+            throw new IOException("Failed to close the Jaeger sender.", e);
+        }
+    }
+
+    /**
+     * @return
+     *          A description of the sink.
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "JaegerSpanSink(" + sender + ")";
+    }
+}
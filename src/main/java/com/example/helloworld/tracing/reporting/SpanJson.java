@@ -0,0 +1,80 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.reporting;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.jaegertracing.internal.JaegerSpan;
+import io.jaegertracing.internal.JaegerSpanContext;
+
+/**
+ * Writes a span as a JSON object, for the {@link FileSpanSink} and the {@code spans} admin task. The format is shown
+ * in the {@code FileSpanSink}.
+ */
+public final class SpanJson {
+
+    /**
+     * Write a span.
+     * @param generator
+     *          The generator to write to.
+     * @param span
+     *          The span.
+     * @throws IOException
+     *          If the span cannot be written.
+     */
+    public static void write(final JsonGenerator generator, final JaegerSpan span) throws IOException {
+        final JaegerSpanContext context = span.context();
+        generator.writeStartObject();
+        generator.writeStringField("traceId", context.getTraceId());
+        generator.writeStringField("spanId", Long.toHexString(context.getSpanId()));
+        generator.writeStringField("parentId", Long.toHexString(context.getParentId()));
+        generator.writeStringField("operation", span.getOperationName());
+        generator.writeNumberField("start", span.getStart());
+        generator.writeNumberField("duration", span.getDuration());
+        generator.writeObjectFieldStart("tags");
+        for (final Map.Entry<String, Object> tag : span.getTags().entrySet()) {
+            writeTag(generator, tag.getKey(), tag.getValue());
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    /**
+     * Write a tag as a JSON field of the matching type.
+     * @param generator
+     *          The generator to write to.
+     * @param key
+     *          The tag name.
+     * @param value
+     *          The tag value.
+     * @throws IOException
+     *          If the tag cannot be written.
+     */
+    private static void writeTag(final JsonGenerator generator,
+                                 final String key,
+                                 final Object value) throws IOException {
+        if (value instanceof Boolean) {
+            generator.writeBooleanField(key, ((Boolean) value).booleanValue());
+        }
+        else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+            generator.writeNumberField(key, ((Number) value).longValue());
+        }
+        else if (value instanceof Number) {
+            generator.writeNumberField(key, ((Number) value).doubleValue());
+        }
+        else {
+            generator.writeStringField(key, String.valueOf(value));
+        }
+    }
+
+    /**
+     * Cannot instantiate.
+     */
+    private SpanJson() {
+        super();
+    }
+}
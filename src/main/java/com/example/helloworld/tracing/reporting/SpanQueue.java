@@ -0,0 +1,110 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.reporting;
+
+import java.util.List;
+
+import com.example.helloworld.lib.SequencedRing;
+
+import io.jaegertracing.internal.JaegerSpan;
+
+/**
+ * A bounded, lock-free queue of finished spans with many producers and one consumer.
+ *
+ * <p>The spans are held in a {@link SequencedRing}, the same ring buffer as the
+ * {@link com.example.helloworld.logging.RequestLog} uses. Request threads claim a slot with one compare-and-set and
+ * never wait for the consumer; when the ring is full, {@link #offer(JaegerSpan)} fails immediately.</p>
+ */
+final class SpanQueue {
+
+    /**
+     * The ring buffer.
+     */
+    private final SequencedRing<JaegerSpan> ring;
+
+    /**
+     * Constructor.
+     * @param capacity
+     *          The number of spans the queue holds. This is rounded up to a power of two.
+     */
+    SpanQueue(final int capacity) {
+        ring = new SequencedRing<>(capacity, () -> null);
+    }
+
+    /**
+     * Add a span, if there is room.
+     * @param span
+     *          The span.
+     * @return
+     *          The span's sequence number, or {@code -1} if the queue is full.
+     */
+    long offer(final JaegerSpan span) {
+        final long sequence = ring.claim();
+        if (sequence >= 0) {
+            ring.set(sequence, span);
+            ring.publish(sequence);
+        }
+        return sequence;
+    }
+
+    /**
+     * Move spans from the queue to a list. Only the consumer thread may call this.
+     * @param batch
+     *          The list to add the spans to.
+     * @param max
+     *          The most spans to move.
+     * @return
+     *          The number of spans moved.
+     */
+    int drainTo(final List<JaegerSpan> batch, final int max) {
+        int count = 0;
+        while (count < max) {
+            final long sequence = ring.head();
+            if (!ring.isPublished(sequence)) {
+                break;
+            }
+            batch.add(ring.get(sequence));
+            ring.set(sequence, null);
+            ring.release();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return
+     *          The sequence number of the next span to drain.
+     */
+    long head() {
+        return ring.head();
+    }
+
+    /**
+     * Check whether the span with a sequence number has been added. Only the consumer thread may call this, with a
+     * sequence number that has not been drained.
+     * @param sequence
+     *          The sequence number.
+     * @return
+     *          {@code true} if the span has been added and not drained.
+     */
+    boolean isAdded(final long sequence) {
+        return ring.isPublished(sequence);
+    }
+
+    /**
+     * @return
+     *          The number of spans in the queue, including any still being added.
+     */
+    long size() {
+        return ring.size();
+    }
+
+    /**
+     * @return
+     *          The number of spans the queue holds.
+     */
+    int capacity() {
+        return ring.capacity();
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.reporting;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.dropwizard.util.Duration;
+import io.dropwizard.validation.MinDuration;
+
+/**
+ * The configuration of the {@link BatchingReporter}.
+ *
+ * <p>For example:</p>
+ * <pre>
+ * reporter:
+ *   queueSize: 2048
+ *   batchSize: 100
+ *   flushInterval: 1s
+ *   dropPolicy: drop-newest
+ *   sink: file
+ *   file: /var/log/hello-world/spans.json
+ * </pre>
+ */
+public class SpanReportingConfiguration {
+
+    /**
+     * The number of finished spans the queue holds. This is rounded up to a power of two.
+     */
+    @Min(2)
+    @JsonProperty
+    private int queueSize = 1024;
+
+    /**
+     * The most spans written to the sink at once. A batch is written as soon as it is full.
+     */
+    @Min(1)
+    @JsonProperty
+    private int batchSize = 100;
+
+    /**
+     * The longest a span waits in a partly full batch before the batch is written.
+     */
+    @NotNull
+    @MinDuration(1)
+    @JsonProperty
+    private Duration flushInterval = Duration.seconds(1);
+
+    /**
+     * What happens to a span when the queue is full.
+     */
+    @NotNull
+    @JsonProperty
+    private DropPolicy dropPolicy = DropPolicy.DROP_NEWEST;
+
+    /**
+     * For {@link DropPolicy#WAIT}, how long to wait for room in the queue.
+     */
+    @NotNull
+    @JsonProperty
+    private Duration offerTimeout = Duration.milliseconds(10);
+
+    /**
+     * Where the spans are written.
+     */
+    @NotNull
+    @JsonProperty
+    private SpanSinkType sink = SpanSinkType.JAEGER;
+
+    /**
+     * For {@link SpanSinkType#FILE}, the file the spans are appended to.
+     */
+    @JsonProperty
+    private String file = "spans.json";
+
+    /**
+     * For {@link SpanSinkType#MEMORY}, the number of recent spans kept.
+     */
+    @Min(1)
+    @JsonProperty
+    private int memoryCapacity = 10_000;
+
+    /**
+     * @return
+     *          The number of spans the queue holds.
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * @return
+     *          The most spans written at once.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return
+     *          The longest a span waits before its batch is written.
+     */
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * @return
+     *          What happens to a span when the queue is full.
+     */
+    public DropPolicy getDropPolicy() {
+        return dropPolicy;
+    }
+
+    /**
+     * @return
+     *          How long to wait for room in the queue.
+     */
+    public Duration getOfferTimeout() {
+        return offerTimeout;
+    }
+
+    /**
+     * @return
+     *          Where the spans are written.
+     */
+    public SpanSinkType getSink() {
+        return sink;
+    }
+
+    /**
+     * @return
+     *          The file the spans are appended to.
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * @return
+     *          The number of recent spans kept in memory.
+     */
+    public int getMemoryCapacity() {
+        return memoryCapacity;
+    }
+}
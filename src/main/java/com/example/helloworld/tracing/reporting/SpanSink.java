@@ -0,0 +1,27 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.reporting;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+import io.jaegertracing.internal.JaegerSpan;
+
+/**
+ * Where the {@link BatchingReporter} writes batches of finished spans.
+ *
+ * <p>A sink is only ever called from the reporter's flush thread, so it need not be thread safe.</p>
+ */
+public interface SpanSink extends Closeable {
+
+    /**
+     * Write a batch of spans.
+     * @param spans
+     *          The spans, in the order they finished.
+     * @throws IOException
+     *          If the spans cannot be written. The batch is discarded.
+     */
+    void write(List<JaegerSpan> spans) throws IOException;
+}
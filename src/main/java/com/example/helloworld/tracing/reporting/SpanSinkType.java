@@ -0,0 +1,25 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.reporting;
+
+/**
+ * Where batches of finished spans are written.
+ */
+public enum SpanSinkType {
+
+    /**
+     * To the Jaeger agent or collector configured by the Jaeger environment variables. See {@link JaegerSpanSink}.
+     */
+    JAEGER,
+
+    /**
+     * To a file, one JSON object per line. See {@link FileSpanSink}.
+     */
+    FILE,
+
+    /**
+     * To a bounded list in memory. See {@link InMemorySpanSink}.
+     */
+    MEMORY
+}
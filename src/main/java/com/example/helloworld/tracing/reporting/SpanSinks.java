@@ -0,0 +1,51 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.reporting;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
+import io.jaegertracing.Configuration.SenderConfiguration;
+
+/**
+ * Creates the configured {@link SpanSink}.
+ */
+public final class SpanSinks {
+
+    /**
+     * Create a span sink.
+     * @param configuration
+     *          The reporter configuration.
+     * @return
+     *          The span sink.
+     * @throws UncheckedIOException
+     *          If the file for a file sink cannot be opened.
+     */
+    public static SpanSink create(final SpanReportingConfiguration configuration) {
+        switch (configuration.getSink()) {
+            case FILE:
+                try {
+                    return new FileSpanSink(Paths.get(configuration.getFile()));
+                }
+                catch (final IOException e) {
+                    throw new UncheckedIOException("Cannot open the span file " + configuration.getFile() + ".", e);
+                }
+
+            case MEMORY:
+                return new InMemorySpanSink(configuration.getMemoryCapacity());
+
+            case JAEGER:
+            default:
+                return new JaegerSpanSink(SenderConfiguration.fromEnv().getSender());
+        }
+    }
+
+    /**
+     * Cannot instantiate.
+     */
+    private SpanSinks() {
+        super();
+    }
+}
@@ -0,0 +1,288 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.sampling;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.jaegertracing.internal.Constants;
+import io.jaegertracing.internal.samplers.SamplingStatus;
+import io.jaegertracing.spi.Sampler;
+
+/**
+ * A {@link Sampler} that adjusts the sampling probability of each operation so that each operation samples about
+ * the same number of spans a second, however busy it is.
+ *
+ * <p>Each operation starts by sampling everything. At the end of each adjustment interval the operation's probability
+ * is set to the target number of spans for the interval divided by the number of new traces seen in it, but never
+ * less than the minimum probability. A quiet operation is therefore always sampled, and a busy one is sampled just
+ * often enough to meet the target.</p>
+ *
+ * <p>The decision is made from the trace id, in the same way as the
+ * {@link io.jaegertracing.internal.samplers.ProbabilisticSampler}, so it needs no lock and no random numbers. The
+ * probability is recalculated by whichever thread first notices that the interval has ended.</p>
+ *
+ * <p>The number of operations tracked is bounded. Once the limit is reached, new operation names share one
+ * probability.</p>
+ */
+public final class AdaptiveSampler implements Sampler {
+
+    /**
+     * The sampler type reported in the {@code sampler.type} span tag.
+     */
+    public static final String TYPE = "adaptive";
+
+    /**
+     * The most operations that get their own probability.
+     */
+    private static final int MAX_OPERATIONS = 1000;
+
+    /**
+     * The number of spans to sample in each interval for each operation.
+     */
+    private final double targetSpansPerInterval;
+
+    /**
+     * The lowest probability used.
+     */
+    private final double minimumProbability;
+
+    /**
+     * The length of the adjustment interval in nanoseconds.
+     */
+    private final long intervalNanos;
+
+    /**
+     * The state for each operation.
+     */
+    private final ConcurrentMap<String, Operation> operations = new ConcurrentHashMap<>();
+
+    /**
+     * The state shared by operations that arrive after {@link #MAX_OPERATIONS} have been seen.
+     */
+    private final Operation overflow;
+
+    /**
+     * Constructor.
+     * @param targetSpansPerSecond
+     *          The number of spans to sample a second for each operation.
+     * @param theMinimumProbability
+     *          The lowest probability to sample an operation with.
+     * @param interval
+     *          How often to recalculate each operation's probability.
+     * @param unit
+     *          The unit of the interval.
+     * @throws IllegalArgumentException
+     *          If the target or the interval is not positive, or the minimum probability is not between {@code 0.0}
+     *          and {@code 1.0}.
+     */
+    public AdaptiveSampler(final double targetSpansPerSecond,
+                           final double theMinimumProbability,
+                           final long interval,
+                           final TimeUnit unit) {
+        if (targetSpansPerSecond <= 0.0) {
+            throw new IllegalArgumentException("The target spans per second must be positive: " +
+                                               targetSpansPerSecond + ".");
+        }
+        if (theMinimumProbability < 0.0 || theMinimumProbability > 1.0) {
+            throw new IllegalArgumentException("The minimum probability must be between 0.0 and 1.0: " +
+                                               theMinimumProbability + ".");
+        }
+        if (interval <= 0) {
+            throw new IllegalArgumentException("The adjustment interval must be positive: " + interval + ".");
+        }
+
+        intervalNanos = unit.toNanos(interval);
+        targetSpansPerInterval = targetSpansPerSecond * intervalNanos / TimeUnit.SECONDS.toNanos(1);
+        minimumProbability = theMinimumProbability;
+        overflow = new Operation(System.nanoTime());
+    }
+
+    /**
+     * Decide whether to sample a new trace.
+     * @param operation
+     *          The operation name of the root span.
+     * @param id
+     *          The trace id.
+     * @return
+     *          The decision, with the sampler tags if the trace is sampled.
+     * @see io.jaegertracing.spi.Sampler#sample(java.lang.String, long)
+     */
+    @Override
+    public SamplingStatus sample(final String operation, final long id) {
+        final long now = System.nanoTime();
+        final Operation state = operationFor(operation, now);
+        state.seen.increment();
+        state.adjust(now);
+        return state.decision.sample(id);
+    }
+
+    /**
+     * Get the current probability for an operation.
+     * @param operation
+     *          The operation name.
+     * @return
+     *          The probability that a new trace for the operation is sampled.
+     */
+    public double getProbability(final String operation) {
+        final Operation state = operations.get(operation);
+        return (state == null ? overflow : state).decision.probability;
+    }
+
+    /**
+     * Nothing to release.
+     * @see io.jaegertracing.spi.Sampler#close()
+     */
+    @Override
+    public void close() {
+        // Nothing to do.
+    }
+
+    /**
+     * @return
+     *          A description of the sampler.
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "AdaptiveSampler(targetSpansPerInterval=" + targetSpansPerInterval + ", minimumProbability=" +
+               minimumProbability + ", intervalNanos=" + intervalNanos + ", operations=" + operations.size() + ")";
+    }
+
+    /**
+     * Get the state for an operation, creating it if there is room.
+     * @param operation
+     *          The operation name.
+     * @param now
+     *          The current {@link System#nanoTime()}.
+     * @return
+     *          The operation's state.
+     */
+    private Operation operationFor(final String operation, final long now) {
+        final Operation state = operations.get(operation);
+        if (state != null) {
+            return state;
+        }
+        if (operations.size() >= MAX_OPERATIONS) {
+            return overflow;
+        }
+        return operations.computeIfAbsent(operation, name -> new Operation(now));
+    }
+
+    /**
+     * The sampling state of one operation.
+     */
+    private final class Operation {
+
+        /**
+         * The number of new traces seen in the current interval.
+         */
+        final LongAdder seen = new LongAdder();
+
+        /**
+         * When the current interval started, in {@link System#nanoTime()} units.
+         */
+        final AtomicLong intervalStart;
+
+        /**
+         * The current decision.
+         */
+        volatile Decision decision = new Decision(1.0);
+
+        /**
+         * Constructor.
+         * @param now
+         *          The current {@link System#nanoTime()}.
+         */
+        Operation(final long now) {
+            intervalStart = new AtomicLong(now);
+        }
+
+        /**
+         * Recalculate the probability if the interval has ended.
+         * @param now
+         *          The current {@link System#nanoTime()}.
+         */
+        void adjust(final long now) {
+            final long start = intervalStart.get();
+            final long elapsed = now - start;
+            if (elapsed < intervalNanos || !intervalStart.compareAndSet(start, now)) {
+                return;
+            }
+
+            // Scale the target to the actual length of the interval, which is longer if the operation was idle.
+            final double target = targetSpansPerInterval * elapsed / intervalNanos;
+            final long count = seen.sumThenReset();
+            final double probability = Math.max(minimumProbability, Math.min(1.0, target / Math.max(1L, count)));
+            if (probability != decision.probability) {
+                decision = new Decision(probability);
+            }
+        }
+    }
+
+    /**
+     * A sampling decision for a probability, precomputed so that sampling a trace allocates nothing.
+     */
+    private static final class Decision {
+
+        /**
+         * The probability.
+         */
+        final double probability;
+
+        /**
+         * Positive trace ids up to this are sampled.
+         */
+        final long positiveBoundary;
+
+        /**
+         * Negative trace ids down to this are sampled.
+         */
+        final long negativeBoundary;
+
+        /**
+         * The result for a sampled trace.
+         */
+        final SamplingStatus sampled;
+
+        /**
+         * The result for a trace that is not sampled.
+         */
+        final SamplingStatus notSampled;
+
+        /**
+         * Constructor.
+         * @param theProbability
+         *          The probability.
+         */
+        Decision(final double theProbability) {
+            probability = theProbability;
+            positiveBoundary = (long) (Long.MAX_VALUE * theProbability);
+            negativeBoundary = (long) (Long.MIN_VALUE * theProbability);
+
+            final Map<String, Object> tags = new HashMap<>(2);
+            tags.put(Constants.SAMPLER_TYPE_TAG_KEY, TYPE);
+            tags.put(Constants.SAMPLER_PARAM_TAG_KEY, Double.valueOf(theProbability));
+            sampled = SamplingStatus.of(true, tags);
+            notSampled = SamplingStatus.of(false, tags);
+        }
+
+        /**
+         * Decide whether to sample a trace.
+         * @param id
+         *          The trace id.
+         * @return
+         *          The decision.
+         */
+        SamplingStatus sample(final long id) {
+            final boolean isSampled = id > 0 ? id <= positiveBoundary : id >= negativeBoundary;
+            return isSampled ? sampled : notSampled;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.sampling;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+
+import io.jaegertracing.internal.samplers.SamplingStatus;
+import io.jaegertracing.spi.Sampler;
+
+/**
+ * A {@link Sampler} that records the decisions made by another sampler.
+ *
+ * <p>These metrics are registered:</p>
+ * <ul>
+ *  <li>{@code MeteredSampler.decisions}: the rate of new traces.</li>
+ *  <li>{@code MeteredSampler.sampled}: the rate of new traces that were sampled.</li>
+ *  <li>{@code MeteredSampler.rate}: the fraction of new traces sampled over the last minute.</li>
+ * </ul>
+ *
+ * <p>Jaeger only asks the sampler about traces that start in this service. A span that continues a trace from
+ * upstream keeps the upstream sampled flag, so it is not counted here.</p>
+ */
+public final class MeteredSampler implements Sampler {
+
+    /**
+     * The sampler that makes the decisions.
+     */
+    private final Sampler delegate;
+
+    /**
+     * The rate of decisions.
+     */
+    private final Meter decisions;
+
+    /**
+     * The rate of traces sampled.
+     */
+    private final Meter sampled;
+
+    /**
+     * Constructor.
+     * @param theDelegate
+     *          The sampler that makes the decisions.
+     * @param metrics
+     *          The registry for the sampler metrics.
+     */
+    public MeteredSampler(final Sampler theDelegate, final MetricRegistry metrics) {
+        delegate = theDelegate;
+        decisions = metrics.meter(MetricRegistry.name(MeteredSampler.class, "decisions"));
+        sampled = metrics.meter(MetricRegistry.name(MeteredSampler.class, "sampled"));
+        metrics.register(MetricRegistry.name(MeteredSampler.class, "rate"), new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                return Ratio.of(sampled.getOneMinuteRate(), decisions.getOneMinuteRate());
+            }
+        });
+    }
+
+    /**
+     * Decide whether to sample a new trace, and record the decision.
+     * @param operation
+     *          The operation name of the root span.
+     * @param id
+     *          The trace id.
+     * @return
+     *          The delegate's decision.
+     * @see io.jaegertracing.spi.Sampler#sample(java.lang.String, long)
+     */
+    @Override
+    public SamplingStatus sample(final String operation, final long id) {
+        final SamplingStatus status = delegate.sample(operation, id);
+        decisions.mark();
+        if (status.isSampled()) {
+            sampled.mark();
+        }
+        return status;
+    }
+
+    /**
+     * Close the delegate.
+     * @see io.jaegertracing.spi.Sampler#close()
+     */
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * @return
+     *          A description of the delegate.
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "MeteredSampler(" + delegate + ")";
+    }
+}
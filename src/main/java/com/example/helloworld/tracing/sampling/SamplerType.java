@@ -0,0 +1,31 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.sampling;
+
+/**
+ * The strategies for deciding whether a new trace is sampled.
+ */
+public enum SamplerType {
+
+    /**
+     * Sample every trace, or none. See {@link io.jaegertracing.internal.samplers.ConstSampler}.
+     */
+    CONST,
+
+    /**
+     * Sample a fixed fraction of traces. See {@link io.jaegertracing.internal.samplers.ProbabilisticSampler}.
+     */
+    PROBABILISTIC,
+
+    /**
+     * Sample at most a fixed number of traces a second. See
+     * {@link io.jaegertracing.internal.samplers.RateLimitingSampler}.
+     */
+    RATE_LIMITING,
+
+    /**
+     * Adjust the sampling probability of each operation to meet a target throughput. See {@link AdaptiveSampler}.
+     */
+    ADAPTIVE
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.sampling;
+
+import java.util.concurrent.TimeUnit;
+
+import io.jaegertracing.internal.samplers.ConstSampler;
+import io.jaegertracing.internal.samplers.ProbabilisticSampler;
+import io.jaegertracing.internal.samplers.RateLimitingSampler;
+import io.jaegertracing.spi.Sampler;
+
+/**
+ * Creates the configured {@link Sampler}.
+ */
+public final class Samplers {
+
+    /**
+     * Create a sampler.
+     * @param configuration
+     *          The sampler configuration.
+     * @return
+     *          The sampler.
+     */
+    public static Sampler create(final SamplingConfiguration configuration) {
+        switch (configuration.getType()) {
+            case PROBABILISTIC:
+                return new ProbabilisticSampler(configuration.getProbability());
+
+            case RATE_LIMITING:
+                return new RateLimitingSampler(configuration.getMaxTracesPerSecond());
+
+            case ADAPTIVE:
+                return new AdaptiveSampler(configuration.getTargetSpansPerSecond(),
+                                           configuration.getMinimumProbability(),
+                                           configuration.getAdjustmentInterval().toNanoseconds(),
+                                           TimeUnit.NANOSECONDS);
+
+            case CONST:
+            default:
+                return new ConstSampler(configuration.isSampled());
+        }
+    }
+
+    /**
+     * Cannot instantiate.
+     */
+    private Samplers() {
+        super();
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.sampling;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.dropwizard.util.Duration;
+import io.dropwizard.validation.MinDuration;
+
+/**
+ * The configuration of the trace sampler.
+ *
+ * <p>Only the settings for the chosen {@link SamplerType} are used. For example:</p>
+ * <pre>
+ * sampler:
+ *   type: adaptive
+ *   targetSpansPerSecond: 2.0
+ *   minimumProbability: 0.001
+ *   adjustmentInterval: 10s
+ * </pre>
+ */
+public class SamplingConfiguration {
+
+    /**
+     * The sampling strategy.
+     */
+    @NotNull
+    @JsonProperty
+    private SamplerType type = SamplerType.CONST;
+
+    /**
+     * For {@link SamplerType#CONST}, whether every trace is sampled.
+     */
+    @JsonProperty
+    private boolean sampled = true;
+
+    /**
+     * For {@link SamplerType#PROBABILISTIC}, the fraction of traces to sample.
+     */
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    @JsonProperty
+    private double probability = 0.001;
+
+    /**
+     * For {@link SamplerType#RATE_LIMITING}, the maximum number of traces to sample a second.
+     */
+    @DecimalMin("0.0")
+    @JsonProperty
+    private double maxTracesPerSecond = 2.0;
+
+    /**
+     * For {@link SamplerType#ADAPTIVE}, the number of spans to sample a second for each operation.
+     */
+    @DecimalMin(value = "0.0", inclusive = false)
+    @JsonProperty
+    private double targetSpansPerSecond = 1.0;
+
+    /**
+     * For {@link SamplerType#ADAPTIVE}, the lowest probability an operation is sampled with, however busy it is.
+     */
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    @JsonProperty
+    private double minimumProbability = 0.0001;
+
+    /**
+     * For {@link SamplerType#ADAPTIVE}, how often each operation's probability is recalculated.
+     */
+    @NotNull
+    @MinDuration(1)
+    @JsonProperty
+    private Duration adjustmentInterval = Duration.seconds(10);
+
+    /**
+     * @return
+     *          The sampling strategy.
+     */
+    public SamplerType getType() {
+        return type;
+    }
+
+    /**
+     * @return
+     *          {@code true} if a constant sampler samples every trace.
+     */
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    /**
+     * @return
+     *          The fraction of traces a probabilistic sampler samples.
+     */
+    public double getProbability() {
+        return probability;
+    }
+
+    /**
+     * @return
+     *          The maximum number of traces a rate limiting sampler samples a second.
+     */
+    public double getMaxTracesPerSecond() {
+        return maxTracesPerSecond;
+    }
+
+    /**
+     * @return
+     *          The number of spans an adaptive sampler aims to sample a second for each operation.
+     */
+    public double getTargetSpansPerSecond() {
+        return targetSpansPerSecond;
+    }
+
+    /**
+     * @return
+     *          The lowest probability an adaptive sampler uses.
+     */
+    public double getMinimumProbability() {
+        return minimumProbability;
+    }
+
+    /**
+     * @return
+     *          How often an adaptive sampler recalculates each operation's probability.
+     */
+    public Duration getAdjustmentInterval() {
+        return adjustmentInterval;
+    }
+}
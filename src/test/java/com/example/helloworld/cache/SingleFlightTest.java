@@ -0,0 +1,222 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.codahale.metrics.Meter;
+
+/**
+ * Tests for {@link SingleFlight}.
+ */
+public class SingleFlightTest {
+
+    /**
+     * The number of threads that ask for a key while it is being computed.
+     */
+    private static final int FOLLOWERS = 8;
+
+    /**
+     * Marked for each coalesced request.
+     */
+    private final Meter coalesced = new Meter();
+
+    /**
+     * The coalescer being tested.
+     */
+    private final SingleFlight<String, Object> flights = new SingleFlight<>(coalesced);
+
+    /**
+     * Runs the leader and the followers.
+     */
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+
+    /**
+     * Stop the threads.
+     */
+    @After
+    public void tearDown() {
+        threads.shutdownNow();
+    }
+
+    /**
+     * A request on its own computes the value, and the value is not kept.
+     */
+    @Test
+    public void loneRequestsComputeEachTime() {
+        final AtomicInteger computations = new AtomicInteger();
+        final Supplier<Object> computation = () -> Integer.valueOf(computations.incrementAndGet());
+
+        assertEquals(Integer.valueOf(1), flights.execute("key", computation));
+        assertEquals(Integer.valueOf(2), flights.execute("key", computation));
+        assertEquals(0, coalesced.getCount());
+    }
+
+    /**
+     * Requests for a key being computed wait for the computation and share its value.
+     * @throws Exception
+     *          If a request fails, or the test is interrupted.
+     */
+    @Test
+    public void concurrentRequestsShareOneComputation() throws Exception {
+        final Object value = new Object();
+        final CountDownLatch release = new CountDownLatch(1);
+        final Future<Object> leader = lead("key", () -> {
+            await(release);
+            return value;
+        });
+
+        final List<Future<Object>> followers = follow("key");
+        release.countDown();
+
+        assertSame(value, leader.get(5, TimeUnit.SECONDS));
+        for (final Future<Object> follower : followers) {
+            assertSame(value, follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(FOLLOWERS, coalesced.getCount());
+    }
+
+    /**
+     * Requests for a key being computed get the exception the computation throws, and the key is forgotten.
+     * @throws Exception
+     *          If the test is interrupted.
+     */
+    @Test
+    public void exceptionIsSharedAndForgotten() throws Exception {
+        final IllegalStateException failure = new IllegalStateException("Failed to render.");
+        final CountDownLatch release = new CountDownLatch(1);
+        final Future<Object> leader = lead("key", () -> {
+            await(release);
+            throw failure;
+        });
+
+        final List<Future<Object>> followers = follow("key");
+        release.countDown();
+
+        assertSame(failure, causeOf(leader));
+        for (final Future<Object> follower : followers) {
+            assertSame(failure, causeOf(follower));
+        }
+
+        // The failure isn't remembered.
+        assertEquals("value", flights.execute("key", () -> "value"));
+    }
+
+    /**
+     * A request for another key doesn't wait for a computation in progress.
+     * @throws Exception
+     *          If a request fails, or the test is interrupted.
+     */
+    @Test
+    public void otherKeysAreComputedSeparately() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Future<Object> leader = lead("a", () -> {
+            await(release);
+            return "a";
+        });
+
+        assertEquals("b", flights.execute("b", () -> "b"));
+        assertEquals(0, coalesced.getCount());
+        release.countDown();
+        assertEquals("a", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Start computing a key on another thread, and wait until the computation has started.
+     * @param key
+     *          The key.
+     * @param computation
+     *          The computation.
+     * @return
+     *          The leader's result.
+     * @throws InterruptedException
+     *          If interrupted while waiting.
+     */
+    private Future<Object> lead(final String key, final Supplier<Object> computation) throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final Future<Object> leader = threads.submit(() -> flights.execute(key, () -> {
+            started.countDown();
+            return computation.get();
+        }));
+        assertTrue("The computation didn't start.", started.await(5, TimeUnit.SECONDS));
+        return leader;
+    }
+
+    /**
+     * Ask for a key being computed on other threads, and wait until they are all waiting for the computation.
+     * @param key
+     *          The key.
+     * @return
+     *          The followers' results.
+     * @throws InterruptedException
+     *          If interrupted while waiting.
+     */
+    private List<Future<Object>> follow(final String key) throws InterruptedException {
+        final List<Future<Object>> followers = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers.add(threads.submit(() -> flights.execute(key, () -> {
+                fail("A follower computed the value.");
+                return null;
+            })));
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalesced.getCount() < FOLLOWERS && System.nanoTime() - deadline < 0) {
+            Thread.sleep(1);
+        }
+        assertEquals(FOLLOWERS, coalesced.getCount());
+        return followers;
+    }
+
+    /**
+     * Get what a request threw.
+     * @param request
+     *          The request.
+     * @return
+     *          The exception.
+     * @throws Exception
+     *          If the request succeeded, or the test is interrupted.
+     */
+    private static Throwable causeOf(final Future<Object> request) throws Exception {
+        try {
+            request.get(5, TimeUnit.SECONDS);
+        }
+        catch (final ExecutionException e) {
+            return e.getCause();
+        }
+        throw new AssertionError("The request didn't fail.");
+    }
+
+    /**
+     * Wait for a latch in a computation.
+     * @param latch
+     *          The latch.
+     */
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.concurrency;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+import io.dropwizard.jackson.Jackson;
+
+/**
+ * Tests for the {@link ConcurrencyLimiter}, with the response times passed in.
+ */
+public class ConcurrencyLimiterTest {
+
+    /**
+     * The length of a window.
+     */
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * The normal response time.
+     */
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * The response time under overload.
+     */
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * The limiter being tested.
+     */
+    private ConcurrencyLimiter limiter;
+
+    /**
+     * The end of the last window.
+     */
+    private long time;
+
+    /**
+     * Create a limiter that starts at 20, between 5 and 40, and moves straight to each new limit.
+     * @throws Exception
+     *          If the configuration cannot be read.
+     */
+    @Before
+    public void setUp() throws Exception {
+        limiter = new ConcurrencyLimiter(Jackson.newObjectMapper()
+                                                .readValue("{\"initialLimit\":20,\"minLimit\":5,\"maxLimit\":40," +
+                                                           "\"smoothing\":1.0,\"window\":\"100ms\",\"minSamples\":1}",
+                                                           ConcurrencyLimitConfiguration.class),
+                                         new MetricRegistry());
+
+        // End the first window with one response, so the windows end at known times.
+        time = System.nanoTime() + WINDOW;
+        assertTrue(limiter.tryAcquire());
+        limiter.release(time - FAST, time, true);
+        assertEquals(20, limiter.getLimit());
+    }
+
+    /**
+     * Requests over the limit are shed, and released requests make room.
+     */
+    @Test
+    public void requestsOverTheLimitAreShed() {
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+        assertEquals(20, limiter.getInFlight());
+
+        limiter.release(time, time, false);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    /**
+     * Steady response times with the limit in use raise the limit, up to the maximum.
+     */
+    @Test
+    public void limitGrowsToTheMaximum() {
+        window(FAST);
+        assertTrue(limiter.getLimit() > 20);
+        for (int i = 0; i < 10; i++) {
+            window(FAST);
+        }
+        assertEquals(40, limiter.getLimit());
+    }
+
+    /**
+     * The limit isn't raised while the requests in flight stay below half of it.
+     */
+    @Test
+    public void limitIsNotRaisedWhenUntested() {
+        for (int i = 0; i < 10; i++) {
+            window(FAST, 5);
+        }
+        assertEquals(20, limiter.getLimit());
+    }
+
+    /**
+     * A rise in response times lowers the limit, by at most half each window, down to the minimum.
+     */
+    @Test
+    public void limitFallsWhenResponseTimesRise() {
+        for (int i = 0; i < 10; i++) {
+            window(FAST);
+        }
+        final int before = limiter.getLimit();
+
+        window(SLOW);
+        final int after = limiter.getLimit();
+        assertTrue(after < before);
+        assertTrue(after >= before / 2);
+
+        for (int i = 0; i < 10; i++) {
+            window(SLOW);
+        }
+        assertEquals(5, limiter.getLimit());
+    }
+
+    /**
+     * Run a window with as many requests in flight as the limit allows.
+     * @param rtt
+     *          The response time of each request.
+     */
+    private void window(final long rtt) {
+        window(rtt, limiter.getLimit());
+    }
+
+    /**
+     * Run a window: admit requests together, and release them at the end of the window.
+     * @param rtt
+     *          The response time of each request.
+     * @param requests
+     *          The number of requests.
+     */
+    private void window(final long rtt, final int requests) {
+        for (int i = 0; i < requests; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        time += WINDOW;
+        // The last release ends the window, so the window's samples are all from these requests.
+        for (int i = 1; i < requests; i++) {
+            limiter.release(time - 1 - rtt, time - 1, true);
+        }
+        limiter.release(time - rtt, time, true);
+    }
+}
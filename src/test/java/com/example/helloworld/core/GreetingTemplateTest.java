@@ -0,0 +1,106 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link GreetingTemplate} parser, against {@link String#format(String, Object...)}.
+ */
+public class GreetingTemplateTest {
+
+    /**
+     * The names to render.
+     */
+    private static final String[] NAMES = {"Stranger", "", "100%", "%s", "$1", null};
+
+    /**
+     * Templates with each supported specifier render exactly as {@code String.format} does.
+     */
+    @Test
+    public void rendersAsStringFormat() {
+        final String[] templates = {
+            "Hello, %s!",
+            "Hello, %1$s!",
+            "%s",
+            "%1$s, %1$s and %s",
+            "%s and %1$s",
+            "100%% sure, %s",
+            "%%s is not a placeholder",
+            "First line%nSecond line, %s",
+            "No name at all",
+            "",
+            "%%%n%%",
+        };
+        for (final String template : templates) {
+            final GreetingTemplate compiled = GreetingTemplate.compile(template);
+            assertEquals(template, compiled.getSource());
+            for (final String name : NAMES) {
+                assertEquals(template + " with " + name, String.format(template, name), compiled.render(name));
+            }
+        }
+    }
+
+    /**
+     * The placeholders are counted, including repeats of the name.
+     */
+    @Test
+    public void countsPlaceholders() {
+        assertEquals(0, GreetingTemplate.compile("Hello, world!%n").getPlaceholderCount());
+        assertEquals(1, GreetingTemplate.compile("Hello, %s!").getPlaceholderCount());
+        assertEquals(3, GreetingTemplate.compile("%1$s, %1$s and %s").getPlaceholderCount());
+    }
+
+    /**
+     * Rendering into a buffer appends to what is already there.
+     */
+    @Test
+    public void rendersIntoABuffer() {
+        final StringBuilder buffer = new StringBuilder("> ");
+        GreetingTemplate.compile("Hello, %s!").renderTo(buffer, "Ada");
+        assertEquals("> Hello, Ada!", buffer.toString());
+    }
+
+    /**
+     * Unsupported specifiers are rejected with the index where they start.
+     */
+    @Test
+    public void rejectsUnsupportedSpecifiers() {
+        assertRejectedAt("Hello, %d!", 7);
+        assertRejectedAt("Hello, %-s!", 7);
+        assertRejectedAt("Hello, %s and %s!", 14);
+        assertRejectedAt("Hello, %s%", 9);
+        assertRejectedAt("%2$s", 0);
+    }
+
+    /**
+     * A {@code null} template is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNull() {
+        GreetingTemplate.compile(null);
+    }
+
+    /**
+     * Check that a template is rejected because of the specifier at an index.
+     * @param template
+     *          The template.
+     * @param index
+     *          The index of the unsupported specifier.
+     */
+    private static void assertRejectedAt(final String template, final int index) {
+        try {
+            GreetingTemplate.compile(template);
+            fail("\"" + template + "\" was compiled.");
+        }
+        catch (final IllegalArgumentException e) {
+            final String expected = "Unsupported format specifier at index " + index + " ";
+            assertTrue(e.getMessage(), e.getMessage().startsWith(expected));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.dropwizard.jackson.Jackson;
+
+/**
+ * Tests that a {@link PrerenderedGreeting} is written exactly as a {@link Saying} is, by {@link SayingJson} and by
+ * Jackson.
+ */
+public class PrerenderedGreetingTest {
+
+    /**
+     * The ids to write.
+     */
+    private static final long[] IDS = {0, 1, 9, 10, 12_345, -1, -10, Long.MAX_VALUE, Long.MIN_VALUE};
+
+    /**
+     * The contents to write.
+     */
+    private static final String[] CONTENTS = {
+        "",
+        "Hello, Stranger!",
+        "Quotes \" and backslashes \\ and slashes /",
+        "Control \b\f\n\r\t\u0000\u0001\u001f and delete \u007f",
+        "Non-ASCII: caf\u00e9, \u00df, \u0416, \u20ac, \u2028, \uffff",
+        "Surrogate pair: \ud83d\ude00!",
+        "Lone surrogates: \ud83d and \ude00",
+    };
+
+    /**
+     * Reads and writes JSON as the application's Jackson provider does.
+     */
+    private final ObjectMapper mapper = Jackson.newObjectMapper();
+
+    /**
+     * The prerendered greeting writes the same bytes as a saying with the same id and content.
+     */
+    @Test
+    public void prerenderedMatchesSaying() {
+        for (final String content : CONTENTS) {
+            final PrerenderedGreeting greeting = new PrerenderedGreeting(content);
+            for (final long id : IDS) {
+                assertArrayEquals(describe(id, content),
+                                  SayingJson.toBytes(new Saying(id, content)),
+                                  SayingJson.toBytes(greeting.withId(id)));
+            }
+        }
+    }
+
+    /**
+     * A saying is written with the same bytes as Jackson writes it, and the JSON reads back as the same id and
+     * content.
+     * @throws Exception
+     *          If Jackson cannot write or read the JSON.
+     */
+    @Test
+    public void sayingMatchesJackson() throws Exception {
+        for (final String content : CONTENTS) {
+            for (final long id : IDS) {
+                final Saying saying = new Saying(id, content);
+                final byte[] json = SayingJson.toBytes(saying);
+                assertEquals(describe(id, content),
+                             new String(mapper.writeValueAsBytes(saying), StandardCharsets.UTF_8),
+                             new String(json, StandardCharsets.UTF_8));
+                assertArrayEquals(describe(id, content), mapper.writeValueAsBytes(saying), json);
+
+                final JsonNode read = mapper.readTree(json);
+                assertEquals(id, read.get("id").longValue());
+                assertEquals(content, read.get("content").textValue());
+            }
+        }
+    }
+
+    /**
+     * A saying written to a stream is the same as its bytes, including when the content is bigger than the initial
+     * buffer.
+     * @throws Exception
+     *          If the stream cannot be written to.
+     */
+    @Test
+    public void streamMatchesBytes() throws Exception {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            content.append("caf\u00e9 \ud83d\ude00 \"").append(i).append("\" ");
+        }
+        final Saying saying = new PrerenderedGreeting(content.toString()).withId(42);
+
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        final int written = SayingJson.write(saying, stream);
+        assertEquals(stream.size(), written);
+        assertArrayEquals(SayingJson.toBytes(new Saying(42, content.toString())), stream.toByteArray());
+    }
+
+    /**
+     * Describe a saying for an assertion message.
+     * @param id
+     *          The id.
+     * @param content
+     *          The content.
+     * @return
+     *          The description.
+     */
+    private static String describe(final long id, final String content) {
+        final StringBuilder description = new StringBuilder("id ").append(id).append(", content ");
+        for (int i = 0; i < content.length(); i++) {
+            description.append(String.format("\\u%04x", Integer.valueOf(content.charAt(i))));
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,429 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.health;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.HealthCheck.Result;
+
+import io.dropwizard.util.Duration;
+
+/**
+ * Tests for the {@link ScheduledHealthCheck}, with a check that blocks until it is released and a scheduler that
+ * runs its tasks when the test says so.
+ */
+public class ScheduledHealthCheckTest {
+
+    /**
+     * The time from the end of one run to the start of the next.
+     */
+    private static final Duration PERIOD = Duration.seconds(10);
+
+    /**
+     * The longest a run may take.
+     */
+    private static final Duration TIMEOUT = Duration.milliseconds(100);
+
+    /**
+     * The check that is run.
+     */
+    private BlockingCheck delegate;
+
+    /**
+     * The scheduler.
+     */
+    private ManualScheduler scheduler;
+
+    /**
+     * Runs the check.
+     */
+    private ExecutorService runner;
+
+    /**
+     * The check being tested.
+     */
+    private ScheduledHealthCheck check;
+
+    /**
+     * Create the check, and start it.
+     */
+    @Before
+    public void setUp() {
+        delegate = new BlockingCheck();
+        scheduler = new ManualScheduler();
+        runner = Executors.newSingleThreadExecutor();
+        check = new ScheduledHealthCheck("blocking", delegate, PERIOD, TIMEOUT, scheduler, runner);
+        check.start();
+    }
+
+    /**
+     * Release the check and stop the runner.
+     */
+    @After
+    public void tearDown() {
+        delegate.release.countDown();
+        runner.shutdownNow();
+    }
+
+    /**
+     * The check is unhealthy until it has run.
+     */
+    @Test
+    public void unhealthyUntilRun() {
+        final Result result = check.execute();
+        assertFalse(result.isHealthy());
+        assertEquals("The blocking health check has not run yet.", result.getMessage());
+        assertEquals(0L, scheduler.nextDelay());
+    }
+
+    /**
+     * A run that overruns the timeout is interrupted and unhealthy, and the next run is a period later.
+     * @throws Exception
+     *          If the runner fails.
+     */
+    @Test
+    public void runTimesOut() throws Exception {
+        startRun();
+        assertEquals(TIMEOUT.toNanoseconds(), scheduler.nextDelay());
+
+        scheduler.runNext();
+        final Result result = check.execute();
+        assertFalse(result.isHealthy());
+        assertEquals("The blocking health check timed out after 100 ms.", result.getMessage());
+        assertEquals(PERIOD.toNanoseconds(), scheduler.nextDelay());
+
+        delegate.release.countDown();
+        awaitRunner();
+        assertTrue(delegate.interrupted);
+        assertFalse(check.execute().isHealthy());
+    }
+
+    /**
+     * While a timed out run has not returned, no new run is started, and the check says so.
+     * @throws Exception
+     *          If the runner fails.
+     */
+    @Test
+    public void hungRunIsNotRunAgain() throws Exception {
+        startRun();
+        scheduler.runNext();
+        scheduler.runNext();
+        final Result result = check.execute();
+        assertFalse(result.isHealthy());
+        assertEquals("The previous run of the blocking health check has not returned.", result.getMessage());
+        assertEquals(1, delegate.calls.get());
+        assertEquals(PERIOD.toNanoseconds(), scheduler.nextDelay());
+
+        scheduler.runNext();
+        assertEquals(1, delegate.calls.get());
+        assertEquals(1, scheduler.size());
+    }
+
+    /**
+     * Once a hung run returns, the next run is started on schedule, and a healthy result replaces the unhealthy one.
+     * @throws Exception
+     *          If the runner fails.
+     */
+    @Test
+    public void recoversWhenTheHungRunReturns() throws Exception {
+        startRun();
+        scheduler.runNext();
+        scheduler.runNext();
+        assertFalse(check.execute().isHealthy());
+
+        delegate.release.countDown();
+        awaitRunner();
+        scheduler.runNext();
+        awaitRunner();
+        assertEquals(2, delegate.calls.get());
+
+        final Result result = check.execute();
+        assertTrue(result.isHealthy());
+        assertTrue(result.getDetails().containsKey("checkedAt"));
+        assertTrue(result.getDetails().containsKey("durationMillis"));
+
+        // The run's timeout finds it ended, and only the next run is scheduled, a period later.
+        assertEquals(2, scheduler.size());
+        assertEquals(TIMEOUT.toNanoseconds(), scheduler.nextDelay());
+        scheduler.runNext();
+        assertTrue(check.execute().isHealthy());
+        assertEquals(1, scheduler.size());
+        assertEquals(PERIOD.toNanoseconds(), scheduler.nextDelay());
+    }
+
+    /**
+     * A run that times out before a runner thread is free to start it is never started, and doesn't hold up the next.
+     * @throws Exception
+     *          If the runner fails.
+     */
+    @Test
+    public void runThatTimesOutBeforeStartingIsDropped() throws Exception {
+        final CountDownLatch busy = new CountDownLatch(1);
+        runner.submit(() -> {
+            busy.await();
+            return null;
+        });
+
+        scheduler.runNext();
+        scheduler.runNext();
+        assertEquals("The blocking health check timed out after 100 ms.", check.execute().getMessage());
+
+        scheduler.runNext();
+        delegate.release.countDown();
+        busy.countDown();
+        awaitRunner();
+        assertEquals(1, delegate.calls.get());
+        assertTrue(check.execute().isHealthy());
+    }
+
+    /**
+     * Start a run, and wait until the runner has called the check.
+     * @throws Exception
+     *          If the check is not called.
+     */
+    private void startRun() throws Exception {
+        scheduler.runNext();
+        assertTrue(delegate.started.tryAcquire(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Wait until the runner has finished the runs submitted to it.
+     * @throws Exception
+     *          If the runner fails.
+     */
+    private void awaitRunner() throws Exception {
+        runner.submit(() -> null).get(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * A check that blocks, ignoring interrupts, until it is released, and is then healthy.
+     */
+    private static final class BlockingCheck extends HealthCheck {
+
+        /**
+         * Released to let the check return.
+         */
+        final CountDownLatch release = new CountDownLatch(1);
+
+        /**
+         * The number of times the check has been called.
+         */
+        final AtomicInteger calls = new AtomicInteger();
+
+        /**
+         * Released each time the check is called.
+         */
+        final Semaphore started = new Semaphore(0);
+
+        /**
+         * Set if the check was interrupted.
+         */
+        volatile boolean interrupted;
+
+        /**
+         * Wait until released.
+         * @return
+         *          A healthy result.
+         * @see com.codahale.metrics.health.HealthCheck#check()
+         */
+        @Override
+        protected Result check() {
+            calls.incrementAndGet();
+            started.release();
+            while (true) {
+                try {
+                    release.await();
+                    return Result.healthy();
+                }
+                catch (@SuppressWarnings("unused") final InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * A scheduler that queues its tasks in order of delay, and runs them when the test asks. Tasks with the same
+     * delay are run in the order they are scheduled.
+     */
+    private static final class ManualScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+
+        /**
+         * The tasks, with their delays.
+         */
+        private final List<Object[]> tasks = new ArrayList<>();
+
+        /**
+         * Run the first task.
+         */
+        void runNext() {
+            final Object[] task;
+            synchronized (tasks) {
+                task = tasks.remove(0);
+            }
+            ((Runnable) task[1]).run();
+        }
+
+        /**
+         * @return
+         *          The delay of the first task, in nanoseconds.
+         */
+        long nextDelay() {
+            synchronized (tasks) {
+                return delay(0);
+            }
+        }
+
+        /**
+         * @return
+         *          The number of tasks waiting.
+         */
+        int size() {
+            synchronized (tasks) {
+                return tasks.size();
+            }
+        }
+
+        /**
+         * Queue a task.
+         * @param command
+         *          The task.
+         * @param delay
+         *          The delay.
+         * @param unit
+         *          The unit of the delay.
+         * @return
+         *          {@code null}: the check doesn't use the future.
+         * @see java.util.concurrent.ScheduledExecutorService#schedule(java.lang.Runnable, long,
+         *      java.util.concurrent.TimeUnit)
+         */
+        @Override
+        public ScheduledFuture<?> schedule(final Runnable command, final long delay, final TimeUnit unit) {
+            final long delayNanos = unit.toNanos(delay);
+            synchronized (tasks) {
+                int index = tasks.size();
+                while (index > 0 && delay(index - 1) > delayNanos) {
+                    index--;
+                }
+                tasks.add(index, new Object[] {Long.valueOf(delayNanos), command});
+            }
+            return null;
+        }
+
+        /**
+         * @param index
+         *          The index of a task.
+         * @return
+         *          The delay of the task, in nanoseconds.
+         */
+        private long delay(final int index) {
+            return ((Long) tasks.get(index)[0]).longValue();
+        }
+
+        /**
+         * Not used.
+         * @see java.util.concurrent.ScheduledExecutorService#schedule(java.util.concurrent.Callable, long,
+         *      java.util.concurrent.TimeUnit)
+         */
+        @Override
+        public <V> ScheduledFuture<V> schedule(final Callable<V> callable, final long delay, final TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Not used.
+         * @see java.util.concurrent.ScheduledExecutorService#scheduleAtFixedRate(java.lang.Runnable, long, long,
+         *      java.util.concurrent.TimeUnit)
+         */
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(final Runnable command,
+                                                      final long initialDelay,
+                                                      final long period,
+                                                      final TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Not used.
+         * @see java.util.concurrent.ScheduledExecutorService#scheduleWithFixedDelay(java.lang.Runnable, long, long,
+         *      java.util.concurrent.TimeUnit)
+         */
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(final Runnable command,
+                                                         final long initialDelay,
+                                                         final long delay,
+                                                         final TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Queue a task with no delay.
+         * @see java.util.concurrent.Executor#execute(java.lang.Runnable)
+         */
+        @Override
+        public void execute(final Runnable command) {
+            schedule(command, 0, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * @see java.util.concurrent.ExecutorService#shutdown()
+         */
+        @Override
+        public void shutdown() {
+            // Nothing runs on its own.
+        }
+
+        /**
+         * @see java.util.concurrent.ExecutorService#shutdownNow()
+         */
+        @Override
+        public List<Runnable> shutdownNow() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * @see java.util.concurrent.ExecutorService#isShutdown()
+         */
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        /**
+         * @see java.util.concurrent.ExecutorService#isTerminated()
+         */
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        /**
+         * @see java.util.concurrent.ExecutorService#awaitTermination(long, java.util.concurrent.TimeUnit)
+         */
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) {
+            return false;
+        }
+    }
+}
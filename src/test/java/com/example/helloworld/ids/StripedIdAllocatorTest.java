@@ -0,0 +1,132 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.ids;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link StripedIdAllocator}.
+ */
+public class StripedIdAllocatorTest {
+
+    /**
+     * The number of threads allocating at once.
+     */
+    private static final int THREADS = 16;
+
+    /**
+     * The number of ids each thread allocates.
+     */
+    private static final int IDS_PER_THREAD = 20_000;
+
+    /**
+     * One thread gets consecutive ids, starting at 1, across blocks.
+     */
+    @Test
+    public void oneThreadGetsConsecutiveIds() {
+        final StripedIdAllocator allocator = new StripedIdAllocator(4, 8);
+        for (long expected = 1; expected <= 100; expected++) {
+            assertEquals(expected, allocator.next());
+        }
+    }
+
+    /**
+     * A reserved range is taken from the global counter, so it doesn't overlap a stripe's block.
+     */
+    @Test
+    public void reservedRangeFollowsTheBlocks() {
+        final StripedIdAllocator allocator = new StripedIdAllocator(1, 8);
+        assertEquals(1, allocator.next());
+        assertEquals(9, allocator.reserve(5));
+        assertEquals(2, allocator.next());
+        assertEquals(14, allocator.reserve(1));
+    }
+
+    /**
+     * A block is retired once the global counter has moved more than {@link StripedIdAllocator#STALE_BLOCKS} blocks
+     * per stripe past its limit, so a stripe doesn't go on handing out ids far behind the others.
+     */
+    @Test
+    public void staleBlockIsRetired() {
+        final StripedIdAllocator allocator = new StripedIdAllocator(1, 8);
+        assertEquals(1, allocator.next());
+
+        // The counter is exactly the allowed distance past the block's limit of 9, so the block is kept.
+        assertEquals(9, allocator.reserve(StripedIdAllocator.STALE_BLOCKS * 8));
+        assertEquals(2, allocator.next());
+
+        // One more, and the rest of the block is dropped.
+        assertEquals(25, allocator.reserve(1));
+        assertEquals(26, allocator.next());
+        assertEquals(27, allocator.next());
+    }
+
+    /**
+     * Threads sharing stripes get unique ids with the default sizes.
+     * @throws InterruptedException
+     *          If interrupted while waiting for the threads.
+     */
+    @Test
+    public void idsAreUniqueAcrossThreads() throws InterruptedException {
+        assertUnique(new StripedIdAllocator(4, 64));
+    }
+
+    /**
+     * Threads get unique ids when blocks are used up, and replaced, all the time.
+     * @throws InterruptedException
+     *          If interrupted while waiting for the threads.
+     */
+    @Test
+    public void idsAreUniqueWithTinyBlocks() throws InterruptedException {
+        assertUnique(new StripedIdAllocator(1, 1));
+        assertUnique(new StripedIdAllocator(2, 2));
+    }
+
+    /**
+     * Check that threads allocating at once never get the same id.
+     * @param allocator
+     *          The allocator.
+     * @throws InterruptedException
+     *          If interrupted while waiting for the threads.
+     */
+    private static void assertUnique(final IdAllocator allocator) throws InterruptedException {
+        final long[][] ids = new long[THREADS][IDS_PER_THREAD];
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final long[] threadIds = ids[t];
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                }
+                catch (@SuppressWarnings("unused") final InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < threadIds.length; i++) {
+                    threadIds[i] = allocator.next();
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        final Set<Long> seen = new HashSet<>(THREADS * IDS_PER_THREAD * 2);
+        for (final long[] threadIds : ids) {
+            for (final long id : threadIds) {
+                assertTrue("Id " + id + " was allocated twice.", seen.add(Long.valueOf(id)));
+                assertTrue("Id " + id + " is not positive.", id > 0);
+            }
+        }
+    }
+}
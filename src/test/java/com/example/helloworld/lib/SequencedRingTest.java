@@ -0,0 +1,75 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.lib;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link SequencedRing}. The ring is also tested through
+ * {@code com.example.helloworld.tracing.reporting.SpanQueueTest}.
+ */
+public class SequencedRingTest {
+
+    /**
+     * A claimed slot is not seen by the consumer until it is published, and the slots after it wait for it.
+     */
+    @Test
+    public void claimedSlotIsHiddenUntilPublished() {
+        final SequencedRing<long[]> ring = new SequencedRing<>(4, () -> new long[1]);
+        final long first = ring.claim();
+        final long second = ring.claim();
+        assertEquals(0, first);
+        assertEquals(1, second);
+        assertEquals(2, ring.size());
+
+        ring.get(second)[0] = 2;
+        ring.publish(second);
+        assertFalse(ring.isPublished(ring.head()));
+
+        ring.get(first)[0] = 1;
+        ring.publish(first);
+        assertTrue(ring.isPublished(ring.head()));
+        assertEquals(1, ring.get(ring.head())[0]);
+        ring.release();
+        assertTrue(ring.isPublished(ring.head()));
+        assertEquals(2, ring.get(ring.head())[0]);
+        ring.release();
+
+        assertEquals(2, ring.head());
+        assertEquals(0, ring.size());
+    }
+
+    /**
+     * The elements are created once and reused on each lap, and a full ring refuses claims until a slot is released.
+     */
+    @Test
+    public void elementsAreReusedAcrossLaps() {
+        final SequencedRing<long[]> ring = new SequencedRing<>(3, () -> new long[1]);
+        assertEquals(4, ring.capacity());
+
+        final Set<long[]> elements = new HashSet<>();
+        for (long i = 0; i < 4; i++) {
+            final long sequence = ring.claim();
+            assertEquals(i, sequence);
+            elements.add(ring.get(sequence));
+            ring.publish(sequence);
+        }
+        assertEquals(-1, ring.claim());
+        assertEquals(4, elements.size());
+
+        ring.release();
+        final long sequence = ring.claim();
+        assertEquals(4, sequence);
+        assertSame(ring.get(0), ring.get(sequence));
+        assertTrue(elements.contains(ring.get(sequence)));
+    }
+}
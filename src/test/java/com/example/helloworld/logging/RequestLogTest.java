@@ -0,0 +1,236 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.logging;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ws.rs.core.HttpHeaders;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.MetricRegistry;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.dropwizard.jackson.Jackson;
+
+/**
+ * Tests for the {@link RequestLog} ring buffer.
+ */
+public class RequestLogTest {
+
+    /**
+     * The number of events the ring buffer holds.
+     */
+    private static final int BUFFER_SIZE = 4;
+
+    /**
+     * The name of the dropped counter.
+     */
+    private static final String DROPPED = MetricRegistry.name(RequestLog.class, "dropped");
+
+    /**
+     * The name of the depth gauge.
+     */
+    private static final String DEPTH = MetricRegistry.name(RequestLog.class, "depth");
+
+    /**
+     * The registry for the request log metrics.
+     */
+    private MetricRegistry metrics;
+
+    /**
+     * The request log.
+     */
+    private RequestLog log;
+
+    /**
+     * The request log's logger.
+     */
+    private Logger logger;
+
+    /**
+     * Keeps the events written to the log.
+     */
+    private ListAppender<ILoggingEvent> appender;
+
+    /**
+     * Create a request log with a small ring buffer, and capture what it writes.
+     * @throws Exception
+     *          If the configuration cannot be read.
+     */
+    @Before
+    public void setUp() throws Exception {
+        metrics = new MetricRegistry();
+        log = new RequestLog(Jackson.newObjectMapper().readValue("{\"bufferSize\":" + BUFFER_SIZE + "}",
+                                                                 RequestLogConfiguration.class),
+                             metrics);
+
+        logger = (Logger) LoggerFactory.getLogger(RequestLog.class);
+        appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    /**
+     * Stop the background thread and stop capturing.
+     * @throws InterruptedException
+     *          If interrupted while waiting for the background thread.
+     */
+    @After
+    public void tearDown() throws InterruptedException {
+        log.stop();
+        logger.detachAppender(appender);
+    }
+
+    /**
+     * Events that don't fit in the ring buffer are dropped and counted, and the rest are written in order.
+     * @throws InterruptedException
+     *          If interrupted while waiting for the background thread.
+     */
+    @Test
+    public void fullBufferDropsAndCounts() throws InterruptedException {
+        record(0, BUFFER_SIZE + 2);
+        assertEquals(2, metrics.counter(DROPPED).getCount());
+        assertEquals(Long.valueOf(BUFFER_SIZE), metrics.getGauges().get(DEPTH).getValue());
+
+        drain();
+        assertEquals(messages(0, BUFFER_SIZE), written());
+        assertEquals(Long.valueOf(0), metrics.getGauges().get(DEPTH).getValue());
+    }
+
+    /**
+     * The slots are reused on each lap of the ring buffer, with nothing lost or written twice.
+     * @throws InterruptedException
+     *          If interrupted while waiting for the background thread.
+     */
+    @Test
+    public void slotsAreReusedAcrossLaps() throws InterruptedException {
+        final int laps = 5;
+        for (int lap = 0; lap < laps; lap++) {
+            // Three events each lap, so the laps don't line up with the slots.
+            record(lap * 3, lap * 3 + 3);
+            drain();
+        }
+        assertEquals(messages(0, laps * 3), written());
+
+        // Fill the ring buffer, starting part way round, and overflow it.
+        record(100, 100 + BUFFER_SIZE + 1);
+        assertEquals(1, metrics.counter(DROPPED).getCount());
+        drain();
+        final List<String> expected = messages(0, laps * 3);
+        expected.addAll(messages(100, 100 + BUFFER_SIZE));
+        assertEquals(expected, written());
+    }
+
+    /**
+     * A running background thread writes an event recorded while it is idle.
+     * @throws InterruptedException
+     *          If interrupted while waiting.
+     */
+    @Test
+    public void idleThreadIsWoken() throws InterruptedException {
+        log.start();
+        for (int i = 0; i < 3; i++) {
+            // Give the background thread time to find the buffer empty and park.
+            Thread.sleep(20);
+            record(i, i + 1);
+            final long deadline = System.nanoTime() + 5_000_000_000L;
+            while (written().size() <= i && System.nanoTime() - deadline < 0) {
+                Thread.sleep(1);
+            }
+        }
+        assertEquals(messages(0, 3), written());
+    }
+
+    /**
+     * Record requests, each with a numbered user agent.
+     * @param from
+     *          The first number.
+     * @param to
+     *          The number after the last.
+     */
+    private void record(final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            log.record(userAgent("agent-" + i));
+        }
+    }
+
+    /**
+     * Write the recorded events, by starting the background thread and stopping it.
+     * @throws InterruptedException
+     *          If interrupted while waiting for the background thread.
+     */
+    private void drain() throws InterruptedException {
+        log.start();
+        log.stop();
+    }
+
+    /**
+     * @return
+     *          The messages written to the log.
+     */
+    private List<String> written() {
+        final List<String> messages = new ArrayList<>();
+        // The appender appends while holding its own lock.
+        synchronized (appender) {
+            for (final ILoggingEvent event : appender.list) {
+                messages.add(event.getFormattedMessage());
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Get the messages for numbered user agents.
+     * @param from
+     *          The first number.
+     * @param to
+     *          The number after the last.
+     * @return
+     *          The messages.
+     */
+    private static List<String> messages(final int from, final int to) {
+        final List<String> messages = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            messages.add("User-Agent: agent-" + i);
+        }
+        return messages;
+    }
+
+    /**
+     * Create request headers with a user agent.
+     * @param value
+     *          The user agent.
+     * @return
+     *          The headers.
+     */
+    private static HttpHeaders userAgent(final String value) {
+        return (HttpHeaders) Proxy.newProxyInstance(RequestLogTest.class.getClassLoader(),
+                                                    new Class<?>[] {HttpHeaders.class},
+                                                    (proxy, method, args) -> isUserAgent(method, args) ? value : null);
+    }
+
+    /**
+     * Check whether a call to the request headers looks up the user agent.
+     * @param method
+     *          The method called.
+     * @param args
+     *          The arguments.
+     * @return
+     *          {@code true} if the call gets the user agent header.
+     */
+    private static boolean isUserAgent(final Method method, final Object[] args) {
+        return "getHeaderString".equals(method.getName()) && HttpHeaders.USER_AGENT.equals(args[0]);
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.ratelimit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import org.junit.Test;
+
+import com.codahale.metrics.Meter;
+
+import io.dropwizard.jackson.Jackson;
+
+/**
+ * Tests for the {@link RateLimitFilter}, with the time passed in.
+ */
+public class RateLimitFilterTest {
+
+    /**
+     * The request header that identifies the client.
+     */
+    private static final String CLIENT_HEADER = "X-Client-Id";
+
+    /**
+     * Marked for each rejected request.
+     */
+    private final Meter rejected = new Meter();
+
+    /**
+     * The wait is rounded up to whole seconds, and is at least a second.
+     */
+    @Test
+    public void retryAfterIsRoundedUp() {
+        assertEquals(1, RateLimitFilter.retryAfterSeconds(1));
+        assertEquals(1, RateLimitFilter.retryAfterSeconds(TimeUnit.SECONDS.toNanos(1)));
+        assertEquals(2, RateLimitFilter.retryAfterSeconds(TimeUnit.SECONDS.toNanos(1) + 1));
+        assertEquals(3, RateLimitFilter.retryAfterSeconds(TimeUnit.MILLISECONDS.toNanos(2500)));
+    }
+
+    /**
+     * A request over the limit is rejected with 429 and a {@code Retry-After} header, and counted.
+     * @throws Exception
+     *          If the configuration cannot be read.
+     */
+    @Test
+    public void requestOverTheLimitIsRejected() throws Exception {
+        // One request every two seconds, with a burst of two.
+        final RateLimitFilter filter = filter("{\"clientHeader\":\"" + CLIENT_HEADER + "\"}",
+                                              "{\"permitsPerSecond\":0.5,\"burst\":2}");
+        final long now = System.nanoTime();
+        assertNull(filter(filter, "a", now));
+        assertNull(filter(filter, "a", now));
+
+        final Response response = filter(filter, "a", now + TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeaderString("Retry-After"));
+        assertEquals("no-store", response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        assertEquals(1, rejected.getCount());
+
+        // Another client has its own bucket.
+        assertNull(filter(filter, "b", now));
+        assertEquals(2, filter.getClientCount());
+
+        // A token is added two seconds after the burst.
+        assertNull(filter(filter, "a", now + TimeUnit.SECONDS.toNanos(2)));
+    }
+
+    /**
+     * Requests without the client header share the bucket for unknown clients.
+     * @throws Exception
+     *          If the configuration cannot be read.
+     */
+    @Test
+    public void requestsWithoutAClientShareABucket() throws Exception {
+        final RateLimitFilter filter = filter("{\"clientHeader\":\"" + CLIENT_HEADER + "\"}",
+                                              "{\"permitsPerSecond\":1,\"burst\":1}");
+        final long now = System.nanoTime();
+        assertNull(filter(filter, null, now));
+        assertEquals(429, filter(filter, "", now).getStatus());
+        assertEquals(1, filter.getClientCount());
+    }
+
+    /**
+     * Create a filter.
+     * @param configuration
+     *          The rate limit configuration.
+     * @param limit
+     *          The method's limit.
+     * @return
+     *          The filter.
+     * @throws Exception
+     *          If the configuration cannot be read.
+     */
+    private RateLimitFilter filter(final String configuration, final String limit) throws Exception {
+        return new RateLimitFilter(Jackson.newObjectMapper().readValue(configuration, RateLimitConfiguration.class),
+                                   Jackson.newObjectMapper().readValue(limit, MethodRateLimit.class),
+                                   rejected);
+    }
+
+    /**
+     * Filter a request from a client.
+     * @param filter
+     *          The filter.
+     * @param client
+     *          The client header's value, or {@code null}.
+     * @param now
+     *          The time of the request.
+     * @return
+     *          The response the request was aborted with, or {@code null} if it was allowed.
+     */
+    private static Response filter(final RateLimitFilter filter, final String client, final long now) {
+        final AtomicReference<Response> aborted = new AtomicReference<>();
+        final ContainerRequestContext request = (ContainerRequestContext) Proxy.newProxyInstance(
+                RateLimitFilterTest.class.getClassLoader(),
+                new Class<?>[] {ContainerRequestContext.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getHeaderString":
+                            return CLIENT_HEADER.equals(args[0]) ? client : null;
+                        case "abortWith":
+                            aborted.set((Response) args[0]);
+                            return null;
+                        default:
+                            return null;
+                    }
+                });
+        filter.filter(request, now);
+        return aborted.get();
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.ratelimit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link TokenBucket}, with the time passed in.
+ */
+public class TokenBucketTest {
+
+    /**
+     * The time between tokens: 100 a second.
+     */
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * The burst.
+     */
+    private static final int BURST = 5;
+
+    /**
+     * The time to fill the bucket from empty.
+     */
+    private static final long CAPACITY = INTERVAL * BURST;
+
+    /**
+     * The start time. Any value works, because times are compared by subtraction.
+     */
+    private static final long START = Long.MAX_VALUE - TimeUnit.MILLISECONDS.toNanos(20);
+
+    /**
+     * A full bucket allows a burst, and then says how long until the next token.
+     */
+    @Test
+    public void fullBucketAllowsABurst() {
+        final TokenBucket bucket = new TokenBucket(START);
+        for (int i = 0; i < BURST; i++) {
+            assertEquals(0, bucket.tryAcquire(START, INTERVAL, CAPACITY));
+        }
+        assertEquals(INTERVAL, bucket.tryAcquire(START, INTERVAL, CAPACITY));
+
+        // A refused request doesn't take a token.
+        assertEquals(INTERVAL, bucket.tryAcquire(START, INTERVAL, CAPACITY));
+    }
+
+    /**
+     * Tokens are added at the rate, and the wait shrinks as the next token comes due.
+     */
+    @Test
+    public void tokensRefillAtTheRate() {
+        final TokenBucket bucket = new TokenBucket(START);
+        for (int i = 0; i < BURST; i++) {
+            bucket.tryAcquire(START, INTERVAL, CAPACITY);
+        }
+
+        final long quarter = INTERVAL / 4;
+        assertEquals(INTERVAL - quarter, bucket.tryAcquire(START + quarter, INTERVAL, CAPACITY));
+        assertEquals(0, bucket.tryAcquire(START + INTERVAL, INTERVAL, CAPACITY));
+        assertEquals(INTERVAL, bucket.tryAcquire(START + INTERVAL, INTERVAL, CAPACITY));
+
+        // After two and a half intervals, two more tokens have been added.
+        final long later = START + INTERVAL * 7 / 2;
+        assertEquals(0, bucket.tryAcquire(later, INTERVAL, CAPACITY));
+        assertEquals(0, bucket.tryAcquire(later, INTERVAL, CAPACITY));
+        assertEquals(INTERVAL / 2, bucket.tryAcquire(later, INTERVAL, CAPACITY));
+    }
+
+    /**
+     * An unused bucket fills up to the burst, and no further.
+     */
+    @Test
+    public void bucketFillsToTheBurst() {
+        final TokenBucket bucket = new TokenBucket(START);
+        bucket.tryAcquire(START, INTERVAL, CAPACITY);
+
+        final long later = START + TimeUnit.MINUTES.toNanos(1);
+        for (int i = 0; i < BURST; i++) {
+            assertEquals(0, bucket.tryAcquire(later, INTERVAL, CAPACITY));
+        }
+        assertEquals(INTERVAL, bucket.tryAcquire(later, INTERVAL, CAPACITY));
+    }
+
+    /**
+     * A bucket is idle once it has been full for the idle time.
+     */
+    @Test
+    public void bucketIsIdleOnceFullForTheIdleTime() {
+        final long idle = TimeUnit.SECONDS.toNanos(1);
+        final TokenBucket bucket = new TokenBucket(START);
+        assertFalse(bucket.isIdle(START, idle));
+        assertTrue(bucket.isIdle(START + idle, idle));
+
+        // Two tokens taken: the bucket is full again two intervals later.
+        bucket.tryAcquire(START, INTERVAL, CAPACITY);
+        bucket.tryAcquire(START, INTERVAL, CAPACITY);
+        assertFalse(bucket.isIdle(START + idle, idle));
+        assertTrue(bucket.isIdle(START + 2 * INTERVAL + idle, idle));
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.ratelimit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.dropwizard.jackson.Jackson;
+
+/**
+ * Tests for {@link TokenBuckets}, with the time passed in.
+ */
+public class TokenBucketsTest {
+
+    /**
+     * How long a bucket must have been full before it may be evicted.
+     */
+    private static final long IDLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Each client has its own bucket, with the interval set by the rate.
+     * @throws Exception
+     *          If the limit cannot be read.
+     */
+    @Test
+    public void clientsHaveTheirOwnBuckets() throws Exception {
+        final TokenBuckets buckets = new TokenBuckets(limit(4, 2), 100, 4, IDLE_NANOS);
+        final long now = System.nanoTime();
+        assertEquals(0, buckets.tryAcquire("a", now));
+        assertEquals(0, buckets.tryAcquire("a", now));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(250), buckets.tryAcquire("a", now));
+
+        assertEquals(0, buckets.tryAcquire("b", now));
+        assertEquals(2, buckets.size());
+    }
+
+    /**
+     * New clients share one bucket while the stripe is full.
+     * @throws Exception
+     *          If the limit cannot be read.
+     */
+    @Test
+    public void newClientsShareABucketWhenFull() throws Exception {
+        final TokenBuckets buckets = new TokenBuckets(limit(1, 1), 2, 1, IDLE_NANOS);
+        final long now = System.nanoTime();
+        assertEquals(0, buckets.tryAcquire("a", now));
+        assertEquals(0, buckets.tryAcquire("b", now));
+        assertEquals(0, buckets.tryAcquire("c", now));
+        assertTrue(buckets.tryAcquire("d", now) > 0);
+        assertEquals(2, buckets.size());
+    }
+
+    /**
+     * Idle buckets are evicted to make room for new clients, at most once a second.
+     * @throws Exception
+     *          If the limit cannot be read.
+     */
+    @Test
+    public void idleBucketsAreEvicted() throws Exception {
+        final TokenBuckets buckets = new TokenBuckets(limit(1, 1), 2, 1, IDLE_NANOS);
+        final long now = System.nanoTime();
+        buckets.tryAcquire("a", now);
+        buckets.tryAcquire("b", now);
+
+        // The stripe is swept, but nothing is idle yet.
+        buckets.tryAcquire("c", now);
+        assertEquals(2, buckets.size());
+
+        // The stripe was swept less than a second ago, so "d" shares the overflow bucket with "c".
+        assertTrue(buckets.tryAcquire("d", now + TimeUnit.MILLISECONDS.toNanos(999)) > 0);
+        assertEquals(2, buckets.size());
+
+        // "a" and "b" have been full for over a second.
+        final long idle = now + TimeUnit.MILLISECONDS.toNanos(2500);
+        assertEquals(0, buckets.tryAcquire("e", idle));
+        assertEquals(1, buckets.size());
+        assertTrue(buckets.tryAcquire("e", idle) > 0);
+    }
+
+    /**
+     * Read a method's limit.
+     * @param permitsPerSecond
+     *          The rate.
+     * @param burst
+     *          The burst.
+     * @return
+     *          The limit.
+     * @throws Exception
+     *          If the limit cannot be read.
+     */
+    private static MethodRateLimit limit(final double permitsPerSecond, final int burst) throws Exception {
+        return Jackson.newObjectMapper()
+                      .readValue("{\"permitsPerSecond\":" + permitsPerSecond + ",\"burst\":" + burst + "}",
+                                 MethodRateLimit.class);
+    }
+}
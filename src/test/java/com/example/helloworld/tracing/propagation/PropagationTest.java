@@ -0,0 +1,168 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.propagation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.glassfish.jersey.internal.util.collection.StringKeyIgnoreCaseMultivaluedMap;
+import org.junit.Test;
+
+import io.jaegertracing.internal.JaegerSpanContext;
+
+/**
+ * Tests for extracting a span context through a {@link Propagation}, from request headers as Jersey holds them.
+ */
+public class PropagationTest {
+
+    /**
+     * The trace id.
+     */
+    private static final String TRACE_ID = "80f198ee56343ba864fe8b2a57d3eff7";
+
+    /**
+     * The span id.
+     */
+    private static final String SPAN_ID = "e457b5a2e4d86bd1";
+
+    /**
+     * The parent span id.
+     */
+    private static final String PARENT_ID = "05e3ac9a4f6e3b90";
+
+    /**
+     * Every format, in the configured order.
+     */
+    private final Propagation propagation = new Propagation(Arrays.asList(PropagationFormat.JAEGER,
+                                                                          PropagationFormat.B3,
+                                                                          PropagationFormat.W3C));
+
+    /**
+     * The multiple {@code X-B3-*} headers are read, whatever the case of their names.
+     */
+    @Test
+    public void b3MultipleHeaders() {
+        final MultivaluedMap<String, String> headers = new StringKeyIgnoreCaseMultivaluedMap<>();
+        headers.putSingle("x-b3-traceid", TRACE_ID);
+        headers.putSingle("X-B3-SPANID", SPAN_ID);
+        headers.putSingle("X-B3-ParentSpanId", PARENT_ID);
+        headers.putSingle("X-B3-Sampled", "1");
+        headers.putSingle("baggage-user", "alice");
+
+        final JaegerSpanContext context = extract(headers);
+        assertIds(context);
+        assertEquals(0x05e3ac9a4f6e3b90L, context.getParentId());
+        assertTrue(context.isSampled());
+        assertEquals("alice", context.getBaggageItem("user"));
+    }
+
+    /**
+     * The single {@code b3} header is read with or without its optional fields.
+     */
+    @Test
+    public void b3SingleHeader() {
+        final JaegerSpanContext full = extract(header("b3", TRACE_ID + "-" + SPAN_ID + "-1-" + PARENT_ID));
+        assertIds(full);
+        assertEquals(0x05e3ac9a4f6e3b90L, full.getParentId());
+        assertTrue(full.isSampled());
+
+        final JaegerSpanContext unsampled = extract(header("B3", TRACE_ID + "-" + SPAN_ID + "-0"));
+        assertIds(unsampled);
+        assertFalse(unsampled.isSampled());
+
+        final JaegerSpanContext debug = extract(header("b3", TRACE_ID + "-" + SPAN_ID + "-d"));
+        assertTrue(debug.isSampled());
+        assertTrue(debug.isDebug());
+
+        final JaegerSpanContext shortTraceId = extract(header("b3", TRACE_ID.substring(16) + "-" + SPAN_ID));
+        assertEquals(0, shortTraceId.getTraceIdHigh());
+        assertEquals(0x64fe8b2a57d3eff7L, shortTraceId.getTraceIdLow());
+    }
+
+    /**
+     * A {@code b3} header with only a sampling state, or that is not valid, has no span context.
+     */
+    @Test
+    public void b3SingleHeaderWithoutAContext() {
+        assertNull(extract(header("b3", "1")));
+        assertNull(extract(header("b3", TRACE_ID.toUpperCase() + "-" + SPAN_ID)));
+        assertNull(extract(header("b3", TRACE_ID + "-" + SPAN_ID + "-x")));
+        assertNull(extract(header("b3", TRACE_ID + "-" + SPAN_ID + "-1-" + PARENT_ID.substring(1))));
+        assertNull(extract(header("b3", TRACE_ID + "-0000000000000000")));
+    }
+
+    /**
+     * Jaeger's {@code uber-trace-id} header is read with its baggage.
+     */
+    @Test
+    public void jaegerHeader() {
+        final MultivaluedMap<String, String> headers = header("Uber-Trace-Id", TRACE_ID + ":" + SPAN_ID + ":0:1");
+        headers.putSingle("uberctx-user", "bob");
+
+        final JaegerSpanContext context = extract(headers);
+        assertIds(context);
+        assertTrue(context.isSampled());
+        assertEquals("bob", context.getBaggageItem("user"));
+    }
+
+    /**
+     * The first configured format that is present is used, and a request with none starts a new trace.
+     */
+    @Test
+    public void formatsAreTriedInOrder() {
+        final MultivaluedMap<String, String> headers = header("traceparent",
+                                                              "00-" + TRACE_ID + "-" + PARENT_ID + "-01");
+        assertEquals(0x05e3ac9a4f6e3b90L, extract(headers).getSpanId());
+
+        headers.putSingle("uber-trace-id", TRACE_ID + ":" + SPAN_ID + ":0:1");
+        assertIds(extract(headers));
+
+        assertNull(extract(header("X-Request-Id", "1")));
+    }
+
+    /**
+     * Create request headers with one header.
+     * @param name
+     *          The header name.
+     * @param value
+     *          The header value.
+     * @return
+     *          The headers, with case-insensitive names as Jersey has them.
+     */
+    private static MultivaluedMap<String, String> header(final String name, final String value) {
+        final MultivaluedMap<String, String> headers = new StringKeyIgnoreCaseMultivaluedMap<>();
+        headers.putSingle(name, value);
+        return headers;
+    }
+
+    /**
+     * Extract the span context from request headers.
+     * @param headers
+     *          The request headers.
+     * @return
+     *          The span context, or {@code null}.
+     */
+    private JaegerSpanContext extract(final MultivaluedMap<String, String> headers) {
+        return propagation.getCodec().extract(propagation.extractAdapter(headers));
+    }
+
+    /**
+     * Check that a span context has the test's trace and span ids.
+     * @param context
+     *          The span context.
+     */
+    private static void assertIds(final JaegerSpanContext context) {
+        assertNotNull(context);
+        assertEquals(0x80f198ee56343ba8L, context.getTraceIdHigh());
+        assertEquals(0x64fe8b2a57d3eff7L, context.getTraceIdLow());
+        assertEquals(0xe457b5a2e4d86bd1L, context.getSpanId());
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.propagation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.jaegertracing.internal.JaegerSpanContext;
+import io.opentracing.propagation.TextMapAdapter;
+
+/**
+ * Tests for the {@link TraceContextCodec}.
+ */
+public class TraceContextCodecTest {
+
+    /**
+     * The trace id of the example in the specification.
+     */
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+
+    /**
+     * The parent id of the example in the specification.
+     */
+    private static final String PARENT_ID = "b7ad6b7169203331";
+
+    /**
+     * The example header from the specification.
+     */
+    private static final String HEADER = "00-" + TRACE_ID + "-" + PARENT_ID + "-01";
+
+    /**
+     * A valid header is read, with the sampled flag.
+     */
+    @Test
+    public void validHeaderIsRead() {
+        final JaegerSpanContext context = TraceContextCodec.parse(HEADER);
+        assertNotNull(context);
+        assertEquals(0x0af7651916cd43ddL, context.getTraceIdHigh());
+        assertEquals(0x8448eb211c80319cL, context.getTraceIdLow());
+        assertEquals(0xb7ad6b7169203331L, context.getSpanId());
+        assertTrue(context.isSampled());
+
+        assertFalse(TraceContextCodec.parse("00-" + TRACE_ID + "-" + PARENT_ID + "-00").isSampled());
+        assertNotNull(TraceContextCodec.parse(" " + HEADER + " "));
+    }
+
+    /**
+     * Upper case hex digits are not allowed, in any field.
+     */
+    @Test
+    public void upperCaseHexIsInvalid() {
+        assertNull(TraceContextCodec.parse("00-" + TRACE_ID.toUpperCase() + "-" + PARENT_ID + "-01"));
+        assertNull(TraceContextCodec.parse("00-" + TRACE_ID + "-" + PARENT_ID.toUpperCase() + "-01"));
+        assertNull(TraceContextCodec.parse("00-" + TRACE_ID + "-" + PARENT_ID + "-0A"));
+    }
+
+    /**
+     * An all-zero trace id or parent id is invalid.
+     */
+    @Test
+    public void zeroIdsAreInvalid() {
+        assertNull(TraceContextCodec.parse("00-00000000000000000000000000000000-" + PARENT_ID + "-01"));
+        assertNull(TraceContextCodec.parse("00-" + TRACE_ID + "-0000000000000000-01"));
+
+        // Half of the trace id may be zero.
+        final String lowTraceId = "0000000000000000" + TRACE_ID.substring(16);
+        assertNotNull(TraceContextCodec.parse("00-" + lowTraceId + "-" + PARENT_ID + "-01"));
+    }
+
+    /**
+     * Version {@code ff} is invalid, and a later version is read from its first four fields.
+     */
+    @Test
+    public void versions() {
+        assertNull(TraceContextCodec.parse("ff-" + TRACE_ID + "-" + PARENT_ID + "-01"));
+
+        final JaegerSpanContext future = TraceContextCodec.parse("cc-" + TRACE_ID + "-" + PARENT_ID + "-01-what-next");
+        assertNotNull(future);
+        assertEquals(0xb7ad6b7169203331L, future.getSpanId());
+        assertNotNull(TraceContextCodec.parse("cc-" + TRACE_ID + "-" + PARENT_ID + "-01"));
+
+        // Further fields must be separated by a dash, and version 00 has none.
+        assertNull(TraceContextCodec.parse("cc-" + TRACE_ID + "-" + PARENT_ID + "-01x"));
+        assertNull(TraceContextCodec.parse(HEADER + "-what-next"));
+    }
+
+    /**
+     * A header of the wrong length, or with a field of the wrong length, is invalid.
+     */
+    @Test
+    public void badLengthsAreInvalid() {
+        assertNull(TraceContextCodec.parse(null));
+        assertNull(TraceContextCodec.parse(""));
+        assertNull(TraceContextCodec.parse(HEADER.substring(0, HEADER.length() - 1)));
+        assertNull(TraceContextCodec.parse(HEADER + "1"));
+        assertNull(TraceContextCodec.parse("00-" + TRACE_ID.substring(1) + "-" + PARENT_ID + "-011"));
+        assertNull(TraceContextCodec.parse("00-" + TRACE_ID + "0-" + PARENT_ID.substring(1) + "-01"));
+    }
+
+    /**
+     * A span context is written in the format it is read.
+     */
+    @Test
+    public void injectedHeaderIsExtracted() {
+        final TraceContextCodec codec = new TraceContextCodec();
+        final Map<String, String> headers = new HashMap<>();
+        codec.inject(TraceContextCodec.parse(HEADER), new TextMapAdapter(headers));
+        assertEquals(HEADER, headers.get(TraceContextCodec.TRACE_PARENT));
+
+        headers.clear();
+        headers.put("TraceParent", HEADER);
+        assertEquals(0xb7ad6b7169203331L, codec.extract(new TextMapAdapter(headers)).getSpanId());
+    }
+}
@@ -0,0 +1,243 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.reporting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+import io.dropwizard.jackson.Jackson;
+import io.jaegertracing.internal.JaegerSpan;
+import io.jaegertracing.internal.JaegerTracer;
+import io.jaegertracing.internal.reporters.NoopReporter;
+import io.jaegertracing.internal.samplers.ConstSampler;
+
+/**
+ * Tests for the {@link BatchingReporter}.
+ */
+public class BatchingReporterTest {
+
+    /**
+     * Creates the spans.
+     */
+    private static JaegerTracer tracer;
+
+    /**
+     * The registry for the reporter metrics.
+     */
+    private final MetricRegistry metrics = new MetricRegistry();
+
+    /**
+     * The batches written to the sink.
+     */
+    private final BlockingQueue<List<JaegerSpan>> batches = new LinkedBlockingQueue<>();
+
+    /**
+     * The reporter being tested.
+     */
+    private BatchingReporter reporter;
+
+    /**
+     * Create the tracer.
+     */
+    @BeforeClass
+    public static void setUpClass() {
+        tracer = new JaegerTracer.Builder("batching-reporter-test").withReporter(new NoopReporter())
+                                                                   .withSampler(new ConstSampler(false))
+                                                                   .build();
+    }
+
+    /**
+     * Close the tracer.
+     */
+    @AfterClass
+    public static void tearDownClass() {
+        tracer.close();
+    }
+
+    /**
+     * Close the reporter.
+     */
+    @After
+    public void tearDown() {
+        if (reporter != null) {
+            reporter.close();
+        }
+    }
+
+    /**
+     * A full batch is written at once, without waiting for the flush interval.
+     * @throws Exception
+     *          If the configuration cannot be read, or the test is interrupted.
+     */
+    @Test
+    public void fullBatchIsWrittenAtOnce() throws Exception {
+        reporter = new BatchingReporter(configuration("{\"batchSize\":4,\"flushInterval\":\"1h\"}"),
+                                        new RecordingSink(null),
+                                        metrics);
+        for (int batch = 0; batch < 3; batch++) {
+            // Let the background thread park before each batch.
+            Thread.sleep(20);
+            for (int i = 0; i < 4; i++) {
+                reporter.report(span());
+            }
+            final List<JaegerSpan> written = batches.poll(5, TimeUnit.SECONDS);
+            assertNotNull("The full batch was not written.", written);
+            assertEquals(4, written.size());
+        }
+    }
+
+    /**
+     * A partly full batch is written when the flush interval ends.
+     * @throws Exception
+     *          If the configuration cannot be read, or the test is interrupted.
+     */
+    @Test
+    public void partBatchIsWrittenAfterTheFlushInterval() throws Exception {
+        reporter = new BatchingReporter(configuration("{\"batchSize\":100,\"flushInterval\":\"1s\"}"),
+                                        new RecordingSink(null),
+                                        metrics);
+        Thread.sleep(20);
+        final long start = System.nanoTime();
+        reporter.report(span());
+        reporter.report(span());
+
+        assertNull("The batch was written before the flush interval.", batches.poll(500, TimeUnit.MILLISECONDS));
+        final List<JaegerSpan> written = batches.poll(5, TimeUnit.SECONDS);
+        assertNotNull("The batch was not written.", written);
+        assertEquals(2, written.size());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(900));
+    }
+
+    /**
+     * Spans that don't fit in the queue are dropped and counted, and the queued spans are written when the reporter
+     * is closed.
+     * @throws Exception
+     *          If the configuration cannot be read, or the test is interrupted.
+     */
+    @Test
+    public void fullQueueDropsAndCounts() throws Exception {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        reporter = new BatchingReporter(configuration("{\"queueSize\":2,\"batchSize\":1}"),
+                                        new RecordingSink(() -> {
+                                            writing.countDown();
+                                            release.await();
+                                        }),
+                                        metrics);
+
+        // The first span is taken from the queue, and the sink holds up the background thread.
+        reporter.report(span());
+        assertTrue("The first span was not written.", writing.await(5, TimeUnit.SECONDS));
+
+        // Two spans fill the queue, and the next three are dropped.
+        for (int i = 0; i < 5; i++) {
+            reporter.report(span());
+        }
+        assertEquals(3, metrics.counter(MetricRegistry.name(BatchingReporter.class, "dropped")).getCount());
+
+        release.countDown();
+        reporter.close();
+        assertEquals(3, batches.size());
+        assertEquals(3, metrics.meter(MetricRegistry.name(BatchingReporter.class, "reported")).getCount());
+    }
+
+    /**
+     * Read the reporter configuration.
+     * @param json
+     *          The configuration.
+     * @return
+     *          The configuration.
+     * @throws Exception
+     *          If the configuration cannot be read.
+     */
+    private static SpanReportingConfiguration configuration(final String json) throws Exception {
+        return Jackson.newObjectMapper().readValue(json, SpanReportingConfiguration.class);
+    }
+
+    /**
+     * @return
+     *          A new finished span.
+     */
+    private static JaegerSpan span() {
+        return tracer.buildSpan("test").start();
+    }
+
+    /**
+     * Called by the sink before it records a batch.
+     */
+    @FunctionalInterface
+    private interface BeforeWrite {
+
+        /**
+         * Called before a batch is recorded.
+         * @throws InterruptedException
+         *          If interrupted while waiting.
+         */
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * A sink that records copies of the batches.
+     */
+    private final class RecordingSink implements SpanSink {
+
+        /**
+         * Called before each batch is recorded, or {@code null}.
+         */
+        private final BeforeWrite beforeWrite;
+
+        /**
+         * Constructor.
+         * @param theBeforeWrite
+         *          Called before each batch is recorded, or {@code null}.
+         */
+        RecordingSink(final BeforeWrite theBeforeWrite) {
+            beforeWrite = theBeforeWrite;
+        }
+
+        /**
+         * Record a copy of a batch.
+         * @param spans
+         *          The batch.
+         * @see com.example.helloworld.tracing.reporting.SpanSink#write(java.util.List)
+         */
+        @Override
+        public void write(final List<JaegerSpan> spans) {
+            if (beforeWrite != null) {
+                try {
+                    beforeWrite.run();
+                }
+                catch (@SuppressWarnings("unused") final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            batches.add(new ArrayList<>(spans));
+        }
+
+        /**
+         * Nothing to close.
+         * @see java.io.Closeable#close()
+         */
+        @Override
+        public void close() {
+            // Nothing to close.
+        }
+    }
+}
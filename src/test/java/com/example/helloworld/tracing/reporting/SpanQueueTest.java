@@ -0,0 +1,215 @@
+/**
+ * Copyright Estafet Ltd. 2019. All rights reserved.
+ */
+package com.example.helloworld.tracing.reporting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.jaegertracing.internal.JaegerSpan;
+import io.jaegertracing.internal.JaegerTracer;
+import io.jaegertracing.internal.reporters.NoopReporter;
+import io.jaegertracing.internal.samplers.ConstSampler;
+
+/**
+ * Tests for the {@link SpanQueue} ring buffer.
+ */
+public class SpanQueueTest {
+
+    /**
+     * Creates the spans.
+     */
+    private static JaegerTracer tracer;
+
+    /**
+     * Create the tracer.
+     */
+    @BeforeClass
+    public static void setUpClass() {
+        tracer = new JaegerTracer.Builder("span-queue-test").withReporter(new NoopReporter())
+                                                            .withSampler(new ConstSampler(false))
+                                                            .build();
+    }
+
+    /**
+     * Close the tracer.
+     */
+    @AfterClass
+    public static void tearDownClass() {
+        tracer.close();
+    }
+
+    /**
+     * The capacity is rounded up to a power of two, and is at least two.
+     */
+    @Test
+    public void capacityIsAPowerOfTwo() {
+        assertEquals(2, new SpanQueue(1).capacity());
+        assertEquals(4, new SpanQueue(3).capacity());
+        assertEquals(4, new SpanQueue(4).capacity());
+        assertEquals(1024, new SpanQueue(1000).capacity());
+    }
+
+    /**
+     * Spans are numbered in order, and a span that doesn't fit is refused.
+     */
+    @Test
+    public void fullQueueRefusesSpans() {
+        final SpanQueue queue = new SpanQueue(4);
+        for (long i = 0; i < 4; i++) {
+            assertEquals(i, queue.offer(span()));
+        }
+        assertEquals(-1, queue.offer(span()));
+        assertEquals(4, queue.size());
+
+        final List<JaegerSpan> batch = new ArrayList<>();
+        assertEquals(1, queue.drainTo(batch, 1));
+        assertEquals(4, queue.offer(span()));
+        assertEquals(-1, queue.offer(span()));
+    }
+
+    /**
+     * Draining takes at most the number of spans asked for, oldest first, and moves the head.
+     */
+    @Test
+    public void drainTakesOldestFirst() {
+        final SpanQueue queue = new SpanQueue(8);
+        final List<JaegerSpan> offered = offer(queue, 5);
+        assertFalse(queue.isAdded(5));
+        assertTrue(queue.isAdded(4));
+
+        final List<JaegerSpan> batch = new ArrayList<>();
+        assertEquals(3, queue.drainTo(batch, 3));
+        assertEquals(3, queue.head());
+        assertEquals(2, queue.drainTo(batch, 10));
+        assertEquals(0, queue.drainTo(batch, 10));
+        assertEquals(5, queue.head());
+        assertEquals(0, queue.size());
+        assertSameSpans(offered, batch);
+    }
+
+    /**
+     * The slots are reused on each lap of the ring buffer, with the sequence numbers carrying on.
+     */
+    @Test
+    public void slotsAreReusedAcrossLaps() {
+        final SpanQueue queue = new SpanQueue(4);
+        final List<JaegerSpan> batch = new ArrayList<>();
+        for (int lap = 0; lap < 10; lap++) {
+            // Three spans each lap, so the laps don't line up with the slots.
+            assertEquals(lap * 3, queue.head());
+            final List<JaegerSpan> offered = offer(queue, 3);
+            batch.clear();
+            assertEquals(3, queue.drainTo(batch, 4));
+            assertSameSpans(offered, batch);
+        }
+
+        // Fill the queue, starting part way round.
+        offer(queue, 4);
+        assertEquals(-1, queue.offer(span()));
+        batch.clear();
+        assertEquals(4, queue.drainTo(batch, 4));
+    }
+
+    /**
+     * Spans offered by many threads at once are each drained exactly once, or refused.
+     * @throws InterruptedException
+     *          If interrupted while waiting for the producers.
+     */
+    @Test
+    public void concurrentProducersLoseNothing() throws InterruptedException {
+        final int producers = 4;
+        final int spansEach = 10_000;
+        final SpanQueue queue = new SpanQueue(64);
+        final AtomicInteger refused = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            final Thread producer = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < spansEach; i++) {
+                        if (queue.offer(span()) < 0) {
+                            refused.incrementAndGet();
+                        }
+                    }
+                }
+                catch (@SuppressWarnings("unused") final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                finally {
+                    done.countDown();
+                }
+            });
+            producer.start();
+        }
+
+        final List<JaegerSpan> drained = new ArrayList<>();
+        start.countDown();
+        while (done.getCount() > 0) {
+            queue.drainTo(drained, 16);
+        }
+        queue.drainTo(drained, Integer.MAX_VALUE);
+
+        final Set<JaegerSpan> unique = Collections.newSetFromMap(new IdentityHashMap<>());
+        unique.addAll(drained);
+        assertEquals(drained.size(), unique.size());
+        assertEquals(producers * spansEach, drained.size() + refused.get());
+        assertEquals(0, queue.size());
+    }
+
+    /**
+     * Offer new spans.
+     * @param queue
+     *          The queue.
+     * @param count
+     *          The number of spans.
+     * @return
+     *          The spans.
+     */
+    private static List<JaegerSpan> offer(final SpanQueue queue, final int count) {
+        final List<JaegerSpan> spans = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final JaegerSpan span = span();
+            assertTrue(queue.offer(span) >= 0);
+            spans.add(span);
+        }
+        return spans;
+    }
+
+    /**
+     * Check that two lists hold the same spans in the same order.
+     * @param expected
+     *          The expected spans.
+     * @param actual
+     *          The actual spans.
+     */
+    private static void assertSameSpans(final List<JaegerSpan> expected, final List<JaegerSpan> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), actual.get(i));
+        }
+    }
+
+    /**
+     * @return
+     *          A new span.
+     */
+    private static JaegerSpan span() {
+        return tracer.buildSpan("test").start();
+    }
+}